@@ -0,0 +1,49 @@
+package benchmarks;
+
+import behaviortree._ast.ASTBehaviorTree;
+import behaviortree._parser.BehaviorTreeParser;
+import de.se_rwth.commons.logging.Log;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Parses behavior trees with {@code fanOut} children per flow node, nested {@code depth} levels deep.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BehaviorTreeParserBenchmark {
+
+    @Param({"2", "4", "6"})
+    public int depth;
+
+    @Param({"2", "4"})
+    public int fanOut;
+
+    private String model;
+    private BehaviorTreeParser parser;
+
+    @Setup
+    public void setUp() throws IOException {
+        Log.init();
+        Log.enableFailQuick(false);
+        model = BenchmarkModels.behaviorTree(depth, fanOut);
+        parser = new BehaviorTreeParser();
+        if (!parser.parse_String(model).isPresent() || parser.hasErrors()) {
+            throw new IllegalStateException("Benchmark behavior tree does not parse");
+        }
+    }
+
+    @Benchmark
+    public ASTBehaviorTree parse() throws IOException {
+        return parser.parse_String(model).orElseThrow();
+    }
+}
@@ -0,0 +1,74 @@
+package benchmarks;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the model texts the benchmarks parse with the seeded CRFModelSynthesizer, so every run of a
+ * benchmark sees the same model. The synthesizer is in the default package and is called reflectively
+ * during setup only.
+ */
+final class BenchmarkModels {
+
+    private static final String SEED = "1";
+
+    private BenchmarkModels() {
+    }
+
+    /**
+     * CRF model with {@code declarations} parameter types, predicates and actions,
+     * {@code instancesPerType} instances of every type and one fact per instance of a type.
+     */
+    static String crf(int declarations, int instancesPerType) {
+        String count = String.valueOf(declarations);
+        return synthesize("writeCRF",
+            "--parameter-types", count, "--predicates", count, "--actions", count, "--action-instances", count,
+            "--instances-per-type", String.valueOf(instancesPerType),
+            "--facts", String.valueOf((long) declarations * instancesPerType));
+    }
+
+    /**
+     * Behavior tree with {@code fanOut} children per flow node, nested {@code depth} levels deep.
+     */
+    static String behaviorTree(int depth, int fanOut) {
+        return synthesize("writeBehaviorTree", "--bt-depth", String.valueOf(depth), "--bt-fan-out", String.valueOf(fanOut));
+    }
+
+    /**
+     * DynamicBTFlowNode with a node graph of {@code depth} layers of {@code width} nodes.
+     */
+    static String flowNode(int width, int depth) {
+        return synthesize("writeFlowNode", "--flow-width", String.valueOf(width), "--flow-depth", String.valueOf(depth));
+    }
+
+    /**
+     * Small CRF model for planning: six parameter types with {@code instancesPerType} instances, eight
+     * predicates and six actions, so that grounding stays in the thousands of actions.
+     */
+    static String planningProblem(int instancesPerType) {
+        return synthesize("writeCRF",
+            "--parameter-types", "6", "--predicates", "8", "--actions", "6", "--action-instances", "0", "--facts", "30",
+            "--instances-per-type", String.valueOf(instancesPerType));
+    }
+
+    private static String synthesize(String model, String... options) {
+        List<String> args = new ArrayList<>(List.of("--seed", SEED));
+        args.addAll(List.of(options));
+        try {
+            Class<?> synthesizerClass = Class.forName("CRFModelSynthesizer");
+            Object settings = synthesizerClass.getMethod("parseOptions", List.class, List.class)
+                .invoke(null, args, new ArrayList<String>());
+            Object synthesizer = synthesizerClass.getConstructor(settings.getClass()).newInstance(settings);
+            StringWriter out = new StringWriter();
+            synthesizerClass.getMethod(model, Writer.class).invoke(synthesizer, out);
+            return out.toString();
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Could not synthesize the benchmark model", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("CRFModelSynthesizer is not on the classpath", e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import crf._ast.ASTAllowedType;
+import crf._parser.CRFParser;
+import de.se_rwth.commons.logging.Log;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Parses CRF models of growing size: {@code declarations} parameter types, predicates and actions,
+ * each type with {@code instancesPerType} parameter instances and facts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CRFParserBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int declarations;
+
+    @Param({"1", "10", "100"})
+    public int instancesPerType;
+
+    private String model;
+    private CRFParser parser;
+
+    @Setup
+    public void setUp() throws IOException {
+        Log.init();
+        Log.enableFailQuick(false);
+        model = BenchmarkModels.crf(declarations, instancesPerType);
+        parser = new CRFParser();
+        if (!parser.parse_String(model).isPresent() || parser.hasErrors()) {
+            throw new IllegalStateException("Benchmark CRF model does not parse");
+        }
+    }
+
+    @Benchmark
+    public ASTAllowedType parse() throws IOException {
+        return parser.parse_String(model).orElseThrow();
+    }
+}
@@ -0,0 +1,88 @@
+package benchmarks;
+
+import crf._ast.ASTAllowedType;
+import crf._parser.CRFParser;
+import de.se_rwth.commons.logging.Log;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Renders all C# sources of the three generators in memory, without touching the file system.
+ *
+ * JMH does not accept benchmarks in the default package and named packages cannot import the tool
+ * classes, so the generator entry points are bound once per trial as method handles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CSharpGeneratorBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int declarations;
+
+    private Object model;
+    private MethodHandle parameterTypes;
+    private MethodHandle predicates;
+    private MethodHandle actionTypes;
+    private MethodHandle render;
+    private final Path outputDir = Paths.get("benchmark-output");
+
+    @Setup
+    public void setUp() throws Throwable {
+        Log.init();
+        Log.enableFailQuick(false);
+        ASTAllowedType ast = new CRFParser().parse_String(BenchmarkModels.crf(declarations, 1))
+            .orElseThrow(() -> new IllegalStateException("Benchmark CRF model does not parse"));
+
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        Class<?> modelClass = Class.forName("CRFModel");
+        model = lookup.findConstructor(modelClass, MethodType.methodType(void.class, Path.class, ASTAllowedType.class))
+            .invoke(Paths.get("benchmark.crf"), ast);
+        parameterTypes = collectSources(lookup, "CSharpParameterTypeGenerator", modelClass);
+        predicates = collectSources(lookup, "CSharpPredicateGenerator", modelClass);
+        actionTypes = collectSources(lookup, "CSharpActionTypeGenerator", modelClass);
+        render = lookup.findVirtual(Class.forName("CSharpEmitter$GeneratedFile"), "render", MethodType.methodType(String.class))
+            .asType(MethodType.methodType(String.class, Object.class));
+    }
+
+    private static MethodHandle collectSources(MethodHandles.Lookup lookup, String generator, Class<?> modelClass) throws ReflectiveOperationException {
+        return lookup.findStatic(Class.forName(generator), "collectSources", MethodType.methodType(List.class, modelClass, Path.class))
+            .asType(MethodType.methodType(List.class, Object.class, Path.class));
+    }
+
+    @Benchmark
+    public void parameterTypes(Blackhole blackhole) throws Throwable {
+        renderAll(parameterTypes, blackhole);
+    }
+
+    @Benchmark
+    public void predicates(Blackhole blackhole) throws Throwable {
+        renderAll(predicates, blackhole);
+    }
+
+    @Benchmark
+    public void actionTypes(Blackhole blackhole) throws Throwable {
+        renderAll(actionTypes, blackhole);
+    }
+
+    private void renderAll(MethodHandle generator, Blackhole blackhole) throws Throwable {
+        List<?> files = (List<?>) generator.invokeExact(model, outputDir);
+        for (Object file : files) {
+            blackhole.consume((String) render.invokeExact(file));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import de.se_rwth.commons.logging.Log;
+import dynamicbtflownode._ast.ASTDynamicBTFlowNode;
+import dynamicbtflownode._parser.DynamicBTFlowNodeParser;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Parses DynamicBTFlowNodes whose node graph has {@code depth} layers of {@code width} nodes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DynamicBTFlowNodeParserBenchmark {
+
+    @Param({"5", "20"})
+    public int width;
+
+    @Param({"2", "10", "50"})
+    public int depth;
+
+    private String model;
+    private DynamicBTFlowNodeParser parser;
+
+    @Setup
+    public void setUp() throws IOException {
+        Log.init();
+        Log.enableFailQuick(false);
+        model = BenchmarkModels.flowNode(width, depth);
+        parser = new DynamicBTFlowNodeParser();
+        if (!parser.parse_String(model).isPresent() || parser.hasErrors()) {
+            throw new IllegalStateException("Benchmark DynamicBTFlowNode does not parse");
+        }
+    }
+
+    @Benchmark
+    public ASTDynamicBTFlowNode parse() throws IOException {
+        return parser.parse_String(model).orElseThrow();
+    }
+}
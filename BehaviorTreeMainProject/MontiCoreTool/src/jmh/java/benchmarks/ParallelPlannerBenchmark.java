@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Speedup of the hash distributed planner over the thread count, on a synthetic model and on the
+ * CRF test model, both with a seeded random walk goal. Compare the scores of one model and search
+ * across the threads parameter; threads = 1 is the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelPlannerBenchmark {
+
+    private static final long SEED = 1;
+    private static final String TEST_MODEL = "src/test/resources/valid/crf/test_crf.txt";
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int threads;
+
+    @Param({"synthetic", "test_crf"})
+    public String model;
+
+    @Param({"GBFS", "WEIGHTED_ASTAR"})
+    public String search;
+
+    @Param({"40"})
+    public int goalSteps;
+
+    private PlanningProblem problem;
+    private Object planner;
+    private MethodHandle plan;
+    private final int[] negativeGoal = new int[0];
+
+    @Setup
+    public void setUp() throws Throwable {
+        String text = model.equals("synthetic")
+            ? BenchmarkModels.planningProblem(5)
+            : new String(Files.readAllBytes(Paths.get(TEST_MODEL)), StandardCharsets.UTF_8);
+        problem = new PlanningProblem(text, SEED, goalSteps);
+        Class<?> plannerClass = Class.forName("ParallelCRFPlanner");
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        planner = lookup.findConstructor(plannerClass, MethodType.methodType(void.class, problem.groundedClass, int[].class,
+                Class.forName("CRFPlanner$Search"), Class.forName("DeleteRelaxationHeuristic$Kind"), double.class,
+                long.class, int.class))
+            .invoke(problem.grounded, problem.costs, PlanningProblem.enumConstant("CRFPlanner$Search", search),
+                PlanningProblem.enumConstant("DeleteRelaxationHeuristic$Kind", "FF"), 1.0,
+                PlanningProblem.defaultMaxExpansions(), threads);
+        plan = lookup.findVirtual(plannerClass, "plan", MethodType.methodType(Optional.class, int[].class, int[].class, int[].class))
+            .asType(MethodType.methodType(Optional.class, Object.class, int[].class, int[].class, int[].class));
+    }
+
+    @Benchmark
+    public Optional<?> plan() throws Throwable {
+        return (Optional<?>) plan.invokeExact(planner, problem.initial, problem.goal, negativeGoal);
+    }
+}
@@ -0,0 +1,67 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Plans on a grounded synthetic CRF model towards a seeded random walk goal with every search and heuristic.
+ *
+ * Parsing, grounding and the goal are set up once per trial; only the search is measured. The planner
+ * is bound as a method handle like the generators in {@link CSharpGeneratorBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PlannerBenchmark {
+
+    private static final long SEED = 1;
+
+    @Param({"2", "4"})
+    public int instancesPerType;
+
+    @Param({"20"})
+    public int goalSteps;
+
+    @Param({"GBFS", "WEIGHTED_ASTAR"})
+    public String search;
+
+    @Param({"ADD", "FF"})
+    public String heuristic;
+
+    private PlanningProblem problem;
+    private Object planner;
+    private MethodHandle plan;
+    private final int[] negativeGoal = new int[0];
+
+    @Setup
+    public void setUp() throws Throwable {
+        problem = new PlanningProblem(BenchmarkModels.planningProblem(instancesPerType), SEED, goalSteps);
+        Class<?> plannerClass = Class.forName("CRFPlanner");
+        Class<?> searchClass = Class.forName("CRFPlanner$Search");
+        Class<?> kindClass = Class.forName("DeleteRelaxationHeuristic$Kind");
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        planner = lookup.findConstructor(plannerClass, MethodType.methodType(void.class, problem.groundedClass, int[].class,
+                searchClass, kindClass, double.class, long.class))
+            .invoke(problem.grounded, problem.costs, PlanningProblem.enumConstant("CRFPlanner$Search", search),
+                PlanningProblem.enumConstant("DeleteRelaxationHeuristic$Kind", heuristic), 2.0,
+                PlanningProblem.defaultMaxExpansions());
+        plan = lookup.findVirtual(plannerClass, "plan", MethodType.methodType(Optional.class, int[].class, int[].class, int[].class))
+            .asType(MethodType.methodType(Optional.class, Object.class, int[].class, int[].class, int[].class));
+    }
+
+    @Benchmark
+    public Optional<?> plan() throws Throwable {
+        return (Optional<?>) plan.invokeExact(planner, problem.initial, problem.goal, negativeGoal);
+    }
+}
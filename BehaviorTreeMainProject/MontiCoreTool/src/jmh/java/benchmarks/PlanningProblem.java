@@ -0,0 +1,57 @@
+package benchmarks;
+
+import crf._ast.ASTAllowedType;
+import crf._parser.CRFParser;
+import de.se_rwth.commons.logging.Log;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/**
+ * Grounded CRF model with a seeded random walk goal for the planner benchmarks. The grounder and the
+ * planners are in the default package, so everything is reached reflectively during setup.
+ */
+final class PlanningProblem {
+
+    final Class<?> groundedClass;
+    final Object grounded;
+    final int[] initial;
+    final int[] goal;
+    final int[] costs;
+
+    PlanningProblem(String model, long seed, int goalSteps) throws Throwable {
+        Log.init();
+        Log.enableFailQuick(false);
+        ASTAllowedType ast = new CRFParser().parse_String(model)
+            .orElseThrow(() -> new IllegalStateException("Benchmark CRF model does not parse"));
+
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        Class<?> modelClass = Class.forName("CRFModel");
+        Class<?> grounderClass = Class.forName("CRFGrounder");
+        Class<?> plannerClass = Class.forName("CRFPlanner");
+        groundedClass = Class.forName("GroundedModel");
+
+        Object crfModel = lookup.findConstructor(modelClass, MethodType.methodType(void.class, Path.class, ASTAllowedType.class))
+            .invoke(Paths.get("benchmark.crf"), ast);
+        Object grounder = lookup.findConstructor(grounderClass, MethodType.methodType(void.class, modelClass)).invoke(crfModel);
+        grounded = lookup.findVirtual(grounderClass, "ground", MethodType.methodType(groundedClass)).invoke(grounder);
+
+        initial = (int[]) lookup.findVirtual(groundedClass, "getInitialAtoms", MethodType.methodType(int[].class))
+            .invoke(grounded);
+        goal = (int[]) lookup.findStatic(plannerClass, "randomWalkGoal", MethodType.methodType(int[].class, groundedClass, long.class, int.class))
+            .invoke(grounded, seed, goalSteps);
+        costs = (int[]) lookup.findStatic(plannerClass, "actionCosts", MethodType.methodType(int[].class, groundedClass, Map.class))
+            .invoke(grounded, Map.of());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object enumConstant(String className, String name) throws ClassNotFoundException {
+        return Enum.valueOf((Class<? extends Enum>) Class.forName(className), name);
+    }
+
+    static long defaultMaxExpansions() throws ReflectiveOperationException {
+        return (long) Class.forName("CRFPlanner").getField("DEFAULT_MAX_EXPANSIONS").get(null);
+    }
+}
@@ -0,0 +1,35 @@
+import java.io.IOException;
+
+/**
+ * Receives the structure of an exported AST from {@link ASTExporter}.
+ * Every object starts with its scalar values, followed by its nested objects and arrays,
+ * so a sink can write the output as it goes without buffering.
+ */
+public interface ASTExportSink {
+
+    /**
+     * Starts an object. The name is its property name in the enclosing object or, inside an array,
+     * the name of one array element.
+     */
+    void beginObject(String name) throws IOException;
+
+    void endObject() throws IOException;
+
+    void beginArray(String name) throws IOException;
+
+    void endArray() throws IOException;
+
+    void value(String name, String value) throws IOException;
+
+    void value(String name, boolean value) throws IOException;
+
+    /**
+     * A number in its source notation, e.g. "42" or "0.5".
+     */
+    void number(String name, String value) throws IOException;
+
+    /**
+     * Completes the document and flushes the underlying writer.
+     */
+    void finish() throws IOException;
+}
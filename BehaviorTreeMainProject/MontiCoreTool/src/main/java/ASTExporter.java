@@ -0,0 +1,359 @@
+import behaviortree._ast.ASTBTActionNode;
+import behaviortree._ast.ASTBTFlowNode;
+import behaviortree._ast.ASTBehaviorTree;
+import behaviortree._ast.ASTDecorator;
+import behaviortree._ast.ASTParameter;
+import behaviortree._ast.ASTVariable;
+import behaviortree._parser.BehaviorTreeParser;
+import crf._ast.ASTAction;
+import crf._ast.ASTActionInstance;
+import crf._ast.ASTAllowedType;
+import crf._ast.ASTGoalState;
+import crf._ast.ASTInitialState;
+import crf._ast.ASTParameterDeclaration;
+import crf._ast.ASTParameterInstance;
+import crf._ast.ASTParameterInstanceDef;
+import crf._ast.ASTParameterInstanceValue;
+import crf._ast.ASTParameterProperty;
+import crf._ast.ASTParameterTypeDef;
+import crf._ast.ASTPredicateArgument;
+import crf._ast.ASTPredicateInstanceDef;
+import crf._ast.ASTPredicateTypeDef;
+import crf._ast.ASTPredicateValue;
+import crf._ast.ASTValue;
+import crf._parser.CRFParser;
+import de.monticore.ast.ASTNode;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Exports complete BehaviorTree and CRF ASTs as JSON or XML.
+ * The AST is walked once and every value is handed to an {@link ASTExportSink} that writes it
+ * immediately, so the export needs no memory beyond the AST itself.
+ *
+ * Usage: ASTExporter (bt|crf) (json|xml) model-file output-file
+ */
+public class ASTExporter {
+
+    public enum Format { JSON, XML }
+
+    public static void main(String[] args) {
+        if (args.length != 4 || !(args[0].equals("bt") || args[0].equals("crf"))
+                || !(args[1].equals("json") || args[1].equals("xml"))) {
+            System.out.println("Usage: ASTExporter (bt|crf) (json|xml) model-file output-file");
+            return;
+        }
+        Format format = args[1].equals("json") ? Format.JSON : Format.XML;
+        Path output = Paths.get(args[3]);
+        try {
+            if (args[0].equals("bt")) {
+                Optional<ASTBehaviorTree> ast = new BehaviorTreeParser().parse(args[2]);
+                if (!ast.isPresent()) {
+                    System.out.println("FAILED: Failed to parse behavior tree " + args[2]);
+                    return;
+                }
+                export(ast.get(), output, format);
+            } else {
+                Optional<ASTAllowedType> ast = new CRFParser().parse(args[2]);
+                if (!ast.isPresent()) {
+                    System.out.println("FAILED: Failed to parse CRF model " + args[2]);
+                    return;
+                }
+                export(ast.get(), output, format);
+            }
+            System.out.println("SUCCESS: AST exported to " + format + ": " + output);
+        } catch (IOException e) {
+            System.err.println("ERROR: Export failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    public static void export(ASTBehaviorTree ast, Path file, Format format) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            ASTExportSink sink = createSink(writer, format);
+            exportBehaviorTree(ast, sink);
+            sink.finish();
+        }
+    }
+
+    public static void export(ASTAllowedType ast, Path file, Format format) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            ASTExportSink sink = createSink(writer, format);
+            exportCRF(ast, sink);
+            sink.finish();
+        }
+    }
+
+    public static ASTExportSink createSink(Writer writer, Format format) throws IOException {
+        Writer buffered = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+        return format == Format.JSON ? new JsonExportSink(buffered) : new XmlExportSink(buffered);
+    }
+
+    // ---------------------------------------------------------------- BehaviorTree
+
+    public static void exportBehaviorTree(ASTBehaviorTree ast, ASTExportSink sink) throws IOException {
+        sink.beginObject("behaviorTree");
+        sink.value("name", ast.getName());
+
+        sink.beginObject("blackboard");
+        sink.value("name", ast.getBlackboard().getName());
+        sink.beginArray("variables");
+        for (ASTVariable variable : ast.getBlackboard().getVariableList()) {
+            sink.beginObject("variable");
+            sink.value("type", "Object");
+            sink.value("name", variable.getName());
+            sink.endObject();
+        }
+        sink.endArray();
+        sink.endObject();
+
+        sink.beginObject("rootNode");
+        exportChildren(ast.getRootNode().getBTFlowNodeList(), ast.getRootNode().getBTActionNodeList(), sink);
+        sink.endObject();
+
+        sink.endObject();
+    }
+
+    /**
+     * The AST keeps flow and action children in separate lists; they are exported in source order.
+     */
+    private static void exportChildren(List<ASTBTFlowNode> flowNodes, List<ASTBTActionNode> actionNodes, ASTExportSink sink) throws IOException {
+        sink.beginArray("children");
+        int flow = 0;
+        int action = 0;
+        while (flow < flowNodes.size() || action < actionNodes.size()) {
+            if (action == actionNodes.size()
+                    || (flow < flowNodes.size() && precedes(flowNodes.get(flow), actionNodes.get(action)))) {
+                exportFlowNode(flowNodes.get(flow++), sink);
+            } else {
+                exportActionNode(actionNodes.get(action++), sink);
+            }
+        }
+        sink.endArray();
+    }
+
+    private static void exportFlowNode(ASTBTFlowNode node, ASTExportSink sink) throws IOException {
+        sink.beginObject("flowNode");
+        sink.value("kind", "flow");
+        sink.value("name", node.getName());
+        exportDecorator(node.isPresentDecorator() ? node.getDecorator() : null, sink);
+        exportChildren(node.getBTFlowNodeList(), node.getBTActionNodeList(), sink);
+        sink.endObject();
+    }
+
+    private static void exportActionNode(ASTBTActionNode node, ASTExportSink sink) throws IOException {
+        sink.beginObject("actionNode");
+        sink.value("kind", "action");
+        sink.value("name", node.getName());
+        exportDecorator(node.isPresentDecorator() ? node.getDecorator() : null, sink);
+        sink.beginArray("parameters");
+        for (ASTParameter param : node.getParameterList()) {
+            sink.beginObject("parameter");
+            sink.value("type", "Object");
+            sink.value("name", param.getName());
+            sink.endObject();
+        }
+        sink.endArray();
+        sink.endObject();
+    }
+
+    private static void exportDecorator(ASTDecorator decorator, ASTExportSink sink) throws IOException {
+        if (decorator != null) {
+            sink.value("decorator", decorator.getName());
+        }
+    }
+
+    /**
+     * Nodes built without positions keep the grammar order: flow nodes before action nodes.
+     */
+    private static boolean precedes(ASTNode first, ASTNode second) {
+        if (!first.isPresent_SourcePositionStart() || !second.isPresent_SourcePositionStart()) {
+            return true;
+        }
+        return first.get_SourcePositionStart().compareTo(second.get_SourcePositionStart()) <= 0;
+    }
+
+    // ---------------------------------------------------------------- CRF
+
+    public static void exportCRF(ASTAllowedType ast, ASTExportSink sink) throws IOException {
+        sink.beginObject("crf");
+
+        sink.beginArray("parameterTypes");
+        for (ASTParameterTypeDef parameterType : ast.getParameterTypeDefList()) {
+            sink.beginObject("parameterType");
+            sink.value("name", parameterType.getName());
+            sink.value("baseType", DeclarationHasher.basicTypeSignature(parameterType.getBasicType()));
+            sink.beginArray("properties");
+            if (parameterType.isPresentParameterPropertyList()) {
+                for (ASTParameterProperty property : parameterType.getParameterPropertyList().getParameterPropertyList()) {
+                    sink.beginObject("property");
+                    sink.value("name", property.getName());
+                    sink.value("type", DeclarationHasher.basicTypeSignature(property.getBasicType()));
+                    sink.endObject();
+                }
+            }
+            sink.endArray();
+            sink.endObject();
+        }
+        sink.endArray();
+
+        sink.beginArray("parameterInstances");
+        for (ASTParameterInstanceDef instance : ast.getParameterInstanceDefList()) {
+            sink.beginObject("parameterInstance");
+            sink.value("type", instance.getName());
+            sink.beginArray("values");
+            for (ASTParameterInstanceValue value : instance.getParameterInstanceValues().getParameterInstanceValueList()) {
+                sink.beginObject("value");
+                exportValue(value.getValue(), sink);
+                sink.endObject();
+            }
+            sink.endArray();
+            sink.endObject();
+        }
+        sink.endArray();
+
+        sink.beginArray("predicateTypes");
+        for (ASTPredicateTypeDef predicate : ast.getPredicateTypeDefList()) {
+            sink.beginObject("predicateType");
+            sink.value("name", predicate.getName());
+            sink.beginArray("parameters");
+            for (ASTParameterDeclaration param : predicate.getParameterDeclarationList()) {
+                sink.beginObject("parameter");
+                sink.value("name", param.getName());
+                sink.value("type", DeclarationHasher.basicTypeSignature(param.getBasicType()));
+                sink.endObject();
+            }
+            sink.endArray();
+            sink.endObject();
+        }
+        sink.endArray();
+
+        exportPredicateInstances("predicateInstances", ast.getPredicateInstanceDefList(), sink);
+
+        sink.beginArray("actions");
+        for (ASTAction action : ast.getActionList()) {
+            exportAction(action, sink);
+        }
+        sink.endArray();
+
+        sink.beginArray("actionInstances");
+        for (ASTActionInstance actionInstance : ast.getActionInstanceList()) {
+            sink.beginObject("actionInstance");
+            sink.value("action", actionInstance.getActionTypeName().getName());
+            exportBindings("bindings", "binding", "parameter", "value", actionInstance.getParameterInstanceList(), sink);
+            sink.endObject();
+        }
+        sink.endArray();
+
+        sink.beginArray("initialStates");
+        for (ASTInitialState initial : ast.getInitialStateList()) {
+            sink.beginObject("initialState");
+            exportPredicateInstances("predicateInstances", initial.getPredicateInstanceDefList(), sink);
+            sink.endObject();
+        }
+        sink.endArray();
+
+        sink.beginArray("goalStates");
+        for (ASTGoalState goal : ast.getGoalStateList()) {
+            sink.beginObject("goalState");
+            exportPredicateInstances("predicateInstances", goal.getPredicateInstanceDefList(), sink);
+            sink.endObject();
+        }
+        sink.endArray();
+
+        sink.endObject();
+    }
+
+    private static void exportAction(ASTAction action, ASTExportSink sink) throws IOException {
+        sink.beginObject("action");
+        sink.value("name", action.getName());
+        sink.value("implementation", action.getImplementationBlock().getFunctionReference().getName());
+        exportBindings("parameters", "parameter", "name", "type", action.getActionParametersBlock().getParameterInstanceList(), sink);
+        exportPredicateInstances("precondition", action.getPreconditionState().getPredicateInstanceDefList(), sink);
+        exportPredicateInstances("effect", action.getEffectState().getPredicateInstanceDefList(), sink);
+
+        sink.beginObject("function");
+        sink.value("returnType", DeclarationHasher.basicTypeSignature(action.getFunctionBlock().getReturnType().getBasicType()));
+        sink.beginArray("arguments");
+        for (String argument : action.getFunctionBlock().getNameList()) {
+            sink.beginObject("argument");
+            sink.value("name", argument);
+            sink.endObject();
+        }
+        sink.endArray();
+        sink.endObject();
+
+        sink.endObject();
+    }
+
+    /**
+     * Exports "name : other" pairs: action parameters (name : parameter type) or
+     * action instance bindings (parameter : instance).
+     */
+    private static void exportBindings(String arrayName, String elementName, String keyName, String valueName,
+                                       List<ASTParameterInstance> params, ASTExportSink sink) throws IOException {
+        sink.beginArray(arrayName);
+        for (ASTParameterInstance param : params) {
+            sink.beginObject(elementName);
+            sink.value(keyName, param.getName(0));
+            sink.value(valueName, param.getName(1));
+            sink.endObject();
+        }
+        sink.endArray();
+    }
+
+    private static void exportPredicateInstances(String arrayName, List<ASTPredicateInstanceDef> predicates, ASTExportSink sink) throws IOException {
+        sink.beginArray(arrayName);
+        for (ASTPredicateInstanceDef predicate : predicates) {
+            sink.beginObject("predicateInstance");
+            sink.value("predicate", predicate.getName());
+            exportPredicateValue("isNegated", predicate.getPredicateValue(), sink);
+            sink.beginArray("arguments");
+            for (ASTPredicateArgument argument : predicate.getPredicateArgumentList()) {
+                sink.beginObject("argument");
+                sink.value("parameter", DeclarationHasher.predicateValueSignature(argument.getValue()));
+                sink.value("value", argument.getName());
+                sink.endObject();
+            }
+            sink.endArray();
+            sink.endObject();
+        }
+        sink.endArray();
+    }
+
+    private static void exportPredicateValue(String name, ASTPredicateValue value, ASTExportSink sink) throws IOException {
+        if (value.isPresentName() || value.isPresentAttributeAccess()) {
+            sink.value(name, DeclarationHasher.predicateValueSignature(value));
+        } else {
+            sink.value(name, value.isTrueValue());
+        }
+    }
+
+    private static void exportValue(ASTValue value, ASTExportSink sink) throws IOException {
+        if (value.isPresentName()) {
+            sink.value("name", value.getName());
+        } else if (value.isPresentINTEGER_VALUE()) {
+            sink.number("integer", value.getINTEGER_VALUE());
+        } else if (value.isPresentDOUBLE_VALUE()) {
+            sink.number("double", value.getDOUBLE_VALUE());
+        } else if (value.isPresentSTRING_VALUE()) {
+            sink.value("string", unquote(value.getSTRING_VALUE()));
+        } else {
+            sink.value("boolean", value.isTrueValue());
+        }
+    }
+
+    private static String unquote(String literal) {
+        if (literal.length() >= 2 && literal.startsWith("\"") && literal.endsWith("\"")) {
+            return literal.substring(1, literal.length() - 1);
+        }
+        return literal;
+    }
+}
@@ -0,0 +1,257 @@
+import behaviortree._ast.ASTBehaviorTree;
+import crf._ast.ASTAllowedType;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Compact binary snapshot of a parsed CRF ({@link ASTAllowedType}) or BehaviorTree ({@link ASTBehaviorTree}) AST.
+ *
+ * Layout:
+ * <pre>
+ * magic          4 bytes "MCAS"
+ * format version int
+ * kind           byte (1 = CRF, 2 = BehaviorTree)
+ * grammar hash   32 bytes, SHA-256 of the grammars the AST classes were generated from
+ * source hash    32 bytes, SHA-256 of the model file the AST was parsed from
+ * payload length long
+ * payload        string table followed by the node records (see {@link ASTSnapshotEncoder})
+ * </pre>
+ * A snapshot is only read back if format version, kind and grammar hash match the running tool,
+ * so a grammar change invalidates all existing snapshots. The header is checked with a plain read
+ * and only a valid payload is memory mapped.
+ */
+public class ASTSnapshot {
+
+    /**
+     * Version of the node record layout. Bump this whenever {@link ASTSnapshotEncoder} changes.
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    public static final byte KIND_CRF = 1;
+    public static final byte KIND_BEHAVIOR_TREE = 2;
+
+    private static final byte[] MAGIC = {'M', 'C', 'A', 'S'};
+    private static final int HASH_LENGTH = 32;
+    private static final int HEADER_LENGTH = MAGIC.length + 4 + 1 + 2 * HASH_LENGTH + 8;
+    private static final String[] GRAMMARS = {"BehaviorTree.mc4", "CRF.mc4"};
+
+    private static byte[] grammarHash;
+    private static boolean grammarKnown;
+
+    public static void write(Path file, ASTAllowedType ast, byte[] sourceHash) throws IOException {
+        ASTSnapshotEncoder encoder = new ASTSnapshotEncoder();
+        encoder.writeAllowedType(ast);
+        write(file, KIND_CRF, sourceHash, encoder);
+    }
+
+    public static void write(Path file, ASTBehaviorTree ast, byte[] sourceHash) throws IOException {
+        ASTSnapshotEncoder encoder = new ASTSnapshotEncoder();
+        encoder.writeBehaviorTree(ast);
+        write(file, KIND_BEHAVIOR_TREE, sourceHash, encoder);
+    }
+
+    /**
+     * Reads a CRF snapshot. Returns an empty optional if the file does not exist, was written by another
+     * format or grammar version, or does not belong to the expected source.
+     *
+     * @param expectedSourceHash hash the snapshot must have been written for, or null to accept any source
+     * @param fileName           file name of the restored source positions
+     */
+    public static Optional<ASTAllowedType> readAllowedType(Path file, byte[] expectedSourceHash, String fileName) throws IOException {
+        Optional<ASTSnapshotDecoder> decoder = open(file, KIND_CRF, expectedSourceHash, fileName);
+        if (!decoder.isPresent()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(decoder.get().readAllowedType());
+        } catch (RuntimeException e) {
+            System.out.println("FAILED: Corrupt AST snapshot " + file + ": " + e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Reads a BehaviorTree snapshot; see {@link #readAllowedType(Path, byte[], String)}.
+     */
+    public static Optional<ASTBehaviorTree> readBehaviorTree(Path file, byte[] expectedSourceHash, String fileName) throws IOException {
+        Optional<ASTSnapshotDecoder> decoder = open(file, KIND_BEHAVIOR_TREE, expectedSourceHash, fileName);
+        if (!decoder.isPresent()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(decoder.get().readBehaviorTree());
+        } catch (RuntimeException e) {
+            System.out.println("FAILED: Corrupt AST snapshot " + file + ": " + e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * SHA-256 of a file's content, read through a direct buffer so large models are not copied onto the heap.
+     */
+    public static byte[] hashFile(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Whether the grammars were found on the classpath or in src/main/grammars. Without them a grammar
+     * change cannot be detected, so {@link BinaryASTCache} does not use snapshots in that case.
+     */
+    public static synchronized boolean isGrammarKnown() {
+        grammarHash();
+        return grammarKnown;
+    }
+
+    static synchronized byte[] grammarHash() {
+        if (grammarHash != null) {
+            return grammarHash;
+        }
+        MessageDigest digest = sha256();
+        grammarKnown = true;
+        for (String grammar : GRAMMARS) {
+            digest.update(grammar.getBytes(StandardCharsets.UTF_8));
+            Optional<byte[]> content = readGrammar(grammar);
+            if (content.isPresent()) {
+                digest.update(content.get());
+            } else {
+                grammarKnown = false;
+            }
+        }
+        grammarHash = digest.digest();
+        return grammarHash;
+    }
+
+    private static Optional<byte[]> readGrammar(String grammar) {
+        try (InputStream in = ASTSnapshot.class.getClassLoader().getResourceAsStream(grammar)) {
+            if (in != null) {
+                return Optional.of(in.readAllBytes());
+            }
+            Path source = Paths.get("src/main/grammars", grammar);
+            return Files.isRegularFile(source) ? Optional.of(Files.readAllBytes(source)) : Optional.empty();
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static void write(Path file, byte kind, byte[] sourceHash, ASTSnapshotEncoder encoder) throws IOException {
+        if (sourceHash.length != HASH_LENGTH) {
+            throw new IllegalArgumentException("Source hash must be a SHA-256 digest");
+        }
+        ByteBuffer strings = encoder.encodeStringTable();
+        ByteBuffer records = encoder.getRecords();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.put(MAGIC).putInt(FORMAT_VERSION).put(kind).put(grammarHash()).put(sourceHash)
+            .putLong((long) strings.remaining() + records.remaining());
+        header.flip();
+
+        // Write next to the target and move it into place, so readers never see a half written snapshot
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] buffers = {header, strings, records};
+            while (records.hasRemaining()) {
+                channel.write(buffers);
+            }
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Optional<ASTSnapshotDecoder> open(Path file, byte kind, byte[] expectedSourceHash, String fileName) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the complete header
+            }
+            if (header.hasRemaining()) {
+                return Optional.empty();
+            }
+            header.flip();
+
+            byte[] magic = new byte[MAGIC.length];
+            byte[] grammar = new byte[HASH_LENGTH];
+            byte[] source = new byte[HASH_LENGTH];
+            header.get(magic);
+            int version = header.getInt();
+            byte snapshotKind = header.get();
+            header.get(grammar).get(source);
+            long payloadLength = header.getLong();
+
+            if (!Arrays.equals(magic, MAGIC) || version != FORMAT_VERSION || snapshotKind != kind
+                    || !Arrays.equals(grammar, grammarHash())
+                    || (expectedSourceHash != null && !Arrays.equals(source, expectedSourceHash))
+                    || payloadLength != channel.size() - HEADER_LENGTH || payloadLength > Integer.MAX_VALUE) {
+                return Optional.empty();
+            }
+
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer payload = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_LENGTH, payloadLength);
+            try {
+                String[] strings = readStringTable(payload);
+                return Optional.of(new ASTSnapshotDecoder(payload, strings, fileName));
+            } catch (RuntimeException e) {
+                System.out.println("FAILED: Corrupt AST snapshot " + file + ": " + e);
+                return Optional.empty();
+            }
+        }
+    }
+
+    private static String[] readStringTable(ByteBuffer payload) {
+        String[] strings = new String[readVarint(payload)];
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < strings.length; i++) {
+            int length = readVarint(payload);
+            if (length > bytes.length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            payload.get(bytes, 0, length);
+            strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    private static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint at offset " + buffer.position());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,443 @@
+import behaviortree.BehaviorTreeMill;
+import behaviortree._ast.ASTBTActionNode;
+import behaviortree._ast.ASTBTFlowNode;
+import behaviortree._ast.ASTBehaviorTree;
+import behaviortree._ast.ASTBlackboard;
+import behaviortree._ast.ASTDecorator;
+import behaviortree._ast.ASTParameter;
+import behaviortree._ast.ASTRootNode;
+import behaviortree._ast.ASTVariable;
+import behaviortree._ast.ASTVariableType;
+import behaviortree._ast.BTActionNodeBuilder;
+import behaviortree._ast.BTFlowNodeBuilder;
+import crf.CRFMill;
+import crf._ast.ASTAction;
+import crf._ast.ASTActionInstance;
+import crf._ast.ASTActionParametersBlock;
+import crf._ast.ASTActionTypeName;
+import crf._ast.ASTAllowedType;
+import crf._ast.ASTAttributeAccess;
+import crf._ast.ASTBasicType;
+import crf._ast.ASTEffectState;
+import crf._ast.ASTFunctionBlock;
+import crf._ast.ASTFunctionReference;
+import crf._ast.ASTGoalState;
+import crf._ast.ASTImplementationBlock;
+import crf._ast.ASTInitialState;
+import crf._ast.ASTParameterDeclaration;
+import crf._ast.ASTParameterInstance;
+import crf._ast.ASTParameterInstanceDef;
+import crf._ast.ASTParameterInstanceValue;
+import crf._ast.ASTParameterInstanceValues;
+import crf._ast.ASTParameterProperty;
+import crf._ast.ASTParameterPropertyList;
+import crf._ast.ASTParameterTypeDef;
+import crf._ast.ASTPreconditionState;
+import crf._ast.ASTPredicateArgument;
+import crf._ast.ASTPredicateInstanceDef;
+import crf._ast.ASTPredicateTypeDef;
+import crf._ast.ASTPredicateValue;
+import crf._ast.ASTReturnType;
+import crf._ast.ASTValue;
+import crf._ast.BasicTypeBuilder;
+import crf._ast.ParameterTypeDefBuilder;
+import crf._ast.PredicateValueBuilder;
+import crf._ast.ValueBuilder;
+import de.monticore.ast.ASTNode;
+import de.se_rwth.commons.SourcePosition;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rebuilds CRF and BehaviorTree ASTs from the node records written by {@link ASTSnapshotEncoder}.
+ * The nodes are created through the language mills, exactly as the parser creates them, and get
+ * their start positions back with the given file name.
+ */
+public class ASTSnapshotDecoder {
+
+    private final ByteBuffer records;
+    private final String[] strings;
+    private final String fileName;
+
+    /**
+     * @param records  buffer positioned at the first node record
+     * @param strings  the interned string table of the snapshot
+     * @param fileName file name of the restored source positions
+     */
+    public ASTSnapshotDecoder(ByteBuffer records, String[] strings, String fileName) {
+        this.records = records;
+        this.strings = strings;
+        this.fileName = fileName;
+    }
+
+    // ---------------------------------------------------------------- CRF
+
+    public ASTAllowedType readAllowedType() {
+        SourcePosition position = readPosition();
+
+        int predicateTypeCount = readVarint();
+        List<ASTPredicateTypeDef> predicateTypes = new ArrayList<>(predicateTypeCount);
+        for (int i = 0; i < predicateTypeCount; i++) {
+            SourcePosition predicatePosition = readPosition();
+            String name = readString();
+            int paramCount = readVarint();
+            List<ASTParameterDeclaration> params = new ArrayList<>(paramCount);
+            for (int j = 0; j < paramCount; j++) {
+                SourcePosition paramPosition = readPosition();
+                String paramName = readString();
+                params.add(at(CRFMill.parameterDeclarationBuilder().setName(paramName).setBasicType(readBasicType()).build(), paramPosition));
+            }
+            predicateTypes.add(at(CRFMill.predicateTypeDefBuilder().setName(name).setParameterDeclarationList(params).build(), predicatePosition));
+        }
+
+        int parameterTypeCount = readVarint();
+        List<ASTParameterTypeDef> parameterTypes = new ArrayList<>(parameterTypeCount);
+        for (int i = 0; i < parameterTypeCount; i++) {
+            SourcePosition typePosition = readPosition();
+            String name = readString();
+            ASTBasicType basicType = readBasicType();
+            ParameterTypeDefBuilder builder = CRFMill.parameterTypeDefBuilder().setName(name).setBasicType(basicType);
+            if (readVarint() == 1) {
+                builder.setParameterPropertyList(readParameterPropertyList());
+            }
+            parameterTypes.add(at(builder.build(), typePosition));
+        }
+
+        int parameterInstanceCount = readVarint();
+        List<ASTParameterInstanceDef> parameterInstances = new ArrayList<>(parameterInstanceCount);
+        for (int i = 0; i < parameterInstanceCount; i++) {
+            SourcePosition instancePosition = readPosition();
+            String name = readString();
+            SourcePosition valuesPosition = readPosition();
+            int valueCount = readVarint();
+            List<ASTParameterInstanceValue> values = new ArrayList<>(valueCount);
+            for (int j = 0; j < valueCount; j++) {
+                SourcePosition valuePosition = readPosition();
+                values.add(at(CRFMill.parameterInstanceValueBuilder().setValue(readValue()).build(), valuePosition));
+            }
+            ASTParameterInstanceValues instanceValues = at(CRFMill.parameterInstanceValuesBuilder().setParameterInstanceValueList(values).build(), valuesPosition);
+            parameterInstances.add(at(CRFMill.parameterInstanceDefBuilder().setName(name).setParameterInstanceValues(instanceValues).build(), instancePosition));
+        }
+
+        List<ASTPredicateInstanceDef> predicateInstances = readPredicateInstances();
+
+        int actionCount = readVarint();
+        List<ASTAction> actions = new ArrayList<>(actionCount);
+        for (int i = 0; i < actionCount; i++) {
+            actions.add(readAction());
+        }
+
+        int actionInstanceCount = readVarint();
+        List<ASTActionInstance> actionInstances = new ArrayList<>(actionInstanceCount);
+        for (int i = 0; i < actionInstanceCount; i++) {
+            SourcePosition instancePosition = readPosition();
+            SourcePosition typeNamePosition = readPosition();
+            ASTActionTypeName typeName = at(CRFMill.actionTypeNameBuilder().setName(readString()).build(), typeNamePosition);
+            actionInstances.add(at(CRFMill.actionInstanceBuilder().setActionTypeName(typeName)
+                .setParameterInstanceList(readParameterInstances()).build(), instancePosition));
+        }
+
+        int initialCount = readVarint();
+        List<ASTInitialState> initialStates = new ArrayList<>(initialCount);
+        for (int i = 0; i < initialCount; i++) {
+            SourcePosition statePosition = readPosition();
+            initialStates.add(at(CRFMill.initialStateBuilder().setPredicateInstanceDefList(readPredicateInstances()).build(), statePosition));
+        }
+        int goalCount = readVarint();
+        List<ASTGoalState> goalStates = new ArrayList<>(goalCount);
+        for (int i = 0; i < goalCount; i++) {
+            SourcePosition statePosition = readPosition();
+            goalStates.add(at(CRFMill.goalStateBuilder().setPredicateInstanceDefList(readPredicateInstances()).build(), statePosition));
+        }
+
+        return at(CRFMill.allowedTypeBuilder()
+            .setPredicateTypeDefList(predicateTypes)
+            .setParameterTypeDefList(parameterTypes)
+            .setParameterInstanceDefList(parameterInstances)
+            .setPredicateInstanceDefList(predicateInstances)
+            .setActionList(actions)
+            .setActionInstanceList(actionInstances)
+            .setInitialStateList(initialStates)
+            .setGoalStateList(goalStates)
+            .build(), position);
+    }
+
+    private ASTParameterPropertyList readParameterPropertyList() {
+        SourcePosition position = readPosition();
+        int count = readVarint();
+        List<ASTParameterProperty> properties = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            SourcePosition propertyPosition = readPosition();
+            String name = readString();
+            properties.add(at(CRFMill.parameterPropertyBuilder().setName(name).setBasicType(readBasicType()).build(), propertyPosition));
+        }
+        return at(CRFMill.parameterPropertyListBuilder().setParameterPropertyList(properties).build(), position);
+    }
+
+    private ASTAction readAction() {
+        SourcePosition position = readPosition();
+        String name = readString();
+
+        SourcePosition parametersPosition = readPosition();
+        ASTActionParametersBlock parameters = at(CRFMill.actionParametersBlockBuilder()
+            .setParameterInstanceList(readParameterInstances()).build(), parametersPosition);
+        SourcePosition preconditionPosition = readPosition();
+        ASTPreconditionState precondition = at(CRFMill.preconditionStateBuilder()
+            .setPredicateInstanceDefList(readPredicateInstances()).build(), preconditionPosition);
+        SourcePosition effectPosition = readPosition();
+        ASTEffectState effect = at(CRFMill.effectStateBuilder()
+            .setPredicateInstanceDefList(readPredicateInstances()).build(), effectPosition);
+
+        SourcePosition functionPosition = readPosition();
+        List<String> functionNames = readNames();
+        SourcePosition returnTypePosition = readPosition();
+        ASTReturnType returnType = at(CRFMill.returnTypeBuilder().setBasicType(readBasicType()).build(), returnTypePosition);
+        ASTFunctionBlock function = at(CRFMill.functionBlockBuilder().setNameList(functionNames).setReturnType(returnType).build(), functionPosition);
+
+        SourcePosition implementationPosition = readPosition();
+        SourcePosition referencePosition = readPosition();
+        ASTFunctionReference reference = at(CRFMill.functionReferenceBuilder().setName(readString()).build(), referencePosition);
+        ASTImplementationBlock implementation = at(CRFMill.implementationBlockBuilder().setFunctionReference(reference).build(), implementationPosition);
+
+        return at(CRFMill.actionBuilder()
+            .setName(name)
+            .setActionParametersBlock(parameters)
+            .setPreconditionState(precondition)
+            .setEffectState(effect)
+            .setFunctionBlock(function)
+            .setImplementationBlock(implementation)
+            .build(), position);
+    }
+
+    private List<ASTParameterInstance> readParameterInstances() {
+        int count = readVarint();
+        List<ASTParameterInstance> params = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            SourcePosition position = readPosition();
+            params.add(at(CRFMill.parameterInstanceBuilder().setNameList(readNames()).build(), position));
+        }
+        return params;
+    }
+
+    private List<ASTPredicateInstanceDef> readPredicateInstances() {
+        int count = readVarint();
+        List<ASTPredicateInstanceDef> predicates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            SourcePosition position = readPosition();
+            String name = readString();
+            int argumentCount = readVarint();
+            List<ASTPredicateArgument> arguments = new ArrayList<>(argumentCount);
+            for (int j = 0; j < argumentCount; j++) {
+                SourcePosition argumentPosition = readPosition();
+                ASTPredicateValue value = readPredicateValue();
+                arguments.add(at(CRFMill.predicateArgumentBuilder().setValue(value).setName(readString()).build(), argumentPosition));
+            }
+            ASTPredicateValue isNegated = readPredicateValue();
+            predicates.add(at(CRFMill.predicateInstanceDefBuilder().setName(name)
+                .setPredicateArgumentList(arguments).setPredicateValue(isNegated).build(), position));
+        }
+        return predicates;
+    }
+
+    private ASTPredicateValue readPredicateValue() {
+        SourcePosition position = readPosition();
+        PredicateValueBuilder builder = CRFMill.predicateValueBuilder();
+        int tag = readVarint();
+        if (tag == ASTSnapshotEncoder.PREDICATE_VALUE_NAME) {
+            builder.setName(readString());
+        } else if (tag == ASTSnapshotEncoder.PREDICATE_VALUE_ATTRIBUTE_ACCESS) {
+            SourcePosition accessPosition = readPosition();
+            ASTAttributeAccess access = at(CRFMill.attributeAccessBuilder().setNameList(readNames()).build(), accessPosition);
+            builder.setAttributeAccess(access);
+        } else if (tag == ASTSnapshotEncoder.PREDICATE_VALUE_TRUE) {
+            builder.setTrueValue(true);
+        } else if (tag == ASTSnapshotEncoder.PREDICATE_VALUE_FALSE) {
+            builder.setFalseValue(true);
+        } else {
+            throw new IllegalStateException("Unknown predicate value tag " + tag);
+        }
+        return at(builder.build(), position);
+    }
+
+    private ASTValue readValue() {
+        SourcePosition position = readPosition();
+        ValueBuilder builder = CRFMill.valueBuilder();
+        int tag = readVarint();
+        switch (tag) {
+            case ASTSnapshotEncoder.VALUE_NAME:
+                builder.setName(readString());
+                break;
+            case ASTSnapshotEncoder.VALUE_INTEGER:
+                builder.setINTEGER_VALUE(readString());
+                break;
+            case ASTSnapshotEncoder.VALUE_DOUBLE:
+                builder.setDOUBLE_VALUE(readString());
+                break;
+            case ASTSnapshotEncoder.VALUE_STRING:
+                builder.setSTRING_VALUE(readString());
+                break;
+            case ASTSnapshotEncoder.VALUE_TRUE:
+                builder.setTrueValue(true);
+                break;
+            case ASTSnapshotEncoder.VALUE_FALSE:
+                builder.setFalseValue(true);
+                break;
+            default:
+                throw new IllegalStateException("Unknown value tag " + tag);
+        }
+        return at(builder.build(), position);
+    }
+
+    private ASTBasicType readBasicType() {
+        SourcePosition position = readPosition();
+        int tag = readVarint();
+        if (tag < 0 || tag >= ASTSnapshotEncoder.BASIC_TYPE_KEYWORDS.length) {
+            throw new IllegalStateException("Unknown basic type tag " + tag);
+        }
+        String keyword = ASTSnapshotEncoder.BASIC_TYPE_KEYWORDS[tag];
+        BasicTypeBuilder builder = CRFMill.basicTypeBuilder();
+        switch (tag) {
+            case 0: builder.setElement(keyword); break;
+            case 1: builder.setAgent(keyword); break;
+            case 2: builder.setLocation(keyword); break;
+            case 3: builder.setLayer(keyword); break;
+            case 4: builder.setModule(keyword); break;
+            case 5: builder.setTool(keyword); break;
+            case 6: builder.setString(keyword); break;
+            case 7: builder.setDouble(keyword); break;
+            case 8: builder.setInteger(keyword); break;
+            case 9: builder.setBoolean(keyword); break;
+            case ASTSnapshotEncoder.BASIC_TYPE_LIST:
+                builder.setList(keyword).addBasicType(readBasicType());
+                break;
+            case ASTSnapshotEncoder.BASIC_TYPE_SET:
+                builder.setSet(keyword).addBasicType(readBasicType());
+                break;
+            default:
+                builder.setMap(keyword).addBasicType(readBasicType()).addBasicType(readBasicType());
+                break;
+        }
+        return at(builder.build(), position);
+    }
+
+    // ---------------------------------------------------------------- BehaviorTree
+
+    public ASTBehaviorTree readBehaviorTree() {
+        SourcePosition position = readPosition();
+        String name = readString();
+
+        SourcePosition blackboardPosition = readPosition();
+        String blackboardName = readString();
+        int variableCount = readVarint();
+        List<ASTVariable> variables = new ArrayList<>(variableCount);
+        for (int i = 0; i < variableCount; i++) {
+            SourcePosition variablePosition = readPosition();
+            ASTVariableType type = readVariableType();
+            variables.add(at(BehaviorTreeMill.variableBuilder().setType(type).setName(readString()).build(), variablePosition));
+        }
+        ASTBlackboard blackboard = at(BehaviorTreeMill.blackboardBuilder().setName(blackboardName).setVariableList(variables).build(), blackboardPosition);
+
+        SourcePosition rootPosition = readPosition();
+        List<ASTBTFlowNode> flowNodes = readFlowNodes();
+        List<ASTBTActionNode> actionNodes = readActionNodes();
+        ASTRootNode root = at(BehaviorTreeMill.rootNodeBuilder().setBTFlowNodeList(flowNodes).setBTActionNodeList(actionNodes).build(), rootPosition);
+
+        return at(BehaviorTreeMill.behaviorTreeBuilder().setName(name).setBlackboard(blackboard).setRootNode(root).build(), position);
+    }
+
+    private List<ASTBTFlowNode> readFlowNodes() {
+        int count = readVarint();
+        List<ASTBTFlowNode> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            SourcePosition position = readPosition();
+            BTFlowNodeBuilder builder = BehaviorTreeMill.bTFlowNodeBuilder();
+            ASTDecorator decorator = readDecorator();
+            if (decorator != null) {
+                builder.setDecorator(decorator);
+            }
+            builder.setName(readString());
+            builder.setBTFlowNodeList(readFlowNodes());
+            builder.setBTActionNodeList(readActionNodes());
+            nodes.add(at(builder.build(), position));
+        }
+        return nodes;
+    }
+
+    private List<ASTBTActionNode> readActionNodes() {
+        int count = readVarint();
+        List<ASTBTActionNode> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            SourcePosition position = readPosition();
+            BTActionNodeBuilder builder = BehaviorTreeMill.bTActionNodeBuilder();
+            ASTDecorator decorator = readDecorator();
+            if (decorator != null) {
+                builder.setDecorator(decorator);
+            }
+            builder.setName(readString());
+            int paramCount = readVarint();
+            List<ASTParameter> params = new ArrayList<>(paramCount);
+            for (int j = 0; j < paramCount; j++) {
+                SourcePosition paramPosition = readPosition();
+                ASTVariableType type = readVariableType();
+                params.add(at(BehaviorTreeMill.parameterBuilder().setType(type).setName(readString()).build(), paramPosition));
+            }
+            builder.setParameterList(params);
+            nodes.add(at(builder.build(), position));
+        }
+        return nodes;
+    }
+
+    private ASTDecorator readDecorator() {
+        if (readVarint() == 0) {
+            return null;
+        }
+        SourcePosition position = readPosition();
+        return at(BehaviorTreeMill.decoratorBuilder().setName(readString()).build(), position);
+    }
+
+    private ASTVariableType readVariableType() {
+        SourcePosition position = readPosition();
+        return at(BehaviorTreeMill.variableTypeBuilder().build(), position);
+    }
+
+    // ---------------------------------------------------------------- primitives
+
+    private List<String> readNames() {
+        int count = readVarint();
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(readString());
+        }
+        return names;
+    }
+
+    private SourcePosition readPosition() {
+        int line = readVarint();
+        int column = readVarint();
+        return line == 0 ? null : new SourcePosition(line, column, fileName);
+    }
+
+    private <T extends ASTNode> T at(T node, SourcePosition position) {
+        if (position != null) {
+            node.set_SourcePositionStart(position);
+        }
+        return node;
+    }
+
+    private String readString() {
+        return strings[readVarint()];
+    }
+
+    private int readVarint() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = records.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint at offset " + records.position());
+    }
+}
@@ -0,0 +1,397 @@
+import behaviortree._ast.ASTBTActionNode;
+import behaviortree._ast.ASTBTFlowNode;
+import behaviortree._ast.ASTBehaviorTree;
+import behaviortree._ast.ASTBlackboard;
+import behaviortree._ast.ASTDecorator;
+import behaviortree._ast.ASTParameter;
+import behaviortree._ast.ASTRootNode;
+import behaviortree._ast.ASTVariable;
+import crf._ast.ASTAction;
+import crf._ast.ASTActionInstance;
+import crf._ast.ASTAllowedType;
+import crf._ast.ASTBasicType;
+import crf._ast.ASTGoalState;
+import crf._ast.ASTInitialState;
+import crf._ast.ASTParameterDeclaration;
+import crf._ast.ASTParameterInstance;
+import crf._ast.ASTParameterInstanceDef;
+import crf._ast.ASTParameterInstanceValue;
+import crf._ast.ASTParameterProperty;
+import crf._ast.ASTParameterTypeDef;
+import crf._ast.ASTPredicateArgument;
+import crf._ast.ASTPredicateInstanceDef;
+import crf._ast.ASTPredicateTypeDef;
+import crf._ast.ASTPredicateValue;
+import crf._ast.ASTValue;
+import de.monticore.ast.ASTNode;
+import de.se_rwth.commons.SourcePosition;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes CRF and BehaviorTree ASTs as node records for an {@link ASTSnapshot}.
+ *
+ * Nodes are written in preorder. The grammar fixes the shape of every node, so a record only holds
+ * the start position of the node, its strings as indices into the interned string table, the sizes
+ * of its lists and, for alternatives and optional parts, a small tag. All numbers are unsigned varints.
+ * {@link ASTSnapshotDecoder} reads the records in exactly the same order.
+ */
+public class ASTSnapshotEncoder {
+
+    /**
+     * Keywords of the BasicType alternatives; the index is the tag written for the alternative.
+     */
+    static final String[] BASIC_TYPE_KEYWORDS = {
+        "Element", "Agent", "Location", "Layer", "Module", "Tool", "String", "Double", "Integer", "Boolean", "List", "Set", "Map"
+    };
+    static final int BASIC_TYPE_LIST = 10;
+    static final int BASIC_TYPE_SET = 11;
+    static final int BASIC_TYPE_MAP = 12;
+
+    static final int VALUE_NAME = 0;
+    static final int VALUE_INTEGER = 1;
+    static final int VALUE_DOUBLE = 2;
+    static final int VALUE_STRING = 3;
+    static final int VALUE_TRUE = 4;
+    static final int VALUE_FALSE = 5;
+
+    static final int PREDICATE_VALUE_NAME = 0;
+    static final int PREDICATE_VALUE_ATTRIBUTE_ACCESS = 1;
+    static final int PREDICATE_VALUE_TRUE = 2;
+    static final int PREDICATE_VALUE_FALSE = 3;
+
+    private final Map<String, Integer> stringIndices = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private byte[] buffer = new byte[4096];
+    private int size;
+
+    /**
+     * The node records written so far.
+     */
+    public ByteBuffer getRecords() {
+        return ByteBuffer.wrap(buffer, 0, size);
+    }
+
+    /**
+     * Encodes the interned strings: their number, then every string as byte length and UTF-8 bytes,
+     * in the order of their indices.
+     */
+    public ByteBuffer encodeStringTable() {
+        ASTSnapshotEncoder table = new ASTSnapshotEncoder();
+        table.writeVarint(strings.size());
+        for (String value : strings) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            table.writeVarint(bytes.length);
+            table.ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, table.buffer, table.size, bytes.length);
+            table.size += bytes.length;
+        }
+        return table.getRecords();
+    }
+
+    // ---------------------------------------------------------------- CRF
+
+    public void writeAllowedType(ASTAllowedType ast) {
+        writePosition(ast);
+        writeVarint(ast.sizePredicateTypeDefs());
+        for (ASTPredicateTypeDef predicate : ast.getPredicateTypeDefList()) {
+            writePosition(predicate);
+            writeString(predicate.getName());
+            writeVarint(predicate.sizeParameterDeclarations());
+            for (ASTParameterDeclaration param : predicate.getParameterDeclarationList()) {
+                writePosition(param);
+                writeString(param.getName());
+                writeBasicType(param.getBasicType());
+            }
+        }
+
+        writeVarint(ast.sizeParameterTypeDefs());
+        for (ASTParameterTypeDef parameterType : ast.getParameterTypeDefList()) {
+            writePosition(parameterType);
+            writeString(parameterType.getName());
+            writeBasicType(parameterType.getBasicType());
+            writeVarint(parameterType.isPresentParameterPropertyList() ? 1 : 0);
+            if (parameterType.isPresentParameterPropertyList()) {
+                writePosition(parameterType.getParameterPropertyList());
+                writeVarint(parameterType.getParameterPropertyList().sizeParameterPropertys());
+                for (ASTParameterProperty property : parameterType.getParameterPropertyList().getParameterPropertyList()) {
+                    writePosition(property);
+                    writeString(property.getName());
+                    writeBasicType(property.getBasicType());
+                }
+            }
+        }
+
+        writeVarint(ast.sizeParameterInstanceDefs());
+        for (ASTParameterInstanceDef instance : ast.getParameterInstanceDefList()) {
+            writePosition(instance);
+            writeString(instance.getName());
+            writePosition(instance.getParameterInstanceValues());
+            writeVarint(instance.getParameterInstanceValues().sizeParameterInstanceValues());
+            for (ASTParameterInstanceValue value : instance.getParameterInstanceValues().getParameterInstanceValueList()) {
+                writePosition(value);
+                writeValue(value.getValue());
+            }
+        }
+
+        writePredicateInstances(ast.getPredicateInstanceDefList());
+
+        writeVarint(ast.sizeActions());
+        for (ASTAction action : ast.getActionList()) {
+            writeAction(action);
+        }
+
+        writeVarint(ast.sizeActionInstances());
+        for (ASTActionInstance actionInstance : ast.getActionInstanceList()) {
+            writePosition(actionInstance);
+            writePosition(actionInstance.getActionTypeName());
+            writeString(actionInstance.getActionTypeName().getName());
+            writeParameterInstances(actionInstance.getParameterInstanceList());
+        }
+
+        writeVarint(ast.sizeInitialStates());
+        for (ASTInitialState initial : ast.getInitialStateList()) {
+            writePosition(initial);
+            writePredicateInstances(initial.getPredicateInstanceDefList());
+        }
+        writeVarint(ast.sizeGoalStates());
+        for (ASTGoalState goal : ast.getGoalStateList()) {
+            writePosition(goal);
+            writePredicateInstances(goal.getPredicateInstanceDefList());
+        }
+    }
+
+    private void writeAction(ASTAction action) {
+        writePosition(action);
+        writeString(action.getName());
+        writePosition(action.getActionParametersBlock());
+        writeParameterInstances(action.getActionParametersBlock().getParameterInstanceList());
+        writePosition(action.getPreconditionState());
+        writePredicateInstances(action.getPreconditionState().getPredicateInstanceDefList());
+        writePosition(action.getEffectState());
+        writePredicateInstances(action.getEffectState().getPredicateInstanceDefList());
+
+        writePosition(action.getFunctionBlock());
+        writeNames(action.getFunctionBlock().getNameList());
+        writePosition(action.getFunctionBlock().getReturnType());
+        writeBasicType(action.getFunctionBlock().getReturnType().getBasicType());
+
+        writePosition(action.getImplementationBlock());
+        writePosition(action.getImplementationBlock().getFunctionReference());
+        writeString(action.getImplementationBlock().getFunctionReference().getName());
+    }
+
+    private void writeParameterInstances(List<ASTParameterInstance> params) {
+        writeVarint(params.size());
+        for (ASTParameterInstance param : params) {
+            writePosition(param);
+            writeNames(param.getNameList());
+        }
+    }
+
+    private void writePredicateInstances(List<ASTPredicateInstanceDef> predicates) {
+        writeVarint(predicates.size());
+        for (ASTPredicateInstanceDef predicate : predicates) {
+            writePosition(predicate);
+            writeString(predicate.getName());
+            writeVarint(predicate.sizePredicateArguments());
+            for (ASTPredicateArgument argument : predicate.getPredicateArgumentList()) {
+                writePosition(argument);
+                writePredicateValue(argument.getValue());
+                writeString(argument.getName());
+            }
+            writePredicateValue(predicate.getPredicateValue());
+        }
+    }
+
+    private void writePredicateValue(ASTPredicateValue value) {
+        writePosition(value);
+        if (value.isPresentName()) {
+            writeVarint(PREDICATE_VALUE_NAME);
+            writeString(value.getName());
+        } else if (value.isPresentAttributeAccess()) {
+            writeVarint(PREDICATE_VALUE_ATTRIBUTE_ACCESS);
+            writePosition(value.getAttributeAccess());
+            writeNames(value.getAttributeAccess().getNameList());
+        } else {
+            writeVarint(value.isTrueValue() ? PREDICATE_VALUE_TRUE : PREDICATE_VALUE_FALSE);
+        }
+    }
+
+    private void writeValue(ASTValue value) {
+        writePosition(value);
+        if (value.isPresentName()) {
+            writeVarint(VALUE_NAME);
+            writeString(value.getName());
+        } else if (value.isPresentINTEGER_VALUE()) {
+            writeVarint(VALUE_INTEGER);
+            writeString(value.getINTEGER_VALUE());
+        } else if (value.isPresentDOUBLE_VALUE()) {
+            writeVarint(VALUE_DOUBLE);
+            writeString(value.getDOUBLE_VALUE());
+        } else if (value.isPresentSTRING_VALUE()) {
+            writeVarint(VALUE_STRING);
+            writeString(value.getSTRING_VALUE());
+        } else {
+            writeVarint(value.isTrueValue() ? VALUE_TRUE : VALUE_FALSE);
+        }
+    }
+
+    private void writeBasicType(ASTBasicType type) {
+        writePosition(type);
+        int tag = basicTypeTag(type);
+        writeVarint(tag);
+        if (tag == BASIC_TYPE_LIST || tag == BASIC_TYPE_SET) {
+            writeBasicType(type.getBasicType(0));
+        } else if (tag == BASIC_TYPE_MAP) {
+            writeBasicType(type.getBasicType(0));
+            writeBasicType(type.getBasicType(1));
+        }
+    }
+
+    private static int basicTypeTag(ASTBasicType type) {
+        if (type.isPresentElement()) {
+            return 0;
+        } else if (type.isPresentAgent()) {
+            return 1;
+        } else if (type.isPresentLocation()) {
+            return 2;
+        } else if (type.isPresentLayer()) {
+            return 3;
+        } else if (type.isPresentModule()) {
+            return 4;
+        } else if (type.isPresentTool()) {
+            return 5;
+        } else if (type.isPresentString()) {
+            return 6;
+        } else if (type.isPresentDouble()) {
+            return 7;
+        } else if (type.isPresentInteger()) {
+            return 8;
+        } else if (type.isPresentBoolean()) {
+            return 9;
+        } else if (type.isPresentList()) {
+            return BASIC_TYPE_LIST;
+        } else if (type.isPresentSet()) {
+            return BASIC_TYPE_SET;
+        } else if (type.isPresentMap()) {
+            return BASIC_TYPE_MAP;
+        }
+        throw new IllegalArgumentException("Unsupported basic type at " + type.get_SourcePositionStart());
+    }
+
+    // ---------------------------------------------------------------- BehaviorTree
+
+    public void writeBehaviorTree(ASTBehaviorTree ast) {
+        writePosition(ast);
+        writeString(ast.getName());
+
+        ASTBlackboard blackboard = ast.getBlackboard();
+        writePosition(blackboard);
+        writeString(blackboard.getName());
+        writeVarint(blackboard.sizeVariables());
+        for (ASTVariable variable : blackboard.getVariableList()) {
+            writePosition(variable);
+            writePosition(variable.getType());
+            writeString(variable.getName());
+        }
+
+        ASTRootNode root = ast.getRootNode();
+        writePosition(root);
+        writeVarint(root.sizeBTFlowNodes());
+        for (ASTBTFlowNode flowNode : root.getBTFlowNodeList()) {
+            writeFlowNode(flowNode);
+        }
+        writeVarint(root.sizeBTActionNodes());
+        for (ASTBTActionNode actionNode : root.getBTActionNodeList()) {
+            writeActionNode(actionNode);
+        }
+    }
+
+    private void writeFlowNode(ASTBTFlowNode node) {
+        writePosition(node);
+        writeDecorator(node.isPresentDecorator() ? node.getDecorator() : null);
+        writeString(node.getName());
+        writeVarint(node.sizeBTFlowNodes());
+        for (ASTBTFlowNode child : node.getBTFlowNodeList()) {
+            writeFlowNode(child);
+        }
+        writeVarint(node.sizeBTActionNodes());
+        for (ASTBTActionNode child : node.getBTActionNodeList()) {
+            writeActionNode(child);
+        }
+    }
+
+    private void writeActionNode(ASTBTActionNode node) {
+        writePosition(node);
+        writeDecorator(node.isPresentDecorator() ? node.getDecorator() : null);
+        writeString(node.getName());
+        writeVarint(node.sizeParameters());
+        for (ASTParameter param : node.getParameterList()) {
+            writePosition(param);
+            writePosition(param.getType());
+            writeString(param.getName());
+        }
+    }
+
+    private void writeDecorator(ASTDecorator decorator) {
+        writeVarint(decorator != null ? 1 : 0);
+        if (decorator != null) {
+            writePosition(decorator);
+            writeString(decorator.getName());
+        }
+    }
+
+    // ---------------------------------------------------------------- primitives
+
+    private void writeNames(List<String> names) {
+        writeVarint(names.size());
+        for (String name : names) {
+            writeString(name);
+        }
+    }
+
+    /**
+     * Writes the start position as line and column. Line 0 marks a node without position.
+     */
+    private void writePosition(ASTNode node) {
+        if (!node.isPresent_SourcePositionStart()) {
+            writeVarint(0);
+            writeVarint(0);
+            return;
+        }
+        SourcePosition position = node.get_SourcePositionStart();
+        writeVarint(position.getLine());
+        writeVarint(position.getColumn());
+    }
+
+    private void writeString(String value) {
+        Integer index = stringIndices.get(value);
+        if (index == null) {
+            index = strings.size();
+            stringIndices.put(value, index);
+            strings.add(value);
+        }
+        writeVarint(index);
+    }
+
+    private void writeVarint(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (size + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additional));
+        }
+    }
+}
@@ -1,7 +1,10 @@
 import behaviortree._parser.BehaviorTreeParser;
 import behaviortree._ast.ASTBehaviorTree;
+import crf._ast.ASTAllowedType;
 import java.util.Optional;
 import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 public class ASTStorage {
     
@@ -9,14 +12,15 @@ public class ASTStorage {
         try {
             // 1. Parse and store in memory
             BehaviorTreeParser parser = new BehaviorTreeParser();
-            Optional<ASTBehaviorTree> result = parser.parse("src/test/resources/valid/behavior_trees/test_behavior_tree.txt");
+            Path source = Paths.get("src/test/resources/valid/behavior_trees/test_behavior_tree.txt");
+            Optional<ASTBehaviorTree> result = parser.parse(source.toString());
             
             if (result.isPresent()) {
                 ASTBehaviorTree ast = result.get();
                 System.out.println("✅ AST created and stored in memory");
                 
-                // 2. Serialize to file (Handbook recommended)
-                serializeAST(ast, "ast_objects.ser");
+                // 2. Serialize to a binary snapshot
+                serializeAST(ast, "ast_objects.snapshot", ASTSnapshot.hashFile(source));
                 
                 // 3. Export to JSON (for C# integration)
                 exportToJSON(ast, "ast_data.json");
@@ -34,83 +38,72 @@ public class ASTStorage {
         }
     }
     
-    // Method 1: Java Serialization (Handbook recommended)
+    // Method 1: Binary snapshot (see ASTSnapshot); unlike Java serialization it survives AST class changes
     public static void serializeAST(ASTBehaviorTree ast, String filename) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filename))) {
-            oos.writeObject(ast);
+        serializeAST(ast, filename, new byte[32]);
+    }
+
+    public static void serializeAST(ASTBehaviorTree ast, String filename, byte[] sourceHash) {
+        try {
+            ASTSnapshot.write(Paths.get(filename), ast, sourceHash);
             System.out.println("SUCCESS: AST serialized to: " + filename);
         } catch (IOException e) {
             System.err.println("ERROR: Serialization failed: " + e.getMessage());
         }
     }
     
-    // Method 2: Load serialized AST
+    // Method 2: Load a snapshot; returns null if it is missing or was written for another grammar version
     public static ASTBehaviorTree deserializeAST(String filename) {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filename))) {
-            ASTBehaviorTree ast = (ASTBehaviorTree) ois.readObject();
-            System.out.println("SUCCESS: AST loaded from: " + filename);
-            return ast;
-        } catch (IOException | ClassNotFoundException e) {
+        try {
+            Optional<ASTBehaviorTree> ast = ASTSnapshot.readBehaviorTree(Paths.get(filename), null, filename);
+            if (ast.isPresent()) {
+                System.out.println("SUCCESS: AST loaded from: " + filename);
+                return ast.get();
+            }
+            System.out.println("FAILED: No valid AST snapshot in: " + filename);
+            return null;
+        } catch (IOException e) {
             System.err.println("ERROR: Deserialization failed: " + e.getMessage());
             return null;
         }
     }
     
-    // Method 3: Export to JSON (for C# integration)
+    // Method 3: Export to JSON (for C# integration), streamed by ASTExporter
     public static void exportToJSON(ASTBehaviorTree ast, String filename) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
-            writer.println("{");
-            writer.println("  \"behaviorTree\": {");
-            writer.println("    \"name\": \"" + ast.getName() + "\",");
-            
-            // Export blackboard data
-            if (ast.getBlackboard() != null) {
-                writer.println("    \"blackboard\": {");
-                writer.println("      \"variables\": [");
-                // Add variable export logic here
-                writer.println("      ]");
-                writer.println("    },");
-            }
-            
-            // Export root node data
-            if (ast.getRootNode() != null) {
-                writer.println("    \"rootNode\": {");
-                // Add root node export logic here
-                writer.println("    }");
-            }
-            
-            writer.println("  }");
-            writer.println("}");
+        try {
+            ASTExporter.export(ast, Paths.get(filename), ASTExporter.Format.JSON);
             System.out.println("SUCCESS: AST exported to JSON: " + filename);
         } catch (IOException e) {
             System.err.println("ERROR: JSON export failed: " + e.getMessage());
         }
     }
     
-    // Method 4: Export to XML
+    // Method 4: Export to XML, streamed by ASTExporter
     public static void exportToXML(ASTBehaviorTree ast, String filename) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
-            writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
-            writer.println("<behaviorTree name=\"" + ast.getName() + "\">");
-            
-            // Export blackboard
-            if (ast.getBlackboard() != null) {
-                writer.println("  <blackboard>");
-                // Add blackboard export logic here
-                writer.println("  </blackboard>");
-            }
-            
-            // Export root node
-            if (ast.getRootNode() != null) {
-                writer.println("  <rootNode>");
-                // Add root node export logic here
-                writer.println("  </rootNode>");
-            }
-            
-            writer.println("</behaviorTree>");
+        try {
+            ASTExporter.export(ast, Paths.get(filename), ASTExporter.Format.XML);
             System.out.println("SUCCESS: AST exported to XML: " + filename);
         } catch (IOException e) {
             System.err.println("ERROR: XML export failed: " + e.getMessage());
         }
     }
+    
+    // CRF models are exported the same way
+    public static void exportToJSON(ASTAllowedType ast, String filename) {
+        try {
+            ASTExporter.export(ast, Paths.get(filename), ASTExporter.Format.JSON);
+            System.out.println("SUCCESS: CRF model exported to JSON: " + filename);
+        } catch (IOException e) {
+            System.err.println("ERROR: JSON export failed: " + e.getMessage());
+        }
+    }
+    
+    public static void exportToXML(ASTAllowedType ast, String filename) {
+        try {
+            ASTExporter.export(ast, Paths.get(filename), ASTExporter.Format.XML);
+            System.out.println("SUCCESS: CRF model exported to XML: " + filename);
+        } catch (IOException e) {
+            System.err.println("ERROR: XML export failed: " + e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,185 @@
+import behaviortree._ast.ASTBTActionNode;
+import behaviortree._ast.ASTBTFlowNode;
+import behaviortree._ast.ASTBehaviorTree;
+import behaviortree._ast.ASTParameter;
+import behaviortree._ast.ASTRootNode;
+import behaviortree._ast.ASTVariable;
+import behaviortree._parser.BehaviorTreeParser;
+import de.monticore.ast.ASTNode;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Flattens a BehaviorTree into a {@link FlatBehaviorTree} and writes it as a binary blob together with a
+ * generated C# loader (see {@link CSharpFlatTreeGenerator}).
+ *
+ * The grammar keeps the flow node and action node children of a node in two lists, so the children are
+ * put back into source order by their start positions before they are numbered.
+ */
+public class BehaviorTreeFlattener {
+
+    public static final String DEFAULT_OUTPUT_DIR = "../src/Tree/FlatTrees";
+
+    private static final String USAGE = "Usage: BehaviorTreeFlattener <behavior-tree-file>... [--output-dir DIR]";
+
+    private static final Comparator<ASTNode> SOURCE_ORDER = Comparator
+        .comparingInt((ASTNode node) -> node.get_SourcePositionStart().getLine())
+        .thenComparingInt(node -> node.get_SourcePositionStart().getColumn());
+
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIndices = new HashMap<>();
+    private final Map<String, Integer> decoratorIndices = new HashMap<>();
+    private final List<Integer> decorators = new ArrayList<>();
+    private final Map<String, Integer> variableIndices = new HashMap<>();
+    private final List<Integer> variables = new ArrayList<>();
+
+    private final List<Byte> kinds = new ArrayList<>();
+    private final List<Integer> names = new ArrayList<>();
+    private final List<Integer> parents = new ArrayList<>();
+    private final List<Integer> subtreeEnds = new ArrayList<>();
+    private final List<Integer> childCounts = new ArrayList<>();
+    private final List<Integer> depths = new ArrayList<>();
+    private final List<Integer> nodeDecorators = new ArrayList<>();
+    private final List<Integer> parameterOffsets = new ArrayList<>();
+    private final List<Integer> parameterNames = new ArrayList<>();
+    private final List<Integer> parameterVariables = new ArrayList<>();
+
+    public static FlatBehaviorTree flatten(ASTBehaviorTree ast) {
+        return new BehaviorTreeFlattener().run(ast);
+    }
+
+    private BehaviorTreeFlattener() {
+    }
+
+    private FlatBehaviorTree run(ASTBehaviorTree ast) {
+        // Variables keep their declaration order, a repeated name refers to the first declaration
+        for (ASTVariable variable : ast.getBlackboard().getVariableList()) {
+            if (!variableIndices.containsKey(variable.getName())) {
+                variableIndices.put(variable.getName(), variables.size());
+                variables.add(intern(variable.getName()));
+            }
+        }
+
+        ASTRootNode root = ast.getRootNode();
+        int node = addNode(FlatBehaviorTree.KIND_FLOW, "RootNode", -1, 0, null);
+        addChildren(node, 0, root.getBTFlowNodeList(), root.getBTActionNodeList());
+
+        int n = kinds.size();
+        byte[] kindArray = new byte[n];
+        for (int i = 0; i < n; i++) {
+            kindArray[i] = kinds.get(i);
+        }
+        parameterOffsets.add(parameterNames.size());
+        return new FlatBehaviorTree(ast.getName(), strings, kindArray, toArray(names), toArray(parents),
+            toArray(subtreeEnds), toArray(childCounts), toArray(depths), toArray(nodeDecorators),
+            toArray(parameterOffsets), toArray(parameterNames), toArray(parameterVariables), toArray(decorators),
+            toArray(variables));
+    }
+
+    private void addChildren(int parent, int depth, List<ASTBTFlowNode> flowNodes, List<ASTBTActionNode> actionNodes) {
+        List<ASTNode> children = new ArrayList<>(flowNodes);
+        children.addAll(actionNodes);
+        // Stable, so without source positions flow nodes stay before action nodes
+        children.sort(SOURCE_ORDER);
+        childCounts.set(parent, children.size());
+
+        for (ASTNode child : children) {
+            if (child instanceof ASTBTFlowNode) {
+                ASTBTFlowNode flowNode = (ASTBTFlowNode) child;
+                int node = addNode(FlatBehaviorTree.KIND_FLOW, flowNode.getName(), parent, depth + 1,
+                    flowNode.isPresentDecorator() ? flowNode.getDecorator().getName() : null);
+                addChildren(node, depth + 1, flowNode.getBTFlowNodeList(), flowNode.getBTActionNodeList());
+            } else {
+                ASTBTActionNode actionNode = (ASTBTActionNode) child;
+                addNode(FlatBehaviorTree.KIND_ACTION, actionNode.getName(), parent, depth + 1,
+                    actionNode.isPresentDecorator() ? actionNode.getDecorator().getName() : null);
+                for (ASTParameter parameter : actionNode.getParameterList()) {
+                    parameterNames.add(intern(parameter.getName()));
+                    parameterVariables.add(variableIndices.getOrDefault(parameter.getName(), -1));
+                }
+            }
+        }
+        subtreeEnds.set(parent, kinds.size());
+    }
+
+    private int addNode(byte kind, String name, int parent, int depth, String decorator) {
+        int node = kinds.size();
+        kinds.add(kind);
+        names.add(intern(name));
+        parents.add(parent);
+        subtreeEnds.add(node + 1);
+        childCounts.add(0);
+        depths.add(depth);
+        parameterOffsets.add(parameterNames.size());
+        if (decorator == null) {
+            nodeDecorators.add(-1);
+        } else {
+            nodeDecorators.add(decoratorIndices.computeIfAbsent(decorator, d -> {
+                decorators.add(intern(d));
+                return decorators.size() - 1;
+            }));
+        }
+        return node;
+    }
+
+    private int intern(String value) {
+        return stringIndices.computeIfAbsent(value, v -> {
+            strings.add(v);
+            return strings.size() - 1;
+        });
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public static void main(String[] args) {
+        Path outputDir = Paths.get(DEFAULT_OUTPUT_DIR);
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--output-dir") && i + 1 < args.length) {
+                outputDir = Paths.get(args[++i]);
+            } else if (args[i].startsWith("--")) {
+                System.out.println("ERROR: Unknown option " + args[i]);
+                System.out.println(USAGE);
+                return;
+            } else {
+                files.add(args[i]);
+            }
+        }
+        if (files.isEmpty()) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        for (String file : files) {
+            try {
+                Optional<ASTBehaviorTree> ast = new BehaviorTreeParser().parse(file);
+                if (!ast.isPresent()) {
+                    System.out.println("FAILED: Failed to parse behavior tree " + file);
+                    continue;
+                }
+                FlatBehaviorTree tree = flatten(ast.get());
+                Files.createDirectories(outputDir);
+                String className = CSharpFlatTreeGenerator.className(tree.getName());
+                Path blob = outputDir.resolve(CSharpFlatTreeGenerator.blobFileName(tree.getName()));
+                Path loader = outputDir.resolve(className + ".cs");
+                Files.write(blob, tree.encode());
+                Files.write(loader, CSharpFlatTreeGenerator.render(className, tree).getBytes(StandardCharsets.UTF_8));
+                System.out.println("SUCCESS: " + tree.getName() + ": " + tree);
+                System.out.println("  Written to " + blob + " and " + loader);
+            } catch (IOException e) {
+                System.err.println("ERROR: Flattening " + file + " failed: " + e.getMessage());
+            }
+        }
+    }
+}
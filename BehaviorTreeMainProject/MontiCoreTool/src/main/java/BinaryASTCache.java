@@ -0,0 +1,107 @@
+import behaviortree._ast.ASTBehaviorTree;
+import behaviortree._parser.BehaviorTreeParser;
+import crf._ast.ASTAllowedType;
+import crf._parser.CRFParser;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Directory of {@link ASTSnapshot}s keyed by the SHA-256 of the model file.
+ * Parsing through the cache returns the snapshot if the file content was parsed before with the
+ * same grammar, and otherwise parses the file and stores a snapshot for the next run.
+ * Snapshots written for another grammar or format version are ignored and overwritten.
+ */
+public class BinaryASTCache {
+
+    private final Path directory;
+
+    public BinaryASTCache(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public Optional<ASTAllowedType> parseCRF(CRFParser parser, Path source) throws IOException {
+        return parseCRF(source, () -> {
+            Optional<ASTAllowedType> parsed = parser.parse(source.toString());
+            return parser.hasErrors() ? Optional.empty() : parsed;
+        });
+    }
+
+    public Optional<ASTAllowedType> parseCRF(ChunkedCRFParser parser, Path source) throws IOException {
+        return parseCRF(source, () -> parser.parse(source));
+    }
+
+    private Optional<ASTAllowedType> parseCRF(Path source, SourceParse<ASTAllowedType> parse) throws IOException {
+        if (!ASTSnapshot.isGrammarKnown()) {
+            return parse.run();
+        }
+        byte[] sourceHash = ASTSnapshot.hashFile(source);
+        Path entry = entryFile(sourceHash, ".crf.ast");
+        Optional<ASTAllowedType> cached = ASTSnapshot.readAllowedType(entry, sourceHash, source.toString());
+        if (cached.isPresent()) {
+            System.out.println("AST CACHE: Loaded " + source.getFileName() + " from snapshot");
+            return cached;
+        }
+
+        Optional<ASTAllowedType> parsed = parse.run();
+        if (parsed.isPresent()) {
+            store(entry, () -> ASTSnapshot.write(entry, parsed.get(), sourceHash));
+        }
+        return parsed;
+    }
+
+    public Optional<ASTBehaviorTree> parseBehaviorTree(BehaviorTreeParser parser, Path source) throws IOException {
+        if (!ASTSnapshot.isGrammarKnown()) {
+            return parser.parse(source.toString());
+        }
+        byte[] sourceHash = ASTSnapshot.hashFile(source);
+        Path entry = entryFile(sourceHash, ".bt.ast");
+        Optional<ASTBehaviorTree> cached = ASTSnapshot.readBehaviorTree(entry, sourceHash, source.toString());
+        if (cached.isPresent()) {
+            System.out.println("AST CACHE: Loaded " + source.getFileName() + " from snapshot");
+            return cached;
+        }
+
+        Optional<ASTBehaviorTree> parsed = parser.parse(source.toString());
+        if (parsed.isPresent() && !parser.hasErrors()) {
+            store(entry, () -> ASTSnapshot.write(entry, parsed.get(), sourceHash));
+        }
+        return parsed;
+    }
+
+    private Path entryFile(byte[] sourceHash, String extension) {
+        StringBuilder name = new StringBuilder();
+        for (byte b : sourceHash) {
+            name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return directory.resolve(name.append(extension).toString());
+    }
+
+    /**
+     * A failing cache write only costs the next run a parse, so it is reported but not propagated.
+     */
+    private void store(Path entry, SnapshotWrite write) {
+        try {
+            Files.createDirectories(directory);
+            write.run();
+        } catch (IOException | RuntimeException e) {
+            System.out.println("FAILED: Could not write AST snapshot " + entry + ": " + e.getMessage());
+        }
+    }
+
+    private interface SnapshotWrite {
+        void run() throws IOException;
+    }
+
+    /**
+     * Parses the source file; returns an empty optional if it has errors.
+     */
+    private interface SourceParse<T> {
+        Optional<T> run() throws IOException;
+    }
+}
@@ -0,0 +1,330 @@
+import crf._ast.ASTAction;
+import crf._ast.ASTActionInstance;
+import crf._ast.ASTAllowedType;
+import crf._ast.ASTBasicType;
+import crf._ast.ASTParameterDeclaration;
+import crf._ast.ASTParameterInstance;
+import crf._ast.ASTParameterInstanceDef;
+import crf._ast.ASTPredicateArgument;
+import crf._ast.ASTPredicateInstanceDef;
+import crf._ast.ASTPredicateTypeDef;
+import crf._cocos.CRFASTActionCoCo;
+import crf._cocos.CRFASTActionInstanceCoCo;
+import crf._cocos.CRFASTParameterInstanceDefCoCo;
+import crf._cocos.CRFASTPredicateInstanceDefCoCo;
+import de.monticore.ast.ASTNode;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Context conditions of CRF models.
+ *
+ * The CoCos only read the {@link CRFSymbolTable} and report to a {@link CoCoFindings}, so
+ * {@link #check(ASTAllowedType, CRFSymbolTable, int)} runs them in parallel over the top-level declarations
+ * and returns all errors at once.
+ *
+ * Error codes:
+ * 0xCRF01 unknown predicate, 0xCRF02 unknown predicate parameter, 0xCRF03 unbound predicate parameter,
+ * 0xCRF04 unknown parameter type, 0xCRF05 unknown bound object, 0xCRF06 incompatible predicate argument,
+ * 0xCRF07 unknown action, 0xCRF08 unknown action parameter, 0xCRF09 unknown parameter instance,
+ * 0xCRF10 incompatible action instance binding, 0xCRF11 duplicate declaration.
+ */
+public class CRFCoCos {
+
+    // Top-level declarations checked per task, so huge instance sections do not create a task per line
+    private static final int MIN_BATCH_SIZE = 256;
+
+    /**
+     * Runs all CRF context conditions and returns the findings.
+     */
+    public static CoCoFindings check(ASTAllowedType ast, CRFSymbolTable symbols, int threads) {
+        CoCoFindings findings = new CoCoFindings();
+        PredicateInstanceCoCo predicateInstances = new PredicateInstanceCoCo(symbols, findings);
+        FactCoCo facts = new FactCoCo(symbols, findings);
+        ActionCoCo actions = new ActionCoCo(symbols, findings);
+        ActionInstanceCoCo actionInstances = new ActionInstanceCoCo(symbols, findings);
+        ParameterInstanceDefCoCo parameterInstances = new ParameterInstanceDefCoCo(symbols, findings);
+
+        List<ASTNode> declarations = new ArrayList<>();
+        declarations.addAll(ast.getParameterInstanceDefList());
+        declarations.addAll(ast.getPredicateInstanceDefList());
+        declarations.addAll(ast.getActionList());
+        declarations.addAll(ast.getActionInstanceList());
+        // Initial and goal states are checked like facts
+        ast.getInitialStateList().forEach(state -> declarations.addAll(state.getPredicateInstanceDefList()));
+        ast.getGoalStateList().forEach(state -> declarations.addAll(state.getPredicateInstanceDefList()));
+
+        int batchSize = Math.max(MIN_BATCH_SIZE, declarations.size() / (threads * 4) + 1);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int start = 0; start < declarations.size(); start += batchSize) {
+            List<ASTNode> batch = declarations.subList(start, Math.min(start + batchSize, declarations.size()));
+            tasks.add(() -> {
+                for (ASTNode declaration : batch) {
+                    if (declaration instanceof ASTPredicateInstanceDef) {
+                        predicateInstances.check((ASTPredicateInstanceDef) declaration);
+                        facts.check((ASTPredicateInstanceDef) declaration);
+                    } else if (declaration instanceof ASTAction) {
+                        ASTAction action = (ASTAction) declaration;
+                        actions.check(action);
+                        action.getPreconditionState().getPredicateInstanceDefList().forEach(predicateInstances::check);
+                        action.getEffectState().getPredicateInstanceDefList().forEach(predicateInstances::check);
+                    } else if (declaration instanceof ASTActionInstance) {
+                        actionInstances.check((ASTActionInstance) declaration);
+                    } else {
+                        parameterInstances.check((ASTParameterInstanceDef) declaration);
+                    }
+                }
+                return null;
+            });
+        }
+        run(tasks, threads);
+
+        for (ASTNode duplicate : symbols.getDuplicates()) {
+            findings.error("0xCRF11", "Duplicate declaration, the first declaration with this name is used", duplicate);
+        }
+        return findings;
+    }
+
+    private static void run(List<Callable<Void>> tasks, int threads) {
+        if (threads <= 1 || tasks.size() <= 1) {
+            for (Callable<Void> task : tasks) {
+                try {
+                    task.call();
+                } catch (Exception e) {
+                    throw new IllegalStateException("Context condition failed", e);
+                }
+            }
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(Math.min(threads, tasks.size()));
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while checking context conditions", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Context condition failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Whether an object of the parameter type can be bound to a predicate parameter of the basic type.
+     * Only entity basic types (Element, Agent, ...) restrict the binding.
+     */
+    static boolean isAssignable(CRFSymbolTable symbols, String parameterType, ASTBasicType declared) {
+        String keyword = CRFSymbolTable.baseTypeName(declared);
+        switch (keyword) {
+            case "Element": case "Agent": case "Location": case "Layer": case "Module": case "Tool":
+                return symbols.isSubtypeOf(parameterType, keyword);
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Checks that the predicate argument names match the declared parameters of the predicate.
+     */
+    public static class PredicateInstanceCoCo implements CRFASTPredicateInstanceDefCoCo {
+        private final CRFSymbolTable symbols;
+        private final CoCoFindings findings;
+
+        public PredicateInstanceCoCo(CRFSymbolTable symbols, CoCoFindings findings) {
+            this.symbols = symbols;
+            this.findings = findings;
+        }
+
+        @Override
+        public void check(ASTPredicateInstanceDef node) {
+            Optional<ASTPredicateTypeDef> predicate = symbols.resolvePredicateType(node);
+            if (!predicate.isPresent()) {
+                findings.error("0xCRF01", "Unknown predicate '" + node.getName() + "'", node);
+                return;
+            }
+            Set<String> bound = new HashSet<>();
+            for (ASTPredicateArgument argument : node.getPredicateArgumentList()) {
+                String parameter = argument.getValue().isPresentName() ? argument.getValue().getName() : null;
+                if (parameter == null || findParameter(predicate.get(), parameter) == null) {
+                    findings.error("0xCRF02", "Predicate '" + node.getName() + "' has no parameter '"
+                        + DeclarationHasher.predicateValueSignature(argument.getValue()) + "'", argument);
+                } else {
+                    bound.add(parameter);
+                }
+            }
+            for (ASTParameterDeclaration declaration : predicate.get().getParameterDeclarationList()) {
+                if (!bound.contains(declaration.getName())) {
+                    findings.error("0xCRF03", "Parameter '" + declaration.getName() + "' of predicate '"
+                        + node.getName() + "' is not bound", node);
+                }
+            }
+        }
+    }
+
+    static ASTParameterDeclaration findParameter(ASTPredicateTypeDef predicate, String name) {
+        for (ASTParameterDeclaration declaration : predicate.getParameterDeclarationList()) {
+            if (declaration.getName().equals(name)) {
+                return declaration;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks the objects bound in a predicate instance: each must resolve to a parameter type that is
+     * compatible with the declared type of the predicate parameter.
+     */
+    static void checkBindings(CRFSymbolTable symbols, CoCoFindings findings, ASTPredicateInstanceDef node,
+                              Function<String, Optional<String>> typeOf, String scope) {
+        Optional<ASTPredicateTypeDef> predicate = symbols.resolvePredicateType(node);
+        for (ASTPredicateArgument argument : node.getPredicateArgumentList()) {
+            Optional<String> type = typeOf.apply(argument.getName());
+            if (!type.isPresent()) {
+                findings.error("0xCRF05", "'" + argument.getName() + "' is not " + scope, argument);
+                continue;
+            }
+            if (!predicate.isPresent() || !argument.getValue().isPresentName()) {
+                continue;
+            }
+            ASTParameterDeclaration declaration = findParameter(predicate.get(), argument.getValue().getName());
+            if (declaration != null && !isAssignable(symbols, type.get(), declaration.getBasicType())) {
+                findings.error("0xCRF06", "'" + argument.getName() + "' of type '" + type.get()
+                    + "' cannot be bound to parameter '" + declaration.getName() + "' of type '"
+                    + CRFSymbolTable.baseTypeName(declaration.getBasicType()) + "'", argument);
+            }
+        }
+    }
+
+    /**
+     * Checks that facts and the predicate instances of initial and goal states bind parameter instances of compatible types.
+     */
+    public static class FactCoCo implements CRFASTPredicateInstanceDefCoCo {
+        private final CRFSymbolTable symbols;
+        private final CoCoFindings findings;
+
+        public FactCoCo(CRFSymbolTable symbols, CoCoFindings findings) {
+            this.symbols = symbols;
+            this.findings = findings;
+        }
+
+        @Override
+        public void check(ASTPredicateInstanceDef node) {
+            checkBindings(symbols, findings, node, symbols::resolveInstanceTypeName, "a parameter instance");
+        }
+    }
+
+    /**
+     * Checks that action parameters have declared types and that preconditions and effects only bind
+     * action parameters or parameter instances of compatible types.
+     */
+    public static class ActionCoCo implements CRFASTActionCoCo {
+        private final CRFSymbolTable symbols;
+        private final CoCoFindings findings;
+
+        public ActionCoCo(CRFSymbolTable symbols, CoCoFindings findings) {
+            this.symbols = symbols;
+            this.findings = findings;
+        }
+
+        @Override
+        public void check(ASTAction node) {
+            for (ASTParameterInstance param : node.getActionParametersBlock().getParameterInstanceList()) {
+                if (!symbols.resolveParameterType(param.getName(1)).isPresent()) {
+                    findings.error("0xCRF04", "Unknown parameter type '" + param.getName(1) + "'", param);
+                }
+            }
+            Map<String, String> params = symbols.getActionParameters(node.getName());
+            Function<String, Optional<String>> typeOf = name -> params.containsKey(name)
+                ? Optional.of(params.get(name)) : symbols.resolveInstanceTypeName(name);
+            String scope = "a parameter of action '" + node.getName() + "' or a parameter instance";
+            for (ASTPredicateInstanceDef predicate : node.getPreconditionState().getPredicateInstanceDefList()) {
+                checkBindings(symbols, findings, predicate, typeOf, scope);
+            }
+            for (ASTPredicateInstanceDef predicate : node.getEffectState().getPredicateInstanceDefList()) {
+                checkBindings(symbols, findings, predicate, typeOf, scope);
+            }
+        }
+    }
+
+    /**
+     * Checks that action instances bind every given parameter of an existing action to an existing
+     * parameter instance with the same base type as the parameter.
+     */
+    public static class ActionInstanceCoCo implements CRFASTActionInstanceCoCo {
+        private final CRFSymbolTable symbols;
+        private final CoCoFindings findings;
+
+        public ActionInstanceCoCo(CRFSymbolTable symbols, CoCoFindings findings) {
+            this.symbols = symbols;
+            this.findings = findings;
+        }
+
+        @Override
+        public void check(ASTActionInstance node) {
+            String action = node.getActionTypeName().getName();
+            if (!symbols.resolveAction(action).isPresent()) {
+                findings.error("0xCRF07", "Unknown action '" + action + "'", node.getActionTypeName());
+                return;
+            }
+            for (ASTParameterInstance binding : node.getParameterInstanceList()) {
+                String parameter = binding.getName(0);
+                String instance = binding.getName(1);
+                Optional<String> parameterType = symbols.resolveActionParameterType(action, parameter);
+                Optional<String> instanceType = symbols.resolveInstanceTypeName(instance);
+                if (!parameterType.isPresent()) {
+                    findings.error("0xCRF08", "Action '" + action + "' has no parameter '" + parameter + "'", binding);
+                } else if (!instanceType.isPresent()) {
+                    findings.error("0xCRF09", "Unknown parameter instance '" + instance + "'", binding);
+                } else if (!isCompatible(parameterType.get(), instanceType.get())) {
+                    findings.error("0xCRF10", "Instance '" + instance + "' of type '" + instanceType.get()
+                        + "' cannot be bound to parameter '" + parameter + "' of type '" + parameterType.get() + "'", binding);
+                }
+            }
+        }
+
+        private boolean isCompatible(String parameterType, String instanceType) {
+            if (parameterType.equals(instanceType)) {
+                return true;
+            }
+            Optional<String> parameterBase = symbols.resolveParameterType(parameterType)
+                .map(t -> CRFSymbolTable.baseTypeName(t.getBasicType()));
+            Optional<String> instanceBase = symbols.resolveParameterType(instanceType)
+                .map(t -> CRFSymbolTable.baseTypeName(t.getBasicType()));
+            return parameterBase.isPresent() && parameterBase.equals(instanceBase);
+        }
+    }
+
+    /**
+     * Checks that parameter instances are declared for an existing parameter type.
+     */
+    public static class ParameterInstanceDefCoCo implements CRFASTParameterInstanceDefCoCo {
+        private final CRFSymbolTable symbols;
+        private final CoCoFindings findings;
+
+        public ParameterInstanceDefCoCo(CRFSymbolTable symbols, CoCoFindings findings) {
+            this.symbols = symbols;
+            this.findings = findings;
+        }
+
+        @Override
+        public void check(ASTParameterInstanceDef node) {
+            if (!symbols.resolveParameterType(node.getName()).isPresent()) {
+                findings.error("0xCRF04", "Unknown parameter type '" + node.getName() + "'", node);
+            }
+        }
+    }
+}
@@ -0,0 +1,684 @@
+import crf._ast.ASTAction;
+import crf._ast.ASTAllowedType;
+import crf._ast.ASTGoalState;
+import crf._ast.ASTInitialState;
+import crf._ast.ASTParameterDeclaration;
+import crf._ast.ASTParameterInstanceDef;
+import crf._ast.ASTParameterInstanceValue;
+import crf._ast.ASTPredicateArgument;
+import crf._ast.ASTPredicateInstanceDef;
+import crf._ast.ASTPredicateTypeDef;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Instantiates the lifted actions of a CRF model over its parameter instances.
+ *
+ * Every action parameter ranges over the instances of its declared parameter type. A binding is type
+ * consistent if every object bound to a predicate parameter with an entity type (Element, Agent, ...)
+ * is an instance of a parameter type declared with that basic type, e.g. "beam : Element"; actions
+ * that bind a parameter to an incompatible predicate parameter have no groundings at all.
+ *
+ * Predicates that no action changes are static: their facts are fixed, so their preconditions are
+ * evaluated during grounding and dropped from the grounded actions. The grounding of an action is a
+ * join over its static preconditions: positive static preconditions are joined first, the one with
+ * the most bound arguments (then the fewest facts) next, using a per argument index of the facts;
+ * parameters that no static precondition binds are enumerated afterwards, smallest domain first.
+ * Negative static preconditions are checked as soon as all their arguments are bound.
+ *
+ * The model is expected to satisfy {@link CRFCoCos}; actions with arguments or parameter types that
+ * do not resolve are skipped and listed in {@link GroundedModel#getSkippedSchemas()}.
+ */
+public class CRFGrounder {
+
+    public static final long DEFAULT_MAX_ACTIONS = 2_000_000L;
+
+    private final ASTAllowedType ast;
+    private final CRFSymbolTable symbols;
+    private final long maxActions;
+
+    // Objects and predicates of the model
+    private final Map<String, Integer> objectIds = new LinkedHashMap<>();
+    private final List<String> objectTypes = new ArrayList<>();
+    private final Map<String, Integer> predicateIds = new LinkedHashMap<>();
+    private final List<ASTPredicateTypeDef> predicateDefs = new ArrayList<>();
+    private boolean[] fluent;
+    private final Map<Integer, Relation> staticRelations = new HashMap<>();
+    private int staticFacts;
+
+    // Fluent atoms
+    private final Map<GroundedModel.AtomKey, Integer> atomIndex = new HashMap<>();
+    private final IntList atomPredicate = new IntList();
+    private final IntList atomArgStart = new IntList();
+    private final IntList atomArgs = new IntList();
+
+    // Grounded actions
+    private final List<String> schemas = new ArrayList<>();
+    private final List<String> skippedSchemas = new ArrayList<>();
+    private final IntList actionSchema = new IntList();
+    private final IntList actionArgStart = new IntList();
+    private final IntList actionArgs = new IntList();
+    private final IntList preStart = new IntList();
+    private final IntList pre = new IntList();
+    private final IntList negStart = new IntList();
+    private final IntList neg = new IntList();
+    private final IntList addStart = new IntList();
+    private final IntList add = new IntList();
+    private final IntList delStart = new IntList();
+    private final IntList del = new IntList();
+
+    public CRFGrounder(CRFModel model) {
+        this(model.getAst(), model.getSymbolTable(), DEFAULT_MAX_ACTIONS);
+    }
+
+    /**
+     * @param maxActions grounding fails with an {@link IllegalStateException} once more actions are grounded
+     */
+    public CRFGrounder(ASTAllowedType ast, CRFSymbolTable symbols, long maxActions) {
+        this.ast = ast;
+        this.symbols = symbols;
+        this.maxActions = maxActions;
+    }
+
+    /**
+     * Grounds all actions of the model. A grounder can be used once.
+     */
+    public GroundedModel ground() {
+        if (!schemas.isEmpty() || !objectIds.isEmpty()) {
+            throw new IllegalStateException("The model was already grounded");
+        }
+        collectObjects();
+        collectPredicates();
+        int[] initial = collectFacts();
+        IntList goal = new IntList();
+        IntList negativeGoal = new IntList();
+        boolean goalSatisfiable = collectGoal(goal, negativeGoal);
+        for (ASTAction action : symbols.getActions().values()) {
+            groundAction(action);
+        }
+        atomArgStart.add(atomArgs.size());
+        actionArgStart.add(actionArgs.size());
+        preStart.add(pre.size());
+        negStart.add(neg.size());
+        addStart.add(add.size());
+        delStart.add(del.size());
+
+        return new GroundedModel(objectIds.keySet().toArray(new String[0]), objectTypes.toArray(new String[0]),
+            predicateIds.keySet().toArray(new String[0]),
+            atomPredicate.toArray(), atomArgStart.toArray(), atomArgs.toArray(), atomIndex,
+            schemas.toArray(new String[0]), actionSchema.toArray(), actionArgStart.toArray(), actionArgs.toArray(),
+            preStart.toArray(), pre.toArray(), negStart.toArray(), neg.toArray(),
+            addStart.toArray(), add.toArray(), delStart.toArray(), del.toArray(),
+            initial, goal.toArray(), negativeGoal.toArray(), goalSatisfiable, staticFacts, skippedSchemas);
+    }
+
+    private void collectObjects() {
+        for (ASTParameterInstanceDef instanceDef : ast.getParameterInstanceDefList()) {
+            for (ASTParameterInstanceValue value : instanceDef.getParameterInstanceValues().getParameterInstanceValueList()) {
+                if (value.getValue().isPresentName() && !objectIds.containsKey(value.getValue().getName())) {
+                    objectIds.put(value.getValue().getName(), objectIds.size());
+                    objectTypes.add(instanceDef.getName());
+                }
+            }
+        }
+    }
+
+    private void collectPredicates() {
+        for (ASTPredicateTypeDef predicate : symbols.getPredicateTypes().values()) {
+            predicateIds.put(predicate.getName(), predicateIds.size());
+            predicateDefs.add(predicate);
+        }
+        fluent = new boolean[predicateDefs.size()];
+        for (ASTAction action : symbols.getActions().values()) {
+            for (ASTPredicateInstanceDef effect : action.getEffectState().getPredicateInstanceDefList()) {
+                Integer predicate = predicateIds.get(effect.getName());
+                if (predicate != null) {
+                    fluent[predicate] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the facts and the initial states: static facts go to the relations used for pruning, the fluent
+     * ones are the initial atoms. Negated and incomplete facts are ignored.
+     */
+    private int[] collectFacts() {
+        for (int predicate = 0; predicate < predicateDefs.size(); predicate++) {
+            if (!fluent[predicate]) {
+                staticRelations.put(predicate, new Relation(predicateDefs.get(predicate).sizeParameterDeclarations()));
+            }
+        }
+        List<ASTPredicateInstanceDef> facts = new ArrayList<>(ast.getPredicateInstanceDefList());
+        for (ASTInitialState initial : ast.getInitialStateList()) {
+            facts.addAll(initial.getPredicateInstanceDefList());
+        }
+        BitSet initial = new BitSet();
+        for (ASTPredicateInstanceDef fact : facts) {
+            Integer predicate = predicateIds.get(fact.getName());
+            int[] args = predicate == null ? null : groundArguments(predicate, fact);
+            if (args == null || fact.getPredicateValue().isTrueValue()) {
+                continue;
+            }
+            if (fluent[predicate]) {
+                initial.set(intern(predicate, args));
+            } else if (staticRelations.get(predicate).add(args)) {
+                staticFacts++;
+            }
+        }
+        return initial.stream().toArray();
+    }
+
+    /**
+     * Reads the goal states into positive and negative fluent goal atoms. Returns false if a static goal
+     * literal does not hold or a goal literal does not resolve, so the goal can never be reached.
+     */
+    private boolean collectGoal(IntList goal, IntList negativeGoal) {
+        boolean satisfiable = true;
+        for (ASTGoalState state : ast.getGoalStateList()) {
+            for (ASTPredicateInstanceDef literal : state.getPredicateInstanceDefList()) {
+                Integer predicate = predicateIds.get(literal.getName());
+                int[] args = predicate == null ? null : groundArguments(predicate, literal);
+                boolean negated = literal.getPredicateValue().isTrueValue();
+                if (args == null) {
+                    satisfiable = false;
+                } else if (fluent[predicate]) {
+                    (negated ? negativeGoal : goal).add(intern(predicate, args));
+                } else if (staticRelations.get(predicate).contains(args) == negated) {
+                    satisfiable = false;
+                }
+            }
+        }
+        goal.sortUniqueFrom(0);
+        negativeGoal.sortUniqueFrom(0);
+        return satisfiable;
+    }
+
+    /**
+     * Object ids of the arguments of a predicate instance that binds parameter instances, by parameter
+     * position, or null if an argument does not resolve or a parameter is not bound.
+     */
+    private int[] groundArguments(int predicate, ASTPredicateInstanceDef instance) {
+        int[] args = new int[predicateDefs.get(predicate).sizeParameterDeclarations()];
+        Arrays.fill(args, -1);
+        for (ASTPredicateArgument argument : instance.getPredicateArgumentList()) {
+            int position = position(predicate, argument);
+            Integer object = objectIds.get(argument.getName());
+            if (position < 0 || object == null) {
+                return null;
+            }
+            args[position] = object;
+        }
+        return Arrays.stream(args).anyMatch(a -> a < 0) ? null : args;
+    }
+
+    private int position(int predicate, ASTPredicateArgument argument) {
+        if (!argument.getValue().isPresentName()) {
+            return -1;
+        }
+        List<ASTParameterDeclaration> declarations = predicateDefs.get(predicate).getParameterDeclarationList();
+        for (int i = 0; i < declarations.size(); i++) {
+            if (declarations.get(i).getName().equals(argument.getValue().getName())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int intern(int predicate, int[] args) {
+        GroundedModel.AtomKey key = new GroundedModel.AtomKey(predicate, args);
+        Integer atom = atomIndex.get(key);
+        if (atom == null) {
+            atom = atomPredicate.size();
+            atomIndex.put(key, atom);
+            atomPredicate.add(predicate);
+            atomArgStart.add(atomArgs.size());
+            atomArgs.addAll(args);
+        }
+        return atom;
+    }
+
+    /**
+     * A precondition or effect of an action. Terms are parameter indices, or {@code -(object + 1)} for instances.
+     */
+    private static final class Literal {
+        final int predicate;
+        final int[] terms;
+        final boolean negated;
+
+        Literal(int predicate, int[] terms, boolean negated) {
+            this.predicate = predicate;
+            this.terms = terms;
+            this.negated = negated;
+        }
+    }
+
+    private void groundAction(ASTAction action) {
+        List<String> parameters = new ArrayList<>(symbols.getActionParameters(action.getName()).keySet());
+        int[][] domains = new int[parameters.size()][];
+        BitSet[] inDomain = new BitSet[parameters.size()];
+        for (int v = 0; v < parameters.size(); v++) {
+            String type = symbols.getActionParameters(action.getName()).get(parameters.get(v));
+            if (!symbols.resolveParameterType(type).isPresent()) {
+                skippedSchemas.add(action.getName());
+                return;
+            }
+            domains[v] = symbols.getInstancesOfType(type).stream().mapToInt(objectIds::get).toArray();
+            inDomain[v] = new BitSet();
+            for (int object : domains[v]) {
+                inDomain[v].set(object);
+            }
+        }
+
+        List<Literal> preconditions = new ArrayList<>();
+        List<Literal> effects = new ArrayList<>();
+        boolean consistent = true;
+        for (ASTPredicateInstanceDef predicate : action.getPreconditionState().getPredicateInstanceDefList()) {
+            Literal literal = resolve(predicate, parameters, action);
+            if (literal == null) {
+                skippedSchemas.add(action.getName());
+                return;
+            }
+            consistent &= isTypeConsistent(literal, parameters, action);
+            preconditions.add(literal);
+        }
+        for (ASTPredicateInstanceDef predicate : action.getEffectState().getPredicateInstanceDefList()) {
+            Literal literal = resolve(predicate, parameters, action);
+            if (literal == null) {
+                skippedSchemas.add(action.getName());
+                return;
+            }
+            consistent &= isTypeConsistent(literal, parameters, action);
+            effects.add(literal);
+        }
+        int schema = schemas.size();
+        schemas.add(action.getName());
+        if (!consistent) {
+            return;
+        }
+
+        new Join(schema, domains, inDomain, preconditions, effects).run();
+    }
+
+    private Literal resolve(ASTPredicateInstanceDef predicate, List<String> parameters, ASTAction action) {
+        Integer predicateId = predicateIds.get(predicate.getName());
+        if (predicateId == null) {
+            return null;
+        }
+        int[] terms = new int[predicateDefs.get(predicateId).sizeParameterDeclarations()];
+        Arrays.fill(terms, Integer.MIN_VALUE);
+        for (ASTPredicateArgument argument : predicate.getPredicateArgumentList()) {
+            int position = position(predicateId, argument);
+            if (position < 0) {
+                return null;
+            }
+            int parameter = parameters.indexOf(argument.getName());
+            Integer object = objectIds.get(argument.getName());
+            if (parameter >= 0) {
+                terms[position] = parameter;
+            } else if (object != null) {
+                terms[position] = -(object + 1);
+            } else {
+                return null;
+            }
+        }
+        if (Arrays.stream(terms).anyMatch(t -> t == Integer.MIN_VALUE)) {
+            return null;
+        }
+        return new Literal(predicateId, terms, predicate.getPredicateValue().isTrueValue());
+    }
+
+    private boolean isTypeConsistent(Literal literal, List<String> parameters, ASTAction action) {
+        List<ASTParameterDeclaration> declarations = predicateDefs.get(literal.predicate).getParameterDeclarationList();
+        for (int i = 0; i < literal.terms.length; i++) {
+            int term = literal.terms[i];
+            String type = term >= 0
+                ? symbols.getActionParameters(action.getName()).get(parameters.get(term))
+                : objectTypes.get(-term - 1);
+            if (!CRFCoCos.isAssignable(symbols, type, declarations.get(i).getBasicType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Enumerates the bindings of one action in the join order described in the class comment.
+     */
+    private final class Join {
+        private final int schema;
+        private final int[][] domains;
+        private final BitSet[] inDomain;
+        private final List<Literal> fluentPreconditions = new ArrayList<>();
+        private final List<Literal> effects;
+
+        // Step i either joins joinLiterals[i] or enumerates parameter enumerated[i]; checks[i] run after step i
+        private final List<Literal> joinLiterals = new ArrayList<>();
+        private final IntList enumerated = new IntList();
+        private final List<List<Literal>> checks = new ArrayList<>();
+        private final List<Literal> initialChecks = new ArrayList<>();
+        private final int[] binding;
+
+        Join(int schema, int[][] domains, BitSet[] inDomain, List<Literal> preconditions, List<Literal> effects) {
+            this.schema = schema;
+            this.domains = domains;
+            this.inDomain = inDomain;
+            this.effects = effects;
+            this.binding = new int[domains.length];
+            Arrays.fill(binding, -1);
+
+            List<Literal> positive = new ArrayList<>();
+            List<Literal> negative = new ArrayList<>();
+            for (Literal literal : preconditions) {
+                if (fluent[literal.predicate]) {
+                    fluentPreconditions.add(literal);
+                } else {
+                    (literal.negated ? negative : positive).add(literal);
+                }
+            }
+            plan(positive, negative);
+        }
+
+        private void plan(List<Literal> positive, List<Literal> negative) {
+            boolean[] bound = new boolean[domains.length];
+            List<Literal> remaining = new ArrayList<>(positive);
+            while (!remaining.isEmpty()) {
+                Literal best = null;
+                int bestBound = -1;
+                for (Literal literal : remaining) {
+                    int boundTerms = 0;
+                    for (int term : literal.terms) {
+                        boundTerms += term < 0 || bound[term] ? 1 : 0;
+                    }
+                    if (boundTerms > bestBound || boundTerms == bestBound
+                        && staticRelations.get(literal.predicate).size() < staticRelations.get(best.predicate).size()) {
+                        best = literal;
+                        bestBound = boundTerms;
+                    }
+                }
+                remaining.remove(best);
+                for (int term : best.terms) {
+                    if (term >= 0) {
+                        bound[term] = true;
+                    }
+                }
+                joinLiterals.add(best);
+                enumerated.add(-1);
+            }
+            Integer[] unbound = new Integer[domains.length];
+            int count = 0;
+            for (int v = 0; v < domains.length; v++) {
+                if (!bound[v]) {
+                    unbound[count++] = v;
+                }
+            }
+            Arrays.sort(unbound, 0, count, (a, b) -> Integer.compare(domains[a].length, domains[b].length));
+            for (int i = 0; i < count; i++) {
+                joinLiterals.add(null);
+                enumerated.add(unbound[i]);
+            }
+
+            // Negative static preconditions run after the first step that binds all their parameters
+            for (int i = 0; i < joinLiterals.size(); i++) {
+                checks.add(new ArrayList<>());
+            }
+            for (Literal literal : negative) {
+                int last = -1;
+                for (int term : literal.terms) {
+                    if (term >= 0) {
+                        last = Math.max(last, stepBinding(term));
+                    }
+                }
+                (last < 0 ? initialChecks : checks.get(last)).add(literal);
+            }
+        }
+
+        private int stepBinding(int parameter) {
+            for (int step = 0; step < joinLiterals.size(); step++) {
+                Literal literal = joinLiterals.get(step);
+                if (literal == null ? enumerated.get(step) == parameter : contains(literal.terms, parameter)) {
+                    return step;
+                }
+            }
+            throw new IllegalStateException("Parameter is never bound");
+        }
+
+        void run() {
+            for (Literal literal : joinLiterals) {
+                if (literal != null && staticRelations.get(literal.predicate).size() == 0) {
+                    return;
+                }
+            }
+            if (passes(initialChecks)) {
+                step(0);
+            }
+        }
+
+        private void step(int step) {
+            if (step == joinLiterals.size()) {
+                emit();
+                return;
+            }
+            Literal literal = joinLiterals.get(step);
+            if (literal == null) {
+                int parameter = enumerated.get(step);
+                for (int object : domains[parameter]) {
+                    binding[parameter] = object;
+                    if (passes(checks.get(step))) {
+                        step(step + 1);
+                    }
+                }
+                binding[parameter] = -1;
+                return;
+            }
+
+            Relation relation = staticRelations.get(literal.predicate);
+            int[] candidates = relation.candidates(literal.terms, binding);
+            int[] assigned = new int[literal.terms.length];
+            for (int i = 0, n = candidates == null ? relation.size() : candidates.length; i < n; i++) {
+                int tuple = candidates == null ? i : candidates[i];
+                int count = 0;
+                boolean match = true;
+                for (int position = 0; position < literal.terms.length && match; position++) {
+                    int term = literal.terms[position];
+                    int object = relation.get(tuple, position);
+                    if (term < 0) {
+                        match = object == -term - 1;
+                    } else if (binding[term] >= 0) {
+                        match = binding[term] == object;
+                    } else if (inDomain[term].get(object)) {
+                        binding[term] = object;
+                        assigned[count++] = term;
+                    } else {
+                        match = false;
+                    }
+                }
+                if (match && passes(checks.get(step))) {
+                    step(step + 1);
+                }
+                for (int j = 0; j < count; j++) {
+                    binding[assigned[j]] = -1;
+                }
+            }
+        }
+
+        private boolean passes(List<Literal> negative) {
+            for (Literal literal : negative) {
+                if (staticRelations.get(literal.predicate).contains(ground(literal))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int[] ground(Literal literal) {
+            int[] args = new int[literal.terms.length];
+            for (int i = 0; i < args.length; i++) {
+                int term = literal.terms[i];
+                args[i] = term < 0 ? -term - 1 : binding[term];
+            }
+            return args;
+        }
+
+        private void emit() {
+            if (actionSchema.size() >= maxActions) {
+                throw new IllegalStateException("Grounding exceeds " + maxActions + " actions at action '" + schemas.get(schema) + "'");
+            }
+            actionSchema.add(schema);
+            actionArgStart.add(actionArgs.size());
+            actionArgs.addAll(binding);
+            preStart.add(pre.size());
+            negStart.add(neg.size());
+            for (Literal literal : fluentPreconditions) {
+                (literal.negated ? neg : pre).add(intern(literal.predicate, ground(literal)));
+            }
+            addStart.add(add.size());
+            delStart.add(del.size());
+            for (Literal literal : effects) {
+                (literal.negated ? del : add).add(intern(literal.predicate, ground(literal)));
+            }
+            pre.sortUniqueFrom(preStart.last());
+            neg.sortUniqueFrom(negStart.last());
+            add.sortUniqueFrom(addStart.last());
+            del.sortUniqueFrom(delStart.last());
+        }
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Facts of a static predicate with a hash set for membership and an index per argument position.
+     */
+    private static final class Relation {
+        private final int arity;
+        private final IntList data = new IntList();
+        private final Set<GroundedModel.AtomKey> members = new HashSet<>();
+        // (position, object) -> tuple indices, built on first use
+        private Map<Long, IntList> index;
+
+        Relation(int arity) {
+            this.arity = arity;
+        }
+
+        boolean add(int[] args) {
+            if (!members.add(new GroundedModel.AtomKey(0, args))) {
+                return false;
+            }
+            data.addAll(args);
+            index = null;
+            return true;
+        }
+
+        int size() {
+            return members.size();
+        }
+
+        int get(int tuple, int position) {
+            return data.get(tuple * arity + position);
+        }
+
+        boolean contains(int[] args) {
+            return members.contains(new GroundedModel.AtomKey(0, args));
+        }
+
+        /**
+         * Indices of the tuples that can match the bound terms, using the most selective bound position,
+         * or null if no position is bound.
+         */
+        int[] candidates(int[] terms, int[] binding) {
+            IntList best = null;
+            for (int position = 0; position < arity; position++) {
+                int term = terms[position];
+                int object = term < 0 ? -term - 1 : binding[term];
+                if (object < 0) {
+                    continue;
+                }
+                IntList tuples = index().get(((long) position << 32) | object);
+                if (tuples == null) {
+                    return new int[0];
+                }
+                if (best == null || tuples.size() < best.size()) {
+                    best = tuples;
+                }
+            }
+            return best == null ? null : best.toArray();
+        }
+
+        private Map<Long, IntList> index() {
+            if (index == null) {
+                index = new HashMap<>();
+                for (int i = 0; i < size(); i++) {
+                    for (int position = 0; position < arity; position++) {
+                        index.computeIfAbsent(((long) position << 32) | get(i, position), k -> new IntList()).add(i);
+                    }
+                }
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Growable int array.
+     */
+    static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(int[] more) {
+            for (int value : more) {
+                add(value);
+            }
+        }
+
+        int get(int i) {
+            return values[i];
+        }
+
+        int last() {
+            return values[size - 1];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        /**
+         * Sorts the entries from the given index on and removes duplicates among them.
+         */
+        void sortUniqueFrom(int from) {
+            Arrays.sort(values, from, size);
+            int end = from;
+            for (int i = from; i < size; i++) {
+                if (i == from || values[i] != values[end - 1]) {
+                    values[end++] = values[i];
+                }
+            }
+            size = end;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+import crf._parser.CRFParser;
+import crf._ast.ASTAllowedType;
+import crf._ast.ASTAction;
+import crf._ast.ASTParameterTypeDef;
+import crf._ast.ASTPredicateTypeDef;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A CRF model that has been parsed once and is shared by all generators.
+ * Names are resolved through a {@link CRFSymbolTable} so emitters do not have to scan the AST lists,
+ * and basic types are mapped to C# once by a {@link CSharpTypeMapper}.
+ */
+public class CRFModel {
+
+    private final Path source;
+    private final ASTAllowedType ast;
+    private final CRFSymbolTable symbolTable;
+    private final CSharpTypeMapper typeMapper;
+
+    public CRFModel(Path source, ASTAllowedType ast) {
+        this.source = source;
+        this.ast = ast;
+        this.symbolTable = new CRFSymbolTable(ast);
+        this.typeMapper = new CSharpTypeMapper(ast);
+    }
+
+    /**
+     * Parses the given model file with the supplied parser.
+     * Returns an empty optional if the file does not parse.
+     */
+    public static Optional<CRFModel> parse(CRFParser parser, Path source) throws IOException {
+        Optional<ASTAllowedType> result = parser.parse(source.toString());
+        return result.map(ast -> new CRFModel(source, ast));
+    }
+
+    /**
+     * Like {@link #parse(CRFParser, Path)}, but loads the AST from the cache if the file was parsed before.
+     */
+    public static Optional<CRFModel> parse(CRFParser parser, Path source, BinaryASTCache cache) throws IOException {
+        Optional<ASTAllowedType> result = cache.parseCRF(parser, source);
+        return result.map(ast -> new CRFModel(source, ast));
+    }
+
+    /**
+     * Parses the given model file in concurrent chunks (see {@link ChunkedCRFParser}).
+     * Returns an empty optional if the file does not parse.
+     */
+    public static Optional<CRFModel> parse(ChunkedCRFParser parser, Path source) throws IOException {
+        Optional<ASTAllowedType> result = parser.parse(source);
+        return result.map(ast -> new CRFModel(source, ast));
+    }
+
+    /**
+     * Like {@link #parse(ChunkedCRFParser, Path)}, but loads the AST from the cache if the file was parsed before.
+     */
+    public static Optional<CRFModel> parse(ChunkedCRFParser parser, Path source, BinaryASTCache cache) throws IOException {
+        Optional<ASTAllowedType> result = cache.parseCRF(parser, source);
+        return result.map(ast -> new CRFModel(source, ast));
+    }
+
+    /**
+     * Runs the CRF context conditions on the given number of threads (see {@link CRFCoCos}).
+     */
+    public CoCoFindings validate(int threads) {
+        return CRFCoCos.check(ast, symbolTable, threads);
+    }
+
+    public Path getSource() {
+        return source;
+    }
+
+    public ASTAllowedType getAst() {
+        return ast;
+    }
+
+    public CRFSymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    public CSharpTypeMapper getTypeMapper() {
+        return typeMapper;
+    }
+
+    public Map<String, ASTPredicateTypeDef> getPredicateTypes() {
+        return symbolTable.getPredicateTypes();
+    }
+
+    public Map<String, ASTParameterTypeDef> getParameterTypes() {
+        return symbolTable.getParameterTypes();
+    }
+
+    public Map<String, ASTAction> getActions() {
+        return symbolTable.getActions();
+    }
+
+    public Optional<ASTPredicateTypeDef> getPredicateType(String name) {
+        return symbolTable.resolvePredicateType(name);
+    }
+
+    public Optional<ASTParameterTypeDef> getParameterType(String name) {
+        return symbolTable.resolveParameterType(name);
+    }
+
+    public Optional<ASTAction> getAction(String name) {
+        return symbolTable.resolveAction(name);
+    }
+}
@@ -0,0 +1,451 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Writes synthetic CRF models, DynamicBTFlowNodes and behavior trees for scale tests.
+ *
+ * The output only depends on the {@link Settings}: the same seed always gives the same files.
+ * Everything is written as it is generated. Only the declarations that later parts refer to
+ * (base types of the parameter types, predicate signatures and action parameters) are kept in memory,
+ * so parameter instances, facts and action instances can be produced in any amount, e.g. for
+ * multi-gigabyte parser inputs. The models satisfy the context conditions of {@link CRFCoCos}.
+ *
+ * Usage: CRFModelSynthesizer [--seed N] [--parameter-types N] [--instances-per-type N] [--predicates N]
+ *     [--predicate-arity N] [--facts N] [--actions N] [--precondition-size N] [--effect-size N]
+ *     [--action-instances N] [--flow-width N] [--flow-depth N] [--bt-fan-out N] [--bt-depth N] [output-dir]
+ * The output directory receives synthetic_crf.txt, synthetic_flow_node.txt and synthetic_behavior_tree.txt.
+ */
+public class CRFModelSynthesizer {
+
+    public static final String CRF_FILE = "synthetic_crf.txt";
+    public static final String FLOW_NODE_FILE = "synthetic_flow_node.txt";
+    public static final String BEHAVIOR_TREE_FILE = "synthetic_behavior_tree.txt";
+
+    private static final String USAGE = "Usage: CRFModelSynthesizer [--seed N] [--parameter-types N] [--instances-per-type N] "
+        + "[--predicates N] [--predicate-arity N] [--facts N] [--actions N] [--precondition-size N] [--effect-size N] "
+        + "[--action-instances N] [--flow-width N] [--flow-depth N] [--bt-fan-out N] [--bt-depth N] [output-dir]";
+
+    private static final String[] BASE_TYPES = {"Element", "Agent", "Location", "Tool", "Layer", "Module"};
+    private static final String[] PROPERTY_TYPES = {
+        "String", "Integer", "Double", "Boolean", "List<String>", "Set<Integer>", "Map<String, Double>", "Location"
+    };
+    // Relations that point forward in time; layers of equal length that follow each other satisfy any mix of them
+    private static final String[] TEMPORAL_TYPES = {"MEETS", "BEFORE", "OVERLAPS"};
+    private static final String[] SUCCESS_TYPES = {"ALL", "ANY", "COUNT", "PERCENTAGE", "SIGNAL"};
+    private static final String[] DECORATORS = {"repeat", "inverter", "retry", "timeout"};
+    // Instances per ParameterInstance declaration, so huge instance counts still split into short declarations
+    private static final int INSTANCES_PER_DECLARATION = 64;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Size knobs of the synthetic models.
+     */
+    public static class Settings {
+        public long seed = 42;
+        public int parameterTypes = 12;
+        public int instancesPerType = 4;
+        public int predicates = 10;
+        public int predicateArity = 2;
+        public long facts = 20;
+        public int actions = 8;
+        public int preconditionSize = 2;
+        public int effectSize = 2;
+        public long actionInstances = 8;
+        public int flowWidth = 3;
+        public int flowDepth = 3;
+        public int btFanOut = 3;
+        public int btDepth = 3;
+
+        void validate() {
+            if (parameterTypes < 1 || predicates < 1 || predicateArity < 1) {
+                throw new IllegalArgumentException("At least one parameter type and one predicate with one parameter are required");
+            }
+            if (instancesPerType < 1 && (facts > 0 || actionInstances > 0)) {
+                throw new IllegalArgumentException("Facts and action instances require at least one instance per type");
+            }
+            if (instancesPerType < 0 || facts < 0 || actions < 0 || preconditionSize < 0 || effectSize < 0
+                || actionInstances < 0 || flowWidth < 1 || flowDepth < 1 || btFanOut < 1 || btDepth < 0) {
+                throw new IllegalArgumentException("Invalid model size");
+            }
+            if (actions == 0 && actionInstances > 0) {
+                throw new IllegalArgumentException("Action instances require at least one action");
+            }
+        }
+    }
+
+    private final Settings settings;
+    // Index into BASE_TYPES per parameter type, and the parameter types of every base type
+    private final int[] typeBase;
+    private final List<List<Integer>> typesOfBase = new ArrayList<>();
+    // Base type per predicate parameter
+    private final int[][] predicateParameters;
+    // Parameter type per action parameter, filled while the actions are written
+    private int[][] actionParameters;
+
+    public CRFModelSynthesizer(Settings settings) {
+        settings.validate();
+        this.settings = settings;
+        Random random = new Random(settings.seed);
+
+        typeBase = new int[settings.parameterTypes];
+        for (int i = 0; i < BASE_TYPES.length; i++) {
+            typesOfBase.add(new ArrayList<>());
+        }
+        for (int i = 0; i < typeBase.length; i++) {
+            // The first types cover every base type, the rest are drawn at random
+            typeBase[i] = i < BASE_TYPES.length ? i : random.nextInt(BASE_TYPES.length);
+            typesOfBase.get(typeBase[i]).add(i);
+        }
+        int usedBases = Math.min(settings.parameterTypes, BASE_TYPES.length);
+
+        predicateParameters = new int[settings.predicates][];
+        for (int i = 0; i < predicateParameters.length; i++) {
+            predicateParameters[i] = new int[1 + random.nextInt(settings.predicateArity)];
+            for (int j = 0; j < predicateParameters[i].length; j++) {
+                predicateParameters[i][j] = random.nextInt(usedBases);
+            }
+        }
+    }
+
+    /**
+     * Parses the command line options (see the class comment). Arguments that are not options are returned in {@code positional}.
+     */
+    public static Settings parseOptions(List<String> args, List<String> positional) {
+        Settings settings = new Settings();
+        for (int i = 0; i < args.size(); i++) {
+            String arg = args.get(i);
+            if (!arg.startsWith("--")) {
+                positional.add(arg);
+                continue;
+            }
+            if (i + 1 >= args.size()) {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+            String value = args.get(++i);
+            switch (arg) {
+                case "--seed": settings.seed = Long.parseLong(value); break;
+                case "--parameter-types": settings.parameterTypes = Integer.parseInt(value); break;
+                case "--instances-per-type": settings.instancesPerType = Integer.parseInt(value); break;
+                case "--predicates": settings.predicates = Integer.parseInt(value); break;
+                case "--predicate-arity": settings.predicateArity = Integer.parseInt(value); break;
+                case "--facts": settings.facts = Long.parseLong(value); break;
+                case "--actions": settings.actions = Integer.parseInt(value); break;
+                case "--precondition-size": settings.preconditionSize = Integer.parseInt(value); break;
+                case "--effect-size": settings.effectSize = Integer.parseInt(value); break;
+                case "--action-instances": settings.actionInstances = Long.parseLong(value); break;
+                case "--flow-width": settings.flowWidth = Integer.parseInt(value); break;
+                case "--flow-depth": settings.flowDepth = Integer.parseInt(value); break;
+                case "--bt-fan-out": settings.btFanOut = Integer.parseInt(value); break;
+                case "--bt-depth": settings.btDepth = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        return settings;
+    }
+
+    public static void main(String[] args) {
+        List<String> positional = new ArrayList<>();
+        Settings settings;
+        try {
+            settings = parseOptions(List.of(args), positional);
+            settings.validate();
+        } catch (IllegalArgumentException e) {
+            System.out.println("ERROR: " + e.getMessage());
+            System.out.println(USAGE);
+            return;
+        }
+        if (positional.size() > 1) {
+            System.out.println(USAGE);
+            return;
+        }
+        Path outputDir = Paths.get(positional.isEmpty() ? "target/synthetic" : positional.get(0));
+
+        try {
+            Files.createDirectories(outputDir);
+            CRFModelSynthesizer synthesizer = new CRFModelSynthesizer(settings);
+            long start = System.nanoTime();
+            try (Writer out = open(outputDir.resolve(CRF_FILE))) {
+                synthesizer.writeCRF(out);
+            }
+            try (Writer out = open(outputDir.resolve(FLOW_NODE_FILE))) {
+                synthesizer.writeFlowNode(out);
+            }
+            try (Writer out = open(outputDir.resolve(BEHAVIOR_TREE_FILE))) {
+                synthesizer.writeBehaviorTree(out);
+            }
+            System.out.println("SUCCESS: Synthesized models in " + outputDir + " ("
+                + Files.size(outputDir.resolve(CRF_FILE)) + " bytes of CRF, "
+                + (System.nanoTime() - start) / 1_000_000 + " ms)");
+        } catch (IOException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static Writer open(Path file) throws IOException {
+        return new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+    }
+
+    /**
+     * Writes the CRF model: parameter types, parameter instances, predicates, facts, actions and action instances.
+     */
+    public void writeCRF(Writer out) throws IOException {
+        Random random = new Random(settings.seed + 1);
+
+        out.write("// Synthetic CRF model, seed " + settings.seed + "\n\n");
+        for (int i = 0; i < typeBase.length; i++) {
+            writeParameterType(out, i, random);
+        }
+
+        for (int i = 0; i < typeBase.length; i++) {
+            for (int from = 0; from < settings.instancesPerType; from += INSTANCES_PER_DECLARATION) {
+                out.write("ParameterInstance: " + typeName(i) + " {");
+                int to = Math.min(from + INSTANCES_PER_DECLARATION, settings.instancesPerType);
+                for (int j = from; j < to; j++) {
+                    out.write(j > from ? ", " : "");
+                    out.write(instanceName(i, j));
+                }
+                out.write("}\n");
+            }
+        }
+        out.write("\n");
+
+        for (int i = 0; i < predicateParameters.length; i++) {
+            out.write("predicate " + predicateName(i) + " {\n");
+            for (int j = 0; j < predicateParameters[i].length; j++) {
+                out.write("    " + parameterName(j) + " - " + BASE_TYPES[predicateParameters[i][j]]
+                    + (j + 1 < predicateParameters[i].length ? ",\n" : "\n"));
+            }
+            out.write("}\n\n");
+        }
+
+        for (long f = 0; f < settings.facts; f++) {
+            int predicate = random.nextInt(predicateParameters.length);
+            String[] arguments = new String[predicateParameters[predicate].length];
+            for (int j = 0; j < arguments.length; j++) {
+                int type = randomTypeOfBase(predicateParameters[predicate][j], random);
+                arguments[j] = instanceName(type, random.nextInt(settings.instancesPerType));
+            }
+            out.write(predicateInstance(predicate, arguments, random.nextInt(8) == 0) + "\n");
+        }
+        out.write("\n");
+
+        actionParameters = new int[settings.actions][];
+        for (int i = 0; i < settings.actions; i++) {
+            writeAction(out, i, random);
+        }
+
+        for (long a = 0; a < settings.actionInstances; a++) {
+            int action = random.nextInt(settings.actions);
+            out.write("ActionInstance: " + actionName(action) + "(");
+            for (int j = 0; j < actionParameters[action].length; j++) {
+                out.write(j > 0 ? ", " : "");
+                out.write("v" + j + " : " + instanceName(actionParameters[action][j], random.nextInt(settings.instancesPerType)));
+            }
+            out.write(")\n");
+        }
+    }
+
+    private void writeParameterType(Writer out, int type, Random random) throws IOException {
+        out.write("Parameter " + typeName(type) + " : " + BASE_TYPES[typeBase[type]] + " {\n");
+        int properties = random.nextInt(4);
+        for (int j = 0; j < properties; j++) {
+            out.write("    prop" + j + ": " + PROPERTY_TYPES[random.nextInt(PROPERTY_TYPES.length)]
+                + (j + 1 < properties ? ",\n" : "\n"));
+        }
+        out.write("}\n\n");
+    }
+
+    private void writeAction(Writer out, int action, Random random) throws IOException {
+        // Predicate parameters are bound to a fresh action parameter or to an earlier one of the same base type
+        List<Integer> parameterTypes = new ArrayList<>();
+        List<String> precondition = new ArrayList<>();
+        List<String> effect = new ArrayList<>();
+        for (int k = 0; k < settings.preconditionSize + settings.effectSize; k++) {
+            int predicate = random.nextInt(predicateParameters.length);
+            String[] arguments = new String[predicateParameters[predicate].length];
+            for (int j = 0; j < arguments.length; j++) {
+                int base = predicateParameters[predicate][j];
+                int parameter = -1;
+                if (random.nextBoolean()) {
+                    for (int p = 0; p < parameterTypes.size() && parameter < 0; p++) {
+                        parameter = typeBase[parameterTypes.get(p)] == base ? p : -1;
+                    }
+                }
+                if (parameter < 0) {
+                    parameter = parameterTypes.size();
+                    parameterTypes.add(randomTypeOfBase(base, random));
+                }
+                arguments[j] = "v" + parameter;
+            }
+            String literal = predicateInstance(predicate, arguments, random.nextInt(4) == 0);
+            (k < settings.preconditionSize ? precondition : effect).add(literal);
+        }
+        actionParameters[action] = parameterTypes.stream().mapToInt(Integer::intValue).toArray();
+
+        out.write("Action " + actionName(action) + " {\n");
+        out.write("    parameters {\n");
+        for (int p = 0; p < parameterTypes.size(); p++) {
+            out.write("        v" + p + ": " + typeName(parameterTypes.get(p)) + "\n");
+        }
+        out.write("    }\n");
+        writeState(out, "precondition", precondition);
+        writeState(out, "effect", effect);
+        out.write("    function {\n");
+        out.write("        {");
+        for (int p = 0; p < parameterTypes.size(); p++) {
+            out.write((p > 0 ? "," : "") + "v" + p);
+        }
+        out.write("},\n");
+        out.write("        {Boolean}\n");
+        out.write("    }\n");
+        out.write("    implementation {\n");
+        out.write("        " + actionName(action) + "Implementation\n");
+        out.write("    }\n");
+        out.write("}\n\n");
+    }
+
+    private static void writeState(Writer out, String keyword, List<String> literals) throws IOException {
+        out.write("    " + keyword + " {\n");
+        for (String literal : literals) {
+            out.write("        " + literal + "\n");
+        }
+        out.write("    }\n");
+    }
+
+    /**
+     * Writes a DynamicBTFlowNode whose node graph has {@code flowDepth} layers of {@code flowWidth} nodes.
+     * Every node is related to two nodes of the next layer. The flow node's own precondition and effect
+     * use the first predicate of the CRF model.
+     */
+    public void writeFlowNode(Writer out) throws IOException {
+        Random random = new Random(settings.seed + 2);
+        int[] parameters = predicateParameters[0];
+        String[] arguments = new String[parameters.length];
+
+        out.write("BTFlownode syntheticFlow {\n");
+        out.write("    parameters {\n");
+        for (int j = 0; j < parameters.length; j++) {
+            arguments[j] = "v" + j;
+            out.write("        v" + j + " - " + BASE_TYPES[parameters[j]] + "\n");
+        }
+        out.write("    }\n");
+        writeState(out, "precondition", List.of(predicateInstance(0, arguments, false)));
+        writeState(out, "effect", List.of(predicateInstance(0, arguments, true)));
+        out.write("    cost: " + (1 + random.nextInt(20)) + ";\n");
+        out.write("    success: " + SUCCESS_TYPES[random.nextInt(SUCCESS_TYPES.length)] + ";\n");
+        out.write("    Nodegraph {\n");
+        for (int layer = 0; layer < settings.flowDepth; layer++) {
+            for (int k = 0; k < settings.flowWidth; k++) {
+                out.write("        BTNodeBase " + flowNodeName(layer, k) + " { Object part, Object worker }\n");
+            }
+        }
+        for (int layer = 0; layer + 1 < settings.flowDepth; layer++) {
+            for (int k = 0; k < settings.flowWidth; k++) {
+                writeRelation(out, flowNodeName(layer, k), flowNodeName(layer + 1, k), random);
+                if (settings.flowWidth > 1) {
+                    writeRelation(out, flowNodeName(layer, k), flowNodeName(layer + 1, (k + 1) % settings.flowWidth), random);
+                }
+            }
+        }
+        out.write("        planner {\n");
+        out.write("            type = GOAPPlanner\n");
+        out.write("        }\n");
+        out.write("    }\n");
+        out.write("}\n");
+    }
+
+    private static void writeRelation(Writer out, String source, String target, Random random) throws IOException {
+        out.write("        " + source + " -> " + target + " {\n");
+        out.write("            priority: Order = " + random.nextBoolean() + ",\n");
+        out.write("            temporal: " + TEMPORAL_TYPES[random.nextInt(TEMPORAL_TYPES.length)] + "\n");
+        out.write("        }\n");
+    }
+
+    /**
+     * Writes a behavior tree with {@code btFanOut} children per flow node, {@code btDepth} flow node levels
+     * below the root and action nodes as leaves.
+     */
+    public void writeBehaviorTree(Writer out) throws IOException {
+        Random random = new Random(settings.seed + 3);
+        out.write("BehaviorTree syntheticTree {\n");
+        out.write("    Blackboard board {\n");
+        out.write("        Object agent;\n");
+        out.write("        Object target;\n");
+        out.write("    }\n");
+        out.write("    BTFlowNode RootNode {\n");
+        long[] counter = {0};
+        for (int i = 0; i < settings.btFanOut; i++) {
+            writeTreeNode(out, settings.btDepth, 2, counter, random);
+        }
+        out.write("    }\n");
+        out.write("}\n");
+    }
+
+    private void writeTreeNode(Writer out, int depth, int indent, long[] counter, Random random) throws IOException {
+        String pad = "    ".repeat(indent);
+        long id = counter[0]++;
+        if (random.nextInt(4) == 0) {
+            out.write(pad + "decorator " + DECORATORS[random.nextInt(DECORATORS.length)] + "\n");
+        }
+        if (depth == 0) {
+            out.write(pad + "BTActionNode action" + id + " {\n");
+            int parameters = 1 + random.nextInt(3);
+            for (int p = 0; p < parameters; p++) {
+                out.write(pad + "    Object arg" + p + ";\n");
+            }
+            out.write(pad + "}\n");
+            return;
+        }
+        out.write(pad + "BTFlowNode flow" + id + " {\n");
+        for (int i = 0; i < settings.btFanOut; i++) {
+            writeTreeNode(out, depth - 1, indent + 1, counter, random);
+        }
+        out.write(pad + "}\n");
+    }
+
+    private int randomTypeOfBase(int base, Random random) {
+        List<Integer> types = typesOfBase.get(base);
+        return types.get(random.nextInt(types.size()));
+    }
+
+    private String predicateInstance(int predicate, String[] arguments, boolean negated) {
+        StringBuilder literal = new StringBuilder("PredicateInstance: ").append(predicateName(predicate)).append('(');
+        for (int j = 0; j < arguments.length; j++) {
+            literal.append(parameterName(j)).append(" = ").append(arguments[j]).append(", ");
+        }
+        return literal.append("isNegated = ").append(negated).append(')').toString();
+    }
+
+    private String typeName(int type) {
+        return BASE_TYPES[typeBase[type]].toLowerCase() + "Type" + type;
+    }
+
+    private String instanceName(int type, int instance) {
+        return BASE_TYPES[typeBase[type]].toLowerCase() + type + "x" + instance;
+    }
+
+    private static String predicateName(int predicate) {
+        return "pred" + predicate;
+    }
+
+    private static String parameterName(int parameter) {
+        return "arg" + parameter;
+    }
+
+    private static String actionName(int action) {
+        return "action" + action;
+    }
+
+    private static String flowNodeName(int layer, int index) {
+        return "node" + layer + "x" + index;
+    }
+}
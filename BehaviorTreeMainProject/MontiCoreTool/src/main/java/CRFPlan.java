@@ -0,0 +1,134 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Plan found by {@link CRFPlanner}: a sequence of grounded actions with its cost and search statistics.
+ *
+ * A plan can be written as CRF ActionInstances, which the CRF parser and the C# generators read like any
+ * other action instance, or as a BehaviorTree with one sequence of action nodes.
+ */
+public class CRFPlan {
+
+    // Action node parameter for actions without parameters; a BTActionNode needs at least one
+    private static final String NO_PARAMETER = "none";
+
+    private final GroundedModel model;
+    private final int[] actions;
+    private final long cost;
+    private final long expanded;
+    private final long generated;
+    private final long searchNanos;
+
+    CRFPlan(GroundedModel model, int[] actions, long cost, long expanded, long generated, long searchNanos) {
+        this.model = model;
+        this.actions = actions;
+        this.cost = cost;
+        this.expanded = expanded;
+        this.generated = generated;
+        this.searchNanos = searchNanos;
+    }
+
+    /**
+     * Grounded action ids of the plan, in execution order.
+     */
+    public int[] getActions() {
+        return actions.clone();
+    }
+
+    public int getLength() {
+        return actions.length;
+    }
+
+    /**
+     * Sum of the action costs.
+     */
+    public long getCost() {
+        return cost;
+    }
+
+    public long getExpanded() {
+        return expanded;
+    }
+
+    public long getGenerated() {
+        return generated;
+    }
+
+    public long getSearchMillis() {
+        return searchNanos / 1_000_000;
+    }
+
+    /**
+     * Readable form of the actions, e.g. "pickUp(b1, r1, fp1, vg1)".
+     */
+    public List<String> getActionNames() {
+        List<String> names = new ArrayList<>(actions.length);
+        for (int action : actions) {
+            names.add(model.getActionName(action));
+        }
+        return names;
+    }
+
+    /**
+     * Writes one {@code ActionInstance: action(parameter : object, ...)} line per plan step.
+     * The parameter names are taken from the action declarations of the symbol table the model was grounded with.
+     */
+    public void writeActionInstances(Writer out, CRFSymbolTable symbols) throws IOException {
+        for (int action : actions) {
+            String schema = model.getActionSchema(action);
+            List<String> parameters = new ArrayList<>(symbols.getActionParameters(schema).keySet());
+            int[] args = model.getActionArgs(action);
+            out.write("ActionInstance: " + schema + "(");
+            for (int i = 0; i < args.length; i++) {
+                out.write((i > 0 ? ", " : "") + parameters.get(i) + " : " + model.getObject(args[i]));
+            }
+            out.write(")\n");
+        }
+    }
+
+    /**
+     * Writes the plan as a BehaviorTree: the root holds one sequence with an action node per plan step,
+     * and the blackboard declares every object the plan uses.
+     */
+    public void writeBehaviorTree(Writer out, String treeName) throws IOException {
+        Set<String> objects = new LinkedHashSet<>();
+        for (int action : actions) {
+            for (int object : model.getActionArgs(action)) {
+                objects.add(model.getObject(object));
+            }
+        }
+
+        out.write("BehaviorTree " + treeName + " {\n");
+        out.write("    Blackboard planBlackboard {\n");
+        for (String object : objects) {
+            out.write("        Object " + object + ";\n");
+        }
+        out.write("    }\n");
+        out.write("    BTFlowNode RootNode {\n");
+        out.write("        BTFlowNode sequence {\n");
+        for (int action : actions) {
+            out.write("            BTActionNode " + model.getActionSchema(action) + " {\n");
+            int[] args = model.getActionArgs(action);
+            if (args.length == 0) {
+                out.write("                Object " + NO_PARAMETER + ";\n");
+            }
+            for (int object : args) {
+                out.write("                Object " + model.getObject(object) + ";\n");
+            }
+            out.write("            }\n");
+        }
+        out.write("        }\n");
+        out.write("    }\n");
+        out.write("}\n");
+    }
+
+    @Override
+    public String toString() {
+        return actions.length + " steps, cost " + cost + ", " + expanded + " expanded, " + generated
+            + " generated, " + getSearchMillis() + " ms";
+    }
+}
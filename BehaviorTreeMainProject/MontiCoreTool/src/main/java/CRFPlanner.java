@@ -0,0 +1,494 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import crf._parser.CRFParser;
+import dynamicbtflownode._ast.ASTDynamicBTFlowNode;
+import dynamicbtflownode._ast.ASTNodeDefinition;
+import dynamicbtflownode._parser.DynamicBTFlowNodeParser;
+
+/**
+ * Offline forward-search planner over grounded CRF models (see {@link CRFGrounder}).
+ *
+ * The problem is the one the model declares: its facts and initial states are the initial state, its
+ * goal states the goal. The planner runs greedy best-first search, ordered by the heuristic value, or
+ * weighted A*, ordered by g + w * h and reopening states that are reached more cheaply. Both use the
+ * delete relaxation heuristics h_add or h_FF of {@link DeleteRelaxationHeuristic}. Goals are tested when
+ * a state is expanded.
+ *
+ * Visited states are kept in an {@link OffHeapStateStore} with their path, so large searches neither fill
+ * the heap nor slow down the garbage collector. The store has a memory limit; a search that reaches it
+ * stops without a plan (see {@link #isMemoryLimitReached()}). The store is reused by every search of
+ * the planner.
+ *
+ * Action costs come from the cost of the DynamicBTFlowNodes: an action costs what the flow node of the
+ * same name costs, or what the flow node costs whose node graph contains it. Other actions cost 1.
+ *
+ * Usage: CRFPlanner [--search gbfs|wastar] [--weight W] [--heuristic add|ff] [--flow-node FILE]...
+ *     [--random-goal STEPS] [--seed N] [--max-expansions N] [--max-state-memory MB] [--threads N] [--plan-cache DIR]
+ *     [--plan-output FILE] [--tree-output FILE] model-file
+ * With --random-goal the goal of the model is replaced by the atoms a seeded random walk of the given
+ * length makes true, which gives solvable problems for synthetic models. With more than one thread the
+ * search runs on the {@link ParallelCRFPlanner}, which splits the state memory between its workers. With
+ * --plan-cache, plans are looked up in and stored to a {@link PlanCache} in the directory.
+ */
+public class CRFPlanner {
+
+    public enum Search { GBFS, WEIGHTED_ASTAR }
+
+    public static final long DEFAULT_MAX_EXPANSIONS = 1_000_000L;
+    public static final int DEFAULT_ACTION_COST = 1;
+    public static final long DEFAULT_MAX_STATE_BYTES = 1L << 30;
+
+    private static final String USAGE = "Usage: CRFPlanner [--search gbfs|wastar] [--weight W] [--heuristic add|ff] "
+        + "[--flow-node FILE]... [--random-goal STEPS] [--seed N] [--max-expansions N] [--max-state-memory MB] "
+        + "[--threads N] [--plan-cache DIR] [--plan-output FILE] [--tree-output FILE] model-file";
+
+    private final GroundedModel model;
+    private final int[] actionCosts;
+    private final Search search;
+    private final double weight;
+    private final long maxExpansions;
+    private final PackedStates states;
+    // Search nodes with the cheapest known path to their state
+    private final OffHeapStateStore nodes;
+    private final DeleteRelaxationHeuristic heuristic;
+
+    private long expanded;
+    private long generated;
+    private long searchNanos;
+    private boolean limitReached;
+    private boolean memoryLimitReached;
+
+    public CRFPlanner(GroundedModel model, int[] actionCosts, Search search, DeleteRelaxationHeuristic.Kind heuristic,
+                      double weight, long maxExpansions) {
+        this(model, actionCosts, search, heuristic, weight, maxExpansions, DEFAULT_MAX_STATE_BYTES);
+    }
+
+    public CRFPlanner(GroundedModel model, int[] actionCosts, Search search, DeleteRelaxationHeuristic.Kind heuristic,
+                      double weight, long maxExpansions, long maxStateBytes) {
+        if (actionCosts.length != model.getActionCount()) {
+            throw new IllegalArgumentException("Expected " + model.getActionCount() + " action costs, got " + actionCosts.length);
+        }
+        if (weight < 1) {
+            throw new IllegalArgumentException("The weight must be at least 1");
+        }
+        this.model = model;
+        this.actionCosts = actionCosts;
+        this.search = search;
+        this.weight = weight;
+        this.maxExpansions = maxExpansions;
+        this.states = new PackedStates(model);
+        this.nodes = new OffHeapStateStore(states.words(), maxStateBytes);
+        this.heuristic = new DeleteRelaxationHeuristic(model, actionCosts, heuristic);
+    }
+
+    /**
+     * Entry of the open list. GBFS orders by h, weighted A* by g + w * h; ties go to the lower h,
+     * then to the older node so that the search is deterministic. An entry is stale once its node has
+     * been reached with a lower cost than {@code g}.
+     */
+    static final class OpenEntry implements Comparable<OpenEntry> {
+        final long key;
+        final long h;
+        final long g;
+        final int node;
+
+        OpenEntry(long key, long h, long g, int node) {
+            this.key = key;
+            this.h = h;
+            this.g = g;
+            this.node = node;
+        }
+
+        @Override
+        public int compareTo(OpenEntry other) {
+            if (key != other.key) {
+                return Long.compare(key, other.key);
+            }
+            if (h != other.h) {
+                return Long.compare(h, other.h);
+            }
+            if (node != other.node) {
+                return Integer.compare(node, other.node);
+            }
+            return Long.compare(g, other.g);
+        }
+    }
+
+    /**
+     * Plans from the initial state to the goal of the model. Returns an empty optional if the goal is
+     * unreachable or a limit is reached (see {@link #isLimitReached()} and {@link #isMemoryLimitReached()}).
+     */
+    public Optional<CRFPlan> plan() {
+        if (!model.isGoalSatisfiable()) {
+            expanded = 0;
+            generated = 0;
+            searchNanos = 0;
+            limitReached = false;
+            memoryLimitReached = false;
+            return Optional.empty();
+        }
+        return plan(model.getInitialAtoms(), model.getGoalAtoms(), model.getNegativeGoalAtoms());
+    }
+
+    /**
+     * Plans from the given initial atoms to a state where all goal atoms and none of the negative goal atoms hold.
+     */
+    public Optional<CRFPlan> plan(int[] initial, int[] goal, int[] negativeGoal) {
+        long start = System.nanoTime();
+        expanded = 0;
+        generated = 0;
+        limitReached = false;
+        memoryLimitReached = false;
+        int[] sortedGoal = goal.clone();
+        Arrays.sort(sortedGoal);
+        long[] goalMask = states.encode(goal);
+        long[] negativeGoalMask = states.encode(negativeGoal);
+
+        nodes.clear();
+        PriorityQueue<OpenEntry> open = new PriorityQueue<>();
+        long[] state = states.newState();
+        long[] successor = states.newState();
+
+        try {
+            long[] initialState = states.encode(initial);
+            long h = heuristic.evaluate(initialState, sortedGoal);
+            if (h != DeleteRelaxationHeuristic.DEAD_END) {
+                int root = nodes.insert(initialState, nodes.hash(initialState), -1, -1, 0);
+                if (root == OffHeapStateStore.FULL) {
+                    memoryLimitReached = true;
+                    return Optional.empty();
+                }
+                open.add(new OpenEntry(key(0, h), h, 0, root));
+            }
+
+            while (!open.isEmpty()) {
+                OpenEntry entry = open.poll();
+                int node = entry.node;
+                long g = nodes.cost(node);
+                if (g != entry.g) {
+                    // Reached more cheaply after this entry was queued
+                    continue;
+                }
+                nodes.read(node, state);
+                if (PackedStates.containsAll(state, goalMask) && PackedStates.containsNone(state, negativeGoalMask)) {
+                    return Optional.of(new CRFPlan(model, path(node, nodes), g, expanded, generated,
+                        System.nanoTime() - start));
+                }
+                if (expanded >= maxExpansions) {
+                    limitReached = true;
+                    return Optional.empty();
+                }
+                expanded++;
+
+                long hash = nodes.hashOf(node);
+                for (int action = 0; action < model.getActionCount(); action++) {
+                    if (!states.isApplicable(state, action)) {
+                        continue;
+                    }
+                    states.apply(state, action, successor);
+                    long successorHash = nodes.rehash(hash, state, successor);
+                    long successorCost = g + actionCosts[action];
+                    int known = nodes.find(successor, successorHash);
+                    if (known != OffHeapStateStore.ABSENT && (search == Search.GBFS || nodes.cost(known) <= successorCost)) {
+                        continue;
+                    }
+                    generated++;
+                    long successorH = heuristic.evaluate(successor, sortedGoal);
+                    if (successorH == DeleteRelaxationHeuristic.DEAD_END) {
+                        continue;
+                    }
+                    int id = known;
+                    if (known != OffHeapStateStore.ABSENT) {
+                        nodes.update(known, node, action, successorCost);
+                    } else {
+                        id = nodes.insert(successor, successorHash, node, action, successorCost);
+                        if (id == OffHeapStateStore.FULL) {
+                            memoryLimitReached = true;
+                            return Optional.empty();
+                        }
+                    }
+                    open.add(new OpenEntry(key(successorCost, successorH), successorH, successorCost, id));
+                }
+            }
+            return Optional.empty();
+        } finally {
+            searchNanos = System.nanoTime() - start;
+        }
+    }
+
+    private long key(long g, long h) {
+        return key(search, weight, g, h);
+    }
+
+    /**
+     * Open list order of a node: h for GBFS, g + w * h for weighted A*.
+     */
+    static long key(Search search, double weight, long g, long h) {
+        if (search == Search.GBFS) {
+            return h;
+        }
+        double key = g + weight * h;
+        return key >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) Math.ceil(key);
+    }
+
+    private static int[] path(int node, OffHeapStateStore nodes) {
+        int length = 0;
+        for (int current = node; nodes.parent(current) >= 0; current = nodes.parent(current)) {
+            length++;
+        }
+        int[] plan = new int[length];
+        for (int current = node; nodes.parent(current) >= 0; current = nodes.parent(current)) {
+            plan[--length] = nodes.action(current);
+        }
+        return plan;
+    }
+
+    // Statistics of the last search
+
+    public long getExpanded() {
+        return expanded;
+    }
+
+    public long getGenerated() {
+        return generated;
+    }
+
+    public long getSearchMillis() {
+        return searchNanos / 1_000_000;
+    }
+
+    /**
+     * True if the last search stopped at the expansion limit rather than proving the goal unreachable.
+     */
+    public boolean isLimitReached() {
+        return limitReached;
+    }
+
+    /**
+     * True if the last search stopped because its visited states reached the state memory limit.
+     */
+    public boolean isMemoryLimitReached() {
+        return memoryLimitReached;
+    }
+
+    // Action costs and goals
+
+    /**
+     * Cost per grounded action: the cost of its action in {@code costs}, or {@link #DEFAULT_ACTION_COST}.
+     */
+    public static int[] actionCosts(GroundedModel model, Map<String, Integer> costs) {
+        int[] actionCosts = new int[model.getActionCount()];
+        for (int action = 0; action < actionCosts.length; action++) {
+            actionCosts[action] = costs.getOrDefault(model.getActionSchema(action), DEFAULT_ACTION_COST);
+        }
+        return actionCosts;
+    }
+
+    /**
+     * Action name -> cost from the CostDefinitions of the flow nodes. The nodes of a node graph take the cost
+     * of their flow node; the cost a flow node declares for itself takes precedence.
+     */
+    public static Map<String, Integer> flowNodeCosts(List<ASTDynamicBTFlowNode> flowNodes) {
+        Map<String, Integer> costs = new HashMap<>();
+        for (ASTDynamicBTFlowNode flowNode : flowNodes) {
+            int cost = Integer.parseInt(flowNode.getCostDefinition().getINTEGER_VALUE());
+            for (ASTNodeDefinition node : flowNode.getNodeGraphDefinition().getNodesDefinition().getNodeDefinitionList()) {
+                costs.putIfAbsent(node.getName(), cost);
+            }
+        }
+        for (ASTDynamicBTFlowNode flowNode : flowNodes) {
+            costs.put(flowNode.getName(), Integer.parseInt(flowNode.getCostDefinition().getINTEGER_VALUE()));
+        }
+        return costs;
+    }
+
+    /**
+     * Goal for models without one: walks {@code steps} random applicable actions from the initial state and
+     * returns the atoms that hold at the end but not initially, sorted. The walk stops early in dead ends.
+     */
+    public static int[] randomWalkGoal(GroundedModel model, long seed, int steps) {
+        Random random = new Random(seed);
+        PackedStates states = new PackedStates(model);
+        long[] initial = states.encode(model.getInitialAtoms());
+        long[] state = initial.clone();
+        int[] applicable = new int[model.getActionCount()];
+        for (int step = 0; step < steps; step++) {
+            int count = 0;
+            for (int action = 0; action < model.getActionCount(); action++) {
+                if (states.isApplicable(state, action)) {
+                    applicable[count++] = action;
+                }
+            }
+            if (count == 0) {
+                break;
+            }
+            states.apply(state, applicable[random.nextInt(count)], state);
+        }
+        for (int w = 0; w < state.length; w++) {
+            state[w] &= ~initial[w];
+        }
+        return states.decode(state);
+    }
+
+    public static void main(String[] args) {
+        Search search = Search.GBFS;
+        DeleteRelaxationHeuristic.Kind kind = DeleteRelaxationHeuristic.Kind.FF;
+        double weight = 2;
+        long maxExpansions = DEFAULT_MAX_EXPANSIONS;
+        long maxStateBytes = DEFAULT_MAX_STATE_BYTES;
+        int threads = 1;
+        long seed = 42;
+        int randomGoalSteps = -1;
+        List<Path> flowNodeFiles = new ArrayList<>();
+        Path planCacheDirectory = null;
+        Path planOutput = null;
+        Path treeOutput = null;
+        List<String> positional = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (!arg.startsWith("--")) {
+                    positional.add(arg);
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                String value = args[++i];
+                switch (arg) {
+                    case "--search": search = parseSearch(value); break;
+                    case "--weight": weight = Double.parseDouble(value); break;
+                    case "--heuristic": kind = DeleteRelaxationHeuristic.Kind.valueOf(value.toUpperCase()); break;
+                    case "--flow-node": flowNodeFiles.add(Paths.get(value)); break;
+                    case "--random-goal": randomGoalSteps = Integer.parseInt(value); break;
+                    case "--seed": seed = Long.parseLong(value); break;
+                    case "--max-expansions": maxExpansions = Long.parseLong(value); break;
+                    case "--max-state-memory": maxStateBytes = Long.parseLong(value) << 20; break;
+                    case "--threads": threads = Integer.parseInt(value); break;
+                    case "--plan-cache": planCacheDirectory = Paths.get(value); break;
+                    case "--plan-output": planOutput = Paths.get(value); break;
+                    case "--tree-output": treeOutput = Paths.get(value); break;
+                    default: throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("ERROR: " + e.getMessage());
+            System.out.println(USAGE);
+            return;
+        }
+        if (positional.size() != 1) {
+            System.out.println(USAGE);
+            return;
+        }
+        Path modelFile = Paths.get(positional.get(0));
+
+        try {
+            if (!Files.exists(modelFile)) {
+                System.out.println("FAILED: Model file not found: " + modelFile.toAbsolutePath());
+                return;
+            }
+            long start = System.nanoTime();
+            Optional<CRFModel> model = CRFModel.parse(new CRFParser(), modelFile);
+            if (model.isEmpty()) {
+                System.out.println("FAILED: Failed to parse CRF model");
+                return;
+            }
+            List<ASTDynamicBTFlowNode> flowNodes = new ArrayList<>();
+            DynamicBTFlowNodeParser flowNodeParser = new DynamicBTFlowNodeParser();
+            for (Path file : flowNodeFiles) {
+                Optional<ASTDynamicBTFlowNode> flowNode = flowNodeParser.parse(file.toString());
+                if (flowNode.isEmpty()) {
+                    System.out.println("FAILED: Failed to parse DynamicBTFlowNode " + file);
+                    return;
+                }
+                flowNodes.add(flowNode.get());
+            }
+            long parsed = System.nanoTime();
+
+            GroundedModel grounded = new CRFGrounder(model.get()).ground();
+            long groundedAt = System.nanoTime();
+            System.out.println("GROUNDED: " + grounded + " in " + (groundedAt - parsed) / 1_000_000 + " ms");
+
+            int[] costs = actionCosts(grounded, flowNodeCosts(flowNodes));
+            int[] randomGoal = randomGoalSteps >= 0 ? randomWalkGoal(grounded, seed, randomGoalSteps) : null;
+            int[] initial = grounded.getInitialAtoms();
+            int[] goal = randomGoal != null ? randomGoal : grounded.getGoalAtoms();
+            int[] negativeGoal = randomGoal != null ? new int[0] : grounded.getNegativeGoalAtoms();
+            PlanCache cache = planCacheDirectory == null ? null : PlanCache.open(planCacheDirectory, grounded, costs,
+                search + " " + kind + " " + weight, PlanCache.DEFAULT_MAX_ENTRIES);
+            Optional<CRFPlan> plan = cache != null ? cache.lookup(initial, goal, negativeGoal) : Optional.empty();
+            boolean cached = plan.isPresent();
+            String limit = null;
+            long expanded = 0;
+            long searchMillis = 0;
+            if (!cached && threads > 1) {
+                ParallelCRFPlanner planner = new ParallelCRFPlanner(grounded, costs, search, kind, weight, maxExpansions,
+                    maxStateBytes, threads);
+                plan = randomGoal != null ? planner.plan(initial, goal, negativeGoal) : planner.plan();
+                limit = planner.isLimitReached() ? "Expansion limit reached"
+                    : planner.isMemoryLimitReached() ? "State memory limit reached" : null;
+                expanded = planner.getExpanded();
+                searchMillis = planner.getSearchMillis();
+            } else if (!cached) {
+                CRFPlanner planner = new CRFPlanner(grounded, costs, search, kind, weight, maxExpansions, maxStateBytes);
+                plan = randomGoal != null ? planner.plan(initial, goal, negativeGoal) : planner.plan();
+                limit = planner.isLimitReached() ? "Expansion limit reached"
+                    : planner.isMemoryLimitReached() ? "State memory limit reached" : null;
+                expanded = planner.getExpanded();
+                searchMillis = planner.getSearchMillis();
+            } else {
+                System.out.println("PLAN CACHE: Found the plan in " + cache.getFile().getFileName());
+            }
+            if (cache != null) {
+                if (plan.isPresent() && !cached) {
+                    cache.store(initial, goal, negativeGoal, plan.get());
+                }
+                System.out.println("PLAN CACHE: " + cache);
+            }
+            if (plan.isEmpty()) {
+                System.out.println("FAILED: " + (limit != null ? limit : "No plan exists")
+                    + " (" + expanded + " expanded, " + searchMillis + " ms)");
+                return;
+            }
+            for (String action : plan.get().getActionNames()) {
+                System.out.println("  " + action);
+            }
+            if (planOutput != null) {
+                try (Writer out = Files.newBufferedWriter(planOutput, StandardCharsets.UTF_8)) {
+                    plan.get().writeActionInstances(out, model.get().getSymbolTable());
+                }
+            }
+            if (treeOutput != null) {
+                try (Writer out = Files.newBufferedWriter(treeOutput, StandardCharsets.UTF_8)) {
+                    plan.get().writeBehaviorTree(out, "plan");
+                }
+            }
+            System.out.println("SUCCESS: Found a plan with " + plan.get() + " (parse "
+                + (parsed - start) / 1_000_000 + " ms, ground " + (groundedAt - parsed) / 1_000_000 + " ms)");
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static Search parseSearch(String value) {
+        switch (value) {
+            case "gbfs": return Search.GBFS;
+            case "wastar": return Search.WEIGHTED_ASTAR;
+            default: throw new IllegalArgumentException("Unknown search " + value);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+import crf._ast.ASTAction;
+import crf._ast.ASTActionInstance;
+import crf._ast.ASTAllowedType;
+import crf._ast.ASTBasicType;
+import crf._ast.ASTParameterInstance;
+import crf._ast.ASTParameterInstanceDef;
+import crf._ast.ASTParameterInstanceValue;
+import crf._ast.ASTParameterTypeDef;
+import crf._ast.ASTPredicateArgument;
+import crf._ast.ASTPredicateInstanceDef;
+import crf._ast.ASTPredicateTypeDef;
+import crf._ast.ASTValue;
+import de.monticore.ast.ASTNode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Name resolution for a CRF model, built in one pass over the AST.
+ *
+ * Every lookup is a hash map access: declarations by name, parameter instances by name,
+ * the instances and subtypes of a parameter type, the facts of a predicate, the instances of an action
+ * and the parameters of an action. Declaration maps keep source order; for duplicate names the first
+ * declaration wins and the others are listed in {@link #getDuplicates()}.
+ *
+ * The predicate types, parameter types and actions are also MontiCore symbols (see CRF.mc4), but the
+ * tool itself resolves only through this table.
+ */
+public class CRFSymbolTable {
+
+    private final Map<String, ASTPredicateTypeDef> predicateTypes = new LinkedHashMap<>();
+    private final Map<String, ASTParameterTypeDef> parameterTypes = new LinkedHashMap<>();
+    private final Map<String, ASTAction> actions = new LinkedHashMap<>();
+    private final List<ASTNode> duplicates = new ArrayList<>();
+
+    // Parameter instance name -> declaring ParameterInstance section (its name is the parameter type)
+    private final Map<String, ASTParameterInstanceDef> instances = new HashMap<>();
+    private final Map<String, List<String>> instancesByType = new HashMap<>();
+    // Basic type keyword (Element, Agent, ...) -> parameter types declared with it
+    private final Map<String, List<ASTParameterTypeDef>> subtypes = new HashMap<>();
+    private final Map<String, List<ASTPredicateInstanceDef>> factsByPredicate = new HashMap<>();
+    private final Map<String, List<ASTActionInstance>> instancesByAction = new HashMap<>();
+    // Action name -> (parameter name -> parameter type name)
+    private final Map<String, Map<String, String>> actionParameters = new HashMap<>();
+
+    public CRFSymbolTable(ASTAllowedType ast) {
+        for (ASTPredicateTypeDef predicate : ast.getPredicateTypeDefList()) {
+            declare(predicateTypes, predicate.getName(), predicate);
+        }
+        for (ASTParameterTypeDef parameterType : ast.getParameterTypeDefList()) {
+            if (declare(parameterTypes, parameterType.getName(), parameterType)) {
+                subtypes.computeIfAbsent(baseTypeName(parameterType.getBasicType()), k -> new ArrayList<>()).add(parameterType);
+            }
+        }
+        for (ASTParameterInstanceDef instanceDef : ast.getParameterInstanceDefList()) {
+            for (ASTParameterInstanceValue value : instanceDef.getParameterInstanceValues().getParameterInstanceValueList()) {
+                ASTValue instance = value.getValue();
+                if (!instance.isPresentName()) {
+                    continue;
+                }
+                if (instances.putIfAbsent(instance.getName(), instanceDef) == null) {
+                    instancesByType.computeIfAbsent(instanceDef.getName(), k -> new ArrayList<>()).add(instance.getName());
+                } else {
+                    duplicates.add(instance);
+                }
+            }
+        }
+        for (ASTPredicateInstanceDef fact : ast.getPredicateInstanceDefList()) {
+            factsByPredicate.computeIfAbsent(fact.getName(), k -> new ArrayList<>()).add(fact);
+        }
+        for (ASTAction action : ast.getActionList()) {
+            if (declare(actions, action.getName(), action)) {
+                Map<String, String> params = new LinkedHashMap<>();
+                for (ASTParameterInstance param : action.getActionParametersBlock().getParameterInstanceList()) {
+                    params.putIfAbsent(param.getName(0), param.getName(1));
+                }
+                actionParameters.put(action.getName(), params);
+            }
+        }
+        for (ASTActionInstance actionInstance : ast.getActionInstanceList()) {
+            instancesByAction.computeIfAbsent(actionInstance.getActionTypeName().getName(), k -> new ArrayList<>()).add(actionInstance);
+        }
+    }
+
+    private <T extends ASTNode> boolean declare(Map<String, T> index, String name, T node) {
+        if (index.putIfAbsent(name, node) != null) {
+            duplicates.add(node);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Keyword of the basic type a parameter type is declared with, e.g. "Element" for "Parameter beam : Element".
+     */
+    public static String baseTypeName(ASTBasicType type) {
+        if (type.isPresentElement()) return "Element";
+        if (type.isPresentAgent()) return "Agent";
+        if (type.isPresentLocation()) return "Location";
+        if (type.isPresentLayer()) return "Layer";
+        if (type.isPresentModule()) return "Module";
+        if (type.isPresentTool()) return "Tool";
+        if (type.isPresentString()) return "String";
+        if (type.isPresentDouble()) return "Double";
+        if (type.isPresentInteger()) return "Integer";
+        if (type.isPresentBoolean()) return "Boolean";
+        if (type.isPresentList()) return "List";
+        if (type.isPresentSet()) return "Set";
+        return "Map";
+    }
+
+    public Map<String, ASTPredicateTypeDef> getPredicateTypes() {
+        return Collections.unmodifiableMap(predicateTypes);
+    }
+
+    public Map<String, ASTParameterTypeDef> getParameterTypes() {
+        return Collections.unmodifiableMap(parameterTypes);
+    }
+
+    public Map<String, ASTAction> getActions() {
+        return Collections.unmodifiableMap(actions);
+    }
+
+    /**
+     * Declarations whose name was already declared before (predicate types, parameter types,
+     * actions and parameter instances), in source order.
+     */
+    public List<ASTNode> getDuplicates() {
+        return Collections.unmodifiableList(duplicates);
+    }
+
+    public Optional<ASTPredicateTypeDef> resolvePredicateType(String name) {
+        return Optional.ofNullable(predicateTypes.get(name));
+    }
+
+    public Optional<ASTPredicateTypeDef> resolvePredicateType(ASTPredicateInstanceDef predicate) {
+        return resolvePredicateType(predicate.getName());
+    }
+
+    public Optional<ASTParameterTypeDef> resolveParameterType(String name) {
+        return Optional.ofNullable(parameterTypes.get(name));
+    }
+
+    public Optional<ASTAction> resolveAction(String name) {
+        return Optional.ofNullable(actions.get(name));
+    }
+
+    public Optional<ASTAction> resolveAction(ASTActionInstance actionInstance) {
+        return resolveAction(actionInstance.getActionTypeName().getName());
+    }
+
+    /**
+     * Name of the parameter type of a parameter instance, e.g. "beam" for b1 in "ParameterInstance: beam {b1}".
+     */
+    public Optional<String> resolveInstanceTypeName(String instance) {
+        ASTParameterInstanceDef instanceDef = instances.get(instance);
+        return instanceDef == null ? Optional.empty() : Optional.of(instanceDef.getName());
+    }
+
+    public Optional<ASTParameterTypeDef> resolveInstanceType(String instance) {
+        ASTParameterInstanceDef instanceDef = instances.get(instance);
+        return instanceDef == null ? Optional.empty() : resolveParameterType(instanceDef.getName());
+    }
+
+    public boolean isInstance(String name) {
+        return instances.containsKey(name);
+    }
+
+    /**
+     * Instances declared for the parameter type, in source order.
+     */
+    public List<String> getInstancesOfType(String parameterType) {
+        return Collections.unmodifiableList(instancesByType.getOrDefault(parameterType, Collections.emptyList()));
+    }
+
+    /**
+     * Parameter types declared with the basic type keyword, e.g. beam and plate for "Element".
+     */
+    public List<ASTParameterTypeDef> getSubtypes(String baseType) {
+        return Collections.unmodifiableList(subtypes.getOrDefault(baseType, Collections.emptyList()));
+    }
+
+    /**
+     * Whether the parameter type is declared with the given basic type keyword.
+     */
+    public boolean isSubtypeOf(String parameterType, String baseType) {
+        ASTParameterTypeDef typeDef = parameterTypes.get(parameterType);
+        return typeDef != null && baseTypeName(typeDef.getBasicType()).equals(baseType);
+    }
+
+    /**
+     * Top-level predicate instances (facts) of the predicate, in source order.
+     */
+    public List<ASTPredicateInstanceDef> getFacts(String predicate) {
+        return Collections.unmodifiableList(factsByPredicate.getOrDefault(predicate, Collections.emptyList()));
+    }
+
+    public List<ASTActionInstance> getActionInstances(String action) {
+        return Collections.unmodifiableList(instancesByAction.getOrDefault(action, Collections.emptyList()));
+    }
+
+    /**
+     * Parameter name -> parameter type name of the action, in declaration order.
+     */
+    public Map<String, String> getActionParameters(String action) {
+        return Collections.unmodifiableMap(actionParameters.getOrDefault(action, Collections.emptyMap()));
+    }
+
+    /**
+     * Type name of an action parameter, e.g. "beam" for pickedObject in pickUp.
+     */
+    public Optional<String> resolveActionParameterType(String action, String parameter) {
+        Map<String, String> params = actionParameters.get(action);
+        return params == null ? Optional.empty() : Optional.ofNullable(params.get(parameter));
+    }
+
+    /**
+     * Parameter type of an argument of a predicate instance inside an action: the bound object is an action
+     * parameter or a parameter instance.
+     */
+    public Optional<String> resolveArgumentType(String action, ASTPredicateArgument argument) {
+        Optional<String> parameterType = resolveActionParameterType(action, argument.getName());
+        return parameterType.isPresent() ? parameterType : resolveInstanceTypeName(argument.getName());
+    }
+}
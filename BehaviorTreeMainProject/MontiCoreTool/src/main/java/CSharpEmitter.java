@@ -0,0 +1,156 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Renders and writes generated C# sources.
+ * Every file is rendered into its own in-memory buffer and written with a single NIO write.
+ * With more than one thread the files are rendered and written on a fork/join pool; a file's
+ * content only depends on its own declaration, so the output is identical for every thread count.
+ * Files whose content did not change are not rewritten, so their timestamps stay untouched.
+ */
+public class CSharpEmitter {
+
+    /**
+     * A source file that still has to be rendered.
+     */
+    public static class GeneratedFile {
+        private final Path path;
+        private final String declarationId;
+        private final Supplier<String> renderer;
+
+        public GeneratedFile(Path path, Supplier<String> renderer) {
+            this(path, null, renderer);
+        }
+
+        /**
+         * @param declarationId id of the model declaration the file is generated from (e.g. "predicate:isAt")
+         */
+        public GeneratedFile(Path path, String declarationId, Supplier<String> renderer) {
+            this.path = path;
+            this.declarationId = declarationId;
+            this.renderer = renderer;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public String getDeclarationId() {
+            return declarationId;
+        }
+
+        public String render() {
+            return renderer.get();
+        }
+    }
+
+    private final int threads;
+
+    public CSharpEmitter(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1, was " + threads);
+        }
+        this.threads = threads;
+    }
+
+    public static CSharpEmitter sequential() {
+        return new CSharpEmitter(1);
+    }
+
+    public static CSharpEmitter parallel() {
+        return new CSharpEmitter(Runtime.getRuntime().availableProcessors());
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Renders and writes all files. Progress is reported in list order once all files are written.
+     *
+     * @return the content hash of every file, in list order
+     */
+    public List<String> emit(List<GeneratedFile> files) throws IOException {
+        List<WriteResult> results = new ArrayList<>(files.size());
+        if (threads == 1 || files.size() < 2) {
+            for (GeneratedFile file : files) {
+                results.add(write(file));
+            }
+        } else {
+            results.addAll(emitParallel(files));
+        }
+
+        List<String> hashes = new ArrayList<>(results.size());
+        for (int i = 0; i < files.size(); i++) {
+            WriteResult result = results.get(i);
+            System.out.println((result.written ? "Generated: " : "Unchanged: ") + files.get(i).getPath().getFileName());
+            hashes.add(result.contentHash);
+        }
+        return hashes;
+    }
+
+    private List<WriteResult> emitParallel(List<GeneratedFile> files) throws IOException {
+        List<Callable<WriteResult>> tasks = new ArrayList<>(files.size());
+        for (GeneratedFile file : files) {
+            tasks.add(() -> write(file));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.min(threads, files.size()));
+        try {
+            List<WriteResult> results = new ArrayList<>(files.size());
+            for (Future<WriteResult> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while emitting C# sources", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Failed to emit C# sources", cause);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static WriteResult write(GeneratedFile file) throws IOException {
+        // Same encoding as the FileWriter the generators used before, so the bytes do not change
+        byte[] content = file.render().getBytes(Charset.defaultCharset());
+        Path path = file.getPath();
+
+        boolean unchanged = Files.isRegularFile(path) && Files.size(path) == content.length
+            && Arrays.equals(Files.readAllBytes(path), content);
+        if (!unchanged) {
+            Files.write(path, content);
+        }
+        return new WriteResult(!unchanged, DeclarationHasher.sha256(content));
+    }
+
+    private static class WriteResult {
+        private final boolean written;
+        private final String contentHash;
+
+        private WriteResult(boolean written, String contentHash) {
+            this.written = written;
+            this.contentHash = contentHash;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Renders the C# loader of a {@link FlatBehaviorTree} blob: a class with the blob file name, the node and
+ * decorator indices as constants and a Load method returning a FlatBehaviorTree
+ * (BehaviorTreeMainProject/src/Tree/FlatBehaviorTree.cs). The loader also holds the SHA-256 of the blob
+ * and rejects any other blob, whose node indices would not match the constants.
+ */
+public class CSharpFlatTreeGenerator {
+
+    /**
+     * C# class name of the loader, e.g. "MyTreeFlatTree".
+     */
+    public static String className(String treeName) {
+        return capitalizeFirst(treeName) + "FlatTree";
+    }
+
+    public static String blobFileName(String treeName) {
+        return capitalizeFirst(treeName) + ".bt";
+    }
+
+    public static String render(String className, FlatBehaviorTree tree) {
+        StringWriter buffer = new StringWriter();
+
+        try (PrintWriter writer = new PrintWriter(buffer)) {
+            writer.println("// Generated by BehaviorTreeFlattener - do not edit");
+            writer.println("// " + tree);
+            writer.println("using System.Security.Cryptography;");
+            writer.println();
+            writer.println("public static class " + className);
+            writer.println("{");
+            writer.println("    public const string BlobFile = \"" + blobFileName(tree.getName()) + "\";");
+            writer.println("    public const int NodeCount = " + tree.getNodeCount() + ";");
+            writer.println("    public const string ContentHash = \"" + DeclarationHasher.sha256(tree.encode()) + "\";");
+            writer.println();
+            writer.println("    public static class Nodes");
+            writer.println("    {");
+            // Node names need not be unique, later nodes with a taken name get their index appended
+            Set<String> used = new HashSet<>(List.of("Nodes"));
+            for (int node = 0; node < tree.getNodeCount(); node++) {
+                writer.println("        public const int " + constant(tree.getNodeName(node), node, used) + " = " + node + ";");
+            }
+            writer.println("    }");
+            List<String> decorators = tree.getDecorators();
+            if (!decorators.isEmpty()) {
+                writer.println();
+                writer.println("    public static class Decorators");
+                writer.println("    {");
+                used = new HashSet<>(List.of("Decorators"));
+                for (int decorator = 0; decorator < decorators.size(); decorator++) {
+                    writer.println("        public const int " + constant(decorators.get(decorator), decorator, used) + " = " + decorator + ";");
+                }
+                writer.println("    }");
+            }
+            writer.println();
+            writer.println("    /// <summary>");
+            writer.println("    /// Loads the tree from " + blobFileName(tree.getName()) + " in the given directory, by default the one of the executable");
+            writer.println("    /// </summary>");
+            writer.println("    public static FlatBehaviorTree Load(string? directory = null)");
+            writer.println("    {");
+            writer.println("        // The project copies the blobs next to the executable, without their source directory");
+            writer.println("        string path = Path.Combine(directory ?? AppContext.BaseDirectory, BlobFile);");
+            writer.println("        if (!File.Exists(path))");
+            writer.println("            throw new FileNotFoundException($\"Flat behavior tree {BlobFile} not found, is it copied to the output directory?\", path);");
+            writer.println("        byte[] blob = File.ReadAllBytes(path);");
+            writer.println("        if (!string.Equals(Convert.ToHexString(SHA256.HashData(blob)), ContentHash, StringComparison.OrdinalIgnoreCase))");
+            writer.println("            throw new InvalidDataException($\"{BlobFile} does not match {nameof(" + className + ")}, flatten the tree again\");");
+            writer.println("        return FlatBehaviorTree.Read(new MemoryStream(blob));");
+            writer.println("    }");
+            writer.println("}");
+        }
+        return buffer.toString();
+    }
+
+    private static String constant(String name, int index, Set<String> used) {
+        String constant = capitalizeFirst(name).replaceAll("[^A-Za-z0-9_]", "_");
+        if (!used.add(constant)) {
+            constant += "_" + index;
+            used.add(constant);
+        }
+        return constant;
+    }
+
+    private static String capitalizeFirst(String str) {
+        if (str == null || str.isEmpty()) {
+            return str;
+        }
+        return Character.toUpperCase(str.charAt(0)) + str.substring(1);
+    }
+}
@@ -0,0 +1,153 @@
+import crf._parser.CRFParser;
+import de.se_rwth.commons.logging.Finding;
+import de.se_rwth.commons.logging.Log;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long running watch mode for the C# generation.
+ * The parser, the manifest of the last successful generation and the loaded classes stay warm between
+ * edits. A save is parsed and its declaration hashes are compared with the kept manifest: a save that changed
+ * no declaration (comments, formatting) generates nothing, otherwise only the outputs of the changed
+ * declarations and their dependents are regenerated, without reading the manifest from disk again. Bursts of file events (editors
+ * often write a file several times per save) are collapsed until the model file has been quiet for
+ * the debounce interval. Parse errors and context condition violations are reported and the daemon keeps
+ * running with the last good model.
+ */
+public class CSharpGeneratorDaemon {
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 200;
+
+    private final Path modelFile;
+    private final Path outputRoot;
+    private final CSharpEmitter emitter;
+    private final long debounceMillis;
+    private final CRFParser parser = new CRFParser();
+    // Manifest of the last good model, null until the first successful generation
+    private GenerationManifest manifest;
+
+    public CSharpGeneratorDaemon(Path modelFile, Path outputRoot, CSharpEmitter emitter, long debounceMillis) {
+        this.modelFile = modelFile.toAbsolutePath().normalize();
+        this.outputRoot = outputRoot;
+        this.emitter = emitter;
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * Generates once and then regenerates on every change of the model file until the thread is interrupted.
+     */
+    public void run() throws IOException, InterruptedException {
+        // Keep running on parse errors instead of terminating the JVM
+        Log.init();
+        Log.enableFailQuick(false);
+
+        regenerate();
+
+        try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+            // Watch the directory: many editors save by writing a temporary file and renaming it
+            modelFile.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            System.out.println("WATCHING: " + modelFile + " (Ctrl+C to stop)");
+
+            while (true) {
+                WatchKey key = watcher.take();
+                boolean modelChanged = isModelEvent(key);
+                if (!key.reset()) {
+                    System.out.println("FAILED: Watched directory is no longer accessible: " + modelFile.getParent());
+                    return;
+                }
+                if (!modelChanged) {
+                    continue;
+                }
+
+                // Debounce: wait until no further event arrives within the interval
+                WatchKey next;
+                while ((next = watcher.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    isModelEvent(next);
+                    next.reset();
+                }
+                regenerate();
+            }
+        }
+    }
+
+    private boolean isModelEvent(WatchKey key) {
+        boolean modelChanged = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                modelChanged = true;
+            } else if (modelFile.getFileName().equals(event.context())) {
+                modelChanged = true;
+            }
+        }
+        return modelChanged;
+    }
+
+    private void regenerate() {
+        long start = System.nanoTime();
+        try {
+            if (!Files.exists(modelFile)) {
+                System.out.println("FAILED: Model file not found: " + modelFile);
+                return;
+            }
+
+            Optional<CRFModel> parsed = CRFModel.parse(parser, modelFile);
+            if (!parsed.isPresent() || parser.hasErrors()) {
+                reportFindings();
+                System.out.println("FAILED: " + modelFile.getFileName() + " does not parse, keeping the last good model"
+                    + (manifest == null ? " (none yet)" : ""));
+                return;
+            }
+            CoCoFindings findings = parsed.get().validate(Runtime.getRuntime().availableProcessors());
+            if (!findings.isEmpty()) {
+                for (Finding finding : findings.getSorted()) {
+                    System.out.println("  " + finding.buildMsg());
+                }
+                System.out.println("FAILED: " + modelFile.getFileName() + " violates context conditions, keeping the last good model"
+                    + (manifest == null ? " (none yet)" : ""));
+                return;
+            }
+            CRFModel model = parsed.get();
+            GenerationManifest declarations = IncrementalCSharpGenerator.declarations(model);
+            long parsedAt = System.nanoTime();
+
+            GenerationManifest previous = manifest;
+            if (previous == null) {
+                // First run: continue from the manifest of an earlier session if there is one
+                previous = GenerationManifest.load(outputRoot.resolve(IncrementalCSharpGenerator.MANIFEST_FILE)).orElse(null);
+            } else {
+                Set<String> changed = IncrementalCSharpGenerator.changedDeclarations(previous, declarations);
+                if (changed.isEmpty()) {
+                    System.out.println("UP TO DATE: No declaration changed (parse "
+                        + TimeUnit.NANOSECONDS.toMillis(parsedAt - start) + " ms)");
+                    return;
+                }
+                System.out.println("CHANGED: " + String.join(", ", changed));
+            }
+
+            manifest = IncrementalCSharpGenerator.generate(model, declarations, previous, outputRoot, emitter);
+            long done = System.nanoTime();
+            System.out.println("SUCCESS: Regenerated in " + TimeUnit.NANOSECONDS.toMillis(done - start) + " ms (parse "
+                + TimeUnit.NANOSECONDS.toMillis(parsedAt - start) + " ms)");
+        } catch (IOException | RuntimeException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            Log.clearFindings();
+        }
+    }
+
+    private static void reportFindings() {
+        for (Finding finding : Log.getFindings()) {
+            System.out.println("  " + finding.buildMsg());
+        }
+    }
+}
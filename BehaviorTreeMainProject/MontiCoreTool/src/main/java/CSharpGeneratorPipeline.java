@@ -0,0 +1,148 @@
+import crf._parser.CRFParser;
+import de.se_rwth.commons.logging.Finding;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Single entry point for the C# code generation.
+ * The CRF model is parsed once and the parameter type, predicate and action type emitters
+ * all run on the same {@link CRFModel} in one process. The model is checked with the context
+ * conditions of {@link CRFCoCos} first; nothing is generated if it violates any of them.
+ *
+ * Usage: CSharpGeneratorPipeline [--threads N] [--full] [--watch] [--ast-cache DIR] [--chunked] [model-file] [output-root]
+ * The output root is the C# ModelLoader directory; the emitters write into its
+ * ParameterTypes, PredicateTypes and ActionTypes subdirectories.
+ * With --threads 1 the sources are emitted sequentially, otherwise on a fork/join pool
+ * (default: one thread per available processor).
+ * Generation is incremental (see {@link IncrementalCSharpGenerator}); --full regenerates every file.
+ * --watch keeps the process running and regenerates on every change of the model file
+ * (see {@link CSharpGeneratorDaemon}); it cannot be combined with --full, --ast-cache or --chunked.
+ * --ast-cache loads the parsed model from a binary snapshot in DIR if the model file is unchanged
+ * (see {@link BinaryASTCache}).
+ * --chunked parses large model files in concurrent chunks on the same number of threads
+ * (see {@link ChunkedCRFParser}).
+ */
+public class CSharpGeneratorPipeline {
+
+    public static final String DEFAULT_MODEL = "src/test/resources/valid/crf/test_crf.txt";
+    public static final String DEFAULT_OUTPUT_ROOT = "../src/ModelLoader";
+
+    private static final String USAGE = "Usage: CSharpGeneratorPipeline [--threads N] [--full] [--watch] [--ast-cache DIR] [--chunked] [model-file] [output-root]";
+
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean full = false;
+        boolean watch = false;
+        BinaryASTCache astCache = null;
+        boolean chunked = false;
+        List<String> positional = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--full")) {
+                full = true;
+            } else if (args[i].equals("--watch")) {
+                watch = true;
+            } else if (args[i].equals("--ast-cache") && i + 1 < args.length) {
+                astCache = new BinaryASTCache(Paths.get(args[++i]));
+            } else if (args[i].equals("--chunked")) {
+                chunked = true;
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        if (positional.size() > 2 || threads < 1) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        Path modelFile = Paths.get(positional.size() > 0 ? positional.get(0) : DEFAULT_MODEL);
+        Path outputRoot = Paths.get(positional.size() > 1 ? positional.get(1) : DEFAULT_OUTPUT_ROOT);
+
+        if (watch) {
+            if (full || chunked || astCache != null) {
+                System.out.println("ERROR: --full, --ast-cache and --chunked cannot be combined with --watch");
+                System.out.println(USAGE);
+                return;
+            }
+            try {
+                new CSharpGeneratorDaemon(modelFile, outputRoot, new CSharpEmitter(threads),
+                    CSharpGeneratorDaemon.DEFAULT_DEBOUNCE_MILLIS).run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                System.err.println("ERROR: " + e.getMessage());
+                e.printStackTrace();
+            }
+            return;
+        }
+
+        try {
+            System.out.println("GENERATING: " + modelFile + " -> " + outputRoot.toAbsolutePath().normalize());
+
+            if (!Files.exists(modelFile)) {
+                System.out.println("FAILED: Model file not found: " + modelFile.toAbsolutePath());
+                return;
+            }
+
+            Optional<CRFModel> model;
+            if (chunked) {
+                ChunkedCRFParser parser = new ChunkedCRFParser(threads);
+                model = astCache != null
+                    ? CRFModel.parse(parser, modelFile, astCache)
+                    : CRFModel.parse(parser, modelFile);
+            } else {
+                CRFParser parser = new CRFParser();
+                model = astCache != null
+                    ? CRFModel.parse(parser, modelFile, astCache)
+                    : CRFModel.parse(parser, modelFile);
+            }
+            if (model.isPresent()) {
+                CoCoFindings findings = model.get().validate(threads);
+                if (!findings.isEmpty()) {
+                    List<Finding> errors = findings.getSorted();
+                    for (Finding finding : errors) {
+                        System.out.println("  " + finding.buildMsg());
+                    }
+                    System.out.println("FAILED: CRF model violates " + errors.size() + " context condition(s)");
+                    return;
+                }
+                IncrementalCSharpGenerator.generate(model.get(), outputRoot, new CSharpEmitter(threads), full);
+                System.out.println("SUCCESS: C# model types generated successfully!");
+            } else {
+                System.out.println("FAILED: Failed to parse CRF model");
+            }
+
+        } catch (Exception e) {
+            System.err.println("ERROR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Runs all three emitters sequentially on an already parsed model.
+     */
+    public static void generate(CRFModel model, Path outputRoot) throws IOException {
+        generate(model, outputRoot, CSharpEmitter.sequential());
+    }
+
+    /**
+     * Runs all three emitters on an already parsed model and regenerates every file,
+     * writing the sources through the given emitter.
+     */
+    public static void generate(CRFModel model, Path outputRoot, CSharpEmitter emitter) throws IOException {
+        IncrementalCSharpGenerator.generate(model, outputRoot, emitter, true);
+    }
+
+    /**
+     * Regenerates only the files whose model declarations changed since the last run.
+     */
+    public static void generateIncremental(CRFModel model, Path outputRoot, CSharpEmitter emitter) throws IOException {
+        IncrementalCSharpGenerator.generate(model, outputRoot, emitter, false);
+    }
+}
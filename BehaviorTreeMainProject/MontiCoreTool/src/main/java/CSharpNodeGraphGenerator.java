@@ -0,0 +1,65 @@
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * Renders an acyclic {@link CompiledNodeGraph} as a C# class holding a CompiledNodeGraph
+ * (BehaviorTreeMainProject/src/FlowNodes/CompiledNodeGraph.cs) that the NodeGraph can run on.
+ */
+public class CSharpNodeGraphGenerator {
+
+    /**
+     * C# class name for the graph of a flow node, e.g. "AssembleWallNodeGraph".
+     */
+    public static String className(String flowNodeName) {
+        return capitalizeFirst(flowNodeName) + "NodeGraph";
+    }
+
+    /**
+     * Renders the class of the flow node. It registers itself with CompiledFlowNodes when the assembly is
+     * loaded, so a BTFlowNode_Dynamic of the same name picks it up.
+     */
+    public static String render(String flowNodeName, CompiledNodeGraph graph) {
+        String className = className(flowNodeName);
+        List<String> nodes = graph.getNodes();
+        StringWriter buffer = new StringWriter();
+
+        try (PrintWriter writer = new PrintWriter(buffer)) {
+            writer.println("// Generated by NodeGraphCompiler - do not edit");
+            writer.println("// " + graph);
+            writer.println("public static class " + className);
+            writer.println("{");
+            writer.println("    public static readonly CompiledNodeGraph Graph = new CompiledNodeGraph(");
+            StringBuilder names = new StringBuilder("        new string[] {");
+            for (int node = 0; node < nodes.size(); node++) {
+                names.append(node > 0 ? ", " : " ").append('"').append(nodes.get(node)).append('"');
+            }
+            writer.println(names + " },");
+            writer.println("        " + intArray(graph.getSuccessorOffsets()) + ", // successor offsets");
+            writer.println("        " + intArray(graph.getSuccessors()) + ", // successors");
+            writer.println("        " + intArray(graph.getPredecessorCounts()) + ", // predecessor counts");
+            writer.println("        " + intArray(graph.getLevels()) + ", // levels");
+            writer.println("        " + intArray(graph.getTopologicalOrder()) + "); // topological order");
+            writer.println();
+            writer.println("    [System.Runtime.CompilerServices.ModuleInitializer]");
+            writer.println("    internal static void Register() => CompiledFlowNodes.RegisterNodeGraph(\"" + flowNodeName + "\", Graph);");
+            writer.println("}");
+        }
+        return buffer.toString();
+    }
+
+    private static String intArray(int[] values) {
+        StringBuilder out = new StringBuilder("new int[] {");
+        for (int i = 0; i < values.length; i++) {
+            out.append(i > 0 ? ", " : " ").append(values[i]);
+        }
+        return out.append(" }").toString();
+    }
+
+    private static String capitalizeFirst(String str) {
+        if (str == null || str.isEmpty()) {
+            return str;
+        }
+        return Character.toUpperCase(str.charAt(0)) + str.substring(1);
+    }
+}
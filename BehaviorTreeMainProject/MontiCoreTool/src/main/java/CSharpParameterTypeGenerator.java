@@ -1,88 +1,55 @@
-import crf._parser.CRFParser;
 import crf._ast.ASTAllowedType;
 import crf._ast.ASTParameterTypeDef;
 import crf._ast.ASTParameterProperty;
 import crf._ast.ASTParameterPropertyList;
-import java.util.Optional;
 import java.io.*;
 import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
 
 public class CSharpParameterTypeGenerator {
     
-    private static final String OUTPUT_DIR = "C:/Users/sherk/Documents/BehaviorTreeMainProject/BehaviorTreeMainProject/src/ModelLoader/ParameterTypes";
-    
-    public static void main(String[] args) {
-        try {
-            System.out.println("Generating C# Parameter Type Classes...");
-            
-            CRFParser parser = new CRFParser();
-            Optional<ASTAllowedType> result = parser.parse("src/test/resources/valid/crf/test_crf.txt");
-            
-            if (result.isPresent()) {
-                ASTAllowedType ast = result.get();
-                generateCSharpClasses(ast);
-                System.out.println("C# parameter type classes generated successfully!");
-            } else {
-                System.out.println("Failed to parse CRF model");
-            }
-            
-        } catch (Exception e) {
-            System.err.println("ERROR: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-    
-    public static void generateCSharpClasses(ASTAllowedType ast) throws IOException {
-        // Clean the output directory first
-        cleanOutputDirectory();
-        
-        // Ensure output directory exists
-        Files.createDirectories(Paths.get(OUTPUT_DIR));
-        
+    /**
+     * Lists the files this generator produces for the model without rendering them.
+     */
+    public static List<CSharpEmitter.GeneratedFile> collectSources(CRFModel model, Path outputDir) {
+        ASTAllowedType ast = model.getAst();
+        List<CSharpEmitter.GeneratedFile> files = new ArrayList<>();
         if (ast.getParameterTypeDefList() != null) {
             for (ASTParameterTypeDef parameterType : ast.getParameterTypeDefList()) {
-                generateParameterTypeClass(parameterType);
-            }
-        }
-    }
-    
-    private static void cleanOutputDirectory() throws IOException {
-        Path outputPath = Paths.get(OUTPUT_DIR);
-        
-        if (Files.exists(outputPath)) {
-            System.out.println("Cleaning output directory: " + OUTPUT_DIR);
-            
-            // Delete all .cs files in the directory
-            try (DirectoryStream<Path> stream = Files.newDirectoryStream(outputPath, "*.cs")) {
-                for (Path file : stream) {
-                    Files.delete(file);
-                    System.out.println("Deleted: " + file.getFileName());
-                }
+                Path filePath = outputDir.resolve(capitalizeFirst(parameterType.getName()) + ".cs");
+                files.add(new CSharpEmitter.GeneratedFile(filePath, "parameter:" + parameterType.getName(), () -> renderParameterTypeClass(parameterType, model.getTypeMapper())));
             }
-        } else {
-            System.out.println("Output directory does not exist, will be created: " + OUTPUT_DIR);
+            files.add(CSharpTypeIdGenerator.parameterTable(model, outputDir));
         }
+        return files;
     }
     
-    public static void generateParameterTypeClass(ASTParameterTypeDef parameterType) throws IOException {
+    public static String renderParameterTypeClass(ASTParameterTypeDef parameterType, CSharpTypeMapper types) {
         String className = capitalizeFirst(parameterType.getName());
-        String fileName = className + ".cs";
-        String filePath = OUTPUT_DIR + "/" + fileName;
+        StringWriter buffer = new StringWriter();
         
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
-            // Generate the C# class
+        try (PrintWriter writer = new PrintWriter(buffer)) {
+            // Generate the C# class; collection properties are converted with LINQ in SetParameters
+            boolean collections = hasCollectionProperty(parameterType, types);
             writer.println("using System;");
+            if (collections) {
+                writer.println("using System.Collections;");
+            }
             writer.println("using System.Collections.Generic;");
+            if (collections) {
+                writer.println("using System.Linq;");
+            }
             writer.println();
             writer.println("namespace ModelLoader.ParameterTypes");
             writer.println("{");
             
             // Determine inheritance
-            String baseType = getBasicTypeName(parameterType.getBasicType());
-            String inheritance = getInheritance(baseType);
-            
-            // Debug output
-            System.out.println("Debug: " + className + " baseType=" + baseType + " inheritance=" + inheritance);
+            CSharpTypeMapper.CSharpType basicType = types.map(parameterType.getBasicType());
+            String baseType = basicType.getName();
+            String inheritance = basicType.getKind() == CSharpTypeMapper.Kind.ENTITY ? baseType : "Entity";
+            String baseTypeName = CSharpTypeIdGenerator.parameterBaseType(parameterType.getName());
+            String typeName = CSharpTypeIdGenerator.parameterTypeName(parameterType.getName());
             
             writer.println("    public class " + className + " : " + inheritance);
             writer.println("    {");
@@ -92,19 +59,20 @@ public class CSharpParameterTypeGenerator {
                 ASTParameterPropertyList propertyList = parameterType.getParameterPropertyList();
                 for (ASTParameterProperty property : propertyList.getParameterPropertyList()) {
                     String propertyName = property.getName();
-                    String propertyType = getBasicTypeName(property.getBasicType());
+                    String propertyType = types.map(property.getBasicType()).getName();
                     writer.println("        public " + propertyType + " " + capitalizeFirst(propertyName) + " { get; set; }");
                 }
             }
             
+            writer.println();
+            writer.println("        public override int TypeId => " + CSharpTypeIdGenerator.PARAMETER_TABLE + "." + className + ";");
             writer.println();
             
             // Generate empty constructor - required by Entity
             writer.println("        // Empty constructor - required by Entity");
-            writer.println("        public " + className + "() : base()");
+            writer.println("        public " + className + "() : base(" + typeName + ")");
             writer.println("        {");
-            writer.println("            BaseType = new FastName(\"" + baseType + "\");");
-            writer.println("            // TypeName is automatically set in base constructor");
+            writer.println("            BaseType = " + baseTypeName + ";");
             writer.println("        }");
             writer.println();
             
@@ -117,7 +85,7 @@ public class CSharpParameterTypeGenerator {
                     
                     for (int i = 0; i < propertyList.sizeParameterPropertys(); i++) {
                         ASTParameterProperty property = propertyList.getParameterProperty(i);
-                        String propertyType = getBasicTypeName(property.getBasicType());
+                        String propertyType = types.map(property.getBasicType()).getName();
                         String propertyName = property.getName();
                         writer.print(propertyType + " " + propertyName);
                         if (i < propertyList.sizeParameterPropertys() - 1) {
@@ -142,14 +110,14 @@ public class CSharpParameterTypeGenerator {
                     
                     for (int i = 0; i < propertyList.sizeParameterPropertys(); i++) {
                         ASTParameterProperty property = propertyList.getParameterProperty(i);
-                        String propertyType = getBasicTypeName(property.getBasicType());
+                        String propertyType = types.map(property.getBasicType()).getName();
                         String propertyName = property.getName();
                         writer.print(propertyType + " " + propertyName);
                         if (i < propertyList.sizeParameterPropertys() - 1) {
                             writer.print(", ");
                         }
                     }
-                    writer.println(") : base(name)");
+                    writer.println(") : base(name, " + typeName + ")");
                     writer.println("        {");
                     
                     // Generate constructor body
@@ -157,20 +125,18 @@ public class CSharpParameterTypeGenerator {
                         String propertyName = property.getName();
                         writer.println("            this." + capitalizeFirst(propertyName) + " = " + propertyName + ";");
                     }
-                    writer.println("            BaseType = new FastName(\"" + baseType + "\");");
-                    writer.println("            // TypeName is automatically set in base constructor");
-                    writer.println("        }");
+                    writer.println("            BaseType = " + baseTypeName + ";");
+                            writer.println("        }");
                 }
             }
             
             // Generate SetParameters method
-            generateSetParametersMethod(writer, parameterType);
+            generateSetParametersMethod(writer, parameterType, types);
             
             writer.println("    }");
             writer.println("}");
-            
-            System.out.println("Generated: " + fileName);
         }
+        return buffer.toString();
     }
     
     private static String capitalizeFirst(String str) {
@@ -180,121 +146,191 @@ public class CSharpParameterTypeGenerator {
         return str.substring(0, 1).toUpperCase() + str.substring(1);
     }
     
-    private static String getBasicTypeName(Object basicType) {
-        // Check if the basicType is an ASTBasicType and use the named alternative methods
-        if (basicType instanceof crf._ast.ASTBasicType) {
-            crf._ast.ASTBasicType astBasicType = (crf._ast.ASTBasicType) basicType;
-            
-            // Use the named alternative methods to determine the type
-            if (astBasicType.isPresentElement()) {
-                return "Element";
-            } else if (astBasicType.isPresentAgent()) {
-                return "Agent";
-            } else if (astBasicType.isPresentLocation()) {
-                return "Location";
-            } else if (astBasicType.isPresentLayer()) {
-                return "Layer";
-            } else if (astBasicType.isPresentModule()) {
-                return "Module";
-            } else if (astBasicType.isPresentTool()) {
-                return "Tool";
-            } else if (astBasicType.isPresentString()) {
-                return "string";
-            } else if (astBasicType.isPresentDouble()) {
-                return "double";
-            } else if (astBasicType.isPresentInteger()) {
-                return "int";
+    private static boolean hasCollectionProperty(ASTParameterTypeDef parameterType, CSharpTypeMapper types) {
+        if (parameterType.isPresentParameterPropertyList()) {
+            for (ASTParameterProperty property : parameterType.getParameterPropertyList().getParameterPropertyList()) {
+                if (types.map(property.getBasicType()).isCollection()) {
+                    return true;
+                }
             }
         }
-        
-        // Fallback: check the class name as before
-        String className = basicType.getClass().getSimpleName();
-        System.out.println("Debug getBasicTypeName: class = '" + className + "'");
-        
-        // Map specific AST classes to their corresponding types
-        switch (className) {
-            case "ASTElementType":
-                return "Element";
-            case "ASTAgentType":
-                return "Agent";
-            case "ASTLocationType":
-                return "Location";
-            case "ASTLayerType":
-                return "Layer";
-            case "ASTModuleType":
-                return "Module";
-            case "ASTToolType":
-                return "Tool";
-            case "ASTStringType":
-                return "string";
-            case "ASTIntegerType":
-                return "int";
-            case "ASTDoubleType":
-                return "double";
-            default:
-                System.out.println("Debug getBasicTypeName: Unknown class '" + className + "', returning 'string'");
-                return "string"; // Default fallback
-        }
+        return false;
     }
     
-    private static String getInheritance(String baseType) {
-        // Since base types like Element, Agent, etc. already inherit from Entity,
-        // we only need to inherit from the base type
-        switch (baseType) {
-            case "Element":
-            case "Agent":
-            case "Location":
-            case "Layer":
-            case "Module":
-            case "Tool":
-                return baseType; // Just inherit from the base type (which already inherits from Entity)
-            default:
-                return "Entity"; // For primitive types, inherit directly from Entity
+    /**
+     * Typed binding: every property gets an ordinal, looked up once by key, and a strongly typed setter per
+     * kind that switches on the ordinal. Collections of the property type are set through SetCollection,
+     * values of an unknown type go through SetValue, which converts collections element by element.
+     * SetParameters is kept for dictionary callers and binds each entry through the ordinals.
+     */
+    private static void generateSetParametersMethod(PrintWriter writer, ASTParameterTypeDef parameterType, CSharpTypeMapper types) {
+        List<ASTParameterProperty> properties = parameterType.isPresentParameterPropertyList()
+            ? parameterType.getParameterPropertyList().getParameterPropertyList() : new ArrayList<>();
+
+        if (!properties.isEmpty()) {
+            writer.println();
+            writer.println("        // Property ordinals for the typed setters");
+            for (int ordinal = 0; ordinal < properties.size(); ordinal++) {
+                writer.println("        public const int " + ordinalName(properties.get(ordinal)) + " = " + ordinal + ";");
+            }
+            writer.print("        public static readonly string[] PropertyKeys = {");
+            for (int ordinal = 0; ordinal < properties.size(); ordinal++) {
+                writer.print((ordinal > 0 ? ", " : " ") + "\"" + properties.get(ordinal).getName() + "\"");
+            }
+            writer.println(" };");
+            writer.println();
+
+            writer.println("        public override int GetPropertyOrdinal(string key)");
+            writer.println("        {");
+            writer.println("            switch (key)");
+            writer.println("            {");
+            for (ASTParameterProperty property : properties) {
+                writer.println("                case \"" + property.getName() + "\": return " + ordinalName(property) + ";");
+            }
+            writer.println("                default: return -1;");
+            writer.println("            }");
+            writer.println("        }");
+
+            generateTypedSetter(writer, properties, types, CSharpTypeMapper.Kind.INT, "SetInt", "int");
+            generateTypedSetter(writer, properties, types, CSharpTypeMapper.Kind.DOUBLE, "SetDouble", "double");
+            generateTypedSetter(writer, properties, types, CSharpTypeMapper.Kind.BOOL, "SetBool", "bool");
+            generateTypedSetter(writer, properties, types, CSharpTypeMapper.Kind.STRING, "SetString", "string");
+            generateTypedSetter(writer, properties, types, CSharpTypeMapper.Kind.ENTITY, "SetEntity", "Entity");
+            generateCollectionSetter(writer, properties, types);
+
+            writer.println();
+            writer.println("        public override bool SetValue(int ordinal, object value)");
+            writer.println("        {");
+            writer.println("            switch (ordinal)");
+            writer.println("            {");
+            for (ASTParameterProperty property : properties) {
+                CSharpTypeMapper.CSharpType propertyType = types.map(property.getBasicType());
+                String propertyName = capitalizeFirst(property.getName());
+                writer.println("                case " + ordinalName(property) + ":");
+                switch (propertyType.getKind()) {
+                    case STRING:
+                        writer.println("                    " + propertyName + " = value.ToString();");
+                        writer.println("                    return true;");
+                        break;
+                    case INT:
+                    case DOUBLE:
+                    case BOOL:
+                        writer.println("                    " + propertyName + " = " + propertyType.conversion("value") + ";");
+                        writer.println("                    return true;");
+                        break;
+                    case ENTITY:
+                        writer.println("                    return value is Entity " + property.getName() + "Entity && SetEntity(ordinal, "
+                            + property.getName() + "Entity);");
+                        break;
+                    default:
+                        // Collections already of the property type are assigned as they are, others are converted per element
+                        writer.println("                    " + propertyName + " = value is " + propertyType.getName() + " "
+                            + property.getName() + "Value ? " + property.getName() + "Value : " + propertyType.conversion("value") + ";");
+                        writer.println("                    return true;");
+                }
+            }
+            writer.println("                default:");
+            writer.println("                    return false;");
+            writer.println("            }");
+            writer.println("        }");
         }
-    }
-    
-    private static void generateSetParametersMethod(PrintWriter writer, ASTParameterTypeDef parameterType) throws IOException {
+
         writer.println();
-        writer.println("        // Override SetParameters to set " + capitalizeFirst(parameterType.getName()) + "-specific properties");
+        if (!properties.isEmpty()) {
+            writer.println("        // Compatibility shim for dictionary callers, binds each entry through its property ordinal");
+        }
         writer.println("        public override void SetParameters(Dictionary<string, object> parameters)");
         writer.println("        {");
         writer.println("            // Call base implementation first");
         writer.println("            base.SetParameters(parameters);");
+        if (!properties.isEmpty()) {
+            writer.println();
+            writer.println("            foreach (var parameter in parameters)");
+            writer.println("            {");
+            writer.println("                int ordinal = GetPropertyOrdinal(parameter.Key);");
+            writer.println("                if (ordinal >= 0)");
+            writer.println("                {");
+            writer.println("                    SetValue(ordinal, parameter.Value);");
+            writer.println("                }");
+            writer.println("            }");
+        }
+        writer.println("        }");
+    }
+
+    private static void generateTypedSetter(PrintWriter writer, List<ASTParameterProperty> properties, CSharpTypeMapper types,
+                                            CSharpTypeMapper.Kind kind, String method, String valueType) {
+        List<ASTParameterProperty> ofKind = new ArrayList<>();
+        for (ASTParameterProperty property : properties) {
+            if (types.map(property.getBasicType()).getKind() == kind) {
+                ofKind.add(property);
+            }
+        }
+        if (ofKind.isEmpty()) {
+            return;
+        }
+
         writer.println();
-        
-        if (parameterType.isPresentParameterPropertyList()) {
-            ASTParameterPropertyList propertyList = parameterType.getParameterPropertyList();
-            for (ASTParameterProperty property : propertyList.getParameterPropertyList()) {
-                String propertyName = property.getName();
-                String propertyType = getBasicTypeName(property.getBasicType());
-                String capitalizedPropertyName = capitalizeFirst(propertyName);
-                
-                writer.println("            // Set " + capitalizedPropertyName + " property");
-                writer.println("            if (parameters.ContainsKey(\"" + propertyName + "\"))");
-                writer.println("            {");
-                
-                // Handle different property types
-                if (propertyType.equals("string")) {
-                    writer.println("                " + capitalizedPropertyName + " = parameters[\"" + propertyName + "\"].ToString();");
-                } else if (propertyType.equals("int")) {
-                    writer.println("                " + capitalizedPropertyName + " = Convert.ToInt32(parameters[\"" + propertyName + "\"]);");
-                } else if (propertyType.equals("double")) {
-                    writer.println("                " + capitalizedPropertyName + " = Convert.ToDouble(parameters[\"" + propertyName + "\"]);");
-                } else if (propertyType.equals("bool") || propertyType.equals("Boolean")) {
-                    writer.println("                " + capitalizedPropertyName + " = Convert.ToBoolean(parameters[\"" + propertyName + "\"]);");
-                } else {
-                    // For complex types, try to cast
-                    writer.println("                if (parameters[\"" + propertyName + "\"] is " + propertyType + " " + propertyName + "Value)");
-                    writer.println("                {");
-                    writer.println("                    " + capitalizedPropertyName + " = " + propertyName + "Value;");
-                    writer.println("                }");
-                }
-                
-                writer.println("            }");
-                writer.println();
+        writer.println("        public override bool " + method + "(int ordinal, " + valueType + " value)");
+        writer.println("        {");
+        writer.println("            switch (ordinal)");
+        writer.println("            {");
+        for (ASTParameterProperty property : ofKind) {
+            String propertyName = capitalizeFirst(property.getName());
+            writer.println("                case " + ordinalName(property) + ":");
+            if (kind == CSharpTypeMapper.Kind.ENTITY) {
+                String propertyType = types.map(property.getBasicType()).getName();
+                writer.println("                    if (value is " + propertyType + " " + property.getName() + "Value)");
+                writer.println("                    {");
+                writer.println("                        " + propertyName + " = " + property.getName() + "Value;");
+                writer.println("                        return true;");
+                writer.println("                    }");
+                writer.println("                    return false;");
+            } else {
+                writer.println("                    " + propertyName + " = value;");
+                writer.println("                    return true;");
             }
         }
-        
+        writer.println("                default:");
+        writer.println("                    return false;");
+        writer.println("            }");
         writer.println("        }");
     }
+
+    /**
+     * SetCollection only takes a collection of the exact property type, it is neither converted nor boxed.
+     */
+    private static void generateCollectionSetter(PrintWriter writer, List<ASTParameterProperty> properties, CSharpTypeMapper types) {
+        List<ASTParameterProperty> collections = new ArrayList<>();
+        for (ASTParameterProperty property : properties) {
+            if (types.map(property.getBasicType()).isCollection()) {
+                collections.add(property);
+            }
+        }
+        if (collections.isEmpty()) {
+            return;
+        }
+
+        writer.println();
+        writer.println("        public override bool SetCollection<T>(int ordinal, T value)");
+        writer.println("        {");
+        writer.println("            switch (ordinal)");
+        writer.println("            {");
+        for (ASTParameterProperty property : collections) {
+            writer.println("                case " + ordinalName(property) + ":");
+            writer.println("                    if (value is " + types.map(property.getBasicType()).getName() + " " + property.getName() + "Value)");
+            writer.println("                    {");
+            writer.println("                        " + capitalizeFirst(property.getName()) + " = " + property.getName() + "Value;");
+            writer.println("                        return true;");
+            writer.println("                    }");
+            writer.println("                    return false;");
+        }
+        writer.println("                default:");
+        writer.println("                    return false;");
+        writer.println("            }");
+        writer.println("        }");
+    }
+
+    private static String ordinalName(ASTParameterProperty property) {
+        return capitalizeFirst(property.getName()) + "Ordinal";
+    }
 }
@@ -1,76 +1,42 @@
-import crf._parser.CRFParser;
 import crf._ast.ASTAllowedType;
 import crf._ast.ASTPredicateTypeDef;
 import crf._ast.ASTParameterDeclaration;
-import java.util.Optional;
 import java.io.*;
 import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
 
 public class CSharpPredicateGenerator {
     
-    private static final String OUTPUT_DIR = "C:/Users/sherk/Documents/BehaviorTreeMainProject/BehaviorTreeMainProject/src/ModelLoader/PredicateTypes";
-    
-    public static void main(String[] args) {
-        try {
-            System.out.println("GENERATING: Generating C# Predicate Classes...");
-            
-            CRFParser parser = new CRFParser();
-            Optional<ASTAllowedType> result = parser.parse("src/test/resources/valid/crf/test_crf.txt");
-            
-            if (result.isPresent()) {
-                ASTAllowedType ast = result.get();
-                generateCSharpClasses(ast);
-                System.out.println("SUCCESS: C# classes generated successfully!");
-            } else {
-                System.out.println("FAILED: Failed to parse CRF model");
-            }
-            
-        } catch (Exception e) {
-            System.err.println("ERROR: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-    
-    public static void generateCSharpClasses(ASTAllowedType ast) throws IOException {
-        // Clean the output directory first
-        cleanOutputDirectory();
-        
-        // Ensure output directory exists
-        Files.createDirectories(Paths.get(OUTPUT_DIR));
-        
+    /**
+     * Lists the files this generator produces for the model without rendering them.
+     */
+    public static List<CSharpEmitter.GeneratedFile> collectSources(CRFModel model, Path outputDir) {
+        ASTAllowedType ast = model.getAst();
+        List<CSharpEmitter.GeneratedFile> files = new ArrayList<>();
         if (ast.getPredicateTypeDefList() != null) {
             for (ASTPredicateTypeDef predicate : ast.getPredicateTypeDefList()) {
-                generatePredicateClass(predicate);
-            }
-        }
-    }
-    
-    private static void cleanOutputDirectory() throws IOException {
-        Path outputPath = Paths.get(OUTPUT_DIR);
-        
-        if (Files.exists(outputPath)) {
-            System.out.println("Cleaning output directory: " + OUTPUT_DIR);
-            
-            // Delete all .cs files in the directory
-            try (DirectoryStream<Path> stream = Files.newDirectoryStream(outputPath, "*.cs")) {
-                for (Path file : stream) {
-                    Files.delete(file);
-                    System.out.println("Deleted: " + file.getFileName());
-                }
+                Path filePath = outputDir.resolve(capitalizeFirst(predicate.getName()) + ".cs");
+                files.add(new CSharpEmitter.GeneratedFile(filePath, "predicate:" + predicate.getName(), () -> renderPredicateClass(predicate, model.getTypeMapper())));
             }
-        } else {
-            System.out.println("Output directory does not exist, will be created: " + OUTPUT_DIR);
+            files.add(CSharpTypeIdGenerator.predicateTable(model, outputDir));
         }
+        return files;
     }
     
-    public static void generatePredicateClass(ASTPredicateTypeDef predicate) throws IOException {
+    public static String renderPredicateClass(ASTPredicateTypeDef predicate, CSharpTypeMapper types) {
         String className = capitalizeFirst(predicate.getName());
-        String fileName = className + ".cs";
-        String filePath = OUTPUT_DIR + "/" + fileName;
+        StringWriter buffer = new StringWriter();
         
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
+        try (PrintWriter writer = new PrintWriter(buffer)) {
             // Generate the C# class
             writer.println("using System;");
+            for (ASTParameterDeclaration param : predicate.getParameterDeclarationList()) {
+                if (types.map(param.getBasicType()).isCollection()) {
+                    writer.println("using System.Collections.Generic;");
+                    break;
+                }
+            }
             writer.println();
             writer.println("namespace ModelLoader.PredicateTypes");
             writer.println("{");
@@ -81,7 +47,7 @@ public class CSharpPredicateGenerator {
             if (predicate.getParameterDeclarationList() != null) {
                 for (ASTParameterDeclaration param : predicate.getParameterDeclarationList()) {
                     String paramName = param.getName();
-                    String paramType = getBasicTypeName(param.getBasicType());
+                    String paramType = types.map(param.getBasicType()).getName();
                     writer.println("        public " + paramType + " " + paramName + " { get; set; }");
                 }
             }
@@ -93,7 +59,7 @@ public class CSharpPredicateGenerator {
             if (predicate.getParameterDeclarationList() != null && !predicate.getParameterDeclarationList().isEmpty()) {
                 for (int i = 0; i < predicate.getParameterDeclarationList().size(); i++) {
                     ASTParameterDeclaration param = predicate.getParameterDeclarationList().get(i);
-                    String paramType = getBasicTypeName(param.getBasicType());
+                    String paramType = types.map(param.getBasicType()).getName();
                     String paramName = param.getName();
                     writer.print(paramType + " " + paramName);
                     if (i < predicate.getParameterDeclarationList().size() - 1) {
@@ -106,12 +72,11 @@ public class CSharpPredicateGenerator {
                 writer.print(", ");
             }
             writer.print("bool isNegated");
-            writer.println(") : base(isNegated)");
+            // The name comes from the interned ID table, nothing is allocated per instance
+            writer.println(") : base(" + CSharpTypeIdGenerator.PREDICATE_TABLE + "." + className + ", "
+                + CSharpTypeIdGenerator.predicateName(predicate.getName()) + ", isNegated)");
             writer.println("        {");
             
-            // Set PredicateName
-            writer.println("            PredicateName = new FastName(\"" + predicate.getName() + "\");");
-            
             // Generate constructor body
             if (predicate.getParameterDeclarationList() != null) {
                 for (ASTParameterDeclaration param : predicate.getParameterDeclarationList()) {
@@ -123,9 +88,8 @@ public class CSharpPredicateGenerator {
             writer.println("        }");
             writer.println("    }");
             writer.println("}");
-            
-            System.out.println("SUCCESS: Generated: " + fileName);
         }
+        return buffer.toString();
     }
     
     private static String capitalizeFirst(String str) {
@@ -134,66 +98,4 @@ public class CSharpPredicateGenerator {
         }
         return str.substring(0, 1).toUpperCase() + str.substring(1);
     }
-    
-    private static String getBasicTypeName(Object basicType) {
-        // Check if the basicType is an ASTBasicType and use the named alternative methods
-        if (basicType instanceof crf._ast.ASTBasicType) {
-            crf._ast.ASTBasicType astBasicType = (crf._ast.ASTBasicType) basicType;
-            
-            // Use the named alternative methods to determine the type
-            if (astBasicType.isPresentElement()) {
-                return "Element";
-            } else if (astBasicType.isPresentAgent()) {
-                return "Agent";
-            } else if (astBasicType.isPresentLocation()) {
-                return "Location";
-            } else if (astBasicType.isPresentLayer()) {
-                return "Layer";
-            } else if (astBasicType.isPresentModule()) {
-                return "Module";
-            } else if (astBasicType.isPresentTool()) {
-                return "Tool";
-            } else if (astBasicType.isPresentString()) {
-                return "String";
-            } else if (astBasicType.isPresentDouble()) {
-                return "double";
-            } else if (astBasicType.isPresentInteger()) {
-                return "int";
-            } else if (astBasicType.isPresentBoolean()) {
-                return "bool";
-            }
-        }
-        
-        // Fallback: check the class name as before
-        String className = basicType.getClass().getSimpleName();
-        System.out.println("Debug getBasicTypeName: class = '" + className + "'");
-        
-        // Map specific AST classes to their corresponding types
-        switch (className) {
-            case "ASTElementType":
-                return "Element";
-            case "ASTAgentType":
-                return "Agent";
-            case "ASTLocationType":
-                return "Location";
-            case "ASTLayerType":
-                return "Layer";
-            case "ASTModuleType":
-                return "Module";
-            case "ASTToolType":
-                return "Tool";
-            case "ASTStringType":
-                return "String";
-            case "ASTIntegerType":
-                return "int";
-            case "ASTDoubleType":
-                return "double";
-            case "ASTBooleanType":
-                return "bool";
-            default:
-                System.err.println("WARNING: Could not determine type for: " + className);
-                return "String"; // Default fallback
-        }
-    }
 }
-
@@ -0,0 +1,85 @@
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * Renders a consistent {@link TemporalNetwork} as a C# class holding a TemporalTable
+ * (BehaviorTreeMainProject/src/FlowNodes/TemporalTable.cs), so the runtime looks the windows up
+ * instead of propagating the relations while a node graph executes.
+ */
+public class CSharpTemporalTableGenerator {
+
+    /**
+     * C# class name for the table of a flow node, e.g. "AssembleWallTemporalTable".
+     */
+    public static String className(String flowNodeName) {
+        return capitalizeFirst(flowNodeName) + "TemporalTable";
+    }
+
+    /**
+     * Renders the class of the flow node. It registers itself with CompiledFlowNodes when the assembly is
+     * loaded, so a BTFlowNode_Dynamic of the same name picks it up.
+     */
+    public static String render(String flowNodeName, TemporalNetwork network) {
+        String className = className(flowNodeName);
+        List<String> nodes = network.getNodes();
+        int points = network.getTimePointCount();
+        StringWriter buffer = new StringWriter();
+
+        try (PrintWriter writer = new PrintWriter(buffer)) {
+            writer.println("// Generated by TemporalNetworkCompiler - do not edit");
+            writer.println("// " + network);
+            writer.println("public static class " + className);
+            writer.println("{");
+            writer.println("    public static readonly TemporalTable Table = new TemporalTable(");
+
+            writer.print("        new string[] {");
+            for (int node = 0; node < nodes.size(); node++) {
+                writer.print((node > 0 ? ", " : " ") + "\"" + nodes.get(node) + "\"");
+            }
+            writer.println(" },");
+
+            // Row-major distance matrix over the time points
+            writer.println("        new float[]");
+            writer.println("        {");
+            for (int from = 0; from < points; from++) {
+                StringBuilder row = new StringBuilder("            ");
+                for (int to = 0; to < points; to++) {
+                    row.append(formatDistance(network.getDistance(from, to))).append(", ");
+                }
+                writer.println(row.toString().stripTrailing() + " // " + network.getTimePointName(from));
+            }
+            writer.println("        },");
+
+            writer.println("        new int[][]");
+            writer.println("        {");
+            for (int node = 0; node < nodes.size(); node++) {
+                StringBuilder row = new StringBuilder("            new int[] {");
+                for (int point : network.getStartPrerequisites(node)) {
+                    row.append(' ').append(point).append(',');
+                }
+                if (row.charAt(row.length() - 1) == ',') {
+                    row.setLength(row.length() - 1);
+                }
+                writer.println(row + " }" + (node + 1 < nodes.size() ? "," : "") + " // " + nodes.get(node));
+            }
+            writer.println("        });");
+            writer.println();
+            writer.println("    [System.Runtime.CompilerServices.ModuleInitializer]");
+            writer.println("    internal static void Register() => CompiledFlowNodes.RegisterTemporalTable(\"" + flowNodeName + "\", Table);");
+            writer.println("}");
+        }
+        return buffer.toString();
+    }
+
+    private static String formatDistance(long distance) {
+        return distance >= TemporalNetwork.INFINITY ? "float.PositiveInfinity" : distance + "f";
+    }
+
+    private static String capitalizeFirst(String str) {
+        if (str == null || str.isEmpty()) {
+            return str;
+        }
+        return Character.toUpperCase(str.charAt(0)) + str.substring(1);
+    }
+}
@@ -0,0 +1,169 @@
+import crf._ast.ASTAllowedType;
+import crf._ast.ASTParameterTypeDef;
+import crf._ast.ASTPredicateTypeDef;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns dense integer IDs to the predicate types and parameter types of a model and renders them as
+ * C# ID tables (PredicateTypeIds, ParameterTypeIds) next to the generated classes.
+ *
+ * IDs follow the declaration order, the first declaration of a name wins. The tables hold the IDs as
+ * constants and the names as static readonly FastNames, so the generated classes refer to a type by its
+ * constant and never construct a name per instance. A class only refers to its own constant, which keeps
+ * its file unchanged when declarations are added or removed; only the tables are regenerated then.
+ */
+public class CSharpTypeIdGenerator {
+
+    public static final String PREDICATE_TABLE = "PredicateTypeIds";
+    public static final String PARAMETER_TABLE = "ParameterTypeIds";
+
+    /** Declaration IDs of the tables in the generation manifest. */
+    public static final String PREDICATE_TABLE_ID = "ids:predicates";
+    public static final String PARAMETER_TABLE_ID = "ids:parameters";
+
+    /**
+     * The predicate ID table, generated into the directory of the predicate classes.
+     */
+    public static CSharpEmitter.GeneratedFile predicateTable(CRFModel model, Path outputDir) {
+        List<ASTPredicateTypeDef> predicates = predicateTypes(model.getAst());
+        return new CSharpEmitter.GeneratedFile(outputDir.resolve(PREDICATE_TABLE + ".cs"), PREDICATE_TABLE_ID,
+            () -> renderPredicateIds(predicates));
+    }
+
+    /**
+     * The parameter type ID table, generated into the directory of the parameter type classes.
+     */
+    public static CSharpEmitter.GeneratedFile parameterTable(CRFModel model, Path outputDir) {
+        List<ASTParameterTypeDef> parameterTypes = parameterTypes(model.getAst());
+        return new CSharpEmitter.GeneratedFile(outputDir.resolve(PARAMETER_TABLE + ".cs"), PARAMETER_TABLE_ID,
+            () -> renderParameterIds(parameterTypes, model.getTypeMapper()));
+    }
+
+    /**
+     * Predicate types in ID order.
+     */
+    public static List<ASTPredicateTypeDef> predicateTypes(ASTAllowedType ast) {
+        Map<String, ASTPredicateTypeDef> byName = new LinkedHashMap<>();
+        for (ASTPredicateTypeDef predicate : ast.getPredicateTypeDefList()) {
+            byName.putIfAbsent(predicate.getName(), predicate);
+        }
+        return new ArrayList<>(byName.values());
+    }
+
+    /**
+     * Parameter types in ID order.
+     */
+    public static List<ASTParameterTypeDef> parameterTypes(ASTAllowedType ast) {
+        Map<String, ASTParameterTypeDef> byName = new LinkedHashMap<>();
+        for (ASTParameterTypeDef parameterType : ast.getParameterTypeDefList()) {
+            byName.putIfAbsent(parameterType.getName(), parameterType);
+        }
+        return new ArrayList<>(byName.values());
+    }
+
+    /**
+     * Name of the ID constant of a type, the same as its generated class name.
+     */
+    public static String constantName(String typeName) {
+        return typeName.substring(0, 1).toUpperCase() + typeName.substring(1);
+    }
+
+    /**
+     * Expression for the interned name of a predicate type, e.g. "PredicateTypeIds.Names[PredicateTypeIds.IsAt]".
+     */
+    public static String predicateName(String predicateName) {
+        return PREDICATE_TABLE + ".Names[" + PREDICATE_TABLE + "." + constantName(predicateName) + "]";
+    }
+
+    /**
+     * Expression for the interned name of a parameter type.
+     */
+    public static String parameterTypeName(String parameterTypeName) {
+        return PARAMETER_TABLE + ".Names[" + PARAMETER_TABLE + "." + constantName(parameterTypeName) + "]";
+    }
+
+    /**
+     * Expression for the interned base type name of a parameter type.
+     */
+    public static String parameterBaseType(String parameterTypeName) {
+        return PARAMETER_TABLE + ".BaseTypes[" + PARAMETER_TABLE + "." + constantName(parameterTypeName) + "]";
+    }
+
+    public static String renderPredicateIds(List<ASTPredicateTypeDef> predicates) {
+        StringWriter buffer = new StringWriter();
+        try (PrintWriter writer = new PrintWriter(buffer)) {
+            writer.println("namespace ModelLoader.PredicateTypes");
+            writer.println("{");
+            writer.println("    /// <summary>");
+            writer.println("    /// Dense IDs of the predicate types in model declaration order, and their interned names");
+            writer.println("    /// </summary>");
+            writer.println("    public static class " + PREDICATE_TABLE);
+            writer.println("    {");
+            for (int id = 0; id < predicates.size(); id++) {
+                writer.println("        public const int " + constantName(predicates.get(id).getName()) + " = " + id + ";");
+            }
+            writer.println();
+            writer.println("        public static readonly FastName[] Names =");
+            writer.println("        {");
+            for (ASTPredicateTypeDef predicate : predicates) {
+                writer.println("            new FastName(\"" + predicate.getName() + "\"),");
+            }
+            writer.println("        };");
+            writer.println("    }");
+            writer.println("}");
+        }
+        return buffer.toString();
+    }
+
+    public static String renderParameterIds(List<ASTParameterTypeDef> parameterTypes, CSharpTypeMapper types) {
+        // One interned name per distinct base type, declared before the tables that use them
+        Map<String, String> baseTypeFields = new LinkedHashMap<>();
+        List<String> baseTypes = new ArrayList<>();
+        for (ASTParameterTypeDef parameterType : parameterTypes) {
+            String baseType = types.map(parameterType.getBasicType()).getName();
+            baseTypes.add(baseType);
+            baseTypeFields.putIfAbsent(baseType, constantName(baseType).replaceAll("[^A-Za-z0-9_]", "_") + "BaseType");
+        }
+
+        StringWriter buffer = new StringWriter();
+        try (PrintWriter writer = new PrintWriter(buffer)) {
+            writer.println("namespace ModelLoader.ParameterTypes");
+            writer.println("{");
+            writer.println("    /// <summary>");
+            writer.println("    /// Dense IDs of the parameter types in model declaration order, and their interned type and base type names");
+            writer.println("    /// </summary>");
+            writer.println("    public static class " + PARAMETER_TABLE);
+            writer.println("    {");
+            for (int id = 0; id < parameterTypes.size(); id++) {
+                writer.println("        public const int " + constantName(parameterTypes.get(id).getName()) + " = " + id + ";");
+            }
+            writer.println();
+            for (Map.Entry<String, String> field : baseTypeFields.entrySet()) {
+                writer.println("        private static readonly FastName " + field.getValue() + " = new FastName(\"" + field.getKey() + "\");");
+            }
+            writer.println();
+            writer.println("        public static readonly FastName[] Names =");
+            writer.println("        {");
+            for (ASTParameterTypeDef parameterType : parameterTypes) {
+                writer.println("            new FastName(\"" + constantName(parameterType.getName()) + "\"),");
+            }
+            writer.println("        };");
+            writer.println();
+            writer.println("        public static readonly FastName[] BaseTypes =");
+            writer.println("        {");
+            for (String baseType : baseTypes) {
+                writer.println("            " + baseTypeFields.get(baseType) + ",");
+            }
+            writer.println("        };");
+            writer.println("    }");
+            writer.println("}");
+        }
+        return buffer.toString();
+    }
+}
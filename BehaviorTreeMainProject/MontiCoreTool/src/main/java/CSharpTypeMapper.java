@@ -0,0 +1,187 @@
+import crf._ast.ASTAction;
+import crf._ast.ASTAllowedType;
+import crf._ast.ASTBasicType;
+import crf._ast.ASTParameterDeclaration;
+import crf._ast.ASTParameterProperty;
+import crf._ast.ASTParameterTypeDef;
+import crf._ast.ASTPredicateTypeDef;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps CRF basic types to C# types for all generators.
+ *
+ * Every {@link ASTBasicType} of a model is resolved once when the mapper is created. Equal types share
+ * one immutable {@link CSharpType}, and nested generics such as {@code Map<String, List<Layer>>} are
+ * resolved recursively. After construction the mapper is only read, so the parallel emitters can share it.
+ */
+public class CSharpTypeMapper {
+
+    public enum Kind { ENTITY, STRING, INT, DOUBLE, BOOL, LIST, SET, MAP }
+
+    /**
+     * Immutable C# type of a basic type, e.g. {@code Dictionary<string, List<Layer>>}.
+     */
+    public static final class CSharpType {
+        private final Kind kind;
+        private final String name;
+        private final List<CSharpType> arguments;
+
+        private CSharpType(Kind kind, String name, List<CSharpType> arguments) {
+            this.kind = kind;
+            this.name = name;
+            this.arguments = arguments;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * The C# type as written in generated code.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Element type of lists and sets, key and value type of maps.
+         */
+        public List<CSharpType> getArguments() {
+            return arguments;
+        }
+
+        public boolean isCollection() {
+            return kind == Kind.LIST || kind == Kind.SET || kind == Kind.MAP;
+        }
+
+        /**
+         * C# expression that converts the object valued expression to this type.
+         * Collections are converted element by element, so nested generics work for any depth.
+         */
+        public String conversion(String value) {
+            return conversion(value, 0);
+        }
+
+        private String conversion(String value, int depth) {
+            String item = "item" + depth;
+            switch (kind) {
+                case STRING:
+                    return "Convert.ToString(" + value + ")";
+                case INT:
+                    return "Convert.ToInt32(" + value + ")";
+                case DOUBLE:
+                    return "Convert.ToDouble(" + value + ")";
+                case BOOL:
+                    return "Convert.ToBoolean(" + value + ")";
+                case LIST:
+                    return "((IEnumerable)" + value + ").Cast<object>().Select(" + item + " => "
+                        + arguments.get(0).conversion(item, depth + 1) + ").ToList()";
+                case SET:
+                    return "new " + name + "(((IEnumerable)" + value + ").Cast<object>().Select(" + item + " => "
+                        + arguments.get(0).conversion(item, depth + 1) + "))";
+                case MAP:
+                    // See DictionaryEntries.cs, a generic dictionary cannot be cast to DictionaryEntry items
+                    return "DictionaryEntries.Of(" + value + ").ToDictionary("
+                        + item + " => " + arguments.get(0).conversion(item + ".Key", depth + 1) + ", "
+                        + item + " => " + arguments.get(1).conversion(item + ".Value", depth + 1) + ")";
+                default:
+                    return value + " as " + name;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static final CSharpType STRING = new CSharpType(Kind.STRING, "string", Collections.emptyList());
+    private static final CSharpType INT = new CSharpType(Kind.INT, "int", Collections.emptyList());
+    private static final CSharpType DOUBLE = new CSharpType(Kind.DOUBLE, "double", Collections.emptyList());
+    private static final CSharpType BOOL = new CSharpType(Kind.BOOL, "bool", Collections.emptyList());
+
+    private final Map<ASTBasicType, CSharpType> types = new IdentityHashMap<>();
+    // Interns equal types by C# name
+    private final Map<String, CSharpType> byName = new HashMap<>();
+
+    /**
+     * Resolves every basic type used by the model's parameter types, predicates and actions.
+     */
+    public CSharpTypeMapper(ASTAllowedType ast) {
+        for (ASTParameterTypeDef parameterType : ast.getParameterTypeDefList()) {
+            resolve(parameterType.getBasicType());
+            if (parameterType.isPresentParameterPropertyList()) {
+                for (ASTParameterProperty property : parameterType.getParameterPropertyList().getParameterPropertyList()) {
+                    resolve(property.getBasicType());
+                }
+            }
+        }
+        for (ASTPredicateTypeDef predicate : ast.getPredicateTypeDefList()) {
+            for (ASTParameterDeclaration param : predicate.getParameterDeclarationList()) {
+                resolve(param.getBasicType());
+            }
+        }
+        for (ASTAction action : ast.getActionList()) {
+            resolve(action.getFunctionBlock().getReturnType().getBasicType());
+        }
+    }
+
+    /**
+     * The C# type of a basic type of the model. Basic types that are not part of the model
+     * (e.g. built after the mapper) are resolved on the fly without being cached.
+     */
+    public CSharpType map(ASTBasicType type) {
+        CSharpType resolved = types.get(type);
+        return resolved != null ? resolved : create(type, null);
+    }
+
+    private CSharpType resolve(ASTBasicType type) {
+        CSharpType resolved = types.get(type);
+        if (resolved == null) {
+            resolved = create(type, this);
+            types.put(type, resolved);
+        }
+        return resolved;
+    }
+
+    private static CSharpType create(ASTBasicType type, CSharpTypeMapper cache) {
+        if (type.isPresentString()) return STRING;
+        if (type.isPresentInteger()) return INT;
+        if (type.isPresentDouble()) return DOUBLE;
+        if (type.isPresentBoolean()) return BOOL;
+
+        Kind kind;
+        String name;
+        List<CSharpType> arguments;
+        if (type.isPresentList() || type.isPresentSet()) {
+            CSharpType element = argument(type, 0, cache);
+            kind = type.isPresentList() ? Kind.LIST : Kind.SET;
+            name = (type.isPresentList() ? "List<" : "HashSet<") + element.getName() + ">";
+            arguments = Collections.singletonList(element);
+        } else if (type.isPresentMap()) {
+            CSharpType key = argument(type, 0, cache);
+            CSharpType value = argument(type, 1, cache);
+            kind = Kind.MAP;
+            name = "Dictionary<" + key.getName() + ", " + value.getName() + ">";
+            arguments = List.of(key, value);
+        } else {
+            kind = Kind.ENTITY;
+            name = CRFSymbolTable.baseTypeName(type);
+            arguments = Collections.emptyList();
+        }
+
+        if (cache == null) {
+            return new CSharpType(kind, name, arguments);
+        }
+        return cache.byName.computeIfAbsent(name, k -> new CSharpType(kind, k, arguments));
+    }
+
+    private static CSharpType argument(ASTBasicType type, int index, CSharpTypeMapper cache) {
+        ASTBasicType argument = type.getBasicType(index);
+        return cache != null ? cache.resolve(argument) : create(argument, null);
+    }
+}
@@ -0,0 +1,461 @@
+import crf.CRFMill;
+import crf._ast.ASTAction;
+import crf._ast.ASTActionInstance;
+import crf._ast.ASTAllowedType;
+import crf._ast.ASTBasicType;
+import crf._ast.ASTGoalState;
+import crf._ast.ASTInitialState;
+import crf._ast.ASTParameterDeclaration;
+import crf._ast.ASTParameterInstance;
+import crf._ast.ASTParameterInstanceDef;
+import crf._ast.ASTParameterInstanceValue;
+import crf._ast.ASTParameterProperty;
+import crf._ast.ASTParameterTypeDef;
+import crf._ast.ASTPredicateArgument;
+import crf._ast.ASTPredicateInstanceDef;
+import crf._ast.ASTPredicateTypeDef;
+import crf._ast.ASTPredicateValue;
+import crf._ast.AllowedTypeBuilder;
+import crf._parser.CRFParser;
+import de.monticore.ast.ASTNode;
+import de.se_rwth.commons.SourcePosition;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parses large CRF models concurrently.
+ *
+ * The file is split at top-level declarations (a declaration keyword at the start of a line outside
+ * of braces and comments) into chunks of roughly equal size. Every chunk is a valid AllowedType on its
+ * own, so the chunks are parsed in parallel, each worker thread with its own {@link CRFParser}. The
+ * declaration lists of the chunk ASTs are concatenated in chunk order, which keeps every list in
+ * source order. Chunks start at the beginning of a line, so only the line numbers of the chunk ASTs
+ * have to be moved to their place in the file.
+ *
+ * Files smaller than two chunks are parsed in one piece.
+ */
+public class ChunkedCRFParser {
+
+    public static final int DEFAULT_MIN_CHUNK_BYTES = 1 << 20;
+
+    private static final String[] DECLARATION_KEYWORDS = {
+        "predicate", "Parameter", "ParameterInstance", "PredicateInstance", "Action", "ActionInstance", "initial", "goal"
+    };
+    private static final int MAX_KEYWORD_LENGTH = 17;
+
+    private final int threads;
+    private final int minChunkBytes;
+    private final ThreadLocal<CRFParser> parsers = ThreadLocal.withInitial(CRFParser::new);
+
+    public ChunkedCRFParser(int threads) {
+        this(threads, DEFAULT_MIN_CHUNK_BYTES);
+    }
+
+    /**
+     * @param minChunkBytes lower bound of the chunk size, so small files are not split into tiny parses
+     */
+    public ChunkedCRFParser(int threads, int minChunkBytes) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1, was " + threads);
+        }
+        this.threads = threads;
+        this.minChunkBytes = minChunkBytes;
+    }
+
+    /**
+     * A line aligned byte range of the model file.
+     */
+    public static class Chunk {
+        private final long offset;
+        private final int length;
+        private final int firstLine;
+
+        Chunk(long offset, int length, int firstLine) {
+            this.offset = offset;
+            this.length = length;
+            this.firstLine = firstLine;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public int getFirstLine() {
+            return firstLine;
+        }
+    }
+
+    /**
+     * Parses the model file. Returns an empty optional if any part of it does not parse.
+     */
+    public Optional<ASTAllowedType> parse(Path file) throws IOException {
+        long size;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+        }
+        long target = Math.max(minChunkBytes, size / (threads * 4L));
+        List<Chunk> chunks = size < 2 * target ? new ArrayList<>() : split(file, target);
+        if (chunks.size() < 2) {
+            CRFParser parser = parsers.get();
+            Optional<ASTAllowedType> result = parser.parse(file.toString());
+            return parser.hasErrors() ? Optional.empty() : result;
+        }
+
+        List<Optional<ASTAllowedType>> results = parseChunks(file, chunks);
+
+        AllowedTypeBuilder merged = CRFMill.allowedTypeBuilder();
+        for (int i = 0; i < chunks.size(); i++) {
+            if (!results.get(i).isPresent()) {
+                Chunk chunk = chunks.get(i);
+                System.out.println("FAILED: " + file.getFileName() + " does not parse in the chunk starting at line "
+                    + chunk.getFirstLine() + " (line numbers of the errors above count from that line)");
+                return Optional.empty();
+            }
+            ASTAllowedType part = results.get(i).get();
+            merged.addAllPredicateTypeDefs(part.getPredicateTypeDefList());
+            merged.addAllParameterTypeDefs(part.getParameterTypeDefList());
+            merged.addAllParameterInstanceDefs(part.getParameterInstanceDefList());
+            merged.addAllPredicateInstanceDefs(part.getPredicateInstanceDefList());
+            merged.addAllActions(part.getActionList());
+            merged.addAllActionInstances(part.getActionInstanceList());
+            merged.addAllInitialStates(part.getInitialStateList());
+            merged.addAllGoalStates(part.getGoalStateList());
+        }
+        ASTAllowedType ast = merged.build();
+        ast.set_SourcePositionStart(new SourcePosition(1, 0, file.toString()));
+        return Optional.of(ast);
+    }
+
+    private List<Optional<ASTAllowedType>> parseChunks(Path file, List<Chunk> chunks) throws IOException {
+        List<Callable<Optional<ASTAllowedType>>> tasks = new ArrayList<>(chunks.size());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (Chunk chunk : chunks) {
+                tasks.add(() -> parseChunk(channel, chunk, file.toString()));
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(Math.min(threads, chunks.size()));
+            try {
+                List<Optional<ASTAllowedType>> results = new ArrayList<>(chunks.size());
+                for (Future<Optional<ASTAllowedType>> future : pool.invokeAll(tasks)) {
+                    results.add(future.get());
+                }
+                return results;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while parsing " + file, e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) cause).getCause();
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException("Failed to parse " + file, cause);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private Optional<ASTAllowedType> parseChunk(FileChannel channel, Chunk chunk, String fileName) throws IOException {
+        // Positional reads do not move the channel position, so all workers can share it
+        ByteBuffer bytes = ByteBuffer.allocate(chunk.getLength());
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, chunk.getOffset() + bytes.position()) < 0) {
+                throw new IOException("Unexpected end of file in " + fileName);
+            }
+        }
+        bytes.flip();
+        String text = StandardCharsets.UTF_8.decode(bytes).toString();
+
+        CRFParser parser = parsers.get();
+        Optional<ASTAllowedType> result = parser.parse_String(text);
+        if (!result.isPresent() || parser.hasErrors()) {
+            return Optional.empty();
+        }
+        new PositionShifter(chunk.getFirstLine() - 1, fileName).shift(result.get());
+        return result;
+    }
+
+    /**
+     * Splits the file into line aligned chunks of at least the target size that start with a top-level declaration.
+     */
+    public static List<Chunk> split(Path file, long targetBytes) throws IOException {
+        return split(file, targetBytes, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Splits with an upper bound on the chunk length. A chunk only ends where the next declaration starts, so
+     * the target is capped at half the bound to leave room for the declaration that crosses it; a single
+     * declaration longer than that is an IOException.
+     */
+    static List<Chunk> split(Path file, long targetBytes, int maxChunkBytes) throws IOException {
+        targetBytes = Math.min(targetBytes, maxChunkBytes / 2);
+        List<Chunk> chunks = new ArrayList<>();
+        long chunkStart = 0;
+        int chunkFirstLine = 1;
+
+        long position = 0;
+        long lineStart = 0;
+        int line = 1;
+        int depth = 0;
+        boolean lineBlank = true;
+        boolean inLineComment = false;
+        boolean inBlockComment = false;
+        boolean inString = false;
+        boolean pendingSlash = false;
+        boolean pendingStar = false;
+        byte[] word = new byte[MAX_KEYWORD_LENGTH + 1];
+        int wordLength = -1;
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    long current = position++;
+
+                    if (b == '\n') {
+                        // A line break ends words, line comments and (unterminated) strings
+                        if (wordLength >= 0 && isDeclarationKeyword(word, wordLength)
+                                && lineStart - chunkStart >= targetBytes) {
+                            chunks.add(chunk(chunkStart, lineStart, chunkFirstLine, maxChunkBytes));
+                            chunkStart = lineStart;
+                            chunkFirstLine = line;
+                        }
+                        wordLength = -1;
+                        inLineComment = false;
+                        inString = false;
+                        pendingSlash = false;
+                        pendingStar = false;
+                        line++;
+                        lineStart = current + 1;
+                        lineBlank = true;
+                        continue;
+                    }
+                    if (inLineComment) {
+                        continue;
+                    }
+                    if (inBlockComment) {
+                        inBlockComment = !(pendingStar && b == '/');
+                        pendingStar = b == '*';
+                        continue;
+                    }
+                    if (inString) {
+                        inString = b != '"';
+                        continue;
+                    }
+                    if (pendingSlash) {
+                        pendingSlash = false;
+                        if (b == '/') {
+                            inLineComment = true;
+                            continue;
+                        } else if (b == '*') {
+                            inBlockComment = true;
+                            pendingStar = false;
+                            continue;
+                        }
+                    }
+
+                    if (wordLength >= 0) {
+                        if (isIdentifierPart(b)) {
+                            if (wordLength < word.length) {
+                                word[wordLength] = b;
+                            }
+                            wordLength++;
+                            continue;
+                        }
+                        if (isDeclarationKeyword(word, wordLength) && lineStart - chunkStart >= targetBytes) {
+                            chunks.add(chunk(chunkStart, lineStart, chunkFirstLine, maxChunkBytes));
+                            chunkStart = lineStart;
+                            chunkFirstLine = line;
+                        }
+                        wordLength = -1;
+                    }
+
+                    if (b == ' ' || b == '\t' || b == '\r') {
+                        continue;
+                    }
+                    if (b == '/') {
+                        pendingSlash = true;
+                    } else if (b == '"') {
+                        inString = true;
+                    } else if (b == '{') {
+                        depth++;
+                    } else if (b == '}') {
+                        depth--;
+                    } else if (lineBlank && depth == 0 && Character.isLetter(b)) {
+                        word[0] = b;
+                        wordLength = 1;
+                    }
+                    lineBlank = false;
+                }
+                buffer.clear();
+            }
+        }
+        chunks.add(chunk(chunkStart, position, chunkFirstLine, maxChunkBytes));
+        return chunks;
+    }
+
+    private static Chunk chunk(long start, long end, int firstLine, int maxChunkBytes) throws IOException {
+        if (end - start > maxChunkBytes) {
+            throw new IOException("Declaration too large to parse in one chunk near line " + firstLine);
+        }
+        return new Chunk(start, (int) (end - start), firstLine);
+    }
+
+    private static boolean isIdentifierPart(byte b) {
+        return Character.isLetterOrDigit(b) || b == '_' || b == '-';
+    }
+
+    private static boolean isDeclarationKeyword(byte[] word, int length) {
+        if (length > MAX_KEYWORD_LENGTH) {
+            return false;
+        }
+        for (String keyword : DECLARATION_KEYWORDS) {
+            if (keyword.length() == length) {
+                boolean equal = true;
+                for (int i = 0; i < length && equal; i++) {
+                    equal = keyword.charAt(i) == word[i];
+                }
+                if (equal) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves the source positions of a chunk AST to the lines of the chunk in the model file.
+     */
+    private static class PositionShifter {
+        private final int lineOffset;
+        private final String fileName;
+
+        PositionShifter(int lineOffset, String fileName) {
+            this.lineOffset = lineOffset;
+            this.fileName = fileName;
+        }
+
+        void shift(ASTAllowedType ast) {
+            for (ASTPredicateTypeDef predicate : ast.getPredicateTypeDefList()) {
+                shiftNode(predicate);
+                for (ASTParameterDeclaration param : predicate.getParameterDeclarationList()) {
+                    shiftNode(param);
+                    shiftBasicType(param.getBasicType());
+                }
+            }
+            for (ASTParameterTypeDef parameterType : ast.getParameterTypeDefList()) {
+                shiftNode(parameterType);
+                shiftBasicType(parameterType.getBasicType());
+                if (parameterType.isPresentParameterPropertyList()) {
+                    shiftNode(parameterType.getParameterPropertyList());
+                    for (ASTParameterProperty property : parameterType.getParameterPropertyList().getParameterPropertyList()) {
+                        shiftNode(property);
+                        shiftBasicType(property.getBasicType());
+                    }
+                }
+            }
+            for (ASTParameterInstanceDef instance : ast.getParameterInstanceDefList()) {
+                shiftNode(instance);
+                shiftNode(instance.getParameterInstanceValues());
+                for (ASTParameterInstanceValue value : instance.getParameterInstanceValues().getParameterInstanceValueList()) {
+                    shiftNode(value);
+                    shiftNode(value.getValue());
+                }
+            }
+            shiftPredicateInstances(ast.getPredicateInstanceDefList());
+            for (ASTAction action : ast.getActionList()) {
+                shiftNode(action);
+                shiftNode(action.getActionParametersBlock());
+                shiftParameterInstances(action.getActionParametersBlock().getParameterInstanceList());
+                shiftNode(action.getPreconditionState());
+                shiftPredicateInstances(action.getPreconditionState().getPredicateInstanceDefList());
+                shiftNode(action.getEffectState());
+                shiftPredicateInstances(action.getEffectState().getPredicateInstanceDefList());
+                shiftNode(action.getFunctionBlock());
+                shiftNode(action.getFunctionBlock().getReturnType());
+                shiftBasicType(action.getFunctionBlock().getReturnType().getBasicType());
+                shiftNode(action.getImplementationBlock());
+                shiftNode(action.getImplementationBlock().getFunctionReference());
+            }
+            for (ASTActionInstance actionInstance : ast.getActionInstanceList()) {
+                shiftNode(actionInstance);
+                shiftNode(actionInstance.getActionTypeName());
+                shiftParameterInstances(actionInstance.getParameterInstanceList());
+            }
+            for (ASTInitialState initial : ast.getInitialStateList()) {
+                shiftNode(initial);
+                shiftPredicateInstances(initial.getPredicateInstanceDefList());
+            }
+            for (ASTGoalState goal : ast.getGoalStateList()) {
+                shiftNode(goal);
+                shiftPredicateInstances(goal.getPredicateInstanceDefList());
+            }
+        }
+
+        private void shiftPredicateInstances(List<ASTPredicateInstanceDef> predicates) {
+            for (ASTPredicateInstanceDef predicate : predicates) {
+                shiftNode(predicate);
+                for (ASTPredicateArgument argument : predicate.getPredicateArgumentList()) {
+                    shiftNode(argument);
+                    shiftPredicateValue(argument.getValue());
+                }
+                shiftPredicateValue(predicate.getPredicateValue());
+            }
+        }
+
+        private void shiftPredicateValue(ASTPredicateValue value) {
+            shiftNode(value);
+            if (value.isPresentAttributeAccess()) {
+                shiftNode(value.getAttributeAccess());
+            }
+        }
+
+        private void shiftParameterInstances(List<ASTParameterInstance> params) {
+            for (ASTParameterInstance param : params) {
+                shiftNode(param);
+            }
+        }
+
+        private void shiftBasicType(ASTBasicType type) {
+            shiftNode(type);
+            for (ASTBasicType argument : type.getBasicTypeList()) {
+                shiftBasicType(argument);
+            }
+        }
+
+        private void shiftNode(ASTNode node) {
+            if (node.isPresent_SourcePositionStart()) {
+                node.set_SourcePositionStart(shifted(node.get_SourcePositionStart()));
+            }
+            if (node.isPresent_SourcePositionEnd()) {
+                node.set_SourcePositionEnd(shifted(node.get_SourcePositionEnd()));
+            }
+        }
+
+        private SourcePosition shifted(SourcePosition position) {
+            return new SourcePosition(position.getLine() + lineOffset, position.getColumn(), fileName);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+import de.monticore.ast.ASTNode;
+import de.se_rwth.commons.SourcePosition;
+import de.se_rwth.commons.logging.Finding;
+import de.se_rwth.commons.logging.Log;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Thread-safe collector for the errors of context conditions that run in parallel.
+ * The MontiCore {@link Log} is not meant to be written from several threads, so the CoCos report
+ * here and the findings are logged afterwards, sorted by source position.
+ */
+public class CoCoFindings {
+
+    private static final Comparator<Finding> BY_POSITION = Comparator
+        .comparing((Finding f) -> f.getSourcePosition().flatMap(SourcePosition::getFileName).orElse(""))
+        .thenComparingInt(f -> f.getSourcePosition().map(SourcePosition::getLine).orElse(0))
+        .thenComparingInt(f -> f.getSourcePosition().map(SourcePosition::getColumn).orElse(0))
+        .thenComparing(Finding::getMsg);
+
+    private final ConcurrentLinkedQueue<Finding> findings = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param code MontiCore style error code, e.g. "0xCRF01"
+     */
+    public void error(String code, String message, ASTNode node) {
+        findings.add(Finding.error(code + " " + message, node.get_SourcePositionStart()));
+    }
+
+    public boolean isEmpty() {
+        return findings.isEmpty();
+    }
+
+    /**
+     * All findings sorted by file, line, column and message, so the order does not depend on the thread schedule.
+     */
+    public List<Finding> getSorted() {
+        List<Finding> sorted = new ArrayList<>(findings);
+        sorted.sort(BY_POSITION);
+        return sorted;
+    }
+
+    /**
+     * Logs all findings as errors in source order.
+     */
+    public void log() {
+        for (Finding finding : getSorted()) {
+            Log.error(finding.getMsg(), finding.getSourcePosition().orElse(SourcePosition.getDefaultSourcePosition()));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+import dynamicbtflownode._ast.ASTRelationDefinition;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Order relations of a node graph in compressed sparse row form, built by {@link NodeGraphCompiler}.
+ *
+ * The successors of node i are {@code successors[successorOffsets[i] .. successorOffsets[i + 1])}.
+ * {@link #getPredecessorCounts()} holds the number of distinct order predecessors of every node, so a runtime
+ * finds the ready nodes by decrementing the counters of the successors of each completed node.
+ * {@link #getLevels()} is the length of the longest order chain ending at each node, and
+ * {@link #getTopologicalOrder()} lists the nodes by level and then source order. A graph whose order relations
+ * form a cycle has no levels or order, only the {@link Cycle}.
+ */
+public class CompiledNodeGraph {
+
+    /**
+     * Order cycle: the relation that closes it and the nodes, starting and ending with the same one.
+     */
+    public static class Cycle {
+        private final ASTRelationDefinition relation;
+        private final List<String> nodes;
+
+        Cycle(ASTRelationDefinition relation, List<String> nodes) {
+            this.relation = relation;
+            this.nodes = Collections.unmodifiableList(nodes);
+        }
+
+        public ASTRelationDefinition getRelation() {
+            return relation;
+        }
+
+        public List<String> getNodes() {
+            return nodes;
+        }
+
+        @Override
+        public String toString() {
+            return String.join(" -> ", nodes);
+        }
+    }
+
+    private final List<String> nodes;
+    private final int[] successorOffsets;
+    private final int[] successors;
+    private final int[] predecessorCounts;
+    private final int[] levels;
+    private final int[] topologicalOrder;
+    private final Cycle cycle;
+
+    CompiledNodeGraph(List<String> nodes, int[] successorOffsets, int[] successors, int[] predecessorCounts,
+                      int[] levels, int[] topologicalOrder, Cycle cycle) {
+        this.nodes = Collections.unmodifiableList(nodes);
+        this.successorOffsets = successorOffsets;
+        this.successors = successors;
+        this.predecessorCounts = predecessorCounts;
+        this.levels = levels;
+        this.topologicalOrder = topologicalOrder;
+        this.cycle = cycle;
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    public int getEdgeCount() {
+        return successors.length;
+    }
+
+    public int[] getSuccessorOffsets() {
+        return successorOffsets.clone();
+    }
+
+    public int[] getSuccessors() {
+        return successors.clone();
+    }
+
+    /**
+     * Order successors of one node, in source order of their first relation.
+     */
+    public int[] getSuccessors(int node) {
+        return Arrays.copyOfRange(successors, successorOffsets[node], successorOffsets[node + 1]);
+    }
+
+    public int[] getPredecessorCounts() {
+        return predecessorCounts.clone();
+    }
+
+    public boolean isAcyclic() {
+        return cycle == null;
+    }
+
+    public Optional<Cycle> getCycle() {
+        return Optional.ofNullable(cycle);
+    }
+
+    public int[] getLevels() {
+        checkAcyclic();
+        return levels.clone();
+    }
+
+    public int getLevelCount() {
+        checkAcyclic();
+        int count = 0;
+        for (int level : levels) {
+            count = Math.max(count, level + 1);
+        }
+        return count;
+    }
+
+    public int[] getTopologicalOrder() {
+        checkAcyclic();
+        return topologicalOrder.clone();
+    }
+
+    private void checkAcyclic() {
+        if (cycle != null) {
+            throw new IllegalStateException("The order relations form a cycle: " + cycle);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return nodes.size() + " nodes, " + successors.length + " order edges, "
+            + (cycle == null ? getLevelCount() + " levels" : "cycle " + cycle);
+    }
+}
@@ -0,0 +1,143 @@
+import crf._ast.ASTAction;
+import crf._ast.ASTAttributeAccess;
+import crf._ast.ASTBasicType;
+import crf._ast.ASTParameterDeclaration;
+import crf._ast.ASTParameterInstance;
+import crf._ast.ASTParameterProperty;
+import crf._ast.ASTParameterTypeDef;
+import crf._ast.ASTPredicateArgument;
+import crf._ast.ASTPredicateInstanceDef;
+import crf._ast.ASTPredicateTypeDef;
+import crf._ast.ASTPredicateValue;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * Computes stable content hashes of CRF declarations.
+ * The hash is taken over a canonical text form of the declaration, so formatting and comments
+ * in the model file do not change it.
+ */
+public class DeclarationHasher {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    public static String hash(ASTPredicateTypeDef predicate) {
+        StringBuilder canonical = new StringBuilder("predicate ").append(predicate.getName()).append('(');
+        for (ASTParameterDeclaration param : predicate.getParameterDeclarationList()) {
+            canonical.append(param.getName()).append('-').append(basicTypeSignature(param.getBasicType())).append(';');
+        }
+        return sha256(canonical.append(')').toString());
+    }
+
+    public static String hash(ASTParameterTypeDef parameterType) {
+        StringBuilder canonical = new StringBuilder("parameter ").append(parameterType.getName())
+            .append(':').append(basicTypeSignature(parameterType.getBasicType())).append('{');
+        if (parameterType.isPresentParameterPropertyList()) {
+            for (ASTParameterProperty property : parameterType.getParameterPropertyList().getParameterPropertyList()) {
+                canonical.append(property.getName()).append(':').append(basicTypeSignature(property.getBasicType())).append(';');
+            }
+        }
+        return sha256(canonical.append('}').toString());
+    }
+
+    public static String hash(ASTAction action) {
+        StringBuilder canonical = new StringBuilder("action ").append(action.getName()).append("{parameters{");
+        for (ASTParameterInstance param : action.getActionParametersBlock().getParameterInstanceList()) {
+            canonical.append(param.getName(0)).append(':').append(param.getName(1)).append(';');
+        }
+        canonical.append("}precondition{");
+        appendPredicateInstances(canonical, action.getPreconditionState().getPredicateInstanceDefList());
+        canonical.append("}effect{");
+        appendPredicateInstances(canonical, action.getEffectState().getPredicateInstanceDefList());
+        canonical.append("}function{").append(String.join(",", action.getFunctionBlock().getNameList()))
+            .append("->").append(basicTypeSignature(action.getFunctionBlock().getReturnType().getBasicType()))
+            .append("}implementation{").append(action.getImplementationBlock().getFunctionReference().getName())
+            .append("}}");
+        return sha256(canonical.toString());
+    }
+
+    /**
+     * Hash of a built-in base type such as Element or Tool. Built-in types never change,
+     * so this only depends on the name.
+     */
+    public static String hashBuiltinType(String name) {
+        return sha256("builtin " + name);
+    }
+
+    /**
+     * Canonical signature of a basic type, including nested generic arguments (e.g. "Map<String,List<Layer>>").
+     */
+    public static String basicTypeSignature(ASTBasicType type) {
+        if (type.isPresentList()) {
+            return "List<" + basicTypeSignature(type.getBasicType(0)) + ">";
+        } else if (type.isPresentSet()) {
+            return "Set<" + basicTypeSignature(type.getBasicType(0)) + ">";
+        } else if (type.isPresentMap()) {
+            return "Map<" + basicTypeSignature(type.getBasicType(0)) + "," + basicTypeSignature(type.getBasicType(1)) + ">";
+        } else if (type.isPresentElement()) {
+            return "Element";
+        } else if (type.isPresentAgent()) {
+            return "Agent";
+        } else if (type.isPresentLocation()) {
+            return "Location";
+        } else if (type.isPresentLayer()) {
+            return "Layer";
+        } else if (type.isPresentModule()) {
+            return "Module";
+        } else if (type.isPresentTool()) {
+            return "Tool";
+        } else if (type.isPresentString()) {
+            return "String";
+        } else if (type.isPresentDouble()) {
+            return "Double";
+        } else if (type.isPresentInteger()) {
+            return "Integer";
+        } else if (type.isPresentBoolean()) {
+            return "Boolean";
+        }
+        throw new IllegalArgumentException("Unsupported basic type at " + type.get_SourcePositionStart());
+    }
+
+    private static void appendPredicateInstances(StringBuilder canonical, List<ASTPredicateInstanceDef> predicates) {
+        for (ASTPredicateInstanceDef predicate : predicates) {
+            canonical.append(predicate.getName()).append('(');
+            for (ASTPredicateArgument argument : predicate.getPredicateArgumentList()) {
+                canonical.append(predicateValueSignature(argument.getValue())).append('=').append(argument.getName()).append(',');
+            }
+            canonical.append("isNegated=").append(predicateValueSignature(predicate.getPredicateValue())).append(");");
+        }
+    }
+
+    /**
+     * Text form of a predicate value: the name, "object.attribute" or "true"/"false".
+     */
+    public static String predicateValueSignature(ASTPredicateValue value) {
+        if (value.isPresentName()) {
+            return value.getName();
+        } else if (value.isPresentAttributeAccess()) {
+            ASTAttributeAccess access = value.getAttributeAccess();
+            return access.getName(0) + "." + access.getName(1);
+        }
+        return value.isTrueValue() ? "true" : "false";
+    }
+
+    public static String sha256(String text) {
+        return sha256(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[2 * i] = HEX[(digest[i] >> 4) & 0xF];
+                hex[2 * i + 1] = HEX[digest[i] & 0xF];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
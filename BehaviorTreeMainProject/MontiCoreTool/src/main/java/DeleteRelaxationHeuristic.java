@@ -0,0 +1,231 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Delete relaxation heuristics for the planner: h_add and h_FF.
+ *
+ * Both ignore delete effects and negative preconditions. h_add propagates atom costs with a generalized
+ * Dijkstra search, where an action becomes applicable once all its preconditions are reached and costs
+ * its own cost plus the sum of its precondition costs; the heuristic value is the sum of the goal costs.
+ * h_FF extracts a relaxed plan from the cheapest achievers found by h_add and sums the costs of its actions.
+ *
+ * An instance keeps its work arrays between evaluations and must only be used by one thread.
+ */
+public class DeleteRelaxationHeuristic {
+
+    public enum Kind { ADD, FF }
+
+    /**
+     * Value of states from which the goal is unreachable even without delete effects.
+     */
+    public static final long DEAD_END = Long.MAX_VALUE;
+
+    private static final long UNREACHED = Long.MAX_VALUE;
+
+    private final GroundedModel model;
+    private final Kind kind;
+    private final int[] actionCosts;
+    // Actions with a precondition, per atom
+    private final int[] consumerStart;
+    private final int[] consumers;
+    private final int[] preconditionCount;
+    private final int[] noPreconditions;
+
+    private final long[] atomCost;
+    private final int[] achiever;
+    private final int[] remaining;
+    private final long[] actionCost;
+    private final BitSet inRelaxedPlan = new BitSet();
+    private final BitSet marked = new BitSet();
+    private final int[] stack;
+    private long[] heapKeys = new long[64];
+    private int[] heapAtoms = new int[64];
+    private int heapSize;
+
+    public DeleteRelaxationHeuristic(GroundedModel model, int[] actionCosts, Kind kind) {
+        this.model = model;
+        this.kind = kind;
+        this.actionCosts = actionCosts;
+        int atoms = model.getAtomCount();
+        int actions = model.getActionCount();
+        int[] preStart = model.preconditionStarts();
+        int[] pre = model.preconditionAtoms();
+
+        preconditionCount = new int[actions];
+        consumerStart = new int[atoms + 1];
+        int empty = 0;
+        for (int action = 0; action < actions; action++) {
+            preconditionCount[action] = preStart[action + 1] - preStart[action];
+            empty += preconditionCount[action] == 0 ? 1 : 0;
+            for (int i = preStart[action]; i < preStart[action + 1]; i++) {
+                consumerStart[pre[i] + 1]++;
+            }
+        }
+        for (int atom = 0; atom < atoms; atom++) {
+            consumerStart[atom + 1] += consumerStart[atom];
+        }
+        consumers = new int[pre.length];
+        int[] fill = Arrays.copyOf(consumerStart, atoms);
+        noPreconditions = new int[empty];
+        empty = 0;
+        for (int action = 0; action < actions; action++) {
+            if (preconditionCount[action] == 0) {
+                noPreconditions[empty++] = action;
+            }
+            for (int i = preStart[action]; i < preStart[action + 1]; i++) {
+                consumers[fill[pre[i]]++] = action;
+            }
+        }
+
+        atomCost = new long[atoms];
+        achiever = new int[atoms];
+        remaining = new int[actions];
+        actionCost = new long[actions];
+        stack = new int[atoms];
+    }
+
+    /**
+     * Heuristic value of the packed state (see {@link PackedStates}) for the sorted goal atoms, or {@link #DEAD_END}.
+     */
+    public long evaluate(long[] state, int[] goal) {
+        Arrays.fill(atomCost, UNREACHED);
+        Arrays.fill(achiever, -1);
+        System.arraycopy(preconditionCount, 0, remaining, 0, remaining.length);
+        Arrays.fill(actionCost, 0);
+        heapSize = 0;
+
+        for (int w = 0; w < state.length; w++) {
+            for (long rest = state[w]; rest != 0; rest &= rest - 1) {
+                int atom = (w << 6) + Long.numberOfTrailingZeros(rest);
+                atomCost[atom] = 0;
+                push(0, atom);
+            }
+        }
+        for (int action : noPreconditions) {
+            apply(action);
+        }
+
+        int openGoals = 0;
+        for (int atom : goal) {
+            openGoals += PackedStates.holds(state, atom) ? 0 : 1;
+        }
+        while (heapSize > 0 && openGoals > 0) {
+            long cost = heapKeys[0];
+            int atom = pop();
+            if (cost > atomCost[atom]) {
+                continue;
+            }
+            if (cost > 0 && Arrays.binarySearch(goal, atom) >= 0) {
+                openGoals--;
+            }
+            for (int i = consumerStart[atom]; i < consumerStart[atom + 1]; i++) {
+                int action = consumers[i];
+                actionCost[action] = saturatedAdd(actionCost[action], cost);
+                if (--remaining[action] == 0) {
+                    apply(action);
+                }
+            }
+        }
+
+        long sum = 0;
+        for (int atom : goal) {
+            if (atomCost[atom] == UNREACHED) {
+                return DEAD_END;
+            }
+            sum = saturatedAdd(sum, atomCost[atom]);
+        }
+        return kind == Kind.ADD ? sum : relaxedPlanCost(state, goal);
+    }
+
+    private void apply(int action) {
+        long cost = saturatedAdd(actionCost[action], actionCosts[action]);
+        int[] addStart = model.addEffectStarts();
+        int[] add = model.addEffectAtoms();
+        for (int i = addStart[action]; i < addStart[action + 1]; i++) {
+            int atom = add[i];
+            if (cost < atomCost[atom]) {
+                atomCost[atom] = cost;
+                achiever[atom] = action;
+                push(cost, atom);
+            }
+        }
+    }
+
+    private long relaxedPlanCost(long[] state, int[] goal) {
+        inRelaxedPlan.clear();
+        marked.clear();
+        int[] preStart = model.preconditionStarts();
+        int[] pre = model.preconditionAtoms();
+        int top = 0;
+        long cost = 0;
+        for (int atom : goal) {
+            if (!PackedStates.holds(state, atom) && !marked.get(atom)) {
+                marked.set(atom);
+                stack[top++] = atom;
+            }
+        }
+        while (top > 0) {
+            int action = achiever[stack[--top]];
+            if (action < 0 || inRelaxedPlan.get(action)) {
+                continue;
+            }
+            inRelaxedPlan.set(action);
+            cost = saturatedAdd(cost, actionCosts[action]);
+            for (int i = preStart[action]; i < preStart[action + 1]; i++) {
+                if (!PackedStates.holds(state, pre[i]) && !marked.get(pre[i])) {
+                    marked.set(pre[i]);
+                    stack[top++] = pre[i];
+                }
+            }
+        }
+        return cost;
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE - 1 : sum;
+    }
+
+    // Binary min-heap of atoms with lazy deletion: stale entries are skipped when popped
+
+    private void push(long key, int atom) {
+        if (heapSize == heapKeys.length) {
+            heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+            heapAtoms = Arrays.copyOf(heapAtoms, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (heapKeys[parent] <= key) {
+                break;
+            }
+            heapKeys[i] = heapKeys[parent];
+            heapAtoms[i] = heapAtoms[parent];
+            i = parent;
+        }
+        heapKeys[i] = key;
+        heapAtoms[i] = atom;
+    }
+
+    private int pop() {
+        int top = heapAtoms[0];
+        long key = heapKeys[--heapSize];
+        int atom = heapAtoms[heapSize];
+        int i = 0;
+        while (2 * i + 1 < heapSize) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+                child++;
+            }
+            if (key <= heapKeys[child]) {
+                break;
+            }
+            heapKeys[i] = heapKeys[child];
+            heapAtoms[i] = heapAtoms[child];
+            i = child;
+        }
+        heapKeys[i] = key;
+        heapAtoms[i] = atom;
+        return top;
+    }
+}
@@ -0,0 +1,60 @@
+import de.monticore.ast.ASTNode;
+import dynamicbtflownode._ast.ASTDynamicBTFlowNode;
+import dynamicbtflownode._ast.ASTRelationDefinition;
+import dynamicbtflownode._cocos.DynamicBTFlowNodeASTRelationDefinitionCoCo;
+
+/**
+ * Context conditions of DynamicBTFlowNode models.
+ *
+ * Error codes: 0xDBT01 unknown relation node, 0xDBT02 duplicate node definition or parameter,
+ * 0xDBT03 temporal relations that no schedule can satisfy, 0xDBT04 cycle of order relations.
+ */
+public class DynamicBTFlowNodeCoCos {
+
+    /**
+     * Runs all DynamicBTFlowNode context conditions and returns the findings.
+     */
+    public static CoCoFindings check(ASTDynamicBTFlowNode flowNode, DynamicBTFlowNodeSymbolTable symbols) {
+        CoCoFindings findings = new CoCoFindings();
+        RelationNodesCoCo relations = new RelationNodesCoCo(symbols, findings);
+        for (ASTRelationDefinition relation : flowNode.getNodeGraphDefinition().getRelationsDefinition().getRelationDefinitionList()) {
+            relations.check(relation);
+        }
+        for (ASTNode duplicate : symbols.getDuplicates()) {
+            findings.error("0xDBT02", "Duplicate declaration, the first declaration with this name is used", duplicate);
+        }
+        CompiledNodeGraph graph = NodeGraphCompiler.compile(flowNode, symbols);
+        if (!graph.isAcyclic()) {
+            CompiledNodeGraph.Cycle cycle = graph.getCycle().get();
+            findings.error("0xDBT04", "The order relations form a cycle: " + cycle, cycle.getRelation());
+        } else {
+            // Order relations are part of the temporal network, a cycle of them would be reported twice
+            new TemporalNetworkCompiler().compile(flowNode, symbols).getConflict().ifPresent(conflict ->
+                findings.error("0xDBT03", "Inconsistent temporal relations, the time points form a negative cycle: " + conflict, conflict.getSource()));
+        }
+        return findings;
+    }
+
+    /**
+     * Checks that the source and target of a relation are node definitions of the node graph.
+     */
+    public static class RelationNodesCoCo implements DynamicBTFlowNodeASTRelationDefinitionCoCo {
+        private final DynamicBTFlowNodeSymbolTable symbols;
+        private final CoCoFindings findings;
+
+        public RelationNodesCoCo(DynamicBTFlowNodeSymbolTable symbols, CoCoFindings findings) {
+            this.symbols = symbols;
+            this.findings = findings;
+        }
+
+        @Override
+        public void check(ASTRelationDefinition node) {
+            if (!symbols.resolveNode(node.getSourceNode().getName()).isPresent()) {
+                findings.error("0xDBT01", "Unknown source node '" + node.getSourceNode().getName() + "'", node.getSourceNode());
+            }
+            if (!symbols.resolveNode(node.getTargetNode().getName()).isPresent()) {
+                findings.error("0xDBT01", "Unknown target node '" + node.getTargetNode().getName() + "'", node.getTargetNode());
+            }
+        }
+    }
+}
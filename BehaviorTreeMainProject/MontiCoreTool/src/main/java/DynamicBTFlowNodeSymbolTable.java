@@ -0,0 +1,101 @@
+import crf._ast.ASTParameterDeclaration;
+import de.monticore.ast.ASTNode;
+import dynamicbtflownode._ast.ASTDynamicBTFlowNode;
+import dynamicbtflownode._ast.ASTNodeDefinition;
+import dynamicbtflownode._ast.ASTRelationDefinition;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Name resolution for a DynamicBTFlowNode, built in one pass over the AST.
+ *
+ * Node definitions and flow node parameters are indexed by name, relations by their source and
+ * target node, so graph consumers do not have to scan the node graph lists.
+ * For duplicate names the first declaration wins and the others are listed in {@link #getDuplicates()}.
+ */
+public class DynamicBTFlowNodeSymbolTable {
+
+    private final ASTDynamicBTFlowNode flowNode;
+    private final Map<String, ASTNodeDefinition> nodes = new LinkedHashMap<>();
+    private final Map<String, ASTParameterDeclaration> parameters = new LinkedHashMap<>();
+    private final Map<String, List<ASTRelationDefinition>> outgoing = new HashMap<>();
+    private final Map<String, List<ASTRelationDefinition>> incoming = new HashMap<>();
+    private final List<ASTNode> duplicates = new ArrayList<>();
+    private final List<ASTRelationDefinition> unresolvedRelations = new ArrayList<>();
+
+    public DynamicBTFlowNodeSymbolTable(ASTDynamicBTFlowNode flowNode) {
+        this.flowNode = flowNode;
+
+        for (ASTParameterDeclaration param : flowNode.getParametersBlock().getParameterDeclarationList()) {
+            if (parameters.putIfAbsent(param.getName(), param) != null) {
+                duplicates.add(param);
+            }
+        }
+        for (ASTNodeDefinition node : flowNode.getNodeGraphDefinition().getNodesDefinition().getNodeDefinitionList()) {
+            if (nodes.putIfAbsent(node.getName(), node) != null) {
+                duplicates.add(node);
+            }
+        }
+        for (ASTRelationDefinition relation : flowNode.getNodeGraphDefinition().getRelationsDefinition().getRelationDefinitionList()) {
+            String source = relation.getSourceNode().getName();
+            String target = relation.getTargetNode().getName();
+            outgoing.computeIfAbsent(source, k -> new ArrayList<>()).add(relation);
+            incoming.computeIfAbsent(target, k -> new ArrayList<>()).add(relation);
+            if (!nodes.containsKey(source) || !nodes.containsKey(target)) {
+                unresolvedRelations.add(relation);
+            }
+        }
+    }
+
+    public ASTDynamicBTFlowNode getFlowNode() {
+        return flowNode;
+    }
+
+    /**
+     * Node definitions of the node graph by name, in source order.
+     */
+    public Map<String, ASTNodeDefinition> getNodes() {
+        return Collections.unmodifiableMap(nodes);
+    }
+
+    public Optional<ASTNodeDefinition> resolveNode(String name) {
+        return Optional.ofNullable(nodes.get(name));
+    }
+
+    public Optional<ASTParameterDeclaration> resolveParameter(String name) {
+        return Optional.ofNullable(parameters.get(name));
+    }
+
+    /**
+     * Relations starting at the node, in source order.
+     */
+    public List<ASTRelationDefinition> getOutgoing(String node) {
+        return Collections.unmodifiableList(outgoing.getOrDefault(node, Collections.emptyList()));
+    }
+
+    /**
+     * Relations ending at the node, in source order.
+     */
+    public List<ASTRelationDefinition> getIncoming(String node) {
+        return Collections.unmodifiableList(incoming.getOrDefault(node, Collections.emptyList()));
+    }
+
+    /**
+     * Relations whose source or target is not a node definition of the graph.
+     */
+    public List<ASTRelationDefinition> getUnresolvedRelations() {
+        return Collections.unmodifiableList(unresolvedRelations);
+    }
+
+    /**
+     * Node definitions and parameters whose name was already declared before, in source order.
+     */
+    public List<ASTNode> getDuplicates() {
+        return Collections.unmodifiableList(duplicates);
+    }
+}
@@ -0,0 +1,243 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A BehaviorTree flattened into parallel arrays by {@link BehaviorTreeFlattener}.
+ *
+ * Nodes are numbered depth-first in source order, the root node is 0. The subtree of node i is the
+ * range [i, subtreeEnd(i)), so its first child is i + 1 and the next sibling of a child c is
+ * subtreeEnd(c); a runtime ticks the tree by scanning the range and jumping over subtrees it skips.
+ * The parameters of an action node are the slots [parameterOffset(i), parameterOffset(i + 1)).
+ * Names, decorators and parameters are indices into one string table.
+ *
+ * Blob layout, all numbers little endian so the C# FlatBehaviorTree can read it with a BinaryReader:
+ * <pre>
+ * magic          4 bytes "BTFT"
+ * format version int
+ * node count, parameter slot count, decorator count, variable count, string count: int each
+ * strings        byte length int and UTF-8 bytes each
+ * kinds          byte per node (0 = flow node, 1 = action node)
+ * names, parents, subtree ends, child counts, depths, decorator indices: int per node each
+ * parameter offsets            int per node, plus one
+ * parameter names, variables   int per slot each
+ * decorators, variables        string index each
+ * </pre>
+ */
+public class FlatBehaviorTree {
+
+    /**
+     * Version of the blob layout. Bump this whenever {@link #encode()} changes.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    public static final byte KIND_FLOW = 0;
+    public static final byte KIND_ACTION = 1;
+
+    private static final byte[] MAGIC = {'B', 'T', 'F', 'T'};
+
+    private final String name;
+    private final List<String> strings;
+    private final byte[] kinds;
+    private final int[] names;
+    private final int[] parents;
+    private final int[] subtreeEnds;
+    private final int[] childCounts;
+    private final int[] depths;
+    private final int[] decoratorIndices;
+    private final int[] parameterOffsets;
+    private final int[] parameterNames;
+    private final int[] parameterVariables;
+    private final int[] decorators;
+    private final int[] variables;
+
+    public FlatBehaviorTree(String name, List<String> strings, byte[] kinds, int[] names, int[] parents,
+                            int[] subtreeEnds, int[] childCounts, int[] depths, int[] decoratorIndices,
+                            int[] parameterOffsets, int[] parameterNames, int[] parameterVariables,
+                            int[] decorators, int[] variables) {
+        this.name = name;
+        this.strings = Collections.unmodifiableList(new ArrayList<>(strings));
+        this.kinds = kinds;
+        this.names = names;
+        this.parents = parents;
+        this.subtreeEnds = subtreeEnds;
+        this.childCounts = childCounts;
+        this.depths = depths;
+        this.decoratorIndices = decoratorIndices;
+        this.parameterOffsets = parameterOffsets;
+        this.parameterNames = parameterNames;
+        this.parameterVariables = parameterVariables;
+        this.decorators = decorators;
+        this.variables = variables;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getNodeCount() {
+        return kinds.length;
+    }
+
+    public List<String> getStrings() {
+        return strings;
+    }
+
+    public byte[] getKinds() {
+        return kinds.clone();
+    }
+
+    public String getNodeName(int node) {
+        return strings.get(names[node]);
+    }
+
+    public int[] getParents() {
+        return parents.clone();
+    }
+
+    public int[] getSubtreeEnds() {
+        return subtreeEnds.clone();
+    }
+
+    public int[] getChildCounts() {
+        return childCounts.clone();
+    }
+
+    public int[] getDepths() {
+        return depths.clone();
+    }
+
+    /**
+     * Index into {@link #getDecorators()} per node, -1 for nodes without a decorator.
+     */
+    public int[] getDecoratorIndices() {
+        return decoratorIndices.clone();
+    }
+
+    public int[] getParameterOffsets() {
+        return parameterOffsets.clone();
+    }
+
+    /**
+     * Blackboard variable index per parameter slot, -1 if no variable has the parameter's name.
+     */
+    public int[] getParameterVariables() {
+        return parameterVariables.clone();
+    }
+
+    /**
+     * Names of the parameters of an action node, in slot order.
+     */
+    public List<String> getParameterNames(int node) {
+        List<String> result = new ArrayList<>();
+        for (int slot = parameterOffsets[node]; slot < parameterOffsets[node + 1]; slot++) {
+            result.add(strings.get(parameterNames[slot]));
+        }
+        return result;
+    }
+
+    /**
+     * Distinct decorator names in order of first use.
+     */
+    public List<String> getDecorators() {
+        return resolve(decorators);
+    }
+
+    public List<String> getVariables() {
+        return resolve(variables);
+    }
+
+    public int getMaxDepth() {
+        return Arrays.stream(depths).max().orElse(0);
+    }
+
+    private List<String> resolve(int[] indices) {
+        List<String> result = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            result.add(strings.get(index));
+        }
+        return result;
+    }
+
+    /**
+     * The tree as a blob in the layout described above.
+     */
+    public byte[] encode() {
+        List<byte[]> encodedStrings = new ArrayList<>(strings.size());
+        int stringBytes = 0;
+        for (String value : strings) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            encodedStrings.add(bytes);
+            stringBytes += 4 + bytes.length;
+        }
+        int n = kinds.length;
+        int slots = parameterNames.length;
+        ByteBuffer out = ByteBuffer.allocate(MAGIC.length + 4 * 6 + stringBytes + n + 4 * (6 * n + n + 1)
+            + 4 * 2 * slots + 4 * (decorators.length + variables.length)).order(ByteOrder.LITTLE_ENDIAN);
+        out.put(MAGIC).putInt(FORMAT_VERSION).putInt(n).putInt(slots).putInt(decorators.length)
+            .putInt(variables.length).putInt(strings.size());
+        for (byte[] bytes : encodedStrings) {
+            out.putInt(bytes.length).put(bytes);
+        }
+        out.put(kinds);
+        for (int[] array : new int[][] {names, parents, subtreeEnds, childCounts, depths, decoratorIndices,
+                parameterOffsets, parameterNames, parameterVariables, decorators, variables}) {
+            for (int value : array) {
+                out.putInt(value);
+            }
+        }
+        return out.array();
+    }
+
+    /**
+     * Reads a blob written by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if it is not a blob of this format version
+     */
+    public static FlatBehaviorTree decode(String name, ByteBuffer blob) {
+        ByteBuffer in = blob.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        byte[] magic = new byte[MAGIC.length];
+        in.get(magic);
+        int version = in.getInt();
+        if (!Arrays.equals(magic, MAGIC) || version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Not a flat behavior tree of format version " + FORMAT_VERSION);
+        }
+        int n = in.getInt();
+        int slots = in.getInt();
+        int decoratorCount = in.getInt();
+        int variableCount = in.getInt();
+        List<String> strings = new ArrayList<>();
+        for (int i = in.getInt(); i > 0; i--) {
+            byte[] bytes = new byte[in.getInt()];
+            in.get(bytes);
+            strings.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        byte[] kinds = new byte[n];
+        in.get(kinds);
+        return new FlatBehaviorTree(name, strings, kinds, readInts(in, n), readInts(in, n), readInts(in, n),
+            readInts(in, n), readInts(in, n), readInts(in, n), readInts(in, n + 1), readInts(in, slots),
+            readInts(in, slots), readInts(in, decoratorCount), readInts(in, variableCount));
+    }
+
+    private static int[] readInts(ByteBuffer in, int count) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.getInt();
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        long actions = 0;
+        for (byte kind : kinds) {
+            actions += kind == KIND_ACTION ? 1 : 0;
+        }
+        return getNodeCount() + " nodes (" + actions + " actions), depth " + getMaxDepth() + ", "
+            + parameterNames.length + " parameter slots, " + decorators.length + " decorators";
+    }
+}
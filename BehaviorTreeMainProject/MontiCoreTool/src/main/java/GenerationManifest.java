@@ -0,0 +1,170 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Record of the last C# generation run: the hash of every input declaration, the dependency
+ * graph between declarations and, per generated file, the input key it was generated from
+ * together with its content hash, size and modification time.
+ *
+ * The manifest is a tab separated text file with one entry per line:
+ * <pre>
+ * version  &lt;generator version&gt;
+ * decl     &lt;declaration id&gt;  &lt;hash&gt;
+ * dep      &lt;declaration id&gt;  &lt;dependency id&gt;
+ * out      &lt;relative path&gt;   &lt;declaration id&gt;  &lt;input key&gt;  &lt;content hash&gt;  &lt;size&gt;  &lt;modified millis&gt;
+ * </pre>
+ * Entries are written in sorted order so the file itself is stable between runs.
+ */
+public class GenerationManifest {
+
+    /**
+     * Manifest entry of one generated file.
+     */
+    public static class OutputEntry {
+        private final String declarationId;
+        private final String inputKey;
+        private final String contentHash;
+        private final long size;
+        private final long lastModified;
+
+        public OutputEntry(String declarationId, String inputKey, String contentHash, long size, long lastModified) {
+            this.declarationId = declarationId;
+            this.inputKey = inputKey;
+            this.contentHash = contentHash;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public String getDeclarationId() {
+            return declarationId;
+        }
+
+        public String getInputKey() {
+            return inputKey;
+        }
+
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+
+    private final String version;
+    private final Map<String, String> declarationHashes = new TreeMap<>();
+    private final Map<String, Set<String>> dependencies = new TreeMap<>();
+    private final Map<String, OutputEntry> outputs = new TreeMap<>();
+
+    public GenerationManifest(String version) {
+        this.version = version;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void putDeclarationHash(String declarationId, String hash) {
+        declarationHashes.put(declarationId, hash);
+    }
+
+    public void addDependency(String declarationId, String dependencyId) {
+        dependencies.computeIfAbsent(declarationId, id -> new TreeSet<>()).add(dependencyId);
+    }
+
+    public void putOutput(String relativePath, OutputEntry entry) {
+        outputs.put(relativePath, entry);
+    }
+
+    public Map<String, String> getDeclarationHashes() {
+        return Collections.unmodifiableMap(declarationHashes);
+    }
+
+    public Set<String> getDependencies(String declarationId) {
+        return Collections.unmodifiableSet(dependencies.getOrDefault(declarationId, Collections.emptySet()));
+    }
+
+    public Map<String, OutputEntry> getOutputs() {
+        return Collections.unmodifiableMap(outputs);
+    }
+
+    /**
+     * Loads a manifest. Returns an empty optional if the file does not exist or is not a valid manifest.
+     */
+    public static Optional<GenerationManifest> load(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+
+        GenerationManifest manifest = null;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t");
+                if (manifest == null) {
+                    if (fields.length != 2 || !fields[0].equals("version")) {
+                        return Optional.empty();
+                    }
+                    manifest = new GenerationManifest(fields[1]);
+                } else if (fields[0].equals("decl") && fields.length == 3) {
+                    manifest.putDeclarationHash(fields[1], fields[2]);
+                } else if (fields[0].equals("dep") && fields.length == 3) {
+                    manifest.addDependency(fields[1], fields[2]);
+                } else if (fields[0].equals("out") && fields.length == 7) {
+                    manifest.putOutput(fields[1], new OutputEntry(fields[2], fields[3], fields[4],
+                        Long.parseLong(fields[5]), Long.parseLong(fields[6])));
+                } else {
+                    return Optional.empty();
+                }
+            }
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(manifest);
+    }
+
+    /**
+     * Writes the manifest to a temporary file and moves it into place, so an interrupted run
+     * never leaves a half written manifest behind.
+     */
+    public void save(Path file) throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            writer.write("# Generated by CSharpGeneratorPipeline - do not edit\n");
+            writer.write("version\t" + version + "\n");
+            for (Map.Entry<String, String> entry : declarationHashes.entrySet()) {
+                writer.write("decl\t" + entry.getKey() + "\t" + entry.getValue() + "\n");
+            }
+            for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+                for (String dependency : entry.getValue()) {
+                    writer.write("dep\t" + entry.getKey() + "\t" + dependency + "\n");
+                }
+            }
+            for (Map.Entry<String, OutputEntry> entry : outputs.entrySet()) {
+                OutputEntry output = entry.getValue();
+                writer.write("out\t" + entry.getKey() + "\t" + output.getDeclarationId() + "\t" + output.getInputKey()
+                    + "\t" + output.getContentHash() + "\t" + output.getSize() + "\t" + output.getLastModified() + "\n");
+            }
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
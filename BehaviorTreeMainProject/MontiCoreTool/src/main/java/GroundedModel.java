@@ -0,0 +1,303 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Grounded form of a CRF model, built by {@link CRFGrounder}.
+ *
+ * Objects (parameter instances), predicates, fluent ground atoms and grounded actions are numbered
+ * from 0. Variable length data is stored in compressed rows: the entries of row i are
+ * {@code data[start[i]] .. data[start[i + 1] - 1]}. Atom rows hold the object ids of the arguments,
+ * action rows the bound objects, the positive and negative preconditions and the add and delete effects.
+ *
+ * Only fluent atoms (of predicates that occur in some action effect) are numbered. Static predicates
+ * are decided during grounding and do not appear in the grounded actions.
+ */
+public class GroundedModel {
+
+    private final String[] objects;
+    private final String[] objectTypes;
+    private final String[] predicates;
+
+    private final int[] atomPredicate;
+    private final int[] atomArgStart;
+    private final int[] atomArgs;
+    private final Map<AtomKey, Integer> atomIndex;
+
+    private final String[] schemas;
+    private final int[] actionSchema;
+    private final int[] actionArgStart;
+    private final int[] actionArgs;
+    private final int[] preStart;
+    private final int[] pre;
+    private final int[] negStart;
+    private final int[] neg;
+    private final int[] addStart;
+    private final int[] add;
+    private final int[] delStart;
+    private final int[] del;
+
+    private final int[] initial;
+    private final int[] goal;
+    private final int[] negativeGoal;
+    private final boolean goalSatisfiable;
+    private final int staticFacts;
+    private final List<String> skippedSchemas;
+
+    GroundedModel(String[] objects, String[] objectTypes, String[] predicates,
+                  int[] atomPredicate, int[] atomArgStart, int[] atomArgs, Map<AtomKey, Integer> atomIndex,
+                  String[] schemas, int[] actionSchema, int[] actionArgStart, int[] actionArgs,
+                  int[] preStart, int[] pre, int[] negStart, int[] neg,
+                  int[] addStart, int[] add, int[] delStart, int[] del,
+                  int[] initial, int[] goal, int[] negativeGoal, boolean goalSatisfiable,
+                  int staticFacts, List<String> skippedSchemas) {
+        this.objects = objects;
+        this.objectTypes = objectTypes;
+        this.predicates = predicates;
+        this.atomPredicate = atomPredicate;
+        this.atomArgStart = atomArgStart;
+        this.atomArgs = atomArgs;
+        this.atomIndex = atomIndex;
+        this.schemas = schemas;
+        this.actionSchema = actionSchema;
+        this.actionArgStart = actionArgStart;
+        this.actionArgs = actionArgs;
+        this.preStart = preStart;
+        this.pre = pre;
+        this.negStart = negStart;
+        this.neg = neg;
+        this.addStart = addStart;
+        this.add = add;
+        this.delStart = delStart;
+        this.del = del;
+        this.initial = initial;
+        this.goal = goal;
+        this.negativeGoal = negativeGoal;
+        this.goalSatisfiable = goalSatisfiable;
+        this.staticFacts = staticFacts;
+        this.skippedSchemas = Collections.unmodifiableList(skippedSchemas);
+    }
+
+    /**
+     * Predicate id and object ids of a ground atom, used as hash key.
+     */
+    static final class AtomKey {
+        final int predicate;
+        final int[] args;
+        private final int hash;
+
+        AtomKey(int predicate, int[] args) {
+            this.predicate = predicate;
+            this.args = args;
+            this.hash = 31 * predicate + Arrays.hashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof AtomKey)) {
+                return false;
+            }
+            AtomKey other = (AtomKey) o;
+            return predicate == other.predicate && Arrays.equals(args, other.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // Objects
+
+    public int getObjectCount() {
+        return objects.length;
+    }
+
+    public String getObject(int object) {
+        return objects[object];
+    }
+
+    /**
+     * Parameter type the object is declared with, e.g. "beam".
+     */
+    public String getObjectType(int object) {
+        return objectTypes[object];
+    }
+
+    // Predicates and atoms
+
+    public int getPredicateCount() {
+        return predicates.length;
+    }
+
+    public String getPredicate(int predicate) {
+        return predicates[predicate];
+    }
+
+    public int getAtomCount() {
+        return atomPredicate.length;
+    }
+
+    public int getAtomPredicate(int atom) {
+        return atomPredicate[atom];
+    }
+
+    public int[] getAtomArgs(int atom) {
+        return Arrays.copyOfRange(atomArgs, atomArgStart[atom], atomArgStart[atom + 1]);
+    }
+
+    /**
+     * Id of the fluent atom with the given predicate and object ids, if it occurs in the model.
+     */
+    public Optional<Integer> findAtom(int predicate, int... args) {
+        return Optional.ofNullable(atomIndex.get(new AtomKey(predicate, args)));
+    }
+
+    /**
+     * Readable form of an atom, e.g. "isAt(b1, fp1)".
+     */
+    public String getAtomName(int atom) {
+        return format(predicates[atomPredicate[atom]], atomArgs, atomArgStart[atom], atomArgStart[atom + 1]);
+    }
+
+    // Actions
+
+    public int getActionCount() {
+        return actionSchema.length;
+    }
+
+    /**
+     * Name of the CRF action the grounded action was instantiated from.
+     */
+    public String getActionSchema(int action) {
+        return schemas[actionSchema[action]];
+    }
+
+    /**
+     * Objects bound to the action parameters, in declaration order.
+     */
+    public int[] getActionArgs(int action) {
+        return Arrays.copyOfRange(actionArgs, actionArgStart[action], actionArgStart[action + 1]);
+    }
+
+    /**
+     * Readable form of a grounded action, e.g. "pickUp(b1, r1, fp1, vg1)".
+     */
+    public String getActionName(int action) {
+        return format(schemas[actionSchema[action]], actionArgs, actionArgStart[action], actionArgStart[action + 1]);
+    }
+
+    public int[] getPreconditions(int action) {
+        return Arrays.copyOfRange(pre, preStart[action], preStart[action + 1]);
+    }
+
+    /**
+     * Atoms that must be false before the action (negated preconditions).
+     */
+    public int[] getNegativePreconditions(int action) {
+        return Arrays.copyOfRange(neg, negStart[action], negStart[action + 1]);
+    }
+
+    public int[] getAddEffects(int action) {
+        return Arrays.copyOfRange(add, addStart[action], addStart[action + 1]);
+    }
+
+    public int[] getDeleteEffects(int action) {
+        return Arrays.copyOfRange(del, delStart[action], delStart[action + 1]);
+    }
+
+    // The raw rows, for search code that must not copy per expansion
+
+    int[] preconditionStarts() {
+        return preStart;
+    }
+
+    int[] preconditionAtoms() {
+        return pre;
+    }
+
+    int[] negativePreconditionStarts() {
+        return negStart;
+    }
+
+    int[] negativePreconditionAtoms() {
+        return neg;
+    }
+
+    int[] addEffectStarts() {
+        return addStart;
+    }
+
+    int[] addEffectAtoms() {
+        return add;
+    }
+
+    int[] deleteEffectStarts() {
+        return delStart;
+    }
+
+    int[] deleteEffectAtoms() {
+        return del;
+    }
+
+    // Initial state, goal and statistics
+
+    /**
+     * Fluent atoms that hold initially (the facts and initial states of fluent predicates), sorted.
+     */
+    public int[] getInitialAtoms() {
+        return initial.clone();
+    }
+
+    /**
+     * Fluent atoms that must hold in a goal state, sorted.
+     */
+    public int[] getGoalAtoms() {
+        return goal.clone();
+    }
+
+    /**
+     * Fluent atoms that must not hold in a goal state (negated goal literals), sorted.
+     */
+    public int[] getNegativeGoalAtoms() {
+        return negativeGoal.clone();
+    }
+
+    /**
+     * False if a goal literal over a static predicate does not hold or a goal literal does not resolve;
+     * then no plan exists.
+     */
+    public boolean isGoalSatisfiable() {
+        return goalSatisfiable;
+    }
+
+    /**
+     * Number of facts of static predicates; they were used for pruning and are not numbered as atoms.
+     */
+    public int getStaticFactCount() {
+        return staticFacts;
+    }
+
+    /**
+     * Actions that could not be grounded because an argument or parameter type does not resolve.
+     */
+    public List<String> getSkippedSchemas() {
+        return skippedSchemas;
+    }
+
+    private String format(String name, int[] data, int from, int to) {
+        StringBuilder out = new StringBuilder(name).append('(');
+        for (int i = from; i < to; i++) {
+            out.append(i > from ? ", " : "").append(objects[data[i]]);
+        }
+        return out.append(')').toString();
+    }
+
+    @Override
+    public String toString() {
+        return objects.length + " objects, " + atomPredicate.length + " fluent atoms, " + actionSchema.length
+            + " grounded actions, " + staticFacts + " static facts";
+    }
+}
@@ -0,0 +1,236 @@
+import crf._ast.ASTAction;
+import crf._ast.ASTParameterInstance;
+import crf._ast.ASTParameterTypeDef;
+import crf._ast.ASTPredicateInstanceDef;
+import crf._ast.ASTPredicateTypeDef;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Regenerates only the C# files whose inputs changed since the last run.
+ *
+ * Every generated file belongs to one declaration. Its input key is the hash of that declaration
+ * combined with the hashes of the declarations it depends on:
+ * <ul>
+ *   <li>action: the predicate types used in its precondition/effect and the parameter types of its parameters</li>
+ *   <li>parameter type: its built-in base type</li>
+ *   <li>predicate type: nothing</li>
+ *   <li>ID tables: the names of all types in declaration order, for parameter types with their base types</li>
+ * </ul>
+ * Editing one predicate therefore rebuilds only that predicate and the actions that reference it.
+ * The keys are kept in a {@link GenerationManifest} in the output root. Without a manifest, or when
+ * it was written by a different generator version, all files are regenerated.
+ */
+public class IncrementalCSharpGenerator {
+
+    public static final String MANIFEST_FILE = ".generation-manifest";
+
+    /**
+     * Version of the generated code. Bump this whenever the C# templates change so existing
+     * outputs are regenerated even though their model declarations did not change.
+     */
+    public static final String GENERATOR_VERSION = "8";
+
+    private static final String[] OUTPUT_DIRECTORIES = {"ParameterTypes", "PredicateTypes", "ActionTypes"};
+
+    /**
+     * Regenerates against the manifest in the output root, or all files if forceFull is set.
+     *
+     * @return the manifest that was written
+     */
+    public static GenerationManifest generate(CRFModel model, Path outputRoot, CSharpEmitter emitter, boolean forceFull) throws IOException {
+        Optional<GenerationManifest> loaded = forceFull ? Optional.empty() : GenerationManifest.load(outputRoot.resolve(MANIFEST_FILE));
+        return generate(model, declarations(model), loaded.orElse(null), outputRoot, emitter);
+    }
+
+    /**
+     * Regenerates against a manifest the caller kept from an earlier run instead of the one on disk.
+     *
+     * @param declarations the result of {@link #declarations(CRFModel)} for this model, the outputs are added to it
+     * @param previous the manifest of the last run, or null to regenerate all files
+     * @return declarations, now also holding the outputs
+     */
+    public static GenerationManifest generate(CRFModel model, GenerationManifest declarations, GenerationManifest previous,
+                                              Path outputRoot, CSharpEmitter emitter) throws IOException {
+        Files.createDirectories(outputRoot);
+        Path manifestFile = outputRoot.resolve(MANIFEST_FILE);
+        boolean full = previous == null || !previous.getVersion().equals(GENERATOR_VERSION);
+        if (full) {
+            previous = new GenerationManifest(GENERATOR_VERSION);
+        }
+        GenerationManifest manifest = declarations;
+
+        List<CSharpEmitter.GeneratedFile> files = new ArrayList<>();
+        files.addAll(CSharpParameterTypeGenerator.collectSources(model, outputRoot.resolve("ParameterTypes")));
+        files.addAll(CSharpPredicateGenerator.collectSources(model, outputRoot.resolve("PredicateTypes")));
+        files.addAll(CSharpActionTypeGenerator.collectSources(model, outputRoot.resolve("ActionTypes")));
+
+        if (full) {
+            System.out.println("INCREMENTAL: No usable manifest, regenerating all files");
+            for (String directory : OUTPUT_DIRECTORIES) {
+                deleteGeneratedSources(outputRoot.resolve(directory));
+            }
+        }
+        for (String directory : OUTPUT_DIRECTORIES) {
+            Files.createDirectories(outputRoot.resolve(directory));
+        }
+
+        List<CSharpEmitter.GeneratedFile> changed = new ArrayList<>();
+        List<String> changedKeys = new ArrayList<>();
+        Set<String> currentOutputs = new HashSet<>();
+        for (CSharpEmitter.GeneratedFile file : files) {
+            String relativePath = relativePath(outputRoot, file.getPath());
+            String inputKey = inputKey(manifest, file.getDeclarationId());
+            currentOutputs.add(relativePath);
+
+            GenerationManifest.OutputEntry entry = previous.getOutputs().get(relativePath);
+            if (entry != null && entry.getInputKey().equals(inputKey) && isUnmodified(file.getPath(), entry)) {
+                manifest.putOutput(relativePath, entry);
+            } else {
+                changed.add(file);
+                changedKeys.add(inputKey);
+            }
+        }
+
+        List<String> contentHashes = emitter.emit(changed);
+        for (int i = 0; i < changed.size(); i++) {
+            CSharpEmitter.GeneratedFile file = changed.get(i);
+            manifest.putOutput(relativePath(outputRoot, file.getPath()), new GenerationManifest.OutputEntry(
+                file.getDeclarationId(), changedKeys.get(i), contentHashes.get(i),
+                Files.size(file.getPath()), Files.getLastModifiedTime(file.getPath()).toMillis()));
+        }
+
+        // Remove files of declarations that no longer exist; only files this generator wrote are touched
+        int removed = 0;
+        for (String relativePath : previous.getOutputs().keySet()) {
+            if (!currentOutputs.contains(relativePath) && Files.deleteIfExists(outputRoot.resolve(relativePath))) {
+                System.out.println("Deleted: " + relativePath);
+                removed++;
+            }
+        }
+
+        manifest.save(manifestFile);
+        System.out.println("INCREMENTAL: " + changed.size() + " regenerated, " + (files.size() - changed.size())
+            + " up to date, " + removed + " removed");
+        return manifest;
+    }
+
+    /**
+     * A manifest holding only the declaration hashes and dependencies of the model, no outputs.
+     */
+    public static GenerationManifest declarations(CRFModel model) {
+        GenerationManifest manifest = new GenerationManifest(GENERATOR_VERSION);
+        recordDeclarations(model, manifest);
+        return manifest;
+    }
+
+    /**
+     * IDs of the declarations that were added, removed or changed between two manifests, sorted.
+     */
+    public static Set<String> changedDeclarations(GenerationManifest before, GenerationManifest after) {
+        Map<String, String> oldHashes = before.getDeclarationHashes();
+        Map<String, String> newHashes = after.getDeclarationHashes();
+        Set<String> changed = new TreeSet<>();
+        for (Map.Entry<String, String> entry : newHashes.entrySet()) {
+            if (!entry.getValue().equals(oldHashes.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String id : oldHashes.keySet()) {
+            if (!newHashes.containsKey(id)) {
+                changed.add(id);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Records the hash of every declaration and the dependency edges between them.
+     */
+    private static void recordDeclarations(CRFModel model, GenerationManifest manifest) {
+        for (ASTPredicateTypeDef predicate : model.getPredicateTypes().values()) {
+            manifest.putDeclarationHash("predicate:" + predicate.getName(), DeclarationHasher.hash(predicate));
+        }
+        for (ASTParameterTypeDef parameterType : model.getParameterTypes().values()) {
+            String id = "parameter:" + parameterType.getName();
+            String baseType = DeclarationHasher.basicTypeSignature(parameterType.getBasicType());
+            manifest.putDeclarationHash(id, DeclarationHasher.hash(parameterType));
+            manifest.putDeclarationHash("builtin:" + baseType, DeclarationHasher.hashBuiltinType(baseType));
+            manifest.addDependency(id, "builtin:" + baseType);
+        }
+        StringBuilder predicateIds = new StringBuilder();
+        for (ASTPredicateTypeDef predicate : CSharpTypeIdGenerator.predicateTypes(model.getAst())) {
+            predicateIds.append(predicate.getName()).append(';');
+        }
+        manifest.putDeclarationHash(CSharpTypeIdGenerator.PREDICATE_TABLE_ID, DeclarationHasher.sha256(predicateIds.toString()));
+        StringBuilder parameterIds = new StringBuilder();
+        for (ASTParameterTypeDef parameterType : CSharpTypeIdGenerator.parameterTypes(model.getAst())) {
+            parameterIds.append(parameterType.getName()).append(':')
+                .append(DeclarationHasher.basicTypeSignature(parameterType.getBasicType())).append(';');
+        }
+        manifest.putDeclarationHash(CSharpTypeIdGenerator.PARAMETER_TABLE_ID, DeclarationHasher.sha256(parameterIds.toString()));
+        for (ASTAction action : model.getActions().values()) {
+            String id = "action:" + action.getName();
+            manifest.putDeclarationHash(id, DeclarationHasher.hash(action));
+            for (ASTParameterInstance param : action.getActionParametersBlock().getParameterInstanceList()) {
+                manifest.addDependency(id, "parameter:" + param.getName(1));
+            }
+            List<ASTPredicateInstanceDef> predicates = new ArrayList<>(action.getPreconditionState().getPredicateInstanceDefList());
+            predicates.addAll(action.getEffectState().getPredicateInstanceDefList());
+            for (ASTPredicateInstanceDef predicate : predicates) {
+                manifest.addDependency(id, "predicate:" + predicate.getName());
+            }
+        }
+    }
+
+    /**
+     * Combines the hash of a declaration with the hashes of its dependencies. A dependency that
+     * is missing from the model contributes a fixed marker, so adding it later changes the key.
+     */
+    private static String inputKey(GenerationManifest manifest, String declarationId) {
+        Map<String, String> hashes = manifest.getDeclarationHashes();
+        StringBuilder key = new StringBuilder(declarationId).append('=').append(hashes.get(declarationId));
+        for (String dependency : manifest.getDependencies(declarationId)) {
+            key.append('|').append(dependency).append('=').append(hashes.getOrDefault(dependency, "missing"));
+        }
+        return DeclarationHasher.sha256(key.toString());
+    }
+
+    /**
+     * Checks that a file still has the content recorded in the manifest. Size and timestamp are
+     * compared first; the content is only hashed if the timestamp moved.
+     */
+    private static boolean isUnmodified(Path file, GenerationManifest.OutputEntry entry) throws IOException {
+        if (!Files.isRegularFile(file) || Files.size(file) != entry.getSize()) {
+            return false;
+        }
+        if (Files.getLastModifiedTime(file).toMillis() == entry.getLastModified()) {
+            return true;
+        }
+        return DeclarationHasher.sha256(Files.readAllBytes(file)).equals(entry.getContentHash());
+    }
+
+    private static void deleteGeneratedSources(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.cs")) {
+            for (Path file : stream) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static String relativePath(Path outputRoot, Path file) {
+        return outputRoot.relativize(file).toString().replace('\\', '/');
+    }
+}
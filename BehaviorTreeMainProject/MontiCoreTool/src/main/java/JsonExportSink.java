@@ -0,0 +1,139 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Streaming JSON writer for {@link ASTExporter}.
+ * Only the nesting state is kept in memory; every token is written to the underlying writer immediately.
+ * The output is indented with two spaces like the exports of {@link ASTStorage}.
+ */
+public class JsonExportSink implements ASTExportSink {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+    // Per nesting level: is it an array, does it already have an entry
+    private boolean[] isArray = new boolean[16];
+    private boolean[] hasEntries = new boolean[16];
+    private int depth;
+
+    public JsonExportSink(Writer out) throws IOException {
+        this.out = out;
+        out.write('{');
+    }
+
+    @Override
+    public void beginObject(String name) throws IOException {
+        startEntry(name);
+        out.write('{');
+        push(false);
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        close('}');
+    }
+
+    @Override
+    public void beginArray(String name) throws IOException {
+        startEntry(name);
+        out.write('[');
+        push(true);
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        close(']');
+    }
+
+    @Override
+    public void value(String name, String value) throws IOException {
+        startEntry(name);
+        writeString(value);
+    }
+
+    @Override
+    public void value(String name, boolean value) throws IOException {
+        startEntry(name);
+        out.write(value ? "true" : "false");
+    }
+
+    @Override
+    public void number(String name, String value) throws IOException {
+        startEntry(name);
+        out.write(value);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (depth != 0) {
+            throw new IllegalStateException("Unclosed object or array at depth " + depth);
+        }
+        out.write('\n');
+        out.write('}');
+        out.write('\n');
+        out.flush();
+    }
+
+    private void startEntry(String name) throws IOException {
+        if (hasEntries[depth]) {
+            out.write(',');
+        }
+        hasEntries[depth] = true;
+        newLine(depth + 1);
+        if (!isArray[depth]) {
+            writeString(name);
+            out.write(": ");
+        }
+    }
+
+    private void push(boolean array) {
+        depth++;
+        if (depth == isArray.length) {
+            isArray = Arrays.copyOf(isArray, depth * 2);
+            hasEntries = Arrays.copyOf(hasEntries, depth * 2);
+        }
+        isArray[depth] = array;
+        hasEntries[depth] = false;
+    }
+
+    private void close(char bracket) throws IOException {
+        if (hasEntries[depth]) {
+            newLine(depth);
+        }
+        depth--;
+        out.write(bracket);
+    }
+
+    private void newLine(int indent) throws IOException {
+        out.write('\n');
+        for (int i = 0; i < indent; i++) {
+            out.write("  ");
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                out.write(value, start, i - start);
+                start = i + 1;
+                switch (c) {
+                    case '"': out.write("\\\""); break;
+                    case '\\': out.write("\\\\"); break;
+                    case '\n': out.write("\\n"); break;
+                    case '\r': out.write("\\r"); break;
+                    case '\t': out.write("\\t"); break;
+                    default:
+                        out.write("\\u00");
+                        out.write(HEX[c >> 4]);
+                        out.write(HEX[c & 0xF]);
+                }
+            }
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+}
@@ -0,0 +1,211 @@
+import dynamicbtflownode._ast.ASTDynamicBTFlowNode;
+import dynamicbtflownode._ast.ASTRelationDefinition;
+import dynamicbtflownode._parser.DynamicBTFlowNodeParser;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Compiles the order relations ({@code priority: Order = true}) of a DynamicBTFlowNode into a
+ * {@link CompiledNodeGraph}, so that cycles are found when the model is compiled and the runtime does not
+ * have to rebuild the graph.
+ *
+ * Nodes are numbered in source order, the first definition of a name wins. Repeated relations between the same
+ * two nodes give one edge. Relations whose nodes do not resolve are left out, they are reported by
+ * {@link DynamicBTFlowNodeCoCos}.
+ */
+public class NodeGraphCompiler {
+
+    public static final String DEFAULT_OUTPUT_DIR = "../src/FlowNodes/NodeGraphs";
+
+    private static final String USAGE = "Usage: NodeGraphCompiler <flow-node-file>... [--output-dir DIR]";
+
+    public static CompiledNodeGraph compile(ASTDynamicBTFlowNode flowNode, DynamicBTFlowNodeSymbolTable symbols) {
+        List<String> nodes = new ArrayList<>(symbols.getNodes().keySet());
+        int n = nodes.size();
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            index.put(nodes.get(i), i);
+        }
+
+        // Distinct edges grouped by source, each with the first relation that added it
+        List<List<Integer>> targets = new ArrayList<>();
+        List<List<ASTRelationDefinition>> relations = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            targets.add(new ArrayList<>());
+            relations.add(new ArrayList<>());
+        }
+        Set<Long> seen = new HashSet<>();
+        Map<ASTRelationDefinition, Integer> position = new IdentityHashMap<>();
+        for (ASTRelationDefinition relation : flowNode.getNodeGraphDefinition().getRelationsDefinition().getRelationDefinitionList()) {
+            position.put(relation, position.size());
+            Integer source = index.get(relation.getSourceNode().getName());
+            Integer target = index.get(relation.getTargetNode().getName());
+            if (source == null || target == null || !relation.getPriorityDefinition().isOrdered()) {
+                continue;
+            }
+            if (seen.add((long) source * n + target)) {
+                targets.get(source).add(target);
+                relations.get(source).add(relation);
+            }
+        }
+
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i] + targets.get(i).size();
+        }
+        int[] successors = new int[offsets[n]];
+        ASTRelationDefinition[] edgeRelations = new ASTRelationDefinition[offsets[n]];
+        int[] predecessorCounts = new int[n];
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < targets.get(i).size(); k++) {
+                successors[offsets[i] + k] = targets.get(i).get(k);
+                edgeRelations[offsets[i] + k] = relations.get(i).get(k);
+                predecessorCounts[targets.get(i).get(k)]++;
+            }
+        }
+
+        // Kahn's algorithm; a node's level is one more than the highest level of its predecessors
+        int[] remaining = predecessorCounts.clone();
+        int[] levels = new int[n];
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < n; i++) {
+            if (remaining[i] == 0) {
+                queue[tail++] = i;
+            }
+        }
+        while (head < tail) {
+            int node = queue[head++];
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                int successor = successors[e];
+                levels[successor] = Math.max(levels[successor], levels[node] + 1);
+                if (--remaining[successor] == 0) {
+                    queue[tail++] = successor;
+                }
+            }
+        }
+        if (tail < n) {
+            return new CompiledNodeGraph(nodes, offsets, successors, predecessorCounts, null, null,
+                findCycle(nodes, offsets, successors, edgeRelations, position, remaining));
+        }
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> levels[a] != levels[b] ? Integer.compare(levels[a], levels[b]) : Integer.compare(a, b));
+        return new CompiledNodeGraph(nodes, offsets, successors, predecessorCounts, levels,
+            Arrays.stream(order).mapToInt(Integer::intValue).toArray(), null);
+    }
+
+    /**
+     * Every node that Kahn's algorithm did not reach has an unreached predecessor, so walking predecessors from
+     * one of them must repeat a node. The cycle is reported at its relation that comes last in the source.
+     */
+    private static CompiledNodeGraph.Cycle findCycle(List<String> nodes, int[] offsets, int[] successors,
+                                                     ASTRelationDefinition[] edgeRelations,
+                                                     Map<ASTRelationDefinition, Integer> position, int[] remaining) {
+        int n = nodes.size();
+        // Unreached predecessor edge of every unreached node
+        int[] predecessorEdge = new int[n];
+        Arrays.fill(predecessorEdge, -1);
+        int[] source = new int[successors.length];
+        for (int i = 0; i < n; i++) {
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                source[e] = i;
+                if (remaining[i] > 0 && remaining[successors[e]] > 0) {
+                    predecessorEdge[successors[e]] = e;
+                }
+            }
+        }
+        int start = 0;
+        while (remaining[start] == 0) {
+            start++;
+        }
+        boolean[] visited = new boolean[n];
+        int node = start;
+        while (!visited[node]) {
+            visited[node] = true;
+            node = source[predecessorEdge[node]];
+        }
+
+        // node is on the cycle; collect it forwards by walking backwards once more
+        List<Integer> cycleEdges = new ArrayList<>();
+        int current = node;
+        do {
+            int edge = predecessorEdge[current];
+            cycleEdges.add(0, edge);
+            current = source[edge];
+        } while (current != node);
+
+        List<String> names = new ArrayList<>();
+        ASTRelationDefinition closing = null;
+        int closingPosition = -1;
+        for (int edge : cycleEdges) {
+            names.add(nodes.get(source[edge]));
+            if (position.get(edgeRelations[edge]) > closingPosition) {
+                closingPosition = position.get(edgeRelations[edge]);
+                closing = edgeRelations[edge];
+            }
+        }
+        names.add(nodes.get(node));
+        return new CompiledNodeGraph.Cycle(closing, names);
+    }
+
+    public static void main(String[] args) {
+        Path outputDir = Paths.get(DEFAULT_OUTPUT_DIR);
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--output-dir") && i + 1 < args.length) {
+                outputDir = Paths.get(args[++i]);
+            } else if (args[i].startsWith("--")) {
+                System.out.println("ERROR: Unknown option " + args[i]);
+                System.out.println(USAGE);
+                return;
+            } else {
+                files.add(args[i]);
+            }
+        }
+        if (files.isEmpty()) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        for (String file : files) {
+            try {
+                Optional<ASTDynamicBTFlowNode> ast = new DynamicBTFlowNodeParser().parse(file);
+                if (!ast.isPresent()) {
+                    System.out.println("FAILED: Failed to parse flow node " + file);
+                    continue;
+                }
+                ASTDynamicBTFlowNode flowNode = ast.get();
+                CompiledNodeGraph graph = compile(flowNode, new DynamicBTFlowNodeSymbolTable(flowNode));
+                if (!graph.isAcyclic()) {
+                    System.out.println("FAILED: Order relations of " + file + " form a cycle: " + graph.getCycle().get());
+                    continue;
+                }
+                Files.createDirectories(outputDir);
+                String className = CSharpNodeGraphGenerator.className(flowNode.getName());
+                Path output = outputDir.resolve(className + ".cs");
+                Files.write(output, CSharpNodeGraphGenerator.render(flowNode.getName(), graph).getBytes(StandardCharsets.UTF_8));
+                System.out.println("SUCCESS: " + flowNode.getName() + ": " + graph);
+                System.out.println("  Written to " + output);
+            } catch (IOException e) {
+                System.err.println("ERROR: Compiling " + file + " failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Closed set of a search that keeps the packed states (see {@link PackedStates}) outside the Java heap.
+ *
+ * Every state is a fixed size record in a direct buffer: its 64-bit Zobrist hash, its path cost, the
+ * record of its parent and the action from the parent, followed by the state words. Records are numbered
+ * in insertion order and allocated in chunks. An open addressing table with linear probing maps hashes
+ * to record numbers; a hit is verified against the full state, so colliding hashes cost a probe but
+ * never merge two states.
+ *
+ * A state takes {@link #bytesPerState()} bytes plus at most 16 bytes of table, which is kept at most half
+ * full. Nothing is allocated beyond the memory limit: {@link #insert} returns {@link #FULL} instead, and
+ * the search can stop cleanly. Direct buffers are only freed when the garbage collector gets to them,
+ * so a planner keeps one store and {@link #clear() clears} it between searches instead of allocating anew.
+ */
+public class OffHeapStateStore {
+
+    /** Result of {@link #find} for unknown states. */
+    public static final int ABSENT = -1;
+    /** Result of {@link #insert} when the memory limit does not allow another state. */
+    public static final int FULL = -2;
+
+    private static final int HASH = 0;
+    private static final int COST = 8;
+    private static final int PARENT = 16;
+    private static final int ACTION = 20;
+    private static final int STATE = 24;
+
+    private static final int CHUNK_BYTES = 1 << 24;
+    private static final int INITIAL_TABLE_CAPACITY = 1 << 16;
+    // Largest table a single direct buffer of ints can hold
+    private static final int MAX_TABLE_CAPACITY = 1 << 28;
+    private static final long ZOBRIST_SEED = 0x5DEECE66DL;
+
+    private final int words;
+    private final long maxBytes;
+    private final long[] zobrist;
+    private final int recordBytes;
+    private final int recordsPerChunk;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+
+    // Record number + 1 per slot, 0 for free slots
+    private ByteBuffer table;
+    private int tableMask;
+    private int size;
+    private long allocatedBytes;
+
+    public OffHeapStateStore(int words, long maxBytes) {
+        if (words < 1) {
+            throw new IllegalArgumentException("words must be at least 1, was " + words);
+        }
+        this.words = words;
+        this.maxBytes = maxBytes;
+        this.recordBytes = STATE + 8 * words;
+        // Small limits get small chunks, so that at most a sixteenth of the limit is allocated ahead
+        this.recordsPerChunk = (int) Math.max(1, Math.min(CHUNK_BYTES, maxBytes / 16) / recordBytes);
+        this.zobrist = new long[words * 64];
+        SplittableRandom random = new SplittableRandom(ZOBRIST_SEED);
+        for (int i = 0; i < zobrist.length; i++) {
+            zobrist[i] = random.nextLong();
+        }
+    }
+
+    // Zobrist hashing
+
+    /**
+     * XOR of the keys of the atoms that hold in the state.
+     */
+    public long hash(long[] state) {
+        long hash = 0;
+        for (int w = 0; w < words; w++) {
+            for (long rest = state[w]; rest != 0; rest &= rest - 1) {
+                hash ^= zobrist[(w << 6) + Long.numberOfTrailingZeros(rest)];
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Hash of {@code successor} from the hash of {@code state}, touching only the atoms that changed.
+     */
+    public long rehash(long hash, long[] state, long[] successor) {
+        for (int w = 0; w < words; w++) {
+            for (long changed = state[w] ^ successor[w]; changed != 0; changed &= changed - 1) {
+                hash ^= zobrist[(w << 6) + Long.numberOfTrailingZeros(changed)];
+            }
+        }
+        return hash;
+    }
+
+    // Lookup and insertion
+
+    /**
+     * Record of the state, or {@link #ABSENT}.
+     */
+    public int find(long[] state, long hash) {
+        if (table == null) {
+            return ABSENT;
+        }
+        for (int slot = (int) hash & tableMask; ; slot = (slot + 1) & tableMask) {
+            int entry = table.getInt(slot << 2);
+            if (entry == 0) {
+                return ABSENT;
+            }
+            int record = entry - 1;
+            if (hashOf(record) == hash && stateEquals(record, state)) {
+                return record;
+            }
+        }
+    }
+
+    /**
+     * Stores a state that is not in the store yet and returns its record, or {@link #FULL} if the memory
+     * limit is reached. The root has parent and action -1.
+     */
+    public int insert(long[] state, long hash, int parent, int action, long cost) {
+        if (table == null ? !allocateTable(INITIAL_TABLE_CAPACITY) : (size + 1) * 2L > tableMask + 1 && !growTable()) {
+            return FULL;
+        }
+        int record = size;
+        if (record == chunks.size() * recordsPerChunk && !allocateChunk()) {
+            return FULL;
+        }
+        ByteBuffer chunk = chunks.get(record / recordsPerChunk);
+        int offset = (record % recordsPerChunk) * recordBytes;
+        chunk.putLong(offset + HASH, hash);
+        chunk.putLong(offset + COST, cost);
+        chunk.putInt(offset + PARENT, parent);
+        chunk.putInt(offset + ACTION, action);
+        for (int w = 0; w < words; w++) {
+            chunk.putLong(offset + STATE + (w << 3), state[w]);
+        }
+        place(table, tableMask, hash, record);
+        size++;
+        return record;
+    }
+
+    /**
+     * Replaces the path to a stored state, for searches that reopen states reached more cheaply.
+     */
+    public void update(int record, int parent, int action, long cost) {
+        ByteBuffer chunk = chunks.get(record / recordsPerChunk);
+        int offset = (record % recordsPerChunk) * recordBytes;
+        chunk.putLong(offset + COST, cost);
+        chunk.putInt(offset + PARENT, parent);
+        chunk.putInt(offset + ACTION, action);
+    }
+
+    // Records
+
+    public long hashOf(int record) {
+        return chunks.get(record / recordsPerChunk).getLong((record % recordsPerChunk) * recordBytes + HASH);
+    }
+
+    public long cost(int record) {
+        return chunks.get(record / recordsPerChunk).getLong((record % recordsPerChunk) * recordBytes + COST);
+    }
+
+    public int parent(int record) {
+        return chunks.get(record / recordsPerChunk).getInt((record % recordsPerChunk) * recordBytes + PARENT);
+    }
+
+    public int action(int record) {
+        return chunks.get(record / recordsPerChunk).getInt((record % recordsPerChunk) * recordBytes + ACTION);
+    }
+
+    /**
+     * Copies the state of the record into {@code state}.
+     */
+    public void read(int record, long[] state) {
+        ByteBuffer chunk = chunks.get(record / recordsPerChunk);
+        int offset = (record % recordsPerChunk) * recordBytes + STATE;
+        for (int w = 0; w < words; w++) {
+            state[w] = chunk.getLong(offset + (w << 3));
+        }
+    }
+
+    /**
+     * Removes all states. The buffers are kept and refilled by the next insertions.
+     */
+    public void clear() {
+        if (table != null) {
+            for (int offset = 0; offset < table.capacity(); offset += 8) {
+                table.putLong(offset, 0);
+            }
+        }
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Bytes of a record, without the table.
+     */
+    public int bytesPerState() {
+        return recordBytes;
+    }
+
+    /**
+     * Direct memory held by the records and the table.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    private boolean stateEquals(int record, long[] state) {
+        ByteBuffer chunk = chunks.get(record / recordsPerChunk);
+        int offset = (record % recordsPerChunk) * recordBytes + STATE;
+        for (int w = 0; w < words; w++) {
+            if (chunk.getLong(offset + (w << 3)) != state[w]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void place(ByteBuffer table, int mask, long hash, int record) {
+        int slot = (int) hash & mask;
+        while (table.getInt(slot << 2) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table.putInt(slot << 2, record + 1);
+    }
+
+    // Allocation within the memory limit
+
+    private ByteBuffer allocate(long bytes) {
+        if (allocatedBytes + bytes > maxBytes) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+            allocatedBytes += bytes;
+            return buffer;
+        } catch (OutOfMemoryError e) {
+            // The JVM's direct memory limit is below ours
+            return null;
+        }
+    }
+
+    private boolean allocateChunk() {
+        ByteBuffer chunk = allocate((long) recordsPerChunk * recordBytes);
+        if (chunk == null) {
+            return false;
+        }
+        chunks.add(chunk);
+        return true;
+    }
+
+    private boolean allocateTable(int capacity) {
+        ByteBuffer allocated = allocate(4L * capacity);
+        if (allocated == null) {
+            return false;
+        }
+        table = allocated;
+        tableMask = capacity - 1;
+        return true;
+    }
+
+    /**
+     * Doubles the table. The old table counts against the limit until the new one is filled.
+     */
+    private boolean growTable() {
+        int capacity = (tableMask + 1) * 2;
+        if (capacity > MAX_TABLE_CAPACITY) {
+            return false;
+        }
+        ByteBuffer old = table;
+        int oldCapacity = tableMask + 1;
+        if (!allocateTable(capacity)) {
+            return false;
+        }
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int entry = old.getInt(slot << 2);
+            if (entry != 0) {
+                place(table, tableMask, hashOf(entry - 1), entry - 1);
+            }
+        }
+        allocatedBytes -= 4L * oldCapacity;
+        return true;
+    }
+}
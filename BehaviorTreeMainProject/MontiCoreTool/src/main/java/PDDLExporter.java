@@ -0,0 +1,332 @@
+import crf._ast.ASTAction;
+import crf._ast.ASTAllowedType;
+import crf._ast.ASTBasicType;
+import crf._ast.ASTGoalState;
+import crf._ast.ASTInitialState;
+import crf._ast.ASTParameterDeclaration;
+import crf._ast.ASTParameterInstanceDef;
+import crf._ast.ASTParameterInstanceValue;
+import crf._ast.ASTParameterTypeDef;
+import crf._ast.ASTPredicateArgument;
+import crf._ast.ASTPredicateInstanceDef;
+import crf._ast.ASTPredicateTypeDef;
+import crf._ast.ASTValue;
+import crf._parser.CRFParser;
+import de.monticore.ast.ASTNode;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Exports a CRF model as a PDDL domain and problem.
+ *
+ * The domain declares the parameter types as subtypes of their basic type, the predicates and the actions
+ * with their negated preconditions and effects. Parameter instances that actions refer to directly become
+ * domain constants. The problem declares the other parameter instances as objects, the facts and initial
+ * states as init and the goal states as goal. Literals are written with their arguments in the order of the
+ * predicate declaration; literals that do not resolve are left out and counted.
+ *
+ * Both files are written while the AST is walked, straight to the writer, so even problems with millions
+ * of facts need no memory beyond the AST. The output only depends on the model: declarations keep their
+ * source order, the type lists are sorted and lines always end with '\n'.
+ *
+ * Usage: PDDLExporter [--domain-name NAME] [--problem-name NAME] model-file domain-file problem-file
+ */
+public class PDDLExporter {
+
+    public static final String DEFAULT_DOMAIN_NAME = "crf";
+
+    private static final String USAGE = "Usage: PDDLExporter [--domain-name NAME] [--problem-name NAME] "
+        + "model-file domain-file problem-file";
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private final ASTAllowedType ast;
+    private final CRFSymbolTable symbols;
+    // Parameter instances the actions refer to, with their parameter type, in order of first use
+    private final Map<String, String> constants = new LinkedHashMap<>();
+    private final Set<ASTNode> duplicateInstances = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long skippedLiterals;
+
+    public PDDLExporter(ASTAllowedType ast, CRFSymbolTable symbols) {
+        this.ast = ast;
+        this.symbols = symbols;
+        duplicateInstances.addAll(symbols.getDuplicates());
+        for (ASTAction action : symbols.getActions().values()) {
+            Map<String, String> parameters = symbols.getActionParameters(action.getName());
+            List<ASTPredicateInstanceDef> literals = new ArrayList<>(action.getPreconditionState().getPredicateInstanceDefList());
+            literals.addAll(action.getEffectState().getPredicateInstanceDefList());
+            for (ASTPredicateInstanceDef literal : literals) {
+                for (ASTPredicateArgument argument : literal.getPredicateArgumentList()) {
+                    String name = argument.getName();
+                    if (!parameters.containsKey(name) && symbols.isInstance(name)) {
+                        constants.putIfAbsent(name, symbols.resolveInstanceTypeName(name).get());
+                    }
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        String domainName = DEFAULT_DOMAIN_NAME;
+        String problemName = null;
+        List<String> positional = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--domain-name") && i + 1 < args.length) {
+                domainName = args[++i];
+            } else if (args[i].equals("--problem-name") && i + 1 < args.length) {
+                problemName = args[++i];
+            } else if (args[i].startsWith("--")) {
+                System.out.println("ERROR: Unknown option " + args[i]);
+                System.out.println(USAGE);
+                return;
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        if (positional.size() != 3) {
+            System.out.println(USAGE);
+            return;
+        }
+        Path modelFile = Paths.get(positional.get(0));
+        if (problemName == null) {
+            problemName = toName(modelFile.getFileName().toString().replaceFirst("\\.[^.]*$", ""));
+        }
+
+        try {
+            Optional<ASTAllowedType> ast = new CRFParser().parse(modelFile.toString());
+            if (!ast.isPresent()) {
+                System.out.println("FAILED: Failed to parse CRF model " + modelFile);
+                return;
+            }
+            PDDLExporter exporter = new PDDLExporter(ast.get(), new CRFSymbolTable(ast.get()));
+            try (Writer out = open(Paths.get(positional.get(1)))) {
+                exporter.writeDomain(out, domainName);
+            }
+            try (Writer out = open(Paths.get(positional.get(2)))) {
+                exporter.writeProblem(out, problemName, domainName);
+            }
+            if (exporter.getSkippedLiterals() > 0) {
+                System.out.println("  " + exporter.getSkippedLiterals() + " literal(s) do not resolve and were left out");
+            }
+            System.out.println("SUCCESS: PDDL domain and problem exported to " + positional.get(1) + " and " + positional.get(2));
+        } catch (IOException e) {
+            System.err.println("ERROR: Export failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static Writer open(Path file) throws IOException {
+        // Files.newBufferedWriter has a fixed 8 KB buffer, so the larger one is the only buffer
+        return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+    }
+
+    /**
+     * PDDL name from an arbitrary string: characters other than letters, digits, '-' and '_' become '_',
+     * and a leading non-letter gets a "p" prefix.
+     */
+    static String toName(String text) {
+        String name = text.replaceAll("[^A-Za-z0-9_-]", "_");
+        return name.isEmpty() || !Character.isLetter(name.charAt(0)) ? "p" + name : name;
+    }
+
+    /**
+     * Literals left out of the exports so far because their predicate or an argument does not resolve.
+     */
+    public long getSkippedLiterals() {
+        return skippedLiterals;
+    }
+
+    // Domain
+
+    public void writeDomain(Writer out, String domainName) throws IOException {
+        out.write("(define (domain " + domainName + ")\n");
+        out.write("  (:requirements :strips :typing :negative-preconditions)\n");
+        writeTypes(out);
+        if (!constants.isEmpty()) {
+            out.write("  (:constants\n");
+            for (Map.Entry<String, String> constant : constants.entrySet()) {
+                out.write("    " + constant.getKey() + " - " + constant.getValue() + "\n");
+            }
+            out.write("  )\n");
+        }
+
+        out.write("  (:predicates\n");
+        for (ASTPredicateTypeDef predicate : symbols.getPredicateTypes().values()) {
+            out.write("    (" + predicate.getName());
+            for (ASTParameterDeclaration parameter : predicate.getParameterDeclarationList()) {
+                out.write(" ?" + parameter.getName() + " - " + baseType(parameter.getBasicType()));
+            }
+            out.write(")\n");
+        }
+        out.write("  )\n");
+
+        for (ASTAction action : symbols.getActions().values()) {
+            Map<String, String> parameters = symbols.getActionParameters(action.getName());
+            out.write("  (:action " + action.getName() + "\n");
+            out.write("    :parameters (");
+            String separator = "";
+            for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+                out.write(separator + "?" + parameter.getKey() + " - " + parameter.getValue());
+                separator = " ";
+            }
+            out.write(")\n");
+            out.write("    :precondition (and\n");
+            writeLiterals(out, action.getPreconditionState().getPredicateInstanceDefList(), parameters, true, "      ");
+            out.write("    )\n");
+            out.write("    :effect (and\n");
+            writeLiterals(out, action.getEffectState().getPredicateInstanceDefList(), parameters, true, "      ");
+            out.write("    )\n");
+            out.write("  )\n");
+        }
+        out.write(")\n");
+        out.flush();
+    }
+
+    /**
+     * One line with the basic types, which default to object, then one line "subtypes - basic type" per
+     * basic type. The types section holds no other parentheses, so line based readers can split it.
+     */
+    private void writeTypes(Writer out) throws IOException {
+        Map<String, List<String>> subtypes = new TreeMap<>();
+        Set<String> baseTypes = new TreeSet<>();
+        for (ASTParameterTypeDef parameterType : symbols.getParameterTypes().values()) {
+            String baseType = baseType(parameterType.getBasicType());
+            subtypes.computeIfAbsent(baseType, k -> new ArrayList<>()).add(parameterType.getName());
+            baseTypes.add(baseType);
+        }
+        for (ASTPredicateTypeDef predicate : symbols.getPredicateTypes().values()) {
+            for (ASTParameterDeclaration parameter : predicate.getParameterDeclarationList()) {
+                baseTypes.add(baseType(parameter.getBasicType()));
+            }
+        }
+        out.write("  (:types\n");
+        if (!baseTypes.isEmpty()) {
+            out.write("    " + String.join(" ", baseTypes) + "\n");
+        }
+        for (Map.Entry<String, List<String>> entry : subtypes.entrySet()) {
+            out.write("    " + String.join(" ", entry.getValue()) + " - " + entry.getKey() + "\n");
+        }
+        out.write("  )\n");
+    }
+
+    private static String baseType(ASTBasicType type) {
+        return CRFSymbolTable.baseTypeName(type).toLowerCase();
+    }
+
+    // Problem
+
+    public void writeProblem(Writer out, String problemName, String domainName) throws IOException {
+        out.write("(define (problem " + problemName + ")\n");
+        out.write("  (:domain " + domainName + ")\n");
+
+        out.write("  (:objects\n");
+        StringBuilder line = new StringBuilder();
+        for (ASTParameterInstanceDef instanceDef : ast.getParameterInstanceDefList()) {
+            line.setLength(0);
+            for (ASTParameterInstanceValue value : instanceDef.getParameterInstanceValues().getParameterInstanceValueList()) {
+                ASTValue instance = value.getValue();
+                if (instance.isPresentName() && !duplicateInstances.contains(instance)
+                        && !constants.containsKey(instance.getName())) {
+                    line.append(line.length() == 0 ? "    " : " ").append(instance.getName());
+                }
+            }
+            if (line.length() > 0) {
+                out.append(line).append(" - ").append(instanceDef.getName()).append('\n');
+            }
+        }
+        out.write("  )\n");
+
+        out.write("  (:init\n");
+        writeFacts(out, ast.getPredicateInstanceDefList());
+        for (ASTInitialState initial : ast.getInitialStateList()) {
+            writeFacts(out, initial.getPredicateInstanceDefList());
+        }
+        out.write("  )\n");
+
+        out.write("  (:goal (and\n");
+        for (ASTGoalState goal : ast.getGoalStateList()) {
+            writeLiterals(out, goal.getPredicateInstanceDefList(), Collections.emptyMap(), true, "    ");
+        }
+        out.write("  ))\n");
+        out.write(")\n");
+        out.flush();
+    }
+
+    /**
+     * Negated facts are left out: what init does not list is false.
+     */
+    private void writeFacts(Writer out, List<ASTPredicateInstanceDef> facts) throws IOException {
+        writeLiterals(out, facts, Collections.emptyMap(), false, "    ");
+    }
+
+    // Literals
+
+    private void writeLiterals(Writer out, List<ASTPredicateInstanceDef> literals, Map<String, String> parameters,
+                               boolean withNegated, String indent) throws IOException {
+        for (ASTPredicateInstanceDef literal : literals) {
+            boolean negated = literal.getPredicateValue().isTrueValue();
+            if (negated && !withNegated) {
+                continue;
+            }
+            Optional<ASTPredicateTypeDef> predicate = symbols.resolvePredicateType(literal.getName());
+            String[] terms = predicate.isPresent() ? terms(predicate.get(), literal, parameters) : null;
+            if (terms == null) {
+                skippedLiterals++;
+                continue;
+            }
+            out.write(indent);
+            out.write(negated ? "(not (" : "(");
+            out.write(literal.getName());
+            for (String term : terms) {
+                out.write(' ');
+                out.write(term);
+            }
+            out.write(negated ? "))\n" : ")\n");
+        }
+    }
+
+    /**
+     * Arguments of a literal by position in the predicate declaration: "?parameter" for action parameters,
+     * the instance name otherwise. Null if a declared parameter is not bound or an argument is no parameter of the predicate.
+     */
+    private static String[] terms(ASTPredicateTypeDef predicate, ASTPredicateInstanceDef literal, Map<String, String> parameters) {
+        List<ASTParameterDeclaration> declarations = predicate.getParameterDeclarationList();
+        String[] terms = new String[declarations.size()];
+        for (ASTPredicateArgument argument : literal.getPredicateArgumentList()) {
+            if (!argument.getValue().isPresentName()) {
+                return null;
+            }
+            int position = -1;
+            for (int i = 0; i < declarations.size() && position < 0; i++) {
+                if (declarations.get(i).getName().equals(argument.getValue().getName())) {
+                    position = i;
+                }
+            }
+            if (position < 0) {
+                return null;
+            }
+            terms[position] = parameters.containsKey(argument.getName()) ? "?" + argument.getName() : argument.getName();
+        }
+        for (String term : terms) {
+            if (term == null) {
+                return null;
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,187 @@
+import java.util.Arrays;
+
+/**
+ * Packed bit set encoding of the states of a grounded model.
+ *
+ * A state is a {@code long[]} of {@link #words()} words in which bit {@code atom % 64} of word
+ * {@code atom / 64} is set if the fluent atom holds. Every grounded action gets four masks: its positive
+ * and negative preconditions and its add and delete effects. The masks are sparse, only the words
+ * in which a mask has bits are stored, so models with many atoms and actions stay small.
+ *
+ * Applicability tests and transitions are word-parallel and allocate nothing: successors are written
+ * into an array the caller supplies. The tables are immutable after construction, so one instance can
+ * be shared by any number of search threads.
+ */
+public class PackedStates {
+
+    private static final int PRE = 0;
+    private static final int NEG = 1;
+    private static final int ADD = 2;
+    private static final int DEL = 3;
+    private static final int MASKS = 4;
+
+    private final int atoms;
+    private final int words;
+    // Mask m of action a: entries start[a * 4 + m] .. start[a * 4 + m + 1] - 1 of (word, bits)
+    private final int[] start;
+    private final int[] word;
+    private final long[] bits;
+
+    public PackedStates(GroundedModel model) {
+        atoms = model.getAtomCount();
+        words = Math.max(1, (atoms + 63) >>> 6);
+        int actions = model.getActionCount();
+        int[][] rowStarts = {
+            model.preconditionStarts(), model.negativePreconditionStarts(), model.addEffectStarts(), model.deleteEffectStarts()
+        };
+        int[][] rowAtoms = {
+            model.preconditionAtoms(), model.negativePreconditionAtoms(), model.addEffectAtoms(), model.deleteEffectAtoms()
+        };
+
+        // An upper bound of the entries is one per atom occurrence; the rows are shrunk below
+        int capacity = 0;
+        for (int[] row : rowAtoms) {
+            capacity += row.length;
+        }
+        start = new int[actions * MASKS + 1];
+        int[] wordBuffer = new int[capacity];
+        long[] bitBuffer = new long[capacity];
+        long[] dense = new long[words];
+        int size = 0;
+        for (int action = 0; action < actions; action++) {
+            for (int mask = 0; mask < MASKS; mask++) {
+                start[action * MASKS + mask] = size;
+                int[] rowStart = rowStarts[mask];
+                int[] row = rowAtoms[mask];
+                for (int i = rowStart[action]; i < rowStart[action + 1]; i++) {
+                    dense[row[i] >>> 6] |= 1L << row[i];
+                }
+                // Collect the touched words in ascending order and clear them again
+                for (int i = rowStart[action]; i < rowStart[action + 1]; i++) {
+                    int w = row[i] >>> 6;
+                    if (dense[w] != 0) {
+                        int position = size++;
+                        while (position > start[action * MASKS + mask] && wordBuffer[position - 1] > w) {
+                            wordBuffer[position] = wordBuffer[position - 1];
+                            bitBuffer[position] = bitBuffer[position - 1];
+                            position--;
+                        }
+                        wordBuffer[position] = w;
+                        bitBuffer[position] = dense[w];
+                        dense[w] = 0;
+                    }
+                }
+            }
+        }
+        start[actions * MASKS] = size;
+        word = Arrays.copyOf(wordBuffer, size);
+        bits = Arrays.copyOf(bitBuffer, size);
+    }
+
+    /**
+     * Length of a state array.
+     */
+    public int words() {
+        return words;
+    }
+
+    public int atoms() {
+        return atoms;
+    }
+
+    public long[] newState() {
+        return new long[words];
+    }
+
+    /**
+     * State in which exactly the given atoms hold.
+     */
+    public long[] encode(int... holding) {
+        long[] state = newState();
+        for (int atom : holding) {
+            state[atom >>> 6] |= 1L << atom;
+        }
+        return state;
+    }
+
+    /**
+     * Atoms that hold in the state, ascending.
+     */
+    public int[] decode(long[] state) {
+        int count = 0;
+        for (long w : state) {
+            count += Long.bitCount(w);
+        }
+        int[] holding = new int[count];
+        int next = 0;
+        for (int w = 0; w < words; w++) {
+            for (long rest = state[w]; rest != 0; rest &= rest - 1) {
+                holding[next++] = (w << 6) + Long.numberOfTrailingZeros(rest);
+            }
+        }
+        return holding;
+    }
+
+    public static boolean holds(long[] state, int atom) {
+        return (state[atom >>> 6] & (1L << atom)) != 0;
+    }
+
+    /**
+     * True if all positive preconditions of the action hold and none of its negative ones.
+     */
+    public boolean isApplicable(long[] state, int action) {
+        int base = action * MASKS;
+        for (int i = start[base + PRE], end = start[base + PRE + 1]; i < end; i++) {
+            if ((state[word[i]] & bits[i]) != bits[i]) {
+                return false;
+            }
+        }
+        for (int i = start[base + NEG], end = start[base + NEG + 1]; i < end; i++) {
+            if ((state[word[i]] & bits[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the successor of the state under the action into {@code successor}, which may be the state
+     * itself. Delete effects are applied before add effects, so an atom that is deleted and added holds.
+     */
+    public void apply(long[] state, int action, long[] successor) {
+        if (successor != state) {
+            System.arraycopy(state, 0, successor, 0, words);
+        }
+        int base = action * MASKS;
+        for (int i = start[base + DEL], end = start[base + DEL + 1]; i < end; i++) {
+            successor[word[i]] &= ~bits[i];
+        }
+        for (int i = start[base + ADD], end = start[base + ADD + 1]; i < end; i++) {
+            successor[word[i]] |= bits[i];
+        }
+    }
+
+    /**
+     * True if every atom of the dense {@code mask} (see {@link #encode(int...)}) holds in the state.
+     */
+    public static boolean containsAll(long[] state, long[] mask) {
+        for (int w = 0; w < mask.length; w++) {
+            if ((state[w] & mask[w]) != mask[w]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * True if no atom of the dense {@code mask} holds in the state.
+     */
+    public static boolean containsNone(long[] state, long[] mask) {
+        for (int w = 0; w < mask.length; w++) {
+            if ((state[w] & mask[w]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
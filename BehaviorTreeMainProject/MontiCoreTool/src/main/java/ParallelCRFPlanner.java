@@ -0,0 +1,401 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hash distributed best-first search (HDA*) over grounded CRF models, with the searches and heuristics of
+ * {@link CRFPlanner}.
+ *
+ * Every state is owned by one worker, chosen by the high bits of its Zobrist hash. A worker keeps the open
+ * list and the visited states of its own states only, so neither needs locking; successors of other workers
+ * are sent to their lock-free inbox and evaluated by the owner. Termination uses a global count of open
+ * nodes and messages in flight: work is added before the node that creates it is released, so the count
+ * only reaches zero when the search space below the bound is exhausted.
+ *
+ * Each worker keeps its visited states in its own {@link OffHeapStateStore} with an equal share of the
+ * state memory limit. A parent is referenced across workers by its record and the worker owning it. When
+ * one store is full the whole search stops without a plan (see {@link #isMemoryLimitReached()}). The
+ * stores belong to the planner and are reused by its next search.
+ *
+ * GBFS stops at the first goal any worker expands. Weighted A* keeps the expanded goal with the lowest
+ * key as incumbent and prunes nodes whose key is not lower; it ends when no work is left, so the plan
+ * has the same quality bound as a sequential weighted A* with reopening.
+ */
+public class ParallelCRFPlanner {
+
+    // Bounds of the doubling pause of a worker that waits for messages
+    private static final long MIN_IDLE_NANOS = 1_000;
+    private static final long MAX_IDLE_NANOS = 1_000_000;
+
+    private final GroundedModel model;
+    private final int[] actionCosts;
+    private final CRFPlanner.Search search;
+    private final DeleteRelaxationHeuristic.Kind heuristic;
+    private final double weight;
+    private final long maxExpansions;
+    private final int threads;
+    // Records per worker that still fit into a parent reference
+    private final int maxRecords;
+    private final PackedStates states;
+    // Closed set of every worker, kept across searches
+    private final OffHeapStateStore[] stores;
+
+    private long expanded;
+    private long generated;
+    private long searchNanos;
+    private boolean limitReached;
+    private boolean memoryLimitReached;
+
+    public ParallelCRFPlanner(GroundedModel model, int[] actionCosts, CRFPlanner.Search search,
+                              DeleteRelaxationHeuristic.Kind heuristic, double weight, long maxExpansions, int threads) {
+        this(model, actionCosts, search, heuristic, weight, maxExpansions, CRFPlanner.DEFAULT_MAX_STATE_BYTES, threads);
+    }
+
+    /**
+     * @param maxStateBytes state memory limit of the whole search, every worker gets an equal share
+     */
+    public ParallelCRFPlanner(GroundedModel model, int[] actionCosts, CRFPlanner.Search search,
+                              DeleteRelaxationHeuristic.Kind heuristic, double weight, long maxExpansions,
+                              long maxStateBytes, int threads) {
+        if (actionCosts.length != model.getActionCount()) {
+            throw new IllegalArgumentException("Expected " + model.getActionCount() + " action costs, got " + actionCosts.length);
+        }
+        if (weight < 1) {
+            throw new IllegalArgumentException("The weight must be at least 1");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1, was " + threads);
+        }
+        this.model = model;
+        this.actionCosts = actionCosts;
+        this.search = search;
+        this.heuristic = heuristic;
+        this.weight = weight;
+        this.maxExpansions = maxExpansions;
+        this.threads = threads;
+        this.maxRecords = (Integer.MAX_VALUE - threads + 1) / threads;
+        this.states = new PackedStates(model);
+        this.stores = new OffHeapStateStore[threads];
+        for (int i = 0; i < threads; i++) {
+            stores[i] = new OffHeapStateStore(states.words(), maxStateBytes / threads);
+        }
+    }
+
+    /**
+     * A successor sent to the worker owning its state.
+     */
+    private static final class Message {
+        final long[] state;
+        final long hash;
+        final int parent;
+        final int action;
+        final long g;
+
+        Message(long[] state, long hash, int parent, int action, long g) {
+            this.state = state;
+            this.hash = hash;
+            this.parent = parent;
+            this.action = action;
+            this.g = g;
+        }
+    }
+
+    /**
+     * Shared state of one search.
+     */
+    private final class Run {
+        final Worker[] workers = new Worker[threads];
+        final int[] goal;
+        final long[] goalMask;
+        final long[] negativeGoalMask;
+        // Open nodes plus nodes in inboxes
+        final AtomicLong work = new AtomicLong();
+        final AtomicLong expansions = new AtomicLong();
+        volatile boolean stop;
+        volatile boolean limit;
+        volatile boolean memoryLimit;
+        volatile long incumbentKey = Long.MAX_VALUE;
+        // Reference of the incumbent goal node (see Worker.reference), or -1
+        int incumbent = -1;
+        long incumbentG;
+
+        Run(int[] goal, int[] negativeGoal) {
+            this.goal = goal.clone();
+            Arrays.sort(this.goal);
+            this.goalMask = states.encode(goal);
+            this.negativeGoalMask = states.encode(negativeGoal);
+        }
+
+        int owner(long hash) {
+            // The stores index their tables by the low bits, so the owner is taken from the high ones
+            return (int) ((hash >>> 32) % threads);
+        }
+
+        synchronized void offerGoal(int reference, long key, long g) {
+            if (incumbent < 0 || key < incumbentKey || (key == incumbentKey && g < incumbentG)) {
+                incumbent = reference;
+                incumbentKey = key;
+                incumbentG = g;
+            }
+            if (search == CRFPlanner.Search.GBFS) {
+                stop = true;
+            }
+        }
+
+        void memoryLimitReached() {
+            memoryLimit = true;
+            stop = true;
+        }
+    }
+
+    private final class Worker implements Callable<Void> {
+        final Run run;
+        final int id;
+        final ConcurrentLinkedQueue<Message> inbox = new ConcurrentLinkedQueue<>();
+        final PriorityQueue<CRFPlanner.OpenEntry> open = new PriorityQueue<>();
+        final OffHeapStateStore nodes;
+        final DeleteRelaxationHeuristic evaluator = new DeleteRelaxationHeuristic(model, actionCosts, heuristic);
+        final List<Message> remote = new ArrayList<>();
+        final long[] state = states.newState();
+        final long[] successor = states.newState();
+        long generated;
+
+        Worker(Run run, int id) {
+            this.run = run;
+            this.id = id;
+            this.nodes = stores[id];
+            nodes.clear();
+        }
+
+        /**
+         * Reference of a record of this worker that any worker can store as parent.
+         */
+        int reference(int record) {
+            return record * threads + id;
+        }
+
+        @Override
+        public Void call() {
+            long idleNanos = MIN_IDLE_NANOS;
+            try {
+                while (!run.stop) {
+                    int dropped = 0;
+                    for (Message message = inbox.poll(); message != null; message = inbox.poll()) {
+                        dropped += receive(message.state, message.hash, message.parent, message.action, message.g) ? 0 : 1;
+                    }
+                    if (dropped > 0) {
+                        run.work.addAndGet(-dropped);
+                    }
+                    CRFPlanner.OpenEntry entry = open.poll();
+                    if (entry == null) {
+                        if (run.work.get() == 0) {
+                            return null;
+                        }
+                        // Park rather than spin, the pool may have more workers than cores
+                        LockSupport.parkNanos(idleNanos);
+                        idleNanos = Math.min(2 * idleNanos, MAX_IDLE_NANOS);
+                        continue;
+                    }
+                    idleNanos = MIN_IDLE_NANOS;
+                    if (nodes.cost(entry.node) != entry.g || entry.key >= run.incumbentKey) {
+                        // Reached more cheaply since, or cannot beat the incumbent
+                        run.work.decrementAndGet();
+                        continue;
+                    }
+                    nodes.read(entry.node, state);
+                    if (PackedStates.containsAll(state, run.goalMask) && PackedStates.containsNone(state, run.negativeGoalMask)) {
+                        run.offerGoal(reference(entry.node), entry.key, entry.g);
+                        run.work.decrementAndGet();
+                        continue;
+                    }
+                    if (run.expansions.incrementAndGet() > maxExpansions) {
+                        run.limit = true;
+                        run.stop = true;
+                        return null;
+                    }
+                    expand(entry.node, entry.g);
+                }
+                return null;
+            } catch (RuntimeException | Error e) {
+                run.stop = true;
+                throw e;
+            }
+        }
+
+        /**
+         * Generates the successors of the state in {@link #state}; the own ones go to the open list directly,
+         * the others are counted as work before they are sent, and the expanded node is released last.
+         */
+        private void expand(int node, long g) {
+            long added = 0;
+            remote.clear();
+            long hash = nodes.hashOf(node);
+            int parent = reference(node);
+            for (int action = 0; action < model.getActionCount(); action++) {
+                if (!states.isApplicable(state, action)) {
+                    continue;
+                }
+                states.apply(state, action, successor);
+                // Every store draws its Zobrist keys from the same seed, so the hash is valid for the owner
+                long successorHash = nodes.rehash(hash, state, successor);
+                long successorCost = g + actionCosts[action];
+                if (run.owner(successorHash) == id) {
+                    added += receive(successor, successorHash, parent, action, successorCost) ? 1 : 0;
+                } else {
+                    remote.add(new Message(successor.clone(), successorHash, parent, action, successorCost));
+                }
+            }
+            run.work.addAndGet(added + remote.size());
+            for (Message message : remote) {
+                run.workers[run.owner(message.hash)].inbox.add(message);
+            }
+            run.work.decrementAndGet();
+        }
+
+        /**
+         * Adds a node of an owned state to the open list unless the state is known with a path that is
+         * at least as cheap (for GBFS: known at all), it is a dead end, or it cannot beat the incumbent.
+         */
+        private boolean receive(long[] successorState, long hash, int parent, int action, long g) {
+            int known = nodes.find(successorState, hash);
+            if (known != OffHeapStateStore.ABSENT && (search == CRFPlanner.Search.GBFS || nodes.cost(known) <= g)) {
+                return false;
+            }
+            generated++;
+            long h = evaluator.evaluate(successorState, run.goal);
+            if (h == DeleteRelaxationHeuristic.DEAD_END) {
+                return false;
+            }
+            long key = CRFPlanner.key(search, weight, g, h);
+            if (key >= run.incumbentKey) {
+                return false;
+            }
+            int record = known;
+            if (known != OffHeapStateStore.ABSENT) {
+                nodes.update(known, parent, action, g);
+            } else {
+                record = nodes.size() < maxRecords ? nodes.insert(successorState, hash, parent, action, g) : OffHeapStateStore.FULL;
+                if (record == OffHeapStateStore.FULL) {
+                    run.memoryLimitReached();
+                    return false;
+                }
+            }
+            open.add(new CRFPlanner.OpenEntry(key, h, g, record));
+            return true;
+        }
+    }
+
+    /**
+     * Plans from the initial state to the goal of the model, like {@link CRFPlanner#plan()}.
+     */
+    public Optional<CRFPlan> plan() {
+        if (!model.isGoalSatisfiable()) {
+            expanded = 0;
+            generated = 0;
+            searchNanos = 0;
+            limitReached = false;
+            memoryLimitReached = false;
+            return Optional.empty();
+        }
+        return plan(model.getInitialAtoms(), model.getGoalAtoms(), model.getNegativeGoalAtoms());
+    }
+
+    /**
+     * Plans from the given initial atoms to a state where all goal atoms and none of the negative goal atoms hold.
+     */
+    public Optional<CRFPlan> plan(int[] initial, int[] goal, int[] negativeGoal) {
+        long start = System.nanoTime();
+        Run run = new Run(goal, negativeGoal);
+        List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            run.workers[i] = new Worker(run, i);
+            workers.add(run.workers[i]);
+        }
+        long[] rootState = states.encode(initial);
+        Worker rootOwner = run.workers[run.owner(run.workers[0].nodes.hash(rootState))];
+        if (rootOwner.receive(rootState, rootOwner.nodes.hash(rootState), -1, -1, 0)) {
+            run.work.set(1);
+        }
+
+        // Workers wait for each other's messages, so every one needs its own thread
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (Future<Void> future : pool.invokeAll(workers)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while planning", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Planning failed", e.getCause());
+        } finally {
+            pool.shutdown();
+            searchNanos = System.nanoTime() - start;
+        }
+
+        expanded = Math.min(run.expansions.get(), maxExpansions);
+        generated = 0;
+        for (Worker worker : workers) {
+            generated += worker.generated;
+        }
+        limitReached = run.limit;
+        memoryLimitReached = run.memoryLimit;
+        if (run.incumbent < 0 || (limitReached || memoryLimitReached) && search != CRFPlanner.Search.GBFS) {
+            // An incumbent of weighted A* cut off by a limit has no quality bound
+            return Optional.empty();
+        }
+        // Parents may have been updated since the incumbent was found, so the cost is that of the path taken
+        List<Integer> steps = new ArrayList<>();
+        long cost = 0;
+        for (int reference = run.incumbent; ; ) {
+            OffHeapStateStore nodes = run.workers[reference % threads].nodes;
+            int record = reference / threads;
+            if (nodes.parent(record) < 0) {
+                break;
+            }
+            steps.add(nodes.action(record));
+            cost += actionCosts[nodes.action(record)];
+            reference = nodes.parent(record);
+        }
+        int[] actions = new int[steps.size()];
+        for (int i = 0; i < actions.length; i++) {
+            actions[i] = steps.get(actions.length - 1 - i);
+        }
+        return Optional.of(new CRFPlan(model, actions, cost, expanded, generated, searchNanos));
+    }
+
+    // Statistics of the last search
+
+    public long getExpanded() {
+        return expanded;
+    }
+
+    public long getGenerated() {
+        return generated;
+    }
+
+    public long getSearchMillis() {
+        return searchNanos / 1_000_000;
+    }
+
+    public boolean isLimitReached() {
+        return limitReached;
+    }
+
+    public boolean isMemoryLimitReached() {
+        return memoryLimitReached;
+    }
+}
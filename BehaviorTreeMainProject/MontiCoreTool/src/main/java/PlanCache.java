@@ -0,0 +1,555 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Plans of one grounded model and planner configuration, keyed by the normalized problem, kept in memory
+ * with least recently used eviction and in a file that survives restarts.
+ *
+ * The file is named after a fingerprint of the model: the SHA-256 of its objects, atoms, actions, action
+ * costs and the planner configuration, so a changed model or configuration starts an empty cache. A problem
+ * key is the SHA-256 of the sorted initial, goal and negative goal atoms after canonical renaming:
+ * objects of the same type that the grounded actions cannot tell apart (swapping them maps every action
+ * onto an action) are renamed by their role in the problem, so problems that differ only in which of
+ * them is used share an entry. Renamings that color refinement cannot make unique fall back to the
+ * object order; they cost a cache miss, never a wrong plan.
+ *
+ * The file is a tab separated text file:
+ * <pre>
+ * version  &lt;cache version&gt;
+ * plan     &lt;problem key&gt;  &lt;comma separated actions in canonical names&gt;
+ * </pre>
+ * New plans are appended, later lines win, and the file is rewritten without stale lines when it is
+ * opened. Every hit is replayed on the requested problem before it is returned.
+ */
+public class PlanCache {
+
+    public static final String VERSION = "1";
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private final GroundedModel model;
+    private final int[] actionCosts;
+    private final PackedStates states;
+    private final Path file;
+    private final int maxEntries;
+    private final Map<String, Integer> actionIndex = new HashMap<>();
+    private final int[][] atomArgs;
+    // Interchangeable class per object, -1 for objects without an interchangeable partner
+    private final int[] objectClass;
+    private final List<int[]> classMembers = new ArrayList<>();
+    private final LinkedHashMap<String, int[]> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long stores;
+
+    private PlanCache(GroundedModel model, int[] actionCosts, Path file, int maxEntries) {
+        this.model = model;
+        this.actionCosts = actionCosts;
+        this.states = new PackedStates(model);
+        this.file = file;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+                if (size() > PlanCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+        for (int action = 0; action < model.getActionCount(); action++) {
+            actionIndex.put(model.getActionName(action), action);
+        }
+        this.atomArgs = new int[model.getAtomCount()][];
+        for (int atom = 0; atom < atomArgs.length; atom++) {
+            atomArgs[atom] = model.getAtomArgs(atom);
+        }
+        this.objectClass = new int[model.getObjectCount()];
+        findInterchangeableObjects();
+    }
+
+    /**
+     * Opens the cache of the model in {@code directory} and loads the plans stored by earlier runs.
+     * {@code configuration} names the planner settings; plans of other settings are kept apart.
+     */
+    public static PlanCache open(Path directory, GroundedModel model, int[] actionCosts, String configuration,
+                                 int maxEntries) throws IOException {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1, was " + maxEntries);
+        }
+        Path file = directory.resolve(fingerprint(model, actionCosts, configuration) + ".plans");
+        PlanCache cache = new PlanCache(model, actionCosts, file, maxEntries);
+        Files.createDirectories(directory);
+        int lines = cache.load();
+        if (lines != cache.entries.size()) {
+            cache.save();
+        }
+        return cache;
+    }
+
+    // Lookup and store
+
+    /**
+     * Cached plan from the initial atoms to a state where all goal atoms and none of the negative goal
+     * atoms hold. The plan has no search statistics; its search time is the lookup time.
+     */
+    public Optional<CRFPlan> lookup(int[] initial, int[] goal, int[] negativeGoal) {
+        long start = System.nanoTime();
+        int[] renaming = canonicalRenaming(initial, goal, negativeGoal);
+        int[] canonical = entries.get(problemKey(renaming, initial, goal, negativeGoal));
+        if (canonical != null) {
+            int[] inverse = new int[renaming.length];
+            for (int object = 0; object < renaming.length; object++) {
+                inverse[renaming[object]] = object;
+            }
+            int[] actions = renameActions(canonical, inverse);
+            if (actions != null && reachesGoal(actions, initial, goal, negativeGoal)) {
+                hits++;
+                long cost = 0;
+                for (int action : actions) {
+                    cost += actionCosts[action];
+                }
+                return Optional.of(new CRFPlan(model, actions, cost, 0, 0, System.nanoTime() - start));
+            }
+        }
+        misses++;
+        return Optional.empty();
+    }
+
+    /**
+     * Stores a plan for the problem, in memory and in the cache file.
+     */
+    public void store(int[] initial, int[] goal, int[] negativeGoal, CRFPlan plan) throws IOException {
+        int[] renaming = canonicalRenaming(initial, goal, negativeGoal);
+        int[] canonical = renameActions(plan.getActions(), renaming);
+        if (canonical == null) {
+            return;
+        }
+        String key = problemKey(renaming, initial, goal, negativeGoal);
+        entries.put(key, canonical);
+        stores++;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (Files.size(file) == 0) {
+                writeHeader(writer);
+            }
+            writePlan(writer, key, canonical);
+        }
+    }
+
+    // Metrics
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getStores() {
+        return stores;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public String toString() {
+        return hits + " hits, " + misses + " misses, " + stores + " stores, " + evictions + " evictions, "
+            + entries.size() + " entries";
+    }
+
+    // Interchangeable objects
+
+    /**
+     * Groups the objects of each type into classes whose members can be swapped without changing the
+     * grounded actions. Swaps that are symmetries compose, so comparing with one member per class suffices.
+     * Only objects with the same role signature are compared action by action.
+     */
+    private void findInterchangeableObjects() {
+        Map<Integer, List<Integer>> actionsOf = new HashMap<>();
+        long[] signature = new long[model.getObjectCount()];
+        for (int action = 0; action < model.getActionCount(); action++) {
+            for (int object : mentionedObjects(action)) {
+                actionsOf.computeIfAbsent(object, o -> new ArrayList<>()).add(action);
+                signature[object] += roleSignature(action, object);
+            }
+        }
+        int[] swap = new int[model.getObjectCount()];
+        for (int object = 0; object < swap.length; object++) {
+            swap[object] = object;
+        }
+        Map<String, List<List<Integer>>> classesByType = new TreeMap<>();
+        for (int object = 0; object < model.getObjectCount(); object++) {
+            List<List<Integer>> classes = classesByType.computeIfAbsent(model.getObjectType(object), t -> new ArrayList<>());
+            List<Integer> joined = null;
+            for (List<Integer> candidate : classes) {
+                int member = candidate.get(0);
+                if (signature[member] == signature[object] && isSymmetry(member, object,
+                        actionsOf.getOrDefault(member, List.of()), actionsOf.getOrDefault(object, List.of()), swap)) {
+                    joined = candidate;
+                    break;
+                }
+            }
+            if (joined == null) {
+                joined = new ArrayList<>();
+                classes.add(joined);
+            }
+            joined.add(object);
+        }
+        Arrays.fill(objectClass, -1);
+        for (List<List<Integer>> classes : classesByType.values()) {
+            for (List<Integer> members : classes) {
+                if (members.size() > 1) {
+                    for (int object : members) {
+                        objectClass[object] = classMembers.size();
+                    }
+                    classMembers.add(members.stream().mapToInt(Integer::intValue).toArray());
+                }
+            }
+        }
+    }
+
+    private int[] mentionedObjects(int action) {
+        List<Integer> objects = new ArrayList<>();
+        for (int object : model.getActionArgs(action)) {
+            objects.add(object);
+        }
+        for (int[] atoms : List.of(model.getPreconditions(action), model.getNegativePreconditions(action),
+                model.getAddEffects(action), model.getDeleteEffects(action))) {
+            for (int atom : atoms) {
+                for (int object : atomArgs[atom]) {
+                    objects.add(object);
+                }
+            }
+        }
+        return objects.stream().mapToInt(Integer::intValue).distinct().toArray();
+    }
+
+    /**
+     * Hash of the object's role in the action: the schema, where the object is an argument, and the
+     * predicates and argument positions of the atoms it occurs in. A symmetry maps each action of one
+     * object to an action in which the other has the same role, so the sums over their actions agree.
+     */
+    private long roleSignature(int action, int object) {
+        long hash = mix(model.getActionSchema(action).hashCode() ^ ((long) positions(model.getActionArgs(action), object) << 32));
+        int[][] lists = {model.getPreconditions(action), model.getNegativePreconditions(action),
+            model.getAddEffects(action), model.getDeleteEffects(action)};
+        for (int list = 0; list < lists.length; list++) {
+            long atoms = 0;
+            for (int atom : lists[list]) {
+                int positions = positions(atomArgs[atom], object);
+                if (positions != 0) {
+                    atoms += mix(((long) model.getAtomPredicate(atom) << 32) ^ positions);
+                }
+            }
+            hash = mix(hash ^ mix(atoms + list));
+        }
+        return hash;
+    }
+
+    /**
+     * Bit set of the argument positions that hold the object, the first 32 only.
+     */
+    private static int positions(int[] args, int object) {
+        int positions = 0;
+        for (int i = 0; i < Math.min(args.length, 32); i++) {
+            if (args[i] == object) {
+                positions |= 1 << i;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * True if swapping the two objects maps every action that mentions one of them to an action with
+     * the swapped preconditions and effects. {@code swap} is the identity and is left as such.
+     */
+    private boolean isSymmetry(int first, int second, List<Integer> firstActions, List<Integer> secondActions, int[] swap) {
+        if (firstActions.size() != secondActions.size()) {
+            return false;
+        }
+        swap[first] = second;
+        swap[second] = first;
+        try {
+            for (List<Integer> actions : List.of(firstActions, secondActions)) {
+                for (int action : actions) {
+                    Integer image = actionIndex.get(actionName(action, swap));
+                    if (image == null
+                            || !Arrays.equals(renameAtoms(model.getPreconditions(action), swap), model.getPreconditions(image))
+                            || !Arrays.equals(renameAtoms(model.getNegativePreconditions(action), swap), model.getNegativePreconditions(image))
+                            || !Arrays.equals(renameAtoms(model.getAddEffects(action), swap), model.getAddEffects(image))
+                            || !Arrays.equals(renameAtoms(model.getDeleteEffects(action), swap), model.getDeleteEffects(image))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } finally {
+            swap[first] = first;
+            swap[second] = second;
+        }
+    }
+
+    // Canonical renaming
+
+    /**
+     * Object renaming that maps the problem to its canonical form. Objects are colored by class and
+     * refined by the atoms they occur in until the coloring is stable; within a class, the objects are
+     * then renamed in color order. Colliding signatures only merge colors, which costs a miss. Returns
+     * the identity if an atom has no renamed counterpart.
+     */
+    private int[] canonicalRenaming(int[] initial, int[] goal, int[] negativeGoal) {
+        int objects = model.getObjectCount();
+        int[] renaming = new int[objects];
+        for (int object = 0; object < objects; object++) {
+            renaming[object] = object;
+        }
+        if (classMembers.isEmpty()) {
+            return renaming;
+        }
+
+        int[] color = new int[objects];
+        for (int object = 0; object < objects; object++) {
+            color[object] = objectClass[object] >= 0 ? objects + objectClass[object] : object;
+        }
+        int[][] problem = {initial, goal, negativeGoal};
+        long[] signature = new long[objects];
+        for (int colors = -1; ; ) {
+            // Signature: the own color and the sum of the occurrences, each hashed with the colors of the atom
+            for (int object = 0; object < objects; object++) {
+                signature[object] = mix(color[object]);
+            }
+            for (int part = 0; part < problem.length; part++) {
+                for (int atom : problem[part]) {
+                    int[] args = atomArgs[atom];
+                    long hash = mix(part * 31L + model.getAtomPredicate(atom));
+                    for (int arg : args) {
+                        hash = mix(hash ^ color[arg]);
+                    }
+                    for (int position = 0; position < args.length; position++) {
+                        signature[args[position]] += mix(hash + position);
+                    }
+                }
+            }
+            long[] distinct = Arrays.stream(signature).distinct().sorted().toArray();
+            for (int object = 0; object < objects; object++) {
+                color[object] = Arrays.binarySearch(distinct, signature[object]);
+            }
+            if (distinct.length == colors) {
+                break;
+            }
+            colors = distinct.length;
+        }
+
+        for (int[] members : classMembers) {
+            Integer[] order = Arrays.stream(members).boxed().toArray(Integer[]::new);
+            Arrays.sort(order, (a, b) -> color[a] != color[b] ? Integer.compare(color[a], color[b]) : Integer.compare(a, b));
+            for (int i = 0; i < order.length; i++) {
+                renaming[order[i]] = members[i];
+            }
+        }
+        for (int[] atoms : problem) {
+            if (renameAtoms(atoms, renaming) == null) {
+                for (int object = 0; object < objects; object++) {
+                    renaming[object] = object;
+                }
+                break;
+            }
+        }
+        return renaming;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+    private String problemKey(int[] renaming, int[] initial, int[] goal, int[] negativeGoal) {
+        return DeclarationHasher.sha256(Arrays.toString(renameAtoms(initial, renaming)) + "|"
+            + Arrays.toString(renameAtoms(goal, renaming)) + "|" + Arrays.toString(renameAtoms(negativeGoal, renaming)));
+    }
+
+    /**
+     * Renamed atoms, sorted; null if one of them does not exist.
+     */
+    private int[] renameAtoms(int[] atoms, int[] renaming) {
+        int[] renamed = new int[atoms.length];
+        for (int i = 0; i < atoms.length; i++) {
+            int[] args = atomArgs[atoms[i]].clone();
+            for (int j = 0; j < args.length; j++) {
+                args[j] = renaming[args[j]];
+            }
+            Optional<Integer> atom = model.findAtom(model.getAtomPredicate(atoms[i]), args);
+            if (atom.isEmpty()) {
+                return null;
+            }
+            renamed[i] = atom.get();
+        }
+        Arrays.sort(renamed);
+        return renamed;
+    }
+
+    /**
+     * Renamed actions in plan order; null if one of them does not exist.
+     */
+    private int[] renameActions(int[] actions, int[] renaming) {
+        int[] renamed = new int[actions.length];
+        for (int i = 0; i < actions.length; i++) {
+            Integer action = actionIndex.get(actionName(actions[i], renaming));
+            if (action == null) {
+                return null;
+            }
+            renamed[i] = action;
+        }
+        return renamed;
+    }
+
+    private String actionName(int action, int[] renaming) {
+        StringBuilder name = new StringBuilder(model.getActionSchema(action)).append('(');
+        int[] args = model.getActionArgs(action);
+        for (int i = 0; i < args.length; i++) {
+            name.append(i > 0 ? ", " : "").append(model.getObject(renaming[args[i]]));
+        }
+        return name.append(')').toString();
+    }
+
+    private boolean reachesGoal(int[] actions, int[] initial, int[] goal, int[] negativeGoal) {
+        long[] state = states.encode(initial);
+        for (int action : actions) {
+            if (!states.isApplicable(state, action)) {
+                return false;
+            }
+            states.apply(state, action, state);
+        }
+        return PackedStates.containsAll(state, states.encode(goal))
+            && PackedStates.containsNone(state, states.encode(negativeGoal));
+    }
+
+    // Model fingerprint and file
+
+    private static String fingerprint(GroundedModel model, int[] actionCosts, String configuration) {
+        StringBuilder text = new StringBuilder(VERSION).append('\n').append(configuration).append('\n');
+        for (int object = 0; object < model.getObjectCount(); object++) {
+            text.append(model.getObject(object)).append(':').append(model.getObjectType(object)).append('\n');
+        }
+        for (int atom = 0; atom < model.getAtomCount(); atom++) {
+            text.append(model.getAtomName(atom)).append('\n');
+        }
+        for (int action = 0; action < model.getActionCount(); action++) {
+            text.append(model.getActionName(action)).append(' ').append(actionCosts[action])
+                .append(' ').append(Arrays.toString(model.getPreconditions(action)))
+                .append(Arrays.toString(model.getNegativePreconditions(action)))
+                .append(Arrays.toString(model.getAddEffects(action)))
+                .append(Arrays.toString(model.getDeleteEffects(action))).append('\n');
+        }
+        return DeclarationHasher.sha256(text.toString());
+    }
+
+    /**
+     * Reads the cache file and returns the number of plan lines. A file of another version or with
+     * invalid lines is dropped.
+     */
+    private int load() throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return 0;
+        }
+        int lines = 0;
+        boolean versionSeen = false;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t", -1);
+                if (!versionSeen) {
+                    if (fields.length != 2 || !fields[0].equals("version") || !fields[1].equals(VERSION)) {
+                        break;
+                    }
+                    versionSeen = true;
+                } else if (fields[0].equals("plan") && fields.length == 3) {
+                    entries.put(fields[1], parseActions(fields[2]));
+                    lines++;
+                } else {
+                    entries.clear();
+                    return -1;
+                }
+            }
+        } catch (NumberFormatException e) {
+            entries.clear();
+            return -1;
+        }
+        // Evictions while loading only drop what later lines replaced
+        evictions = 0;
+        return versionSeen ? lines : -1;
+    }
+
+    private int[] parseActions(String field) {
+        if (field.isEmpty()) {
+            return new int[0];
+        }
+        int[] actions = Arrays.stream(field.split(",")).mapToInt(Integer::parseInt).toArray();
+        for (int action : actions) {
+            if (action < 0 || action >= model.getActionCount()) {
+                throw new NumberFormatException("Unknown action " + action);
+            }
+        }
+        return actions;
+    }
+
+    /**
+     * Rewrites the file with the entries in memory, least recently used first, through a temporary
+     * file so an interrupted run never leaves a half written cache behind.
+     */
+    public void save() throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            writeHeader(writer);
+            for (Map.Entry<String, int[]> entry : entries.entrySet()) {
+                writePlan(writer, entry.getKey(), entry.getValue());
+            }
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeHeader(BufferedWriter writer) throws IOException {
+        writer.write("# Generated by CRFPlanner - do not edit\n");
+        writer.write("version\t" + VERSION + "\n");
+    }
+
+    private static void writePlan(BufferedWriter writer, String key, int[] actions) throws IOException {
+        StringBuilder line = new StringBuilder("plan\t").append(key).append('\t');
+        for (int i = 0; i < actions.length; i++) {
+            line.append(i > 0 ? "," : "").append(actions[i]);
+        }
+        writer.write(line.append('\n').toString());
+    }
+}
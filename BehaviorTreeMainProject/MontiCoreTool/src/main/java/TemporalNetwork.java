@@ -0,0 +1,163 @@
+import de.monticore.ast.ASTNode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Simple Temporal Network of a node graph, built by {@link TemporalNetworkCompiler}.
+ *
+ * Time point 0 is the start of the node graph, time point {@code 1 + 2i} the start and {@code 2 + 2i} the
+ * end of node i. {@link #getDistance(int, int)} is the shortest path distance of the network, the tightest
+ * upper bound of {@code t(to) - t(from)}; {@link #INFINITY} means unbounded. A network whose constraints
+ * form a negative cycle is inconsistent; it has no distances, only the {@link Conflict}.
+ */
+public class TemporalNetwork {
+
+    public static final long INFINITY = Long.MAX_VALUE / 4;
+
+    /**
+     * Negative cycle found when a constraint was added: the model element that added the constraint
+     * and the time points of the cycle, starting and ending with the same one.
+     */
+    public static class Conflict {
+        private final ASTNode source;
+        private final List<String> cycle;
+
+        Conflict(ASTNode source, List<String> cycle) {
+            this.source = source;
+            this.cycle = Collections.unmodifiableList(cycle);
+        }
+
+        public ASTNode getSource() {
+            return source;
+        }
+
+        public List<String> getCycle() {
+            return cycle;
+        }
+
+        @Override
+        public String toString() {
+            return String.join(" -> ", cycle);
+        }
+    }
+
+    private final List<String> nodes;
+    private final long[][] distance;
+    private final Conflict conflict;
+
+    TemporalNetwork(List<String> nodes, long[][] distance, Conflict conflict) {
+        this.nodes = Collections.unmodifiableList(nodes);
+        this.distance = distance;
+        this.conflict = conflict;
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    public int getTimePointCount() {
+        return 2 * nodes.size() + 1;
+    }
+
+    public static int start(int node) {
+        return 1 + 2 * node;
+    }
+
+    public static int end(int node) {
+        return 2 + 2 * node;
+    }
+
+    /**
+     * Readable form of a time point, e.g. "start(pickUp)".
+     */
+    public String getTimePointName(int timePoint) {
+        return timePointName(nodes, timePoint);
+    }
+
+    static String timePointName(List<String> nodes, int timePoint) {
+        if (timePoint == 0) {
+            return "origin";
+        }
+        String node = nodes.get((timePoint - 1) / 2);
+        return (timePoint % 2 == 1 ? "start(" : "end(") + node + ")";
+    }
+
+    public boolean isConsistent() {
+        return conflict == null;
+    }
+
+    public Optional<Conflict> getConflict() {
+        return Optional.ofNullable(conflict);
+    }
+
+    /**
+     * Tightest upper bound of {@code t(to) - t(from)}, or {@link #INFINITY}.
+     */
+    public long getDistance(int from, int to) {
+        checkConsistent();
+        return distance[from][to];
+    }
+
+    public long getEarliestStart(int node) {
+        return -getDistance(start(node), 0);
+    }
+
+    public long getLatestStart(int node) {
+        return getDistance(0, start(node));
+    }
+
+    public long getEarliestEnd(int node) {
+        return -getDistance(end(node), 0);
+    }
+
+    public long getLatestEnd(int node) {
+        return getDistance(0, end(node));
+    }
+
+    /**
+     * Time points other than the node's own that happen no later than its start, so the node may only start
+     * once they have happened. Starts that the network forces to coincide with the node's start are left out.
+     */
+    public int[] getStartPrerequisites(int node) {
+        checkConsistent();
+        int start = start(node);
+        List<Integer> prerequisites = new ArrayList<>();
+        for (int other = 0; other < nodes.size(); other++) {
+            if (other == node) {
+                continue;
+            }
+            if (distance[start][start(other)] <= 0 && distance[start(other)][start] > 0) {
+                prerequisites.add(start(other));
+            }
+            if (distance[start][end(other)] <= 0) {
+                prerequisites.add(end(other));
+            }
+        }
+        return prerequisites.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void checkConsistent() {
+        if (conflict != null) {
+            throw new IllegalStateException("The temporal network is inconsistent: " + conflict);
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (conflict != null) {
+            return nodes.size() + " nodes, inconsistent: " + conflict;
+        }
+        StringBuilder out = new StringBuilder();
+        for (int node = 0; node < nodes.size(); node++) {
+            out.append(node > 0 ? ", " : "").append(nodes.get(node)).append(" starts in [")
+                .append(getEarliestStart(node)).append(", ").append(format(getLatestStart(node))).append(']');
+        }
+        return out.toString();
+    }
+
+    private static String format(long bound) {
+        return bound >= INFINITY ? "inf" : Long.toString(bound);
+    }
+}
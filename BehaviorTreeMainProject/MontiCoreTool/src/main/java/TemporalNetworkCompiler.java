@@ -0,0 +1,280 @@
+import de.monticore.ast.ASTNode;
+import dynamicbtflownode._ast.ASTDynamicBTFlowNode;
+import dynamicbtflownode._ast.ASTRelationDefinition;
+import dynamicbtflownode._ast.ASTTemporalType;
+import dynamicbtflownode._parser.DynamicBTFlowNodeParser;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Compiles the node graph of a DynamicBTFlowNode into a {@link TemporalNetwork}.
+ *
+ * Every node has a start and an end time point. A node takes between its minimum and maximum duration
+ * and starts no earlier than the graph; with a horizon it also ends no later than the horizon. The temporal
+ * relation of an edge from A to B adds, non-strictly:
+ * <ul>
+ *   <li>BEFORE: A ends before B starts</li>
+ *   <li>MEETS: A ends when B starts</li>
+ *   <li>AFTER: B ends before A starts</li>
+ *   <li>OVERLAPS: A starts before B, B starts before A ends, A ends before B</li>
+ *   <li>DURING: A starts after B and ends before B</li>
+ * </ul>
+ * An order relation ({@code Order = true}) also makes A end before B starts, since B only runs once A completed.
+ * The all pairs shortest path distances are updated after every constraint in O(n^2), so a negative cycle
+ * is found at the constraint that closes it and reported with that relation. Relations whose nodes do not
+ * resolve are left out, they are reported by {@link DynamicBTFlowNodeCoCos}.
+ */
+public class TemporalNetworkCompiler {
+
+    public static final long DEFAULT_MIN_DURATION = 1;
+    public static final String DEFAULT_OUTPUT_DIR = "../src/FlowNodes/TemporalTables";
+
+    private static final String USAGE = "Usage: TemporalNetworkCompiler <flow-node-file>... [--output-dir DIR]"
+        + " [--duration NODE=MIN:MAX] [--horizon H]";
+
+    private final long defaultMinDuration;
+    private final long horizon;
+    private final Map<String, long[]> durations = new HashMap<>();
+
+    /**
+     * Compiler with the default minimum duration and no horizon.
+     */
+    public TemporalNetworkCompiler() {
+        this(DEFAULT_MIN_DURATION, TemporalNetwork.INFINITY);
+    }
+
+    /**
+     * @param horizon latest end of every node, or {@link TemporalNetwork#INFINITY}
+     */
+    public TemporalNetworkCompiler(long defaultMinDuration, long horizon) {
+        if (defaultMinDuration < 0) {
+            throw new IllegalArgumentException("The minimum duration must not be negative, was " + defaultMinDuration);
+        }
+        this.defaultMinDuration = defaultMinDuration;
+        this.horizon = horizon;
+    }
+
+    /**
+     * Overrides the duration of the nodes with this name; {@code max} may be {@link TemporalNetwork#INFINITY}.
+     */
+    public TemporalNetworkCompiler setDuration(String node, long min, long max) {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException("Invalid duration [" + min + ", " + max + "] of " + node);
+        }
+        durations.put(node, new long[] {min, max});
+        return this;
+    }
+
+    public TemporalNetwork compile(ASTDynamicBTFlowNode flowNode, DynamicBTFlowNodeSymbolTable symbols) {
+        List<String> nodes = new ArrayList<>(symbols.getNodes().keySet());
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            index.put(nodes.get(i), i);
+        }
+        Network network = new Network(nodes);
+
+        for (int i = 0; i < nodes.size(); i++) {
+            ASTNode definition = symbols.getNodes().get(nodes.get(i));
+            long[] duration = durations.getOrDefault(nodes.get(i), new long[] {defaultMinDuration, TemporalNetwork.INFINITY});
+            int start = TemporalNetwork.start(i);
+            int end = TemporalNetwork.end(i);
+            if (!network.notAfter(0, start, definition)
+                    || !network.add(start, end, duration[1], definition)
+                    || !network.add(end, start, -duration[0], definition)
+                    || !network.add(0, end, horizon, definition)) {
+                return network.build();
+            }
+        }
+
+        for (ASTRelationDefinition relation : flowNode.getNodeGraphDefinition().getRelationsDefinition().getRelationDefinitionList()) {
+            Integer source = index.get(relation.getSourceNode().getName());
+            Integer target = index.get(relation.getTargetNode().getName());
+            if (source == null || target == null) {
+                continue;
+            }
+            if (!addRelation(network, relation, source, target)) {
+                break;
+            }
+        }
+        return network.build();
+    }
+
+    private static boolean addRelation(Network network, ASTRelationDefinition relation, int a, int b) {
+        ASTTemporalType type = relation.getTemporalDefinition().getTemporalType();
+        int startA = TemporalNetwork.start(a);
+        int endA = TemporalNetwork.end(a);
+        int startB = TemporalNetwork.start(b);
+        int endB = TemporalNetwork.end(b);
+        if (relation.getPriorityDefinition().isOrdered() && !network.notAfter(endA, startB, relation)) {
+            return false;
+        }
+        if (type.isBefore()) {
+            return network.notAfter(endA, startB, relation);
+        } else if (type.isMeets()) {
+            return network.notAfter(endA, startB, relation) && network.notAfter(startB, endA, relation);
+        } else if (type.isAfter()) {
+            return network.notAfter(endB, startA, relation);
+        } else if (type.isOverlaps()) {
+            return network.notAfter(startA, startB, relation) && network.notAfter(startB, endA, relation)
+                && network.notAfter(endA, endB, relation);
+        } else if (type.isDuring()) {
+            return network.notAfter(startB, startA, relation) && network.notAfter(endA, endB, relation);
+        }
+        return true;
+    }
+
+    /**
+     * Distance graph under construction. An edge from u to v with weight w stands for {@code t(v) - t(u) <= w}.
+     */
+    private static final class Network {
+        final List<String> nodes;
+        final int size;
+        final long[][] distance;
+        // First time point after i on a shortest path from i to j
+        final int[][] next;
+        TemporalNetwork.Conflict conflict;
+
+        Network(List<String> nodes) {
+            this.nodes = nodes;
+            this.size = 2 * nodes.size() + 1;
+            this.distance = new long[size][size];
+            this.next = new int[size][size];
+            for (int i = 0; i < size; i++) {
+                Arrays.fill(distance[i], TemporalNetwork.INFINITY);
+                distance[i][i] = 0;
+                Arrays.fill(next[i], -1);
+                next[i][i] = i;
+            }
+        }
+
+        /**
+         * Adds {@code t(earlier) <= t(later)}.
+         */
+        boolean notAfter(int earlier, int later, ASTNode source) {
+            return add(later, earlier, 0, source);
+        }
+
+        /**
+         * Adds {@code t(v) - t(u) <= w} and closes the distances over the new edge. Returns false and records
+         * the conflict if the edge closes a negative cycle; the distances are left as they were.
+         */
+        boolean add(int u, int v, long w, ASTNode source) {
+            if (w >= TemporalNetwork.INFINITY || w >= distance[u][v]) {
+                return true;
+            }
+            if (distance[v][u] < TemporalNetwork.INFINITY && distance[v][u] + w < 0) {
+                conflict = new TemporalNetwork.Conflict(source, cycle(u, v));
+                return false;
+            }
+            for (int i = 0; i < size; i++) {
+                long toU = distance[i][u];
+                if (toU >= TemporalNetwork.INFINITY) {
+                    continue;
+                }
+                long viaEdge = toU + w;
+                int first = i == u ? v : next[i][u];
+                long[] row = distance[i];
+                long[] fromV = distance[v];
+                for (int j = 0; j < size; j++) {
+                    if (fromV[j] < TemporalNetwork.INFINITY && viaEdge + fromV[j] < row[j]) {
+                        row[j] = viaEdge + fromV[j];
+                        next[i][j] = first;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * The cycle closed by a new edge from u to v: v, the shortest path back to u, and v again.
+         */
+        private List<String> cycle(int u, int v) {
+            List<String> cycle = new ArrayList<>();
+            for (int point = v; point != u; point = next[point][u]) {
+                cycle.add(TemporalNetwork.timePointName(nodes, point));
+            }
+            cycle.add(TemporalNetwork.timePointName(nodes, u));
+            cycle.add(TemporalNetwork.timePointName(nodes, v));
+            return cycle;
+        }
+
+        TemporalNetwork build() {
+            return new TemporalNetwork(nodes, conflict == null ? distance : null, conflict);
+        }
+    }
+
+    public static void main(String[] args) {
+        TemporalNetworkCompiler compiler;
+        long horizon = TemporalNetwork.INFINITY;
+        Path outputDir = Paths.get(DEFAULT_OUTPUT_DIR);
+        Map<String, long[]> durations = new HashMap<>();
+        List<String> files = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--output-dir") && i + 1 < args.length) {
+                    outputDir = Paths.get(args[++i]);
+                } else if (args[i].equals("--horizon") && i + 1 < args.length) {
+                    horizon = Long.parseLong(args[++i]);
+                } else if (args[i].equals("--duration") && i + 1 < args.length) {
+                    String[] parts = args[++i].split("[=:]");
+                    if (parts.length != 3) {
+                        throw new IllegalArgumentException("Expected NODE=MIN:MAX, got " + args[i]);
+                    }
+                    durations.put(parts[0], new long[] {Long.parseLong(parts[1]),
+                        parts[2].equals("inf") ? TemporalNetwork.INFINITY : Long.parseLong(parts[2])});
+                } else if (args[i].startsWith("--")) {
+                    System.out.println("ERROR: Unknown option " + args[i]);
+                    System.out.println(USAGE);
+                    return;
+                } else {
+                    files.add(args[i]);
+                }
+            }
+            compiler = new TemporalNetworkCompiler(DEFAULT_MIN_DURATION, horizon);
+            for (Map.Entry<String, long[]> duration : durations.entrySet()) {
+                compiler.setDuration(duration.getKey(), duration.getValue()[0], duration.getValue()[1]);
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("ERROR: " + e.getMessage());
+            System.out.println(USAGE);
+            return;
+        }
+        if (files.isEmpty()) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        for (String file : files) {
+            try {
+                Optional<ASTDynamicBTFlowNode> ast = new DynamicBTFlowNodeParser().parse(file);
+                if (!ast.isPresent()) {
+                    System.out.println("FAILED: Failed to parse flow node " + file);
+                    continue;
+                }
+                ASTDynamicBTFlowNode flowNode = ast.get();
+                TemporalNetwork network = compiler.compile(flowNode, new DynamicBTFlowNodeSymbolTable(flowNode));
+                if (!network.isConsistent()) {
+                    System.out.println("FAILED: Inconsistent temporal relations in " + file + ": " + network.getConflict().get());
+                    continue;
+                }
+                Files.createDirectories(outputDir);
+                String className = CSharpTemporalTableGenerator.className(flowNode.getName());
+                Path output = outputDir.resolve(className + ".cs");
+                Files.write(output, CSharpTemporalTableGenerator.render(flowNode.getName(), network).getBytes(StandardCharsets.UTF_8));
+                System.out.println("SUCCESS: " + flowNode.getName() + ": " + network);
+                System.out.println("  Written to " + output);
+            } catch (IOException e) {
+                System.err.println("ERROR: Compiling " + file + " failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Streaming XML writer for {@link ASTExporter}, based on StAX.
+ * Objects and arrays become elements, scalar values become attributes of their object's element.
+ * Elements are indented with two spaces like the exports of {@link ASTStorage}.
+ */
+public class XmlExportSink implements ASTExportSink {
+
+    private final XMLStreamWriter out;
+    // Per nesting level: does the element already contain child elements
+    private boolean[] hasChildren = new boolean[16];
+    private int depth = -1;
+
+    public XmlExportSink(Writer writer) throws IOException {
+        try {
+            out = XMLOutputFactory.newInstance().createXMLStreamWriter(writer);
+            out.writeStartDocument("UTF-8", "1.0");
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot start XML export", e);
+        }
+    }
+
+    @Override
+    public void beginObject(String name) throws IOException {
+        startElement(name);
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        endElement();
+    }
+
+    @Override
+    public void beginArray(String name) throws IOException {
+        startElement(name);
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        endElement();
+    }
+
+    @Override
+    public void value(String name, String value) throws IOException {
+        try {
+            out.writeAttribute(name, value);
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot write attribute " + name, e);
+        }
+    }
+
+    @Override
+    public void value(String name, boolean value) throws IOException {
+        value(name, String.valueOf(value));
+    }
+
+    @Override
+    public void number(String name, String value) throws IOException {
+        value(name, value);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (depth != -1) {
+            throw new IllegalStateException("Unclosed element at depth " + depth);
+        }
+        try {
+            out.writeCharacters("\n");
+            out.writeEndDocument();
+            out.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot finish XML export", e);
+        }
+    }
+
+    private void startElement(String name) throws IOException {
+        try {
+            if (depth >= 0) {
+                hasChildren[depth] = true;
+            }
+            out.writeCharacters("\n" + indent(depth + 1));
+            out.writeStartElement(name);
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot write element " + name, e);
+        }
+        depth++;
+        if (depth == hasChildren.length) {
+            hasChildren = Arrays.copyOf(hasChildren, depth * 2);
+        }
+        hasChildren[depth] = false;
+    }
+
+    private void endElement() throws IOException {
+        try {
+            if (hasChildren[depth]) {
+                out.writeCharacters("\n" + indent(depth));
+            }
+            out.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot close element", e);
+        }
+        depth--;
+    }
+
+    private static String indent(int level) {
+        StringBuilder indent = new StringBuilder();
+        for (int i = 0; i < level; i++) {
+            indent.append("  ");
+        }
+        return indent.toString();
+    }
+}
@@ -0,0 +1,67 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import behaviortree._ast.ASTBehaviorTree;
+import behaviortree._parser.BehaviorTreeParser;
+import crf._ast.ASTAllowedType;
+import crf._parser.CRFParser;
+
+public class ASTExporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testJsonSinkEscapesStrings() throws IOException {
+        StringWriter writer = new StringWriter();
+        JsonExportSink sink = new JsonExportSink(writer);
+        sink.beginObject("node");
+        sink.value("text", "a \"quoted\"\\path\n");
+        sink.value("flag", true);
+        sink.number("count", "42");
+        sink.endObject();
+        sink.finish();
+
+        String json = writer.toString();
+        assertTrue(json.contains("\"text\": \"a \\\"quoted\\\"\\\\path\\n\""), json);
+        assertTrue(json.contains("\"flag\": true"), json);
+        assertTrue(json.contains("\"count\": 42"), json);
+    }
+
+    @Test
+    void testBehaviorTreeXmlContainsNestedNodes() throws Exception {
+        ASTBehaviorTree ast = new BehaviorTreeParser()
+            .parse("src/test/resources/valid/behavior_trees/test_behavior_tree.txt").orElseThrow();
+        Path xml = tempDir.resolve("tree.xml");
+        ASTExporter.export(ast, xml, ASTExporter.Format.XML);
+
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(xml.toFile());
+        assertEquals("myTree", document.getDocumentElement().getAttribute("name"));
+        assertEquals(2, document.getElementsByTagName("variable").getLength());
+        Element flowNode = (Element) document.getElementsByTagName("flowNode").item(0);
+        assertEquals("sequence", flowNode.getAttribute("name"));
+        assertEquals("repeat", flowNode.getAttribute("decorator"));
+        assertEquals(2, flowNode.getElementsByTagName("parameter").getLength());
+    }
+
+    @Test
+    void testCRFXmlContainsAllDeclarations() throws Exception {
+        ASTAllowedType ast = new CRFParser().parse("src/test/resources/valid/crf/test_crf.txt").orElseThrow();
+        Path xml = tempDir.resolve("model.xml");
+        ASTExporter.export(ast, xml, ASTExporter.Format.XML);
+
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(xml.toFile());
+        assertEquals(ast.sizeParameterTypeDefs(), document.getElementsByTagName("parameterType").getLength());
+        assertEquals(ast.sizePredicateTypeDefs(), document.getElementsByTagName("predicateType").getLength());
+        assertEquals(ast.sizeActions(), document.getElementsByTagName("action").getLength());
+        assertEquals(ast.sizeActionInstances(), document.getElementsByTagName("actionInstance").getLength());
+    }
+}
@@ -0,0 +1,76 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Optional;
+
+import behaviortree._ast.ASTBehaviorTree;
+import behaviortree._parser.BehaviorTreeParser;
+import crf._ast.ASTAllowedType;
+import crf._parser.CRFParser;
+
+public class ASTSnapshotTest {
+
+    private static final Path CRF_MODEL = Paths.get("src/test/resources/valid/crf/test_crf.txt");
+    private static final Path BEHAVIOR_TREE = Paths.get("src/test/resources/valid/behavior_trees/test_behavior_tree.txt");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCRFSnapshotRoundTrip() throws IOException {
+        ASTAllowedType parsed = new CRFParser().parse(CRF_MODEL.toString()).orElseThrow();
+        byte[] sourceHash = ASTSnapshot.hashFile(CRF_MODEL);
+        Path snapshot = tempDir.resolve("model.crf.ast");
+
+        ASTSnapshot.write(snapshot, parsed, sourceHash);
+        Optional<ASTAllowedType> loaded = ASTSnapshot.readAllowedType(snapshot, sourceHash, CRF_MODEL.toString());
+
+        assertTrue(loaded.isPresent(), "Snapshot should load");
+        assertTrue(parsed.deepEquals(loaded.get()), "Loaded AST should equal the parsed AST");
+        assertEquals(parsed.getPredicateTypeDef(0).get_SourcePositionStart().getLine(),
+            loaded.get().getPredicateTypeDef(0).get_SourcePositionStart().getLine());
+    }
+
+    @Test
+    void testBehaviorTreeSnapshotRoundTrip() throws IOException {
+        ASTBehaviorTree parsed = new BehaviorTreeParser().parse(BEHAVIOR_TREE.toString()).orElseThrow();
+        byte[] sourceHash = ASTSnapshot.hashFile(BEHAVIOR_TREE);
+        Path snapshot = tempDir.resolve("tree.bt.ast");
+
+        ASTSnapshot.write(snapshot, parsed, sourceHash);
+        Optional<ASTBehaviorTree> loaded = ASTSnapshot.readBehaviorTree(snapshot, sourceHash, BEHAVIOR_TREE.toString());
+
+        assertTrue(loaded.isPresent(), "Snapshot should load");
+        assertTrue(parsed.deepEquals(loaded.get()), "Loaded AST should equal the parsed AST");
+    }
+
+    @Test
+    void testSnapshotOfOtherSourceIsIgnored() throws IOException {
+        ASTAllowedType parsed = new CRFParser().parse(CRF_MODEL.toString()).orElseThrow();
+        Path snapshot = tempDir.resolve("model.crf.ast");
+        ASTSnapshot.write(snapshot, parsed, ASTSnapshot.hashFile(CRF_MODEL));
+
+        byte[] otherHash = ASTSnapshot.hashFile(BEHAVIOR_TREE);
+        assertFalse(ASTSnapshot.readAllowedType(snapshot, otherHash, CRF_MODEL.toString()).isPresent());
+        assertFalse(ASTSnapshot.readBehaviorTree(snapshot, null, CRF_MODEL.toString()).isPresent(),
+            "A CRF snapshot must not load as behavior tree");
+    }
+
+    @Test
+    void testCorruptSnapshotIsIgnored() throws IOException {
+        ASTAllowedType parsed = new CRFParser().parse(CRF_MODEL.toString()).orElseThrow();
+        byte[] sourceHash = ASTSnapshot.hashFile(CRF_MODEL);
+        Path snapshot = tempDir.resolve("model.crf.ast");
+        ASTSnapshot.write(snapshot, parsed, sourceHash);
+
+        byte[] content = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(content, content.length / 2));
+        assertFalse(ASTSnapshot.readAllowedType(snapshot, sourceHash, CRF_MODEL.toString()).isPresent());
+    }
+}
@@ -0,0 +1,96 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import behaviortree._ast.ASTBehaviorTree;
+import behaviortree._parser.BehaviorTreeParser;
+
+public class BehaviorTreeFlattenerTest {
+
+    private static final String TREE =
+        "BehaviorTree patrol {\n"
+        + "    Blackboard board {\n"
+        + "        Object agent;\n"
+        + "        Object target;\n"
+        + "    }\n"
+        + "    BTFlowNode RootNode {\n"
+        + "        BTActionNode lookAround {\n"
+        + "            Object agent;\n"
+        + "        }\n"
+        + "        decorator hasTarget\n"
+        + "        BTFlowNode chase {\n"
+        + "            BTActionNode moveTo {\n"
+        + "                Object agent;\n"
+        + "                Object target;\n"
+        + "            }\n"
+        + "            BTFlowNode attack {\n"
+        + "                decorator hasTarget\n"
+        + "                BTActionNode strike {\n"
+        + "                    Object weapon;\n"
+        + "                }\n"
+        + "            }\n"
+        + "        }\n"
+        + "        BTActionNode rest {\n"
+        + "            Object agent;\n"
+        + "        }\n"
+        + "    }\n"
+        + "}\n";
+
+    @Test
+    void testDepthFirstTableInSourceOrder() throws IOException {
+        ASTBehaviorTree ast = new BehaviorTreeParser().parse_String(TREE).orElseThrow();
+        FlatBehaviorTree tree = BehaviorTreeFlattener.flatten(ast);
+
+        // Action and flow children are interleaved as written, not grouped by the grammar's two lists
+        assertEquals(7, tree.getNodeCount());
+        assertEquals(List.of("RootNode", "lookAround", "chase", "moveTo", "attack", "strike", "rest"),
+            List.of(tree.getNodeName(0), tree.getNodeName(1), tree.getNodeName(2), tree.getNodeName(3),
+                tree.getNodeName(4), tree.getNodeName(5), tree.getNodeName(6)));
+        assertArrayEquals(new byte[] {0, 1, 0, 1, 0, 1, 1}, tree.getKinds());
+        assertArrayEquals(new int[] {-1, 0, 0, 2, 2, 4, 0}, tree.getParents());
+        assertArrayEquals(new int[] {7, 2, 6, 4, 6, 6, 7}, tree.getSubtreeEnds());
+        assertArrayEquals(new int[] {3, 0, 2, 0, 1, 0, 0}, tree.getChildCounts());
+        assertArrayEquals(new int[] {0, 1, 1, 2, 2, 3, 1}, tree.getDepths());
+        assertEquals(3, tree.getMaxDepth());
+
+        assertEquals(List.of("hasTarget"), tree.getDecorators());
+        assertArrayEquals(new int[] {-1, -1, 0, -1, -1, 0, -1}, tree.getDecoratorIndices());
+
+        assertArrayEquals(new int[] {0, 0, 1, 1, 3, 3, 4, 5}, tree.getParameterOffsets());
+        assertEquals(List.of("agent", "target"), tree.getParameterNames(3));
+        // weapon is not on the blackboard
+        assertArrayEquals(new int[] {0, 0, 1, -1, 0}, tree.getParameterVariables());
+    }
+
+    @Test
+    void testBlobRoundTripAndLoader() throws IOException {
+        ASTBehaviorTree ast = new BehaviorTreeParser().parse("src/test/resources/valid/behavior_trees/test_behavior_tree.txt").orElseThrow();
+        FlatBehaviorTree tree = BehaviorTreeFlattener.flatten(ast);
+        assertEquals(List.of("player", "target"), tree.getVariables());
+
+        FlatBehaviorTree decoded = FlatBehaviorTree.decode(tree.getName(), ByteBuffer.wrap(tree.encode()));
+        assertEquals(tree.getStrings(), decoded.getStrings());
+        assertArrayEquals(tree.getKinds(), decoded.getKinds());
+        assertArrayEquals(tree.getSubtreeEnds(), decoded.getSubtreeEnds());
+        assertArrayEquals(tree.getDecoratorIndices(), decoded.getDecoratorIndices());
+        assertArrayEquals(tree.getParameterOffsets(), decoded.getParameterOffsets());
+        assertArrayEquals(tree.getParameterVariables(), decoded.getParameterVariables());
+        assertEquals(tree.getVariables(), decoded.getVariables());
+
+        byte[] corrupt = tree.encode();
+        corrupt[4] = 99;
+        assertThrows(IllegalArgumentException.class, () -> FlatBehaviorTree.decode(tree.getName(), ByteBuffer.wrap(corrupt)));
+
+        String source = CSharpFlatTreeGenerator.render(CSharpFlatTreeGenerator.className(tree.getName()), tree);
+        assertTrue(source.contains("public static class MyTreeFlatTree"), source);
+        assertTrue(source.contains("public const string BlobFile = \"MyTree.bt\";"), source);
+        assertTrue(source.contains("public const int Sequence = 1;"), source);
+        assertTrue(source.contains("public const int Repeat = 0;"), source);
+        assertTrue(source.contains("public const string ContentHash = \"" + DeclarationHasher.sha256(tree.encode()) + "\";"), source);
+        assertTrue(source.contains("throw new InvalidDataException"), source);
+        assertTrue(source.contains("if (!File.Exists(path))"), source);
+    }
+}
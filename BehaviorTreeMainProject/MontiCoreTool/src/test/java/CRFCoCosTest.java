@@ -0,0 +1,117 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import crf._ast.ASTAllowedType;
+import crf._parser.CRFParser;
+import de.se_rwth.commons.logging.Finding;
+import dynamicbtflownode._ast.ASTDynamicBTFlowNode;
+import dynamicbtflownode._parser.DynamicBTFlowNodeParser;
+
+public class CRFCoCosTest {
+
+    private static final String MODEL =
+        "Parameter beam : Element { }\n"
+        + "Parameter robot : Agent { }\n"
+        + "Parameter gripper : Tool { }\n"
+        + "ParameterInstance: beam {b1}\n"
+        + "ParameterInstance: robot {r1}\n"
+        + "ParameterInstance: plank {p1}\n"
+        + "predicate holding {\n"
+        + "    agent - Agent,\n"
+        + "    myObject - Element\n"
+        + "}\n"
+        + "PredicateInstance: holding(agent = r1, myObject = b1, isNegated = false)\n"
+        + "PredicateInstance: holding(agent = b1, item = r1, isNegated = false)\n"
+        + "PredicateInstance: missing(agent = r1, isNegated = false)\n"
+        + "Action pick {\n"
+        + "    parameters {\n"
+        + "        rob: robot\n"
+        + "        obj: beam\n"
+        + "        tool: hammer\n"
+        + "    }\n"
+        + "    precondition {\n"
+        + "    }\n"
+        + "    effect {\n"
+        + "        PredicateInstance: holding(agent = rob, myObject = other, isNegated = false)\n"
+        + "    }\n"
+        + "    function {\n"
+        + "        {rob},\n"
+        + "        {Boolean}\n"
+        + "    }\n"
+        + "    implementation {\n"
+        + "        pickImplementation\n"
+        + "    }\n"
+        + "}\n"
+        + "ActionInstance: pick(rob : r1, obj : r1, hand : b1, tool : x9)\n"
+        + "ActionInstance: drop(rob : r1)\n";
+
+    private static List<String> codes(CoCoFindings findings) {
+        return findings.getSorted().stream().map(f -> f.getMsg().substring(0, 7)).collect(Collectors.toList());
+    }
+
+    @Test
+    void testValidModelHasNoFindings() throws IOException {
+        ASTAllowedType ast = new CRFParser().parse("src/test/resources/valid/crf/test_crf.txt").orElseThrow();
+        CoCoFindings findings = CRFCoCos.check(ast, new CRFSymbolTable(ast), 4);
+        assertTrue(findings.isEmpty(), findings.getSorted().toString());
+    }
+
+    @Test
+    void testReportsAllViolationsInSourceOrder() throws IOException {
+        ASTAllowedType ast = new CRFParser().parse_String(MODEL).orElseThrow();
+        CoCoFindings findings = CRFCoCos.check(ast, new CRFSymbolTable(ast), 4);
+
+        assertEquals(List.of(
+            "0xCRF04",                       // line 6: unknown type plank
+            "0xCRF03", "0xCRF06", "0xCRF02", // line 12: myObject unbound, b1 is no Agent, no parameter item
+            "0xCRF01",                       // line 13: unknown predicate
+            "0xCRF04",                       // line 18: unknown type hammer
+            "0xCRF05",                       // line 23: other is not bound
+            "0xCRF10", "0xCRF08", "0xCRF09", // line 32: r1 is no beam, no parameter hand, unknown instance x9
+            "0xCRF07"),                      // line 33: unknown action
+            codes(findings));
+        for (Finding finding : findings.getSorted()) {
+            assertTrue(finding.getSourcePosition().isPresent(), finding.toString());
+        }
+    }
+
+    @Test
+    void testSequentialAndParallelFindingsAreEqual() throws IOException {
+        ASTAllowedType ast = new CRFParser().parse_String(MODEL).orElseThrow();
+        CRFSymbolTable symbols = new CRFSymbolTable(ast);
+        assertEquals(codes(CRFCoCos.check(ast, symbols, 1)), codes(CRFCoCos.check(ast, symbols, 8)));
+    }
+
+    @Test
+    void testFlowNodeRelationsMustReferenceNodes() throws IOException {
+        ASTDynamicBTFlowNode valid = new DynamicBTFlowNodeParser()
+            .parse("src/test/resources/valid/dynamic_flow_nodes/test_flow_node.txt").orElseThrow();
+        assertTrue(DynamicBTFlowNodeCoCos.check(valid, new DynamicBTFlowNodeSymbolTable(valid)).isEmpty());
+
+        ASTDynamicBTFlowNode invalid = new DynamicBTFlowNodeParser().parse_String(
+            "BTFlownode broken {\n"
+            + "    parameters { }\n"
+            + "    precondition { }\n"
+            + "    effect { }\n"
+            + "    cost: 1;\n"
+            + "    success: ANY;\n"
+            + "    Nodegraph {\n"
+            + "        BTNodeBase first { }\n"
+            + "        BTNodeBase first { }\n"
+            + "        first -> second {\n"
+            + "            priority: Order = true,\n"
+            + "            temporal: AFTER\n"
+            + "        }\n"
+            + "        planner {\n"
+            + "            type = FSMPlanner\n"
+            + "        }\n"
+            + "    }\n"
+            + "}\n").orElseThrow();
+        assertEquals(List.of("0xDBT02", "0xDBT01"),
+            codes(DynamicBTFlowNodeCoCos.check(invalid, new DynamicBTFlowNodeSymbolTable(invalid))));
+    }
+}
@@ -0,0 +1,35 @@
+import crf._ast.ASTAllowedType;
+
+/**
+ * Building blocks of the small CRF models in the grounder and planner tests.
+ */
+final class CRFFixtures {
+
+    private CRFFixtures() {
+    }
+
+    /**
+     * Action with the given parameter lines, preconditions and effects; the function and implementation
+     * blocks are placeholders.
+     */
+    static String action(String name, String parameters, String precondition, String effect) {
+        return "Action " + name + " {\n"
+            + "    parameters {\n"
+            + "        " + parameters + "\n"
+            + "    }\n"
+            + "    precondition {\n" + precondition + "    }\n"
+            + "    effect {\n" + effect + "    }\n"
+            + "    function {\n"
+            + "        {rob},\n"
+            + "        {Boolean}\n"
+            + "    }\n"
+            + "    implementation {\n"
+            + "        " + name + "Implementation\n"
+            + "    }\n"
+            + "}\n";
+    }
+
+    static GroundedModel ground(ASTAllowedType ast) {
+        return new CRFGrounder(ast, new CRFSymbolTable(ast), CRFGrounder.DEFAULT_MAX_ACTIONS).ground();
+    }
+}
@@ -0,0 +1,112 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import crf._ast.ASTAllowedType;
+import crf._parser.CRFParser;
+
+public class CRFGrounderTest {
+
+    private static final String MODEL =
+        "Parameter beam : Element { }\n"
+        + "Parameter plate : Element { }\n"
+        + "Parameter robot : Agent { }\n"
+        + "Parameter spot : Location { }\n"
+        + "ParameterInstance: beam {b1, b2}\n"
+        + "ParameterInstance: plate {p1}\n"
+        + "ParameterInstance: robot {r1, r2}\n"
+        + "ParameterInstance: spot {s1, s2, s3}\n"
+        + "predicate reachable {\n"
+        + "    agent - Agent,\n"
+        + "    location - Location\n"
+        + "}\n"
+        + "predicate blocked {\n"
+        + "    location - Location\n"
+        + "}\n"
+        + "predicate isAt {\n"
+        + "    myObject - Element,\n"
+        + "    location - Location\n"
+        + "}\n"
+        + "predicate holding {\n"
+        + "    agent - Agent,\n"
+        + "    myObject - Element\n"
+        + "}\n"
+        + "PredicateInstance: reachable(agent = r1, location = s1, isNegated = false)\n"
+        + "PredicateInstance: reachable(agent = r1, location = s2, isNegated = false)\n"
+        + "PredicateInstance: reachable(agent = r2, location = s3, isNegated = false)\n"
+        + "PredicateInstance: blocked(location = s2, isNegated = false)\n"
+        + "PredicateInstance: isAt(myObject = b1, location = s1, isNegated = false)\n"
+        + "PredicateInstance: isAt(myObject = p1, location = s3, isNegated = false)\n"
+        + action("pick", "obj: beam",
+            "PredicateInstance: reachable(agent = rob, location = loc, isNegated = false)\n"
+            + "PredicateInstance: blocked(location = loc, isNegated = true)\n"
+            + "PredicateInstance: isAt(myObject = obj, location = loc, isNegated = false)\n",
+            "PredicateInstance: holding(agent = rob, myObject = obj, isNegated = false)\n"
+            + "PredicateInstance: isAt(myObject = obj, location = loc, isNegated = true)\n")
+        // plate is an Element, so it can be bound to myObject
+        + action("pickPlate", "obj: plate",
+            "PredicateInstance: reachable(agent = rob, location = loc, isNegated = false)\n"
+            + "PredicateInstance: isAt(myObject = obj, location = loc, isNegated = false)\n",
+            "PredicateInstance: holding(agent = rob, myObject = obj, isNegated = false)\n")
+        // a beam is no Agent: no groundings
+        + action("confused", "obj: beam",
+            "",
+            "PredicateInstance: holding(agent = obj, myObject = obj, isNegated = false)\n");
+
+    private static String action(String name, String object, String precondition, String effect) {
+        return CRFFixtures.action(name, "rob: robot\n        " + object + "\n        loc: spot", precondition, effect);
+    }
+
+    private static List<String> names(GroundedModel model) {
+        List<String> names = new ArrayList<>();
+        for (int action = 0; action < model.getActionCount(); action++) {
+            names.add(model.getActionName(action));
+        }
+        return names;
+    }
+
+    @Test
+    void testStaticPreconditionsPruneBindings() throws IOException {
+        GroundedModel model = CRFFixtures.ground(new CRFParser().parse_String(MODEL).orElseThrow());
+
+        // r2 only reaches s3, and pick may not go to the blocked s2
+        assertEquals(List.of(
+            "pick(r1, b1, s1)", "pick(r1, b2, s1)", "pick(r2, b1, s3)", "pick(r2, b2, s3)",
+            "pickPlate(r1, p1, s1)", "pickPlate(r1, p1, s2)", "pickPlate(r2, p1, s3)"), names(model));
+        assertEquals(4, model.getStaticFactCount());
+        assertTrue(model.getSkippedSchemas().isEmpty());
+
+        // Only fluent atoms remain in the grounded actions
+        assertEquals(1, model.getPreconditions(0).length);
+        assertEquals("isAt(b1, s1)", model.getAtomName(model.getPreconditions(0)[0]));
+        assertEquals(0, model.getNegativePreconditions(0).length);
+        assertEquals("holding(r1, b1)", model.getAtomName(model.getAddEffects(0)[0]));
+        assertEquals("isAt(b1, s1)", model.getAtomName(model.getDeleteEffects(0)[0]));
+
+        List<String> initial = new ArrayList<>();
+        for (int atom : model.getInitialAtoms()) {
+            initial.add(model.getAtomName(atom));
+        }
+        assertEquals(List.of("isAt(b1, s1)", "isAt(p1, s3)"), initial);
+    }
+
+    @Test
+    void testGroundsTheCRFTestModel() throws IOException {
+        ASTAllowedType ast = new CRFParser().parse("src/test/resources/valid/crf/test_crf.txt").orElseThrow();
+        GroundedModel model = CRFFixtures.ground(ast);
+
+        assertTrue(model.getSkippedSchemas().isEmpty(), model.getSkippedSchemas().toString());
+        // Every ActionInstance of the model is one of the groundings
+        List<String> names = names(model);
+        assertTrue(names.contains("pickUp(b1, r1, fp1, vg1)"), names.toString());
+    }
+
+    @Test
+    void testActionLimit() throws IOException {
+        ASTAllowedType ast = new CRFParser().parse_String(MODEL).orElseThrow();
+        assertThrows(IllegalStateException.class, () -> new CRFGrounder(ast, new CRFSymbolTable(ast), 3).ground());
+    }
+}
@@ -0,0 +1,73 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import behaviortree._ast.ASTBehaviorTree;
+import behaviortree._parser.BehaviorTreeParser;
+import crf._ast.ASTAllowedType;
+import crf._parser.CRFParser;
+import dynamicbtflownode._ast.ASTDynamicBTFlowNode;
+import dynamicbtflownode._parser.DynamicBTFlowNodeParser;
+
+public class CRFModelSynthesizerTest {
+
+    private static CRFModelSynthesizer.Settings settings(String... options) {
+        return CRFModelSynthesizer.parseOptions(List.of(options), new ArrayList<>());
+    }
+
+    private static String crf(CRFModelSynthesizer.Settings settings) throws IOException {
+        StringWriter out = new StringWriter();
+        new CRFModelSynthesizer(settings).writeCRF(out);
+        return out.toString();
+    }
+
+    @Test
+    void testSameSeedGivesSameModel() throws IOException {
+        assertEquals(crf(settings("--seed", "7")), crf(settings("--seed", "7")));
+        assertNotEquals(crf(settings("--seed", "7")), crf(settings("--seed", "8")));
+    }
+
+    @Test
+    void testCRFModelHasRequestedSizeAndSatisfiesCoCos() throws IOException {
+        ASTAllowedType ast = new CRFParser().parse_String(crf(settings(
+            "--parameter-types", "20", "--instances-per-type", "100", "--predicates", "15", "--facts", "300",
+            "--actions", "10", "--precondition-size", "3", "--effect-size", "2", "--action-instances", "40"))).orElseThrow();
+
+        assertEquals(20, ast.sizeParameterTypeDefs());
+        // 100 instances per type are split into declarations of 64
+        assertEquals(40, ast.sizeParameterInstanceDefs());
+        assertEquals(15, ast.sizePredicateTypeDefs());
+        assertEquals(300, ast.sizePredicateInstanceDefs());
+        assertEquals(10, ast.sizeActions());
+        assertEquals(3, ast.getAction(0).getPreconditionState().sizePredicateInstanceDefs());
+        assertEquals(2, ast.getAction(0).getEffectState().sizePredicateInstanceDefs());
+        assertEquals(40, ast.sizeActionInstances());
+
+        CoCoFindings findings = CRFCoCos.check(ast, new CRFSymbolTable(ast), 4);
+        assertTrue(findings.isEmpty(), findings.getSorted().toString());
+    }
+
+    @Test
+    void testFlowNodeAndBehaviorTreeHaveRequestedShape() throws IOException {
+        CRFModelSynthesizer synthesizer = new CRFModelSynthesizer(settings(
+            "--flow-width", "4", "--flow-depth", "5", "--bt-fan-out", "2", "--bt-depth", "3"));
+
+        StringWriter flowNodeText = new StringWriter();
+        synthesizer.writeFlowNode(flowNodeText);
+        ASTDynamicBTFlowNode flowNode = new DynamicBTFlowNodeParser().parse_String(flowNodeText.toString()).orElseThrow();
+        assertEquals(20, flowNode.getNodeGraphDefinition().getNodesDefinition().sizeNodeDefinitions());
+        assertEquals(32, flowNode.getNodeGraphDefinition().getRelationsDefinition().sizeRelationDefinitions());
+        assertTrue(DynamicBTFlowNodeCoCos.check(flowNode, new DynamicBTFlowNodeSymbolTable(flowNode)).isEmpty());
+
+        StringWriter treeText = new StringWriter();
+        synthesizer.writeBehaviorTree(treeText);
+        ASTBehaviorTree tree = new BehaviorTreeParser().parse_String(treeText.toString()).orElseThrow();
+        assertEquals(2, tree.getRootNode().sizeBTFlowNodes());
+        assertEquals(2, tree.getRootNode().getBTFlowNode(0).getBTFlowNode(0).sizeBTFlowNodes());
+        assertEquals(2, tree.getRootNode().getBTFlowNode(0).getBTFlowNode(0).getBTFlowNode(0).sizeBTActionNodes());
+    }
+}
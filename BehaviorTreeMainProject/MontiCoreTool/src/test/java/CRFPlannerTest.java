@@ -0,0 +1,226 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import behaviortree._ast.ASTBehaviorTree;
+import behaviortree._parser.BehaviorTreeParser;
+import crf._ast.ASTAllowedType;
+import crf._parser.CRFParser;
+import dynamicbtflownode._ast.ASTDynamicBTFlowNode;
+import dynamicbtflownode._parser.DynamicBTFlowNodeParser;
+
+public class CRFPlannerTest {
+
+    private static final String MODEL =
+        "Parameter beam : Element { }\n"
+        + "Parameter robot : Agent { }\n"
+        + "Parameter spot : Location { }\n"
+        + "ParameterInstance: beam {b1}\n"
+        + "ParameterInstance: robot {r1}\n"
+        + "ParameterInstance: spot {s1, s2, s3}\n"
+        + "predicate connected {\n"
+        + "    source - Location,\n"
+        + "    target - Location\n"
+        + "}\n"
+        + "predicate at {\n"
+        + "    agent - Agent,\n"
+        + "    location - Location\n"
+        + "}\n"
+        + "predicate isAt {\n"
+        + "    myObject - Element,\n"
+        + "    location - Location\n"
+        + "}\n"
+        + "predicate holding {\n"
+        + "    agent - Agent,\n"
+        + "    myObject - Element\n"
+        + "}\n"
+        + "PredicateInstance: connected(source = s1, target = s2, isNegated = false)\n"
+        + "PredicateInstance: connected(source = s2, target = s3, isNegated = false)\n"
+        + CRFFixtures.action("move", "rob: robot\n        source: spot\n        target: spot",
+            "PredicateInstance: at(agent = rob, location = source, isNegated = false)\n"
+            + "PredicateInstance: connected(source = source, target = target, isNegated = false)\n",
+            "PredicateInstance: at(agent = rob, location = target, isNegated = false)\n"
+            + "PredicateInstance: at(agent = rob, location = source, isNegated = true)\n")
+        + CRFFixtures.action("pick", "rob: robot\n        obj: beam\n        loc: spot",
+            "PredicateInstance: at(agent = rob, location = loc, isNegated = false)\n"
+            + "PredicateInstance: isAt(myObject = obj, location = loc, isNegated = false)\n",
+            "PredicateInstance: holding(agent = rob, myObject = obj, isNegated = false)\n"
+            + "PredicateInstance: isAt(myObject = obj, location = loc, isNegated = true)\n")
+        + CRFFixtures.action("drop", "rob: robot\n        obj: beam\n        loc: spot",
+            "PredicateInstance: at(agent = rob, location = loc, isNegated = false)\n"
+            + "PredicateInstance: holding(agent = rob, myObject = obj, isNegated = false)\n",
+            "PredicateInstance: isAt(myObject = obj, location = loc, isNegated = false)\n"
+            + "PredicateInstance: holding(agent = rob, myObject = obj, isNegated = true)\n")
+        // Shortcut that moves the robot and the beam at once
+        + CRFFixtures.action("push", "rob: robot\n        obj: beam\n        source: spot\n        target: spot",
+            "PredicateInstance: at(agent = rob, location = source, isNegated = false)\n"
+            + "PredicateInstance: isAt(myObject = obj, location = source, isNegated = false)\n"
+            + "PredicateInstance: connected(source = source, target = target, isNegated = false)\n",
+            "PredicateInstance: at(agent = rob, location = target, isNegated = false)\n"
+            + "PredicateInstance: at(agent = rob, location = source, isNegated = true)\n"
+            + "PredicateInstance: isAt(myObject = obj, location = target, isNegated = false)\n"
+            + "PredicateInstance: isAt(myObject = obj, location = source, isNegated = true)\n")
+        + "initial {\n"
+        + "    PredicateInstance: at(agent = r1, location = s1, isNegated = false)\n"
+        + "    PredicateInstance: isAt(myObject = b1, location = s2, isNegated = false)\n"
+        + "}\n"
+        + "goal {\n"
+        + "    PredicateInstance: isAt(myObject = b1, location = s3, isNegated = false)\n"
+        + "    PredicateInstance: holding(agent = r1, myObject = b1, isNegated = true)\n"
+        + "}\n";
+
+    private static Optional<CRFPlan> plan(GroundedModel model, Map<String, Integer> costs, CRFPlanner.Search search,
+                                          DeleteRelaxationHeuristic.Kind heuristic) {
+        return new CRFPlanner(model, CRFPlanner.actionCosts(model, costs), search, heuristic, 1,
+            CRFPlanner.DEFAULT_MAX_EXPANSIONS).plan();
+    }
+
+    @Test
+    void testFindsPlansWithEverySearchAndHeuristic() throws IOException {
+        GroundedModel model = CRFFixtures.ground(new CRFParser().parse_String(MODEL).orElseThrow());
+        assertTrue(model.isGoalSatisfiable());
+
+        for (CRFPlanner.Search search : CRFPlanner.Search.values()) {
+            for (DeleteRelaxationHeuristic.Kind heuristic : DeleteRelaxationHeuristic.Kind.values()) {
+                CRFPlan plan = plan(model, Map.of(), search, heuristic).orElseThrow();
+                assertEquals(List.of("move(r1, s1, s2)", "push(r1, b1, s2, s3)"), plan.getActionNames(),
+                    search + " " + heuristic);
+                assertEquals(2, plan.getCost());
+            }
+        }
+    }
+
+    @Test
+    void testFlowNodeCostsSteerTheSearch() throws IOException {
+        GroundedModel model = CRFFixtures.ground(new CRFParser().parse_String(MODEL).orElseThrow());
+
+        CRFPlan plan = plan(model, Map.of("push", 10), CRFPlanner.Search.WEIGHTED_ASTAR,
+            DeleteRelaxationHeuristic.Kind.ADD).orElseThrow();
+        assertEquals(List.of("move(r1, s1, s2)", "pick(r1, b1, s2)", "move(r1, s2, s3)", "drop(r1, b1, s3)"),
+            plan.getActionNames());
+        assertEquals(4, plan.getCost());
+
+        // The nodes of the node graph cost what their flow node costs
+        ASTDynamicBTFlowNode flowNode = new DynamicBTFlowNodeParser()
+            .parse("src/test/resources/valid/dynamic_flow_nodes/test_flow_node.txt").orElseThrow();
+        assertEquals(Map.of("assembleWall", 5, "pickUp", 5, "place", 5, "nail", 5),
+            CRFPlanner.flowNodeCosts(List.of(flowNode)));
+    }
+
+    @Test
+    void testPlanExportsParse() throws IOException {
+        ASTAllowedType ast = new CRFParser().parse_String(MODEL).orElseThrow();
+        GroundedModel model = CRFFixtures.ground(ast);
+        CRFPlan plan = plan(model, Map.of(), CRFPlanner.Search.GBFS, DeleteRelaxationHeuristic.Kind.FF).orElseThrow();
+
+        StringWriter instances = new StringWriter();
+        plan.writeActionInstances(instances, new CRFSymbolTable(ast));
+        assertEquals("ActionInstance: move(rob : r1, source : s1, target : s2)\n"
+            + "ActionInstance: push(rob : r1, obj : b1, source : s2, target : s3)\n", instances.toString());
+        ASTAllowedType withPlan = new CRFParser().parse_String(MODEL + instances).orElseThrow();
+        assertEquals(2, withPlan.sizeActionInstances());
+
+        StringWriter tree = new StringWriter();
+        plan.writeBehaviorTree(tree, "plan");
+        ASTBehaviorTree behaviorTree = new BehaviorTreeParser().parse_String(tree.toString()).orElseThrow();
+        assertEquals("plan", behaviorTree.getName());
+        assertEquals(5, behaviorTree.getBlackboard().sizeVariables());
+    }
+
+    @Test
+    void testUnreachableGoal() throws IOException {
+        // Nothing leads back from s3
+        String model = MODEL.replace("isAt(myObject = b1, location = s3, isNegated = false)\n    PredicateInstance: holding",
+            "isAt(myObject = b1, location = s1, isNegated = false)\n    PredicateInstance: holding");
+        GroundedModel grounded = CRFFixtures.ground(new CRFParser().parse_String(model).orElseThrow());
+        CRFPlanner planner = new CRFPlanner(grounded, CRFPlanner.actionCosts(grounded, Map.of()), CRFPlanner.Search.GBFS,
+            DeleteRelaxationHeuristic.Kind.FF, 1, CRFPlanner.DEFAULT_MAX_EXPANSIONS);
+        assertTrue(planner.plan().isEmpty());
+        assertFalse(planner.isLimitReached());
+    }
+
+    @Test
+    void testStateMemoryLimit() throws IOException {
+        GroundedModel model = CRFFixtures.ground(new CRFParser().parse_String(MODEL).orElseThrow());
+        CRFPlanner planner = new CRFPlanner(model, CRFPlanner.actionCosts(model, Map.of()), CRFPlanner.Search.GBFS,
+            DeleteRelaxationHeuristic.Kind.FF, 1, CRFPlanner.DEFAULT_MAX_EXPANSIONS, 1024);
+        assertTrue(planner.plan().isEmpty());
+        assertTrue(planner.isMemoryLimitReached());
+        assertFalse(planner.isLimitReached());
+    }
+
+    /**
+     * Replays the plan on the packed states and checks that every step is applicable and the goal holds at the end.
+     */
+    private static void assertReachesGoal(GroundedModel model, CRFPlan plan, int[] goal) {
+        PackedStates states = new PackedStates(model);
+        long[] state = states.encode(model.getInitialAtoms());
+        for (int action : plan.getActions()) {
+            assertTrue(states.isApplicable(state, action), model.getActionName(action));
+            states.apply(state, action, state);
+        }
+        assertTrue(PackedStates.containsAll(state, states.encode(goal)));
+    }
+
+    @Test
+    void testParallelSearch() throws IOException {
+        GroundedModel model = CRFFixtures.ground(new CRFParser().parse_String(MODEL).orElseThrow());
+        for (DeleteRelaxationHeuristic.Kind heuristic : DeleteRelaxationHeuristic.Kind.values()) {
+            CRFPlan plan = new ParallelCRFPlanner(model, CRFPlanner.actionCosts(model, Map.of("push", 10)),
+                CRFPlanner.Search.WEIGHTED_ASTAR, heuristic, 1, CRFPlanner.DEFAULT_MAX_EXPANSIONS, 4).plan().orElseThrow();
+            assertEquals(4, plan.getCost(), heuristic.toString());
+            assertReachesGoal(model, plan, model.getGoalAtoms());
+        }
+
+        // A synthetic model with a random walk goal, spread over more states than workers
+        CRFModelSynthesizer.Settings settings = CRFModelSynthesizer.parseOptions(List.of(
+            "--seed", "3", "--parameter-types", "6", "--instances-per-type", "3", "--predicates", "8",
+            "--facts", "30", "--actions", "6", "--action-instances", "0"), new ArrayList<>());
+        StringWriter synthetic = new StringWriter();
+        new CRFModelSynthesizer(settings).writeCRF(synthetic);
+        GroundedModel large = CRFFixtures.ground(new CRFParser().parse_String(synthetic.toString()).orElseThrow());
+        int[] goal = CRFPlanner.randomWalkGoal(large, 1, 15);
+        int[] costs = CRFPlanner.actionCosts(large, Map.of());
+        for (CRFPlanner.Search search : CRFPlanner.Search.values()) {
+            ParallelCRFPlanner planner = new ParallelCRFPlanner(large, costs, search, DeleteRelaxationHeuristic.Kind.FF, 2,
+                CRFPlanner.DEFAULT_MAX_EXPANSIONS, 4);
+            CRFPlan plan = planner.plan(large.getInitialAtoms(), goal, new int[0]).orElseThrow();
+            assertReachesGoal(large, plan, goal);
+            assertEquals(Arrays.stream(plan.getActions()).mapToLong(action -> costs[action]).sum(), plan.getCost());
+            assertFalse(planner.isLimitReached());
+        }
+    }
+
+    @Test
+    void testParallelStateMemoryLimit() throws IOException {
+        GroundedModel model = CRFFixtures.ground(new CRFParser().parse_String(MODEL).orElseThrow());
+        ParallelCRFPlanner planner = new ParallelCRFPlanner(model, CRFPlanner.actionCosts(model, Map.of()),
+            CRFPlanner.Search.GBFS, DeleteRelaxationHeuristic.Kind.FF, 1, CRFPlanner.DEFAULT_MAX_EXPANSIONS, 1024, 4);
+        assertTrue(planner.plan().isEmpty());
+        assertTrue(planner.isMemoryLimitReached());
+        assertFalse(planner.isLimitReached());
+
+        // A search that fills the stores of the workers while they exchange states
+        CRFModelSynthesizer.Settings settings = CRFModelSynthesizer.parseOptions(List.of(
+            "--seed", "3", "--parameter-types", "6", "--instances-per-type", "3", "--predicates", "8",
+            "--facts", "30", "--actions", "6", "--action-instances", "0"), new ArrayList<>());
+        StringWriter synthetic = new StringWriter();
+        new CRFModelSynthesizer(settings).writeCRF(synthetic);
+        GroundedModel large = CRFFixtures.ground(new CRFParser().parse_String(synthetic.toString()).orElseThrow());
+        // Unsatisfiable: the atom must hold and must not hold, so the search can only run out of states or memory
+        int[] goal = Arrays.copyOf(CRFPlanner.randomWalkGoal(large, 1, 15), 1);
+        planner = new ParallelCRFPlanner(large, CRFPlanner.actionCosts(large, Map.of()), CRFPlanner.Search.WEIGHTED_ASTAR,
+            DeleteRelaxationHeuristic.Kind.FF, 1, CRFPlanner.DEFAULT_MAX_EXPANSIONS, 4L << 19, 4);
+        assertTrue(planner.plan(large.getInitialAtoms(), goal, goal).isEmpty());
+        assertTrue(planner.isMemoryLimitReached());
+        assertFalse(planner.isLimitReached());
+        assertTrue(planner.getExpanded() > 0, "The workers should fill their stores during the search");
+    }
+}
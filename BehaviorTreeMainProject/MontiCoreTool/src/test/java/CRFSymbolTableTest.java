@@ -0,0 +1,61 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import crf._ast.ASTAllowedType;
+import crf._parser.CRFParser;
+import dynamicbtflownode._ast.ASTDynamicBTFlowNode;
+import dynamicbtflownode._parser.DynamicBTFlowNodeParser;
+
+public class CRFSymbolTableTest {
+
+    @Test
+    void testResolvesDeclarationsAndInstances() throws IOException {
+        ASTAllowedType ast = new CRFParser().parse("src/test/resources/valid/crf/test_crf.txt").orElseThrow();
+        CRFSymbolTable symbols = new CRFSymbolTable(ast);
+
+        assertTrue(symbols.resolvePredicateType("isAt").isPresent());
+        assertTrue(symbols.resolveParameterType("beam").isPresent());
+        assertTrue(symbols.resolveAction("pickUp").isPresent());
+        assertFalse(symbols.resolveAction("missing").isPresent());
+
+        assertEquals("beam", symbols.resolveInstanceTypeName("b1").orElseThrow());
+        assertEquals(Arrays.asList("b1", "b3", "b2"), symbols.getInstancesOfType("beam"));
+        assertTrue(symbols.isSubtypeOf("beam", "Element"));
+        List<String> elements = symbols.getSubtypes("Element").stream().map(t -> t.getName()).collect(Collectors.toList());
+        assertTrue(elements.containsAll(Arrays.asList("beam", "plate")), elements.toString());
+
+        assertEquals("beam", symbols.resolveActionParameterType("pickUp", "pickedObject").orElseThrow());
+        assertEquals(ast.getPredicateInstanceDefList().stream().filter(p -> p.getName().equals("isAt")).count(),
+            symbols.getFacts("isAt").size());
+        assertTrue(symbols.getDuplicates().isEmpty(), "test model has no duplicate declarations");
+    }
+
+    @Test
+    void testDuplicateDeclarationsKeepFirst() throws IOException {
+        ASTAllowedType ast = new CRFParser().parse_String(
+            "Parameter beam : Element { }\nParameter beam : Tool { }\nParameterInstance: beam {b1, b1}").orElseThrow();
+        CRFSymbolTable symbols = new CRFSymbolTable(ast);
+
+        assertSame(ast.getParameterTypeDef(0), symbols.resolveParameterType("beam").orElseThrow());
+        assertEquals(2, symbols.getDuplicates().size());
+        assertEquals(Arrays.asList("b1"), symbols.getInstancesOfType("beam"));
+    }
+
+    @Test
+    void testResolvesFlowNodeGraph() throws IOException {
+        ASTDynamicBTFlowNode flowNode = new DynamicBTFlowNodeParser()
+            .parse("src/test/resources/valid/dynamic_flow_nodes/test_flow_node.txt").orElseThrow();
+        DynamicBTFlowNodeSymbolTable symbols = new DynamicBTFlowNodeSymbolTable(flowNode);
+
+        assertEquals(Arrays.asList("pickUp", "place", "nail"), List.copyOf(symbols.getNodes().keySet()));
+        assertTrue(symbols.resolveParameter("wallBeam").isPresent());
+        assertEquals(1, symbols.getOutgoing("pickUp").size());
+        assertEquals("place", symbols.getIncoming("nail").get(0).getSourceNode().getName());
+        assertTrue(symbols.getUnresolvedRelations().isEmpty());
+    }
+}
@@ -0,0 +1,51 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CSharpEmitterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testParallelOutputMatchesSequentialOutput() throws IOException {
+        Path sequentialDir = Files.createDirectories(tempDir.resolve("sequential"));
+        Path parallelDir = Files.createDirectories(tempDir.resolve("parallel"));
+
+        CSharpEmitter.sequential().emit(createFiles(sequentialDir));
+        new CSharpEmitter(8).emit(createFiles(parallelDir));
+
+        for (int i = 0; i < 200; i++) {
+            String fileName = "Type" + i + ".cs";
+            assertArrayEquals(Files.readAllBytes(sequentialDir.resolve(fileName)),
+                Files.readAllBytes(parallelDir.resolve(fileName)), "Content differs for " + fileName);
+        }
+    }
+
+    @Test
+    void testRejectsInvalidThreadCount() {
+        assertThrows(IllegalArgumentException.class, () -> new CSharpEmitter(0));
+    }
+
+    private static List<CSharpEmitter.GeneratedFile> createFiles(Path outputDir) {
+        List<CSharpEmitter.GeneratedFile> files = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int index = i;
+            files.add(new CSharpEmitter.GeneratedFile(outputDir.resolve("Type" + i + ".cs"), () -> {
+                StringBuilder source = new StringBuilder();
+                source.append("public class Type").append(index).append(System.lineSeparator());
+                for (int line = 0; line < index; line++) {
+                    source.append("    // line ").append(line).append(System.lineSeparator());
+                }
+                return source.toString();
+            }));
+        }
+        return files;
+    }
+}
@@ -0,0 +1,53 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+
+import crf._ast.ASTAllowedType;
+import crf._parser.CRFParser;
+
+public class CSharpParameterTypeGeneratorTest {
+
+    private static final String MODEL =
+        "Parameter stack : Layer {\n"
+        + "    level: Integer,\n"
+        + "    belongsToModule: Module,\n"
+        + "    tags: List<String>\n"
+        + "}\n"
+        + "Parameter equipposition : Location {\n"
+        + "}\n";
+
+    @Test
+    void testTypedSettersSwitchOnPropertyOrdinals() throws IOException {
+        ASTAllowedType ast = new CRFParser().parse_String(MODEL).orElseThrow();
+        String source = CSharpParameterTypeGenerator.renderParameterTypeClass(ast.getParameterTypeDef(0), new CSharpTypeMapper(ast));
+
+        assertTrue(source.contains("public const int LevelOrdinal = 0;"), source);
+        assertTrue(source.contains("public const int TagsOrdinal = 2;"), source);
+        assertTrue(source.contains("public static readonly string[] PropertyKeys = { \"level\", \"belongsToModule\", \"tags\" };"), source);
+        assertTrue(source.contains("case \"belongsToModule\": return BelongsToModuleOrdinal;"), source);
+
+        // Only the kinds the type has get a typed setter
+        assertTrue(source.contains("public override bool SetInt(int ordinal, int value)"), source);
+        assertTrue(source.contains("public override bool SetEntity(int ordinal, Entity value)"), source);
+        assertFalse(source.contains("SetDouble"), source);
+        // Collections of the property type are set without conversion
+        assertTrue(source.contains("public override bool SetCollection<T>(int ordinal, T value)"), source);
+        assertTrue(source.contains("if (value is List<string> tagsValue)"), source);
+        assertTrue(source.contains("public override bool SetValue(int ordinal, object value)"), source);
+
+        // The dictionary overload looks every key up once instead of probing for every property
+        assertFalse(source.contains("ContainsKey"), source);
+        assertTrue(source.contains("SetValue(ordinal, parameter.Value);"), source);
+    }
+
+    @Test
+    void testTypeWithoutPropertiesKeepsOnlyTheShim() throws IOException {
+        ASTAllowedType ast = new CRFParser().parse_String(MODEL).orElseThrow();
+        String source = CSharpParameterTypeGenerator.renderParameterTypeClass(ast.getParameterTypeDef(1), new CSharpTypeMapper(ast));
+
+        assertFalse(source.contains("GetPropertyOrdinal"), source);
+        assertFalse(source.contains("property ordinal"), source);
+        assertTrue(source.contains("public override void SetParameters(Dictionary<string, object> parameters)"), source);
+    }
+}
@@ -0,0 +1,70 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import crf._ast.ASTAllowedType;
+import crf._ast.ASTPredicateTypeDef;
+import crf._parser.CRFParser;
+
+public class CSharpTypeIdGeneratorTest {
+
+    private static final String MODEL =
+        "Parameter beam : Element {\n"
+        + "    length: Double\n"
+        + "}\n"
+        + "Parameter robot : Agent {\n"
+        + "    speed: Double\n"
+        + "}\n"
+        + "Parameter plate : Element {\n"
+        + "    thickness: Double\n"
+        + "}\n"
+        + "predicate isAt {\n"
+        + "    myObject - Element,\n"
+        + "    location - Location\n"
+        + "}\n"
+        + "predicate clear {\n"
+        + "    myObject - Element\n"
+        + "}\n"
+        + "predicate isAt {\n"
+        + "    agent - Agent\n"
+        + "}\n";
+
+    @Test
+    void testDenseIdsInDeclarationOrder() throws IOException {
+        ASTAllowedType ast = new CRFParser().parse_String(MODEL).orElseThrow();
+
+        List<ASTPredicateTypeDef> predicates = CSharpTypeIdGenerator.predicateTypes(ast);
+        assertEquals(List.of("isAt", "clear"), predicates.stream().map(ASTPredicateTypeDef::getName).collect(Collectors.toList()));
+        assertSame(ast.getPredicateTypeDef(0), predicates.get(0), "The first declaration of a name should win");
+
+        String predicateIds = CSharpTypeIdGenerator.renderPredicateIds(predicates);
+        assertTrue(predicateIds.contains("public const int IsAt = 0;"), predicateIds);
+        assertTrue(predicateIds.contains("public const int Clear = 1;"), predicateIds);
+        assertTrue(predicateIds.contains("new FastName(\"isAt\"),"), predicateIds);
+
+        String parameterIds = CSharpTypeIdGenerator.renderParameterIds(CSharpTypeIdGenerator.parameterTypes(ast),
+            new CSharpTypeMapper(ast));
+        assertTrue(parameterIds.contains("public const int Plate = 2;"), parameterIds);
+        // One interned name per base type, shared by the types that extend it
+        assertEquals(1, parameterIds.split("new FastName\\(\"Element\"\\)", -1).length - 1, parameterIds);
+        String nl = System.lineSeparator();
+        assertTrue(parameterIds.contains("ElementBaseType," + nl + "            AgentBaseType," + nl + "            ElementBaseType,"), parameterIds);
+    }
+
+    @Test
+    void testGeneratedClassesDoNotAllocateNames() throws IOException {
+        ASTAllowedType ast = new CRFParser().parse_String(MODEL).orElseThrow();
+        CSharpTypeMapper types = new CSharpTypeMapper(ast);
+
+        String predicate = CSharpPredicateGenerator.renderPredicateClass(ast.getPredicateTypeDef(1), types);
+        assertTrue(predicate.contains(": base(PredicateTypeIds.Clear, PredicateTypeIds.Names[PredicateTypeIds.Clear], isNegated)"), predicate);
+        assertFalse(predicate.contains("new FastName("), predicate);
+
+        String parameterType = CSharpParameterTypeGenerator.renderParameterTypeClass(ast.getParameterTypeDef(2), types);
+        assertTrue(parameterType.contains("public override int TypeId => ParameterTypeIds.Plate;"), parameterType);
+        assertFalse(parameterType.contains("new FastName("), parameterType);
+    }
+}
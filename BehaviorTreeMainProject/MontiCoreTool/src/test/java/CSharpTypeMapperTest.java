@@ -0,0 +1,42 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+
+import crf._ast.ASTAllowedType;
+import crf._ast.ASTParameterPropertyList;
+import crf._parser.CRFParser;
+
+public class CSharpTypeMapperTest {
+
+    private static final String MODEL =
+        "Parameter cassette : Module {\n"
+        + "    layers: List<Layer>,\n"
+        + "    stacks: List<Layer>,\n"
+        + "    tags: Set<String>,\n"
+        + "    slots: Map<Integer, List<Boolean>>,\n"
+        + "    weight: Double\n"
+        + "}\n";
+
+    @Test
+    void testMapsNestedGenericsToSharedDescriptors() throws IOException {
+        ASTAllowedType ast = new CRFParser().parse_String(MODEL).orElseThrow();
+        CSharpTypeMapper types = new CSharpTypeMapper(ast);
+        ASTParameterPropertyList properties = ast.getParameterTypeDef(0).getParameterPropertyList();
+
+        CSharpTypeMapper.CSharpType layers = types.map(properties.getParameterProperty(0).getBasicType());
+        assertEquals("List<Layer>", layers.getName());
+        assertSame(layers, types.map(properties.getParameterProperty(1).getBasicType()), "Equal types should be interned");
+        assertEquals("HashSet<string>", types.map(properties.getParameterProperty(2).getBasicType()).getName());
+
+        CSharpTypeMapper.CSharpType slots = types.map(properties.getParameterProperty(3).getBasicType());
+        assertEquals("Dictionary<int, List<bool>>", slots.getName());
+        assertEquals(CSharpTypeMapper.Kind.LIST, slots.getArguments().get(1).getKind());
+        assertEquals("DictionaryEntries.Of(v).ToDictionary(item0 => Convert.ToInt32(item0.Key), "
+            + "item0 => ((IEnumerable)item0.Value).Cast<object>().Select(item1 => Convert.ToBoolean(item1)).ToList())",
+            slots.conversion("v"));
+
+        assertEquals("double", types.map(properties.getParameterProperty(4).getBasicType()).getName());
+        assertEquals(CSharpTypeMapper.Kind.ENTITY, types.map(ast.getParameterTypeDef(0).getBasicType()).getKind());
+    }
+}
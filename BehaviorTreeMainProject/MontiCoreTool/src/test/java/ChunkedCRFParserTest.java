@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import crf._ast.ASTAllowedType;
+import crf._parser.CRFParser;
+import de.se_rwth.commons.logging.Log;
+
+public class ChunkedCRFParserTest {
+
+    private static final Path CRF_MODEL = Paths.get("src/test/resources/valid/crf/test_crf.txt");
+
+    @TempDir
+    Path tempDir;
+
+    private Path largeModel() throws IOException {
+        String model = Files.readString(CRF_MODEL);
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            content.append(model).append('\n');
+        }
+        Path file = tempDir.resolve("large_crf.txt");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    @Test
+    void testChunksCoverFileAndStartAtDeclarations() throws IOException {
+        Path file = largeModel();
+        List<ChunkedCRFParser.Chunk> chunks = ChunkedCRFParser.split(file, 4096);
+        assertTrue(chunks.size() > 1, "Model should be split into several chunks");
+
+        List<String> lines = Files.readAllLines(file);
+        long offset = 0;
+        for (ChunkedCRFParser.Chunk chunk : chunks) {
+            assertEquals(offset, chunk.getOffset());
+            offset += chunk.getLength();
+            if (chunk.getOffset() > 0) {
+                String firstLine = lines.get(chunk.getFirstLine() - 1).trim();
+                assertTrue(firstLine.matches("(predicate|Parameter|ParameterInstance|PredicateInstance|Action|ActionInstance)\\b.*"),
+                    "Chunk should start at a declaration: " + firstLine);
+            }
+        }
+        assertEquals(Files.size(file), offset);
+    }
+
+    @Test
+    void testChunksStayWithinMaximumLength() throws IOException {
+        Path file = largeModel();
+        // The target is capped at half the maximum
+        List<ChunkedCRFParser.Chunk> chunks = ChunkedCRFParser.split(file, Long.MAX_VALUE, 8192);
+        assertTrue(chunks.size() > 1, "Model should be split despite the large target");
+        for (ChunkedCRFParser.Chunk chunk : chunks) {
+            assertTrue(chunk.getLength() <= 8192, "Chunk too long: " + chunk.getLength());
+        }
+
+        // A declaration longer than the maximum cannot be cut
+        assertThrows(IOException.class, () -> ChunkedCRFParser.split(file, 16, 16));
+    }
+
+    @Test
+    void testChunkedParseEqualsSequentialParse() throws IOException {
+        Path file = largeModel();
+        ASTAllowedType sequential = new CRFParser().parse(file.toString()).orElseThrow();
+        ASTAllowedType chunked = new ChunkedCRFParser(4, 4096).parse(file).orElseThrow();
+
+        assertTrue(sequential.deepEquals(chunked), "Chunked AST should equal the sequential AST");
+        int last = sequential.sizeActionInstances() - 1;
+        assertEquals(sequential.getActionInstance(last).get_SourcePositionStart().getLine(),
+            chunked.getActionInstance(last).get_SourcePositionStart().getLine());
+        assertEquals(sequential.getParameterInstanceDef(last % sequential.sizeParameterInstanceDefs()).get_SourcePositionStart(),
+            chunked.getParameterInstanceDef(last % chunked.sizeParameterInstanceDefs()).get_SourcePositionStart());
+    }
+
+    @Test
+    void testChunkWithSyntaxErrorFailsWholeParse() throws IOException {
+        Path file = largeModel();
+        Files.writeString(file, Files.readString(file) + "\nParameter broken {\n");
+        Log.init();
+        Log.enableFailQuick(false);
+        assertFalse(new ChunkedCRFParser(4, 4096).parse(file).isPresent());
+    }
+}
@@ -0,0 +1,43 @@
+import java.io.IOException;
+
+import dynamicbtflownode._ast.ASTDynamicBTFlowNode;
+import dynamicbtflownode._parser.DynamicBTFlowNodeParser;
+
+/**
+ * Small DynamicBTFlowNode models for the tests of the node graph and temporal network compilers.
+ */
+final class FlowNodeFixtures {
+
+    private FlowNodeFixtures() {
+    }
+
+    /**
+     * Flow node with an empty BTNodeBase per node name, followed by the relations.
+     */
+    static ASTDynamicBTFlowNode flowNode(String name, String relations, String... nodes) throws IOException {
+        StringBuilder model = new StringBuilder("BTFlownode " + name + " {\n"
+            + "    parameters { }\n"
+            + "    precondition { }\n"
+            + "    effect { }\n"
+            + "    cost: 1;\n"
+            + "    success: ALL;\n"
+            + "    Nodegraph {\n");
+        for (String node : nodes) {
+            model.append("        BTNodeBase ").append(node).append(" { }\n");
+        }
+        model.append(relations)
+            .append("        planner {\n")
+            .append("            type = GOAPPlanner\n")
+            .append("        }\n")
+            .append("    }\n")
+            .append("}\n");
+        return new DynamicBTFlowNodeParser().parse_String(model.toString()).orElseThrow();
+    }
+
+    static String relation(String source, String target, boolean ordered, String type) {
+        return "        " + source + " -> " + target + " {\n"
+            + "            priority: Order = " + ordered + ",\n"
+            + "            temporal: " + type + "\n"
+            + "        }\n";
+    }
+}
@@ -0,0 +1,67 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import dynamicbtflownode._ast.ASTDynamicBTFlowNode;
+
+public class NodeGraphCompilerTest {
+
+    private static ASTDynamicBTFlowNode parse(String relations) throws IOException {
+        return FlowNodeFixtures.flowNode("graph", relations, "a", "b", "c", "d");
+    }
+
+    private static String relation(String source, String target, boolean ordered, String type) {
+        return FlowNodeFixtures.relation(source, target, ordered, type);
+    }
+
+    private static List<String> codes(ASTDynamicBTFlowNode flowNode) {
+        return DynamicBTFlowNodeCoCos.check(flowNode, new DynamicBTFlowNodeSymbolTable(flowNode)).getSorted().stream()
+            .map(f -> f.getMsg().substring(0, 7)).collect(Collectors.toList());
+    }
+
+    @Test
+    void testAdjacencyLevelsAndPredecessorCounts() throws IOException {
+        // d -> b -> c and a -> c; a -> d is not ordered and b -> c is repeated
+        ASTDynamicBTFlowNode flowNode = parse(relation("d", "b", true, "BEFORE") + relation("b", "c", true, "MEETS")
+            + relation("a", "c", true, "BEFORE") + relation("a", "d", false, "OVERLAPS") + relation("b", "c", true, "BEFORE"));
+        CompiledNodeGraph graph = NodeGraphCompiler.compile(flowNode, new DynamicBTFlowNodeSymbolTable(flowNode));
+
+        assertTrue(graph.isAcyclic());
+        assertEquals(3, graph.getEdgeCount());
+        assertArrayEquals(new int[] {0, 1, 2, 2, 3}, graph.getSuccessorOffsets());
+        assertArrayEquals(new int[] {2, 2, 1}, graph.getSuccessors());
+        assertArrayEquals(new int[] {0, 1, 2, 0}, graph.getPredecessorCounts());
+        assertArrayEquals(new int[] {0, 1, 2, 0}, graph.getLevels());
+        assertArrayEquals(new int[] {0, 3, 1, 2}, graph.getTopologicalOrder());
+        assertEquals(3, graph.getLevelCount());
+        assertTrue(codes(flowNode).isEmpty());
+
+        String source = CSharpNodeGraphGenerator.render("graph", graph);
+        assertTrue(source.contains("public static class GraphNodeGraph"), source);
+        assertTrue(source.contains("new int[] { 0, 1, 2, 2, 3 }, // successor offsets"), source);
+        assertTrue(source.contains("new int[] { 0, 3, 1, 2 }); // topological order"), source);
+        assertTrue(source.contains("CompiledFlowNodes.RegisterNodeGraph(\"graph\", Graph);"), source);
+    }
+
+    @Test
+    void testOrderCyclesAndContradictingRelations() throws IOException {
+        ASTDynamicBTFlowNode cyclic = parse(relation("a", "b", true, "BEFORE") + relation("b", "c", true, "BEFORE")
+            + relation("d", "a", false, "BEFORE") + relation("c", "a", true, "MEETS"));
+        CompiledNodeGraph graph = NodeGraphCompiler.compile(cyclic, new DynamicBTFlowNodeSymbolTable(cyclic));
+        assertFalse(graph.isAcyclic());
+        CompiledNodeGraph.Cycle cycle = graph.getCycle().orElseThrow();
+        assertEquals(List.of("a", "b", "c", "a"), cycle.getNodes());
+        assertSame(cyclic.getNodeGraphDefinition().getRelationsDefinition().getRelationDefinition(3), cycle.getRelation());
+        assertThrows(IllegalStateException.class, graph::getLevels);
+        // Reported once, not again as a temporal conflict
+        assertEquals(List.of("0xDBT04"), codes(cyclic));
+
+        // b cannot start after a completed and also end before a starts
+        ASTDynamicBTFlowNode contradicting = parse(relation("a", "b", true, "AFTER"));
+        assertTrue(NodeGraphCompiler.compile(contradicting, new DynamicBTFlowNodeSymbolTable(contradicting)).isAcyclic());
+        assertEquals(List.of("0xDBT03"), codes(contradicting));
+    }
+}
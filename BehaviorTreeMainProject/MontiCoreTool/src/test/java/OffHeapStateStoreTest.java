@@ -0,0 +1,103 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class OffHeapStateStoreTest {
+
+    private static long[] randomState(Random random, int words) {
+        long[] state = new long[words];
+        for (int w = 0; w < words; w++) {
+            state[w] = random.nextLong();
+        }
+        return state;
+    }
+
+    @Test
+    void testStoresStatesAndPathsAcrossGrowth() {
+        int words = 3;
+        OffHeapStateStore store = new OffHeapStateStore(words, 64L << 20);
+        Random random = new Random(7);
+        Map<Integer, long[]> reference = new HashMap<>();
+        // Enough states for several table doublings and record chunks
+        for (int i = 0; i < 200_000; i++) {
+            long[] state = randomState(random, words);
+            long hash = store.hash(state);
+            assertEquals(OffHeapStateStore.ABSENT, store.find(state, hash));
+            int record = store.insert(state, hash, i - 1, i % 5, i);
+            assertEquals(i, record);
+            reference.put(record, state);
+        }
+        assertEquals(200_000, store.size());
+
+        long[] read = new long[words];
+        for (Map.Entry<Integer, long[]> entry : reference.entrySet()) {
+            int record = entry.getKey();
+            assertEquals(record, store.find(entry.getValue(), store.hash(entry.getValue())));
+            store.read(record, read);
+            assertArrayEquals(entry.getValue(), read);
+            assertEquals(record, store.cost(record));
+            assertEquals(record - 1, store.parent(record));
+            assertEquals(record % 5, store.action(record));
+        }
+
+        store.update(10, 3, 2, 1);
+        assertEquals(1, store.cost(10));
+        assertEquals(3, store.parent(10));
+        assertEquals(2, store.action(10));
+    }
+
+    @Test
+    void testHashesCollideWithoutMergingStates() {
+        OffHeapStateStore store = new OffHeapStateStore(2, 1L << 20);
+        long[] first = {1L, 0L};
+        long[] second = {0L, 1L};
+        // Incremental hashing agrees with hashing from scratch
+        assertEquals(store.hash(second), store.rehash(store.hash(first), first, second));
+
+        // Both states under one hash stay apart
+        int a = store.insert(first, 42, -1, -1, 0);
+        assertEquals(OffHeapStateStore.ABSENT, store.find(second, 42));
+        int b = store.insert(second, 42, a, 0, 1);
+        assertEquals(a, store.find(first, 42));
+        assertEquals(b, store.find(second, 42));
+    }
+
+    @Test
+    void testMemoryLimit() {
+        OffHeapStateStore store = new OffHeapStateStore(1, 1L << 20);
+        Random random = new Random(1);
+        int record = 0;
+        while (record >= 0) {
+            long[] state = randomState(random, 1);
+            record = store.insert(state, store.hash(state), -1, -1, 0);
+        }
+        assertEquals(OffHeapStateStore.FULL, record);
+        assertTrue(store.getAllocatedBytes() <= 1L << 20);
+        assertTrue(store.size() > 0);
+    }
+
+    @Test
+    void testClearKeepsBuffers() {
+        OffHeapStateStore store = new OffHeapStateStore(1, 1L << 20);
+        Random random = new Random(3);
+        long[][] states = new long[10_000][];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = randomState(random, 1);
+            store.insert(states[i], store.hash(states[i]), -1, -1, 0);
+        }
+        long allocated = store.getAllocatedBytes();
+
+        store.clear();
+        assertEquals(0, store.size());
+        assertEquals(OffHeapStateStore.ABSENT, store.find(states[0], store.hash(states[0])));
+        // Refilling reuses the buffers of the first fill
+        for (int i = states.length - 1; i >= 0; i--) {
+            assertEquals(states.length - 1 - i, store.insert(states[i], store.hash(states[i]), -1, -1, 0));
+        }
+        assertEquals(states.length - 1, store.find(states[0], store.hash(states[0])));
+        assertEquals(allocated, store.getAllocatedBytes());
+    }
+}
@@ -0,0 +1,141 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import crf._ast.ASTAllowedType;
+import crf._parser.CRFParser;
+
+public class PDDLExporterTest {
+
+    private static final String MODEL =
+        "Parameter spot : Location { }\n"
+        + "Parameter robot : Agent { }\n"
+        + "Parameter beam : Element { }\n"
+        + "Parameter plate : Element { }\n"
+        + "ParameterInstance: robot {r1}\n"
+        + "ParameterInstance: beam {b1, b2}\n"
+        + "ParameterInstance: spot {s1, home}\n"
+        + "predicate isAt {\n"
+        + "    myObject - Element,\n"
+        + "    location - Location\n"
+        + "}\n"
+        + "predicate holding {\n"
+        + "    agent - Agent,\n"
+        + "    myObject - Element\n"
+        + "}\n"
+        + "PredicateInstance: isAt(location = s1, myObject = b1, isNegated = false)\n"
+        + "PredicateInstance: isAt(myObject = b2, location = s1, isNegated = true)\n"
+        + "Action pick {\n"
+        + "    parameters {\n"
+        + "        rob: robot\n"
+        + "        obj: beam\n"
+        + "    }\n"
+        + "    precondition {\n"
+        + "        PredicateInstance: isAt(myObject = obj, location = home, isNegated = false)\n"
+        + "        PredicateInstance: holding(agent = rob, myObject = obj, isNegated = true)\n"
+        + "    }\n"
+        + "    effect {\n"
+        + "        PredicateInstance: holding(agent = rob, myObject = obj, isNegated = false)\n"
+        + "        PredicateInstance: isAt(myObject = obj, location = home, isNegated = true)\n"
+        + "    }\n"
+        + "    function {\n"
+        + "        {rob},\n"
+        + "        {Boolean}\n"
+        + "    }\n"
+        + "    implementation {\n"
+        + "        pickImplementation\n"
+        + "    }\n"
+        + "}\n"
+        + "initial {\n"
+        + "    PredicateInstance: isAt(myObject = b2, location = home, isNegated = false)\n"
+        + "}\n"
+        + "goal {\n"
+        + "    PredicateInstance: holding(agent = r1, myObject = b2, isNegated = false)\n"
+        + "    PredicateInstance: isAt(myObject = b1, location = s1, isNegated = true)\n"
+        + "    PredicateInstance: unknown(myObject = b1, isNegated = false)\n"
+        + "}\n";
+
+    private static PDDLExporter exporter(String model) throws IOException {
+        ASTAllowedType ast = new CRFParser().parse_String(model).orElseThrow();
+        return new PDDLExporter(ast, new CRFSymbolTable(ast));
+    }
+
+    @Test
+    void testDomain() throws IOException {
+        StringWriter domain = new StringWriter();
+        exporter(MODEL).writeDomain(domain, "assembly");
+
+        assertEquals("(define (domain assembly)\n"
+            + "  (:requirements :strips :typing :negative-preconditions)\n"
+            + "  (:types\n"
+            + "    agent element location\n"
+            + "    robot - agent\n"
+            + "    beam plate - element\n"
+            + "    spot - location\n"
+            + "  )\n"
+            + "  (:constants\n"
+            + "    home - spot\n"
+            + "  )\n"
+            + "  (:predicates\n"
+            + "    (isAt ?myObject - element ?location - location)\n"
+            + "    (holding ?agent - agent ?myObject - element)\n"
+            + "  )\n"
+            + "  (:action pick\n"
+            + "    :parameters (?rob - robot ?obj - beam)\n"
+            + "    :precondition (and\n"
+            + "      (isAt ?obj home)\n"
+            + "      (not (holding ?rob ?obj))\n"
+            + "    )\n"
+            + "    :effect (and\n"
+            + "      (holding ?rob ?obj)\n"
+            + "      (not (isAt ?obj home))\n"
+            + "    )\n"
+            + "  )\n"
+            + ")\n", domain.toString());
+    }
+
+    @Test
+    void testProblem() throws IOException {
+        PDDLExporter exporter = exporter(MODEL);
+        StringWriter problem = new StringWriter();
+        exporter.writeProblem(problem, "task1", "assembly");
+
+        // Constants are not repeated as objects, negated facts are left out and arguments follow the declaration
+        assertEquals("(define (problem task1)\n"
+            + "  (:domain assembly)\n"
+            + "  (:objects\n"
+            + "    r1 - robot\n"
+            + "    b1 b2 - beam\n"
+            + "    s1 - spot\n"
+            + "  )\n"
+            + "  (:init\n"
+            + "    (isAt b1 s1)\n"
+            + "    (isAt b2 home)\n"
+            + "  )\n"
+            + "  (:goal (and\n"
+            + "    (holding r1 b2)\n"
+            + "    (not (isAt b1 s1))\n"
+            + "  ))\n"
+            + ")\n", problem.toString());
+        assertEquals(1, exporter.getSkippedLiterals());
+    }
+
+    @Test
+    void testExportIsStable() throws IOException {
+        String model = new String(Files.readAllBytes(Paths.get("src/test/resources/valid/crf/test_crf.txt")));
+        String[] exports = new String[2];
+        for (int run = 0; run < exports.length; run++) {
+            PDDLExporter exporter = exporter(model);
+            StringWriter out = new StringWriter();
+            exporter.writeDomain(out, PDDLExporter.DEFAULT_DOMAIN_NAME);
+            exporter.writeProblem(out, "test", PDDLExporter.DEFAULT_DOMAIN_NAME);
+            exports[run] = out.toString();
+            assertEquals(0, exporter.getSkippedLiterals());
+        }
+        assertEquals(exports[0], exports[1]);
+    }
+}
@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import crf._ast.ASTAllowedType;
+import crf._parser.CRFParser;
+
+public class PackedStatesTest {
+
+    private static GroundedModel synthesize() throws IOException {
+        CRFModelSynthesizer.Settings settings = CRFModelSynthesizer.parseOptions(List.of(
+            "--seed", "5", "--parameter-types", "6", "--instances-per-type", "5", "--predicates", "8",
+            "--facts", "40", "--actions", "6", "--action-instances", "0"), new ArrayList<>());
+        StringWriter model = new StringWriter();
+        new CRFModelSynthesizer(settings).writeCRF(model);
+        ASTAllowedType ast = new CRFParser().parse_String(model.toString()).orElseThrow();
+        return new CRFGrounder(ast, new CRFSymbolTable(ast), CRFGrounder.DEFAULT_MAX_ACTIONS).ground();
+    }
+
+    private static boolean applicable(GroundedModel model, TreeSet<Integer> state, int action) {
+        return Arrays.stream(model.getPreconditions(action)).allMatch(state::contains)
+            && Arrays.stream(model.getNegativePreconditions(action)).noneMatch(state::contains);
+    }
+
+    @Test
+    void testMatchesTheGroundedActionsOnARandomWalk() throws IOException {
+        GroundedModel model = synthesize();
+        PackedStates states = new PackedStates(model);
+        // The atoms spread over several words
+        assertTrue(states.words() > 1, model.toString());
+
+        TreeSet<Integer> reference = new TreeSet<>();
+        Arrays.stream(model.getInitialAtoms()).forEach(reference::add);
+        long[] state = states.encode(model.getInitialAtoms());
+        long[] successor = states.newState();
+        Random random = new Random(3);
+        for (int step = 0; step < 200; step++) {
+            List<Integer> applicable = new ArrayList<>();
+            for (int action = 0; action < model.getActionCount(); action++) {
+                assertEquals(applicable(model, reference, action), states.isApplicable(state, action));
+                if (states.isApplicable(state, action)) {
+                    applicable.add(action);
+                }
+            }
+            if (applicable.isEmpty()) {
+                break;
+            }
+            int action = applicable.get(random.nextInt(applicable.size()));
+            Arrays.stream(model.getDeleteEffects(action)).forEach(reference::remove);
+            Arrays.stream(model.getAddEffects(action)).forEach(reference::add);
+            states.apply(state, action, successor);
+            long[] swap = state;
+            state = successor;
+            successor = swap;
+            assertArrayEquals(reference.stream().mapToInt(Integer::intValue).toArray(), states.decode(state));
+        }
+    }
+
+    @Test
+    void testMasksAndInPlaceTransitions() throws IOException {
+        GroundedModel model = synthesize();
+        PackedStates states = new PackedStates(model);
+        int last = model.getAtomCount() - 1;
+
+        long[] state = states.encode(0, 63, last);
+        assertTrue(PackedStates.holds(state, 63));
+        assertTrue(PackedStates.containsAll(state, states.encode(0, last)));
+        assertFalse(PackedStates.containsAll(state, states.encode(0, 1)));
+        assertTrue(PackedStates.containsNone(state, states.encode(1, 64)));
+        assertFalse(PackedStates.containsNone(state, states.encode(1, last)));
+
+        // Applying into the state itself gives the same result as applying into a copy
+        int action = 0;
+        long[] copy = states.newState();
+        states.apply(state, action, copy);
+        states.apply(state, action, state);
+        assertArrayEquals(copy, state);
+    }
+}
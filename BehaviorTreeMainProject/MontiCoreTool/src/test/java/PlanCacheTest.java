@@ -0,0 +1,169 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import crf._ast.ASTAllowedType;
+import crf._parser.CRFParser;
+
+public class PlanCacheTest {
+
+    private static final String CONFIGURATION = "GBFS FF";
+
+    // Two interchangeable beams on a line of spots; the spots differ by their connections
+    private static final String MODEL =
+        "Parameter beam : Element { }\n"
+        + "Parameter robot : Agent { }\n"
+        + "Parameter spot : Location { }\n"
+        + "ParameterInstance: beam {b1, b2}\n"
+        + "ParameterInstance: robot {r1}\n"
+        + "ParameterInstance: spot {s1, s2, s3}\n"
+        + "predicate connected {\n"
+        + "    source - Location,\n"
+        + "    target - Location\n"
+        + "}\n"
+        + "predicate at {\n"
+        + "    agent - Agent,\n"
+        + "    location - Location\n"
+        + "}\n"
+        + "predicate isAt {\n"
+        + "    myObject - Element,\n"
+        + "    location - Location\n"
+        + "}\n"
+        + "PredicateInstance: connected(source = s1, target = s2, isNegated = false)\n"
+        + "PredicateInstance: connected(source = s2, target = s3, isNegated = false)\n"
+        + "Action move {\n"
+        + "    parameters {\n"
+        + "        rob: robot\n"
+        + "        source: spot\n"
+        + "        target: spot\n"
+        + "    }\n"
+        + "    precondition {\n"
+        + "        PredicateInstance: at(agent = rob, location = source, isNegated = false)\n"
+        + "        PredicateInstance: connected(source = source, target = target, isNegated = false)\n"
+        + "    }\n"
+        + "    effect {\n"
+        + "        PredicateInstance: at(agent = rob, location = target, isNegated = false)\n"
+        + "        PredicateInstance: at(agent = rob, location = source, isNegated = true)\n"
+        + "    }\n"
+        + "    function {\n"
+        + "        {rob},\n"
+        + "        {Boolean}\n"
+        + "    }\n"
+        + "    implementation {\n"
+        + "        moveImplementation\n"
+        + "    }\n"
+        + "}\n"
+        + "Action push {\n"
+        + "    parameters {\n"
+        + "        rob: robot\n"
+        + "        obj: beam\n"
+        + "        source: spot\n"
+        + "        target: spot\n"
+        + "    }\n"
+        + "    precondition {\n"
+        + "        PredicateInstance: at(agent = rob, location = source, isNegated = false)\n"
+        + "        PredicateInstance: isAt(myObject = obj, location = source, isNegated = false)\n"
+        + "        PredicateInstance: connected(source = source, target = target, isNegated = false)\n"
+        + "    }\n"
+        + "    effect {\n"
+        + "        PredicateInstance: at(agent = rob, location = target, isNegated = false)\n"
+        + "        PredicateInstance: at(agent = rob, location = source, isNegated = true)\n"
+        + "        PredicateInstance: isAt(myObject = obj, location = target, isNegated = false)\n"
+        + "        PredicateInstance: isAt(myObject = obj, location = source, isNegated = true)\n"
+        + "    }\n"
+        + "    function {\n"
+        + "        {rob},\n"
+        + "        {Boolean}\n"
+        + "    }\n"
+        + "    implementation {\n"
+        + "        pushImplementation\n"
+        + "    }\n"
+        + "}\n";
+
+    private static GroundedModel ground() throws IOException {
+        ASTAllowedType ast = new CRFParser().parse_String(MODEL).orElseThrow();
+        return new CRFGrounder(ast, new CRFSymbolTable(ast), CRFGrounder.DEFAULT_MAX_ACTIONS).ground();
+    }
+
+    private static int atom(GroundedModel model, String name) {
+        for (int atom = 0; atom < model.getAtomCount(); atom++) {
+            if (model.getAtomName(atom).equals(name)) {
+                return atom;
+            }
+        }
+        throw new AssertionError("No atom " + name);
+    }
+
+    private static int[] atoms(GroundedModel model, String... names) {
+        int[] atoms = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            atoms[i] = atom(model, names[i]);
+        }
+        return atoms;
+    }
+
+    private static CRFPlan search(GroundedModel model, int[] initial, int[] goal) {
+        return new CRFPlanner(model, CRFPlanner.actionCosts(model, Map.of()), CRFPlanner.Search.GBFS,
+            DeleteRelaxationHeuristic.Kind.FF, 1, CRFPlanner.DEFAULT_MAX_EXPANSIONS).plan(initial, goal, new int[0]).orElseThrow();
+    }
+
+    @Test
+    void testHitsAfterRestartAndRenaming(@TempDir Path directory) throws IOException {
+        GroundedModel model = ground();
+        int[] costs = CRFPlanner.actionCosts(model, Map.of());
+        int[] initial = atoms(model, "at(r1, s1)", "isAt(b1, s2)", "isAt(b2, s1)");
+        int[] goal = atoms(model, "isAt(b1, s3)");
+
+        PlanCache cache = PlanCache.open(directory, model, costs, CONFIGURATION, PlanCache.DEFAULT_MAX_ENTRIES);
+        assertTrue(cache.lookup(initial, goal, new int[0]).isEmpty());
+        cache.store(initial, goal, new int[0], search(model, initial, goal));
+
+        // A new cache reads the plan back from the file
+        PlanCache reopened = PlanCache.open(directory, model, costs, CONFIGURATION, PlanCache.DEFAULT_MAX_ENTRIES);
+        assertEquals(1, reopened.size());
+        CRFPlan cached = reopened.lookup(initial, goal, new int[0]).orElseThrow();
+        assertEquals(List.of("move(r1, s1, s2)", "push(r1, b1, s2, s3)"), cached.getActionNames());
+        assertEquals(2, cached.getCost());
+
+        // The same task with the beams swapped is answered by renaming the plan
+        int[] swappedInitial = atoms(model, "at(r1, s1)", "isAt(b2, s2)", "isAt(b1, s1)");
+        int[] swappedGoal = atoms(model, "isAt(b2, s3)");
+        Optional<CRFPlan> renamed = reopened.lookup(swappedInitial, swappedGoal, new int[0]);
+        assertEquals(List.of("move(r1, s1, s2)", "push(r1, b2, s2, s3)"), renamed.orElseThrow().getActionNames());
+        assertEquals(2, reopened.getHits());
+        assertEquals(0, reopened.getMisses());
+
+        // Other planner settings do not share plans
+        PlanCache other = PlanCache.open(directory, model, costs, "WEIGHTED_ASTAR FF 2.0", PlanCache.DEFAULT_MAX_ENTRIES);
+        assertTrue(other.lookup(initial, goal, new int[0]).isEmpty());
+        assertEquals(1, other.getMisses());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEviction(@TempDir Path directory) throws IOException {
+        GroundedModel model = ground();
+        int[] costs = CRFPlanner.actionCosts(model, Map.of());
+        int[] initial = atoms(model, "at(r1, s1)", "isAt(b1, s2)");
+        int[] first = atoms(model, "isAt(b1, s3)");
+        int[] second = atoms(model, "at(r1, s3)");
+
+        PlanCache cache = PlanCache.open(directory, model, costs, CONFIGURATION, 1);
+        cache.store(initial, first, new int[0], search(model, initial, first));
+        cache.store(initial, second, new int[0], search(model, initial, second));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertTrue(cache.lookup(initial, first, new int[0]).isEmpty());
+        assertTrue(cache.lookup(initial, second, new int[0]).isPresent());
+
+        // Opening drops the evicted line from the file as well
+        PlanCache reopened = PlanCache.open(directory, model, costs, CONFIGURATION, 1);
+        assertEquals(1, reopened.size());
+        assertTrue(reopened.lookup(initial, second, new int[0]).isPresent());
+    }
+}
@@ -0,0 +1,93 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import dynamicbtflownode._ast.ASTDynamicBTFlowNode;
+import dynamicbtflownode._ast.ASTRelationDefinition;
+import dynamicbtflownode._parser.DynamicBTFlowNodeParser;
+
+public class TemporalNetworkCompilerTest {
+
+    private static ASTDynamicBTFlowNode parse(String relations) throws IOException {
+        return FlowNodeFixtures.flowNode("cycle", relations, "a", "b", "c");
+    }
+
+    private static String relation(String source, String target, String type) {
+        return FlowNodeFixtures.relation(source, target, false, type);
+    }
+
+    @Test
+    void testStartWindowsOfTheTestFlowNode() throws IOException {
+        ASTDynamicBTFlowNode flowNode = new DynamicBTFlowNodeParser()
+            .parse("src/test/resources/valid/dynamic_flow_nodes/test_flow_node.txt").orElseThrow();
+        TemporalNetwork network = new TemporalNetworkCompiler().compile(flowNode, new DynamicBTFlowNodeSymbolTable(flowNode));
+        assertTrue(network.isConsistent());
+        assertEquals(List.of("pickUp", "place", "nail"), network.getNodes());
+
+        // pickUp BEFORE place, place MEETS nail, every node takes at least one time unit
+        assertEquals(0, network.getEarliestStart(0));
+        assertEquals(1, network.getEarliestStart(1));
+        assertEquals(2, network.getEarliestStart(2));
+        assertEquals(TemporalNetwork.INFINITY, network.getLatestStart(2));
+        // nail starts exactly when place ends
+        assertEquals(0, network.getDistance(TemporalNetwork.end(1), TemporalNetwork.start(2)));
+        assertEquals(0, network.getDistance(TemporalNetwork.start(2), TemporalNetwork.end(1)));
+        assertArrayEquals(new int[] {TemporalNetwork.start(0), TemporalNetwork.end(0), TemporalNetwork.start(1), TemporalNetwork.end(1)},
+            network.getStartPrerequisites(2));
+
+        // A horizon bounds the latest starts from above
+        TemporalNetwork bounded = new TemporalNetworkCompiler(TemporalNetworkCompiler.DEFAULT_MIN_DURATION, 10)
+            .setDuration("place", 2, 4)
+            .compile(flowNode, new DynamicBTFlowNodeSymbolTable(flowNode));
+        assertEquals(3, bounded.getEarliestStart(2));
+        assertEquals(9, bounded.getLatestStart(2));
+        assertEquals(6, bounded.getLatestStart(0));
+    }
+
+    @Test
+    void testNegativeCyclesAreReportedAtTheClosingRelation() throws IOException {
+        ASTDynamicBTFlowNode flowNode = parse(relation("a", "b", "BEFORE") + relation("b", "c", "MEETS")
+            + relation("c", "a", "BEFORE"));
+        DynamicBTFlowNodeSymbolTable symbols = new DynamicBTFlowNodeSymbolTable(flowNode);
+        TemporalNetwork network = new TemporalNetworkCompiler().compile(flowNode, symbols);
+
+        assertFalse(network.isConsistent());
+        TemporalNetwork.Conflict conflict = network.getConflict().orElseThrow();
+        ASTRelationDefinition closing = flowNode.getNodeGraphDefinition().getRelationsDefinition().getRelationDefinition(2);
+        assertSame(closing, conflict.getSource());
+        List<String> cycle = conflict.getCycle();
+        assertEquals(cycle.get(0), cycle.get(cycle.size() - 1));
+        assertTrue(cycle.containsAll(List.of("end(a)", "start(b)", "end(b)", "start(c)", "end(c)", "start(a)")), cycle.toString());
+
+        List<String> codes = DynamicBTFlowNodeCoCos.check(flowNode, symbols).getSorted().stream()
+            .map(f -> f.getMsg().substring(0, 7)).collect(Collectors.toList());
+        assertEquals(List.of("0xDBT03"), codes);
+
+        // b during a but after a ends is consistent only if b takes no time
+        ASTDynamicBTFlowNode nested = parse(relation("a", "b", "BEFORE") + relation("b", "a", "DURING"));
+        assertFalse(new TemporalNetworkCompiler().compile(nested, new DynamicBTFlowNodeSymbolTable(nested)).isConsistent());
+        assertTrue(new TemporalNetworkCompiler(0, TemporalNetwork.INFINITY)
+            .compile(nested, new DynamicBTFlowNodeSymbolTable(nested)).isConsistent());
+    }
+
+    @Test
+    void testRendersTheCSharpTable() throws IOException {
+        ASTDynamicBTFlowNode flowNode = parse(relation("a", "b", "MEETS") + relation("c", "a", "AFTER"));
+        TemporalNetwork network = new TemporalNetworkCompiler().compile(flowNode, new DynamicBTFlowNodeSymbolTable(flowNode));
+        String source = CSharpTemporalTableGenerator.render("cycle", network);
+
+        assertTrue(source.contains("public static class CycleTemporalTable"), source);
+        assertTrue(source.contains("new string[] { \"a\", \"b\", \"c\" }"), source);
+        assertTrue(source.contains("float.PositiveInfinity"), source);
+        // 7 time points, one row each
+        assertEquals(7, source.lines().filter(line -> line.contains("f, ") && line.contains("// ")).count(), source);
+        // a waits for nothing, b for a, c for a and the start of b
+        assertTrue(source.contains("new int[] { }, // a"), source);
+        assertTrue(source.contains("new int[] { 1, 2 }, // b"), source);
+        assertTrue(source.contains("new int[] { 1, 2, 3 } // c"), source);
+        assertTrue(source.contains("CompiledFlowNodes.RegisterTemporalTable(\"cycle\", Table);"), source);
+    }
+}
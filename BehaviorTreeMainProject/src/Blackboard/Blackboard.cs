@@ -360,8 +360,8 @@ public List<GenericBTAction> GetAllActionInstances()
     {
         foreach (var existingPredicate in PredicateValues.Values)
         {
-            // First check if predicates have the same name
-            if (existingPredicate.PredicateName == newPredicate.PredicateName)
+            // First check if predicates have the same type
+            if (existingPredicate.IsSameType(newPredicate))
             {
                 Console.WriteLine($"\nComparing predicates:");
                 Console.WriteLine($"New: {newPredicate.PredicateName}");
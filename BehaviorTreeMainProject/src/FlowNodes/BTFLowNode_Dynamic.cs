@@ -5,10 +5,12 @@ public class BTFlowNode_Dynamic : BTFlowNodeBase
     public BTFlowNode_Dynamic(
         IBehaviorTree owningTree,
         SuccessCriteria successCriteria = SuccessCriteria.ALL,
-        float threshold = 1.0f)
+        float threshold = 1.0f,
+        string? flowNodeName = null)
         : base(successCriteria, threshold)
     {
         this.OwningTree = owningTree;
+        this.FlowNodeName = flowNodeName;
         this.planner = new CallPDDLPlanner(OwningTree);
     }
 
@@ -54,6 +56,7 @@ public class BTFlowNode_Dynamic : BTFlowNodeBase
                 }
             }
         }
+        ApplyCompiledRelations();
 
         return actionGraph.GetAllActionNodes().Cast<IBTNode>().GetEnumerator();
     }
@@ -14,6 +14,13 @@ public abstract class BTFlowNodeBase : BTNodeBase, IEnumerable
      protected NodeGraph actionGraph = new();
      
      protected BTServicePlanner planner;
+
+     /// <summary>
+     /// Name of the DynamicBTFlowNode model this node runs; the action graph then uses the relations
+     /// compiled from that model (see CompiledFlowNodes)
+     /// </summary>
+     public string? FlowNodeName { get; protected set; }
+
     private readonly IBehaviorTree owningTree;
         
     public abstract IEnumerator<IBTNode> GetEnumerator();
@@ -156,5 +163,15 @@ public abstract class BTFlowNodeBase : BTNodeBase, IEnumerable
     public void SetActionGraph(NodeGraph graph)
     {
         actionGraph = graph;
+        ApplyCompiledRelations();
+    }
+
+    /// <summary>
+    /// Run the action graph on the compiled relations of FlowNodeName, once all of its nodes were added
+    /// </summary>
+    protected void ApplyCompiledRelations()
+    {
+        if (FlowNodeName != null)
+            CompiledFlowNodes.Apply(FlowNodeName, actionGraph);
     }
 }
\ No newline at end of file
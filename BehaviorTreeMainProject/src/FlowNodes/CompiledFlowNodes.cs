@@ -0,0 +1,36 @@
+using System.Collections.Generic;
+
+/// <summary>
+/// Compiled relations of the DynamicBTFlowNode models by flow node name. The generated node graphs and temporal
+/// tables register themselves when the assembly is loaded, a flow node with the same name then runs its
+/// NodeGraph on them.
+/// </summary>
+public static class CompiledFlowNodes
+{
+    private static readonly Dictionary<string, CompiledNodeGraph> nodeGraphs = new();
+    private static readonly Dictionary<string, TemporalTable> temporalTables = new();
+
+    public static void RegisterNodeGraph(string flowNode, CompiledNodeGraph graph) => nodeGraphs[flowNode] = graph;
+
+    public static void RegisterTemporalTable(string flowNode, TemporalTable table) => temporalTables[flowNode] = table;
+
+    /// <summary>
+    /// Hand the compiled relations of the flow node to the graph, after all of its nodes were added.
+    /// Returns false if nothing was compiled for this flow node.
+    /// </summary>
+    public static bool Apply(string flowNode, NodeGraph graph)
+    {
+        bool applied = false;
+        if (nodeGraphs.TryGetValue(flowNode, out var compiledGraph))
+        {
+            graph.SetCompiledGraph(compiledGraph);
+            applied = true;
+        }
+        if (temporalTables.TryGetValue(flowNode, out var table))
+        {
+            graph.SetTemporalTable(table);
+            applied = true;
+        }
+        return applied;
+    }
+}
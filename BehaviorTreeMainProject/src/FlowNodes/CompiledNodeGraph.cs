@@ -0,0 +1,75 @@
+using System.Collections.Generic;
+
+/// <summary>
+/// Order relations of a node graph in compressed sparse row form, generated by the NodeGraphCompiler of the
+/// MontiCore tool. The successors of node i are successors[successorOffsets[i] .. successorOffsets[i + 1]).
+/// The graph was checked for cycles when the model was compiled, so the runtime only counts down the
+/// predecessors of each node to find the ready ones.
+/// </summary>
+public sealed class CompiledNodeGraph
+{
+    private readonly string[] nodes;
+    private readonly Dictionary<string, int> indices = new();
+    private readonly int[] successorOffsets;
+    private readonly int[] successors;
+    private readonly int[] predecessorCounts;
+    private readonly int[] levels;
+    private readonly int[] topologicalOrder;
+
+    public CompiledNodeGraph(string[] nodes, int[] successorOffsets, int[] successors, int[] predecessorCounts,
+        int[] levels, int[] topologicalOrder)
+    {
+        this.nodes = nodes;
+        this.successorOffsets = successorOffsets;
+        this.successors = successors;
+        this.predecessorCounts = predecessorCounts;
+        this.levels = levels;
+        this.topologicalOrder = topologicalOrder;
+        for (int i = 0; i < nodes.Length; i++)
+        {
+            indices.TryAdd(nodes[i], i);
+        }
+    }
+
+    public int NodeCount => nodes.Length;
+
+    public string GetNodeName(int node) => nodes[node];
+
+    /// <summary>
+    /// Index of the node with this name, or -1
+    /// </summary>
+    public int IndexOf(string name) => indices.TryGetValue(name, out var index) ? index : -1;
+
+    public int GetLevel(int node) => levels[node];
+
+    public IReadOnlyList<int> TopologicalOrder => topologicalOrder;
+
+    /// <summary>
+    /// Fresh predecessor counters for one run of the graph
+    /// </summary>
+    public int[] CreateCounters() => (int[])predecessorCounts.Clone();
+
+    /// <summary>
+    /// Add the nodes without predecessors to ready, in topological order
+    /// </summary>
+    public void AddInitiallyReady(List<int> ready)
+    {
+        foreach (int node in topologicalOrder)
+        {
+            if (predecessorCounts[node] == 0)
+                ready.Add(node);
+        }
+    }
+
+    /// <summary>
+    /// Count down the successors of a completed node and add those without open predecessors to ready
+    /// </summary>
+    public void Complete(int node, int[] counters, List<int> ready)
+    {
+        for (int e = successorOffsets[node]; e < successorOffsets[node + 1]; e++)
+        {
+            if (--counters[successors[e]] == 0)
+                ready.Add(successors[e]);
+        }
+    }
+}
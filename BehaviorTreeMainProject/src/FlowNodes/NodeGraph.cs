@@ -29,6 +29,18 @@ public class NodeGraph
     private List<GraphNode> nodes = new();
     private Dictionary<BTActionNodeBase, GraphNode> nodeMap = new();
     private float elapsedTime = 0f;
+    private TemporalTable? temporalTable;
+    private Dictionary<GraphNode, int> tableIndices = new();
+    // Time of every time point of the temporal table, NaN until it happened
+    private float[] timePoints = Array.Empty<float>();
+    private CompiledNodeGraph? compiledGraph;
+    private Dictionary<GraphNode, int> compiledIndices = new();
+    private GraphNode?[] compiledNodes = Array.Empty<GraphNode?>();
+    private List<GraphNode> uncompiledNodes = new();
+    private int[] predecessorCounters = Array.Empty<int>();
+    // Compiled nodes whose order predecessors have all completed and that have not started yet
+    private List<int> readyNodes = new();
+    private List<int> waitingNodes = new();
 
     /// <summary>
     /// Add an action node to the graph
@@ -84,6 +96,55 @@ public class NodeGraph
         Console.WriteLine($"   🔍 NodeGraph: {from.InstanceName.ToString()} now has {fromNode.TemporalConstraints.Count} temporal constraints");
     }
 
+    /// <summary>
+    /// Use a precompiled temporal table instead of the pairwise temporal constraints. Nodes are matched by
+    /// instance name, then by action type; nodes the table does not know are not constrained by it.
+    /// </summary>
+    public void SetTemporalTable(TemporalTable table)
+    {
+        temporalTable = table;
+        tableIndices.Clear();
+        foreach (var node in nodes)
+        {
+            int index = table.IndexOf(node.ActionNode.InstanceName.ToString());
+            if (index < 0)
+                index = table.IndexOf(node.ActionNode.actionType.ToString());
+            if (index >= 0)
+                tableIndices[node] = index;
+        }
+        timePoints = new float[table.TimePointCount];
+        ResetTimePoints();
+    }
+
+    /// <summary>
+    /// Use a precompiled order graph instead of the predecessor lists. Ready nodes are then found by counting
+    /// down predecessors when nodes complete. Nodes are matched by instance name, then by action type; nodes
+    /// the compiled graph does not know keep using the predecessor lists.
+    /// </summary>
+    public void SetCompiledGraph(CompiledNodeGraph graph)
+    {
+        compiledGraph = graph;
+        compiledIndices.Clear();
+        uncompiledNodes.Clear();
+        compiledNodes = new GraphNode?[graph.NodeCount];
+        foreach (var node in nodes)
+        {
+            int index = graph.IndexOf(node.ActionNode.InstanceName.ToString());
+            if (index < 0)
+                index = graph.IndexOf(node.ActionNode.actionType.ToString());
+            if (index >= 0 && compiledNodes[index] == null)
+            {
+                compiledIndices[node] = index;
+                compiledNodes[index] = node;
+            }
+            else
+            {
+                uncompiledNodes.Add(node);
+            }
+        }
+        ResetCompiledGraph();
+    }
+
     /// <summary>
     /// Get all nodes in the graph
     /// </summary>
@@ -98,6 +159,9 @@ public class NodeGraph
     public List<BTActionNodeBase> GetExecutableNodes(float deltaTime)
     {
         elapsedTime += deltaTime;
+        if (compiledGraph != null)
+            return GetReadyCompiledNodes();
+
         var executableNodes = new List<BTActionNodeBase>();
 
         Console.WriteLine($"   🔍 NodeGraph: Total nodes in graph: {nodes.Count}");
@@ -123,9 +187,7 @@ public class NodeGraph
             {
                 Console.WriteLine($"   ✅ NodeGraph: Node {node.ActionNode.InstanceName.ToString()} can be executed");
                 executableNodes.Add(node.ActionNode);
-                node.IsExecuting = true;
-                if (node.StartTime == 0f)
-                    node.StartTime = elapsedTime;
+                StartNode(node);
             }
             else
             {
@@ -137,6 +199,52 @@ public class NodeGraph
         return executableNodes;
     }
 
+    /// <summary>
+    /// Get executable nodes from the ready list of the compiled graph; only nodes outside of it are checked
+    /// against their predecessor lists
+    /// </summary>
+    private List<BTActionNodeBase> GetReadyCompiledNodes()
+    {
+        var executableNodes = new List<BTActionNodeBase>();
+        waitingNodes.Clear();
+        foreach (int index in readyNodes)
+        {
+            var node = compiledNodes[index];
+            if (node == null)
+                continue;
+            if (CanExecuteNode(node))
+            {
+                executableNodes.Add(node.ActionNode);
+                StartNode(node);
+            }
+            else if (!node.IsCompleted && !node.IsExecuting)
+            {
+                waitingNodes.Add(index);
+            }
+        }
+        (readyNodes, waitingNodes) = (waitingNodes, readyNodes);
+
+        foreach (var node in uncompiledNodes)
+        {
+            if (CanExecuteNode(node) && (node.OrderPredecessors.Count == 0 || AllPredecessorsCompleted(node)))
+            {
+                executableNodes.Add(node.ActionNode);
+                StartNode(node);
+            }
+        }
+
+        return executableNodes;
+    }
+
+    private void StartNode(GraphNode node)
+    {
+        node.IsExecuting = true;
+        if (node.StartTime == 0f)
+            node.StartTime = elapsedTime;
+        if (tableIndices.TryGetValue(node, out var index))
+            timePoints[TemporalTable.Start(index)] = elapsedTime;
+    }
+
     /// <summary>
     /// Check if a node can be executed based on temporal constraints
     /// </summary>
@@ -148,6 +256,12 @@ public class NodeGraph
             return false;
         }
 
+        // The table holds all relations, including those of nodes without order predecessors
+        if (temporalTable != null && tableIndices.TryGetValue(node, out var index))
+        {
+            return temporalTable.CanStart(index, elapsedTime, timePoints);
+        }
+
         // For nodes with no order predecessors (first in sequence), don't check temporal constraints
         // They should be able to start execution immediately
         if (!node.OrderPredecessors.Any())
@@ -253,6 +367,10 @@ public class NodeGraph
             graphNode.IsCompleted = true;
             graphNode.IsExecuting = false;
             graphNode.EndTime = elapsedTime;
+            if (tableIndices.TryGetValue(graphNode, out var index))
+                timePoints[TemporalTable.End(index)] = elapsedTime;
+            if (compiledGraph != null && compiledIndices.TryGetValue(graphNode, out var compiledIndex))
+                compiledGraph.Complete(compiledIndex, predecessorCounters, readyNodes);
         }
     }
 
@@ -269,6 +387,42 @@ public class NodeGraph
             node.StartTime = 0f;
             node.EndTime = 0f;
         }
+        ResetTimePoints();
+        ResetCompiledGraph();
+    }
+
+    private void ResetCompiledGraph()
+    {
+        if (compiledGraph == null)
+            return;
+        predecessorCounters = compiledGraph.CreateCounters();
+        readyNodes.Clear();
+        compiledGraph.AddInitiallyReady(readyNodes);
+        // Model nodes the plan did not instantiate must not hold back their successors
+        foreach (int index in compiledGraph.TopologicalOrder)
+        {
+            if (compiledNodes[index] == null)
+                compiledGraph.Complete(index, predecessorCounters, readyNodes);
+        }
+    }
+
+    private void ResetTimePoints()
+    {
+        Array.Fill(timePoints, float.NaN);
+        if (timePoints.Length > 0)
+            timePoints[0] = 0f;
+        if (temporalTable == null)
+            return;
+        // Table nodes without a node in this graph count as done at the start, so nothing waits for them
+        var present = new HashSet<int>(tableIndices.Values);
+        for (int node = 0; node < temporalTable.NodeCount; node++)
+        {
+            if (!present.Contains(node))
+            {
+                timePoints[TemporalTable.Start(node)] = 0f;
+                timePoints[TemporalTable.End(node)] = 0f;
+            }
+        }
     }
 
     /// <summary>
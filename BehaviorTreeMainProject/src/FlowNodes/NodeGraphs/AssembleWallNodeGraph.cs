@@ -0,0 +1,15 @@
+// Generated by NodeGraphCompiler - do not edit
+// 3 nodes, 2 order edges, 3 levels
+public static class AssembleWallNodeGraph
+{
+    public static readonly CompiledNodeGraph Graph = new CompiledNodeGraph(
+        new string[] { "pickUp", "place", "nail" },
+        new int[] { 0, 1, 2, 2 }, // successor offsets
+        new int[] { 1, 2 }, // successors
+        new int[] { 0, 1, 1 }, // predecessor counts
+        new int[] { 0, 1, 2 }, // levels
+        new int[] { 0, 1, 2 }); // topological order
+
+    [System.Runtime.CompilerServices.ModuleInitializer]
+    internal static void Register() => CompiledFlowNodes.RegisterNodeGraph("assembleWall", Graph);
+}
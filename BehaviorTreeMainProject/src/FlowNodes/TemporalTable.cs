@@ -0,0 +1,74 @@
+using System.Collections.Generic;
+
+/// <summary>
+/// Precompiled Simple Temporal Network of a node graph, generated by the TemporalNetworkCompiler of the
+/// MontiCore tool. Time point 0 is the start of the graph, 1 + 2i the start and 2 + 2i the end of node i.
+/// The relations were checked for consistency when the model was compiled, so the runtime only looks up
+/// distances instead of evaluating constraints.
+/// </summary>
+public sealed class TemporalTable
+{
+    private readonly string[] nodes;
+    private readonly Dictionary<string, int> indices = new();
+    // Row-major shortest path distances: Distance(i, j) bounds t(j) - t(i) from above
+    private readonly float[] distance;
+    private readonly int[][] startAfter;
+
+    public TemporalTable(string[] nodes, float[] distance, int[][] startAfter)
+    {
+        this.nodes = nodes;
+        this.distance = distance;
+        this.startAfter = startAfter;
+        for (int i = 0; i < nodes.Length; i++)
+        {
+            indices.TryAdd(nodes[i], i);
+        }
+    }
+
+    public int NodeCount => nodes.Length;
+
+    public int TimePointCount => 2 * nodes.Length + 1;
+
+    public string GetNodeName(int node) => nodes[node];
+
+    /// <summary>
+    /// Index of the node with this name, or -1
+    /// </summary>
+    public int IndexOf(string name) => indices.TryGetValue(name, out var index) ? index : -1;
+
+    public static int Start(int node) => 1 + 2 * node;
+
+    public static int End(int node) => 2 + 2 * node;
+
+    public float Distance(int from, int to) => distance[from * TimePointCount + to];
+
+    public float EarliestStart(int node) => -Distance(Start(node), 0);
+
+    public float LatestStart(int node) => Distance(0, Start(node));
+
+    /// <summary>
+    /// Check if a node may start now. times holds the time of every time point that has happened and NaN
+    /// for the others; the node waits for the time points it has to follow and for the earliest start
+    /// that the happened time points leave it.
+    /// </summary>
+    public bool CanStart(int node, float now, float[] times)
+    {
+        foreach (int point in startAfter[node])
+        {
+            if (float.IsNaN(times[point]))
+            {
+                return false;
+            }
+        }
+        int row = Start(node) * TimePointCount;
+        for (int point = 0; point < times.Length; point++)
+        {
+            // t(start) >= t(point) - Distance(start, point)
+            if (!float.IsNaN(times[point]) && now < times[point] - distance[row + point])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
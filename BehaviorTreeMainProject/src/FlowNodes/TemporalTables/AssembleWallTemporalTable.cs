@@ -0,0 +1,26 @@
+// Generated by TemporalNetworkCompiler - do not edit
+// pickUp starts in [0, inf], place starts in [1, inf], nail starts in [2, inf]
+public static class AssembleWallTemporalTable
+{
+    public static readonly TemporalTable Table = new TemporalTable(
+        new string[] { "pickUp", "place", "nail" },
+        new float[]
+        {
+            0f, float.PositiveInfinity, float.PositiveInfinity, float.PositiveInfinity, float.PositiveInfinity, float.PositiveInfinity, float.PositiveInfinity, // origin
+            0f, 0f, float.PositiveInfinity, float.PositiveInfinity, float.PositiveInfinity, float.PositiveInfinity, float.PositiveInfinity, // start(pickUp)
+            -1f, -1f, 0f, float.PositiveInfinity, float.PositiveInfinity, float.PositiveInfinity, float.PositiveInfinity, // end(pickUp)
+            -1f, -1f, 0f, 0f, float.PositiveInfinity, float.PositiveInfinity, float.PositiveInfinity, // start(place)
+            -2f, -2f, -1f, -1f, 0f, 0f, float.PositiveInfinity, // end(place)
+            -2f, -2f, -1f, -1f, 0f, 0f, float.PositiveInfinity, // start(nail)
+            -3f, -3f, -2f, -2f, -1f, -1f, 0f, // end(nail)
+        },
+        new int[][]
+        {
+            new int[] { }, // pickUp
+            new int[] { 1, 2 }, // place
+            new int[] { 1, 2, 3, 4 } // nail
+        });
+
+    [System.Runtime.CompilerServices.ModuleInitializer]
+    internal static void Register() => CompiledFlowNodes.RegisterTemporalTable("assembleWall", Table);
+}
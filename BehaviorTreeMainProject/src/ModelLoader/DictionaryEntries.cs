@@ -0,0 +1,18 @@
+using System.Collections;
+
+/// <summary>
+/// Entries of a dictionary of any key and value type, used by the generated parameter types to convert map
+/// properties. Enumerating a generic Dictionary as IEnumerable yields KeyValuePair values, so the entries are
+/// read through its IDictionaryEnumerator instead.
+/// </summary>
+public static class DictionaryEntries
+{
+    public static IEnumerable<DictionaryEntry> Of(object dictionary)
+    {
+        var enumerator = ((IDictionary)dictionary).GetEnumerator();
+        while (enumerator.MoveNext())
+        {
+            yield return enumerator.Entry;
+        }
+    }
+}
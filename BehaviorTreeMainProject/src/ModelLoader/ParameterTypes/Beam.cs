@@ -7,11 +7,12 @@ namespace ModelLoader.ParameterTypes
     {
         public double Length { get; set; }
 
+        public override int TypeId => ParameterTypeIds.Beam;
+
         // Empty constructor - required by Entity
-        public Beam() : base()
+        public Beam() : base(ParameterTypeIds.Names[ParameterTypeIds.Beam])
         {
-            BaseType = new FastName("Element");
-            // TypeName is automatically set in base constructor
+            BaseType = ParameterTypeIds.BaseTypes[ParameterTypeIds.Beam];
         }
 
         // Constructor with parameters
@@ -21,25 +22,63 @@ namespace ModelLoader.ParameterTypes
         }
 
         // Constructor with name and parameters
-        public Beam(string name, double length) : base(name)
+        public Beam(string name, double length) : base(name, ParameterTypeIds.Names[ParameterTypeIds.Beam])
         {
             this.Length = length;
-            BaseType = new FastName("Element");
-            // TypeName is automatically set in base constructor
+            BaseType = ParameterTypeIds.BaseTypes[ParameterTypeIds.Beam];
+        }
+
+        // Property ordinals for the typed setters
+        public const int LengthOrdinal = 0;
+        public static readonly string[] PropertyKeys = { "length" };
+
+        public override int GetPropertyOrdinal(string key)
+        {
+            switch (key)
+            {
+                case "length": return LengthOrdinal;
+                default: return -1;
+            }
+        }
+
+        public override bool SetDouble(int ordinal, double value)
+        {
+            switch (ordinal)
+            {
+                case LengthOrdinal:
+                    Length = value;
+                    return true;
+                default:
+                    return false;
+            }
         }
 
-        // Override SetParameters to set Beam-specific properties
+        public override bool SetValue(int ordinal, object value)
+        {
+            switch (ordinal)
+            {
+                case LengthOrdinal:
+                    Length = Convert.ToDouble(value);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        // Compatibility shim for dictionary callers, binds each entry through its property ordinal
         public override void SetParameters(Dictionary<string, object> parameters)
         {
             // Call base implementation first
             base.SetParameters(parameters);
 
-            // Set Length property
-            if (parameters.ContainsKey("length"))
+            foreach (var parameter in parameters)
             {
-                Length = Convert.ToDouble(parameters["length"]);
+                int ordinal = GetPropertyOrdinal(parameter.Key);
+                if (ordinal >= 0)
+                {
+                    SetValue(ordinal, parameter.Value);
+                }
             }
-
         }
     }
 }
@@ -1,45 +1,90 @@
 using System;
+using System.Collections;
 using System.Collections.Generic;
+using System.Linq;
 
 namespace ModelLoader.ParameterTypes
 {
     public class Cassette : Module
     {
-        public string Layers { get; set; }
+        public List<Layer> Layers { get; set; }
+
+        public override int TypeId => ParameterTypeIds.Cassette;
 
         // Empty constructor - required by Entity
-        public Cassette() : base()
+        public Cassette() : base(ParameterTypeIds.Names[ParameterTypeIds.Cassette])
         {
-            BaseType = new FastName("Module");
-            // TypeName is automatically set in base constructor
+            BaseType = ParameterTypeIds.BaseTypes[ParameterTypeIds.Cassette];
         }
 
         // Constructor with parameters
-        public Cassette(string layers) : this()
+        public Cassette(List<Layer> layers) : this()
         {
             this.Layers = layers;
         }
 
         // Constructor with name and parameters
-        public Cassette(string name, string layers) : base(name)
+        public Cassette(string name, List<Layer> layers) : base(name, ParameterTypeIds.Names[ParameterTypeIds.Cassette])
         {
             this.Layers = layers;
-            BaseType = new FastName("Module");
-            // TypeName is automatically set in base constructor
+            BaseType = ParameterTypeIds.BaseTypes[ParameterTypeIds.Cassette];
+        }
+
+        // Property ordinals for the typed setters
+        public const int LayersOrdinal = 0;
+        public static readonly string[] PropertyKeys = { "layers" };
+
+        public override int GetPropertyOrdinal(string key)
+        {
+            switch (key)
+            {
+                case "layers": return LayersOrdinal;
+                default: return -1;
+            }
+        }
+
+        public override bool SetCollection<T>(int ordinal, T value)
+        {
+            switch (ordinal)
+            {
+                case LayersOrdinal:
+                    if (value is List<Layer> layersValue)
+                    {
+                        Layers = layersValue;
+                        return true;
+                    }
+                    return false;
+                default:
+                    return false;
+            }
         }
 
-        // Override SetParameters to set Cassette-specific properties
+        public override bool SetValue(int ordinal, object value)
+        {
+            switch (ordinal)
+            {
+                case LayersOrdinal:
+                    Layers = value is List<Layer> layersValue ? layersValue : ((IEnumerable)value).Cast<object>().Select(item0 => item0 as Layer).ToList();
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        // Compatibility shim for dictionary callers, binds each entry through its property ordinal
         public override void SetParameters(Dictionary<string, object> parameters)
         {
             // Call base implementation first
             base.SetParameters(parameters);
 
-            // Set Layers property
-            if (parameters.ContainsKey("layers"))
+            foreach (var parameter in parameters)
             {
-                Layers = parameters["layers"].ToString();
+                int ordinal = GetPropertyOrdinal(parameter.Key);
+                if (ordinal >= 0)
+                {
+                    SetValue(ordinal, parameter.Value);
+                }
             }
-
         }
     }
 }
@@ -6,20 +6,19 @@ namespace ModelLoader.ParameterTypes
     public class Equipposition : Location
     {
 
+        public override int TypeId => ParameterTypeIds.Equipposition;
+
         // Empty constructor - required by Entity
-        public Equipposition() : base()
+        public Equipposition() : base(ParameterTypeIds.Names[ParameterTypeIds.Equipposition])
         {
-            BaseType = new FastName("Location");
-            // TypeName is automatically set in base constructor
+            BaseType = ParameterTypeIds.BaseTypes[ParameterTypeIds.Equipposition];
         }
 
 
-        // Override SetParameters to set Equipposition-specific properties
         public override void SetParameters(Dictionary<string, object> parameters)
         {
             // Call base implementation first
             base.SetParameters(parameters);
-
         }
     }
 }
@@ -6,20 +6,19 @@ namespace ModelLoader.ParameterTypes
     public class Firstposition : Location
     {
 
+        public override int TypeId => ParameterTypeIds.Firstposition;
+
         // Empty constructor - required by Entity
-        public Firstposition() : base()
+        public Firstposition() : base(ParameterTypeIds.Names[ParameterTypeIds.Firstposition])
         {
-            BaseType = new FastName("Location");
-            // TypeName is automatically set in base constructor
+            BaseType = ParameterTypeIds.BaseTypes[ParameterTypeIds.Firstposition];
         }
 
 
-        // Override SetParameters to set Firstposition-specific properties
         public override void SetParameters(Dictionary<string, object> parameters)
         {
             // Call base implementation first
             base.SetParameters(parameters);
-
         }
     }
 }
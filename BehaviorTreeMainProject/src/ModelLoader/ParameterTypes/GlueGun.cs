@@ -5,41 +5,80 @@ namespace ModelLoader.ParameterTypes
 {
     public class GlueGun : Tool
     {
-        public string IsOn { get; set; }
+        public bool IsOn { get; set; }
+
+        public override int TypeId => ParameterTypeIds.GlueGun;
 
         // Empty constructor - required by Entity
-        public GlueGun() : base()
+        public GlueGun() : base(ParameterTypeIds.Names[ParameterTypeIds.GlueGun])
         {
-            BaseType = new FastName("Tool");
-            // TypeName is automatically set in base constructor
+            BaseType = ParameterTypeIds.BaseTypes[ParameterTypeIds.GlueGun];
         }
 
         // Constructor with parameters
-        public GlueGun(string isOn) : this()
+        public GlueGun(bool isOn) : this()
         {
             this.IsOn = isOn;
         }
 
         // Constructor with name and parameters
-        public GlueGun(string name, string isOn) : base(name)
+        public GlueGun(string name, bool isOn) : base(name, ParameterTypeIds.Names[ParameterTypeIds.GlueGun])
         {
             this.IsOn = isOn;
-            BaseType = new FastName("Tool");
-            // TypeName is automatically set in base constructor
+            BaseType = ParameterTypeIds.BaseTypes[ParameterTypeIds.GlueGun];
+        }
+
+        // Property ordinals for the typed setters
+        public const int IsOnOrdinal = 0;
+        public static readonly string[] PropertyKeys = { "isOn" };
+
+        public override int GetPropertyOrdinal(string key)
+        {
+            switch (key)
+            {
+                case "isOn": return IsOnOrdinal;
+                default: return -1;
+            }
+        }
+
+        public override bool SetBool(int ordinal, bool value)
+        {
+            switch (ordinal)
+            {
+                case IsOnOrdinal:
+                    IsOn = value;
+                    return true;
+                default:
+                    return false;
+            }
         }
 
-        // Override SetParameters to set GlueGun-specific properties
+        public override bool SetValue(int ordinal, object value)
+        {
+            switch (ordinal)
+            {
+                case IsOnOrdinal:
+                    IsOn = Convert.ToBoolean(value);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        // Compatibility shim for dictionary callers, binds each entry through its property ordinal
         public override void SetParameters(Dictionary<string, object> parameters)
         {
             // Call base implementation first
             base.SetParameters(parameters);
 
-            // Set IsOn property
-            if (parameters.ContainsKey("isOn"))
+            foreach (var parameter in parameters)
             {
-                IsOn = parameters["isOn"].ToString();
+                int ordinal = GetPropertyOrdinal(parameter.Key);
+                if (ordinal >= 0)
+                {
+                    SetValue(ordinal, parameter.Value);
+                }
             }
-
         }
     }
 }
@@ -0,0 +1,60 @@
+namespace ModelLoader.ParameterTypes
+{
+    /// <summary>
+    /// Dense IDs of the parameter types in model declaration order, and their interned type and base type names
+    /// </summary>
+    public static class ParameterTypeIds
+    {
+        public const int Beam = 0;
+        public const int Plate = 1;
+        public const int VacuumGripper = 2;
+        public const int NailGripper = 3;
+        public const int GlueGun = 4;
+        public const int Robot = 5;
+        public const int Stack = 6;
+        public const int Cassette = 7;
+        public const int PositionOnRail = 8;
+        public const int Equipposition = 9;
+        public const int Firstposition = 10;
+        public const int Stackposition = 11;
+
+        private static readonly FastName ElementBaseType = new FastName("Element");
+        private static readonly FastName ToolBaseType = new FastName("Tool");
+        private static readonly FastName AgentBaseType = new FastName("Agent");
+        private static readonly FastName LayerBaseType = new FastName("Layer");
+        private static readonly FastName ModuleBaseType = new FastName("Module");
+        private static readonly FastName LocationBaseType = new FastName("Location");
+
+        public static readonly FastName[] Names =
+        {
+            new FastName("Beam"),
+            new FastName("Plate"),
+            new FastName("VacuumGripper"),
+            new FastName("NailGripper"),
+            new FastName("GlueGun"),
+            new FastName("Robot"),
+            new FastName("Stack"),
+            new FastName("Cassette"),
+            new FastName("PositionOnRail"),
+            new FastName("Equipposition"),
+            new FastName("Firstposition"),
+            new FastName("Stackposition"),
+        };
+
+        public static readonly FastName[] BaseTypes =
+        {
+            ElementBaseType,
+            ElementBaseType,
+            ToolBaseType,
+            ToolBaseType,
+            ToolBaseType,
+            AgentBaseType,
+            LayerBaseType,
+            ModuleBaseType,
+            LocationBaseType,
+            LocationBaseType,
+            LocationBaseType,
+            LocationBaseType,
+        };
+    }
+}
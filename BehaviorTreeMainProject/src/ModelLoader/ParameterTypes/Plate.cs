@@ -8,11 +8,12 @@ namespace ModelLoader.ParameterTypes
         public double Thickness { get; set; }
         public string Material { get; set; }
 
+        public override int TypeId => ParameterTypeIds.Plate;
+
         // Empty constructor - required by Entity
-        public Plate() : base()
+        public Plate() : base(ParameterTypeIds.Names[ParameterTypeIds.Plate])
         {
-            BaseType = new FastName("Element");
-            // TypeName is automatically set in base constructor
+            BaseType = ParameterTypeIds.BaseTypes[ParameterTypeIds.Plate];
         }
 
         // Constructor with parameters
@@ -23,32 +24,81 @@ namespace ModelLoader.ParameterTypes
         }
 
         // Constructor with name and parameters
-        public Plate(string name, double thickness, string material) : base(name)
+        public Plate(string name, double thickness, string material) : base(name, ParameterTypeIds.Names[ParameterTypeIds.Plate])
         {
             this.Thickness = thickness;
             this.Material = material;
-            BaseType = new FastName("Element");
-            // TypeName is automatically set in base constructor
+            BaseType = ParameterTypeIds.BaseTypes[ParameterTypeIds.Plate];
         }
 
-        // Override SetParameters to set Plate-specific properties
-        public override void SetParameters(Dictionary<string, object> parameters)
+        // Property ordinals for the typed setters
+        public const int ThicknessOrdinal = 0;
+        public const int MaterialOrdinal = 1;
+        public static readonly string[] PropertyKeys = { "thickness", "material" };
+
+        public override int GetPropertyOrdinal(string key)
         {
-            // Call base implementation first
-            base.SetParameters(parameters);
+            switch (key)
+            {
+                case "thickness": return ThicknessOrdinal;
+                case "material": return MaterialOrdinal;
+                default: return -1;
+            }
+        }
+
+        public override bool SetDouble(int ordinal, double value)
+        {
+            switch (ordinal)
+            {
+                case ThicknessOrdinal:
+                    Thickness = value;
+                    return true;
+                default:
+                    return false;
+            }
+        }
 
-            // Set Thickness property
-            if (parameters.ContainsKey("thickness"))
+        public override bool SetString(int ordinal, string value)
+        {
+            switch (ordinal)
             {
-                Thickness = Convert.ToDouble(parameters["thickness"]);
+                case MaterialOrdinal:
+                    Material = value;
+                    return true;
+                default:
+                    return false;
             }
+        }
 
-            // Set Material property
-            if (parameters.ContainsKey("material"))
+        public override bool SetValue(int ordinal, object value)
+        {
+            switch (ordinal)
             {
-                Material = parameters["material"].ToString();
+                case ThicknessOrdinal:
+                    Thickness = Convert.ToDouble(value);
+                    return true;
+                case MaterialOrdinal:
+                    Material = value.ToString();
+                    return true;
+                default:
+                    return false;
             }
+        }
+
+        // Compatibility shim for dictionary callers, binds each entry through its property ordinal
+        public override void SetParameters(Dictionary<string, object> parameters)
+        {
+            // Call base implementation first
+            base.SetParameters(parameters);
 
+            foreach (var parameter in parameters)
+            {
+                int ordinal = GetPropertyOrdinal(parameter.Key);
+                if (ordinal >= 0)
+                {
+                    SetValue(ordinal, parameter.Value);
+                }
+            }
         }
     }
 }
@@ -6,20 +6,19 @@ namespace ModelLoader.ParameterTypes
     public class PositionOnRail : Location
     {
 
+        public override int TypeId => ParameterTypeIds.PositionOnRail;
+
         // Empty constructor - required by Entity
-        public PositionOnRail() : base()
+        public PositionOnRail() : base(ParameterTypeIds.Names[ParameterTypeIds.PositionOnRail])
         {
-            BaseType = new FastName("Location");
-            // TypeName is automatically set in base constructor
+            BaseType = ParameterTypeIds.BaseTypes[ParameterTypeIds.PositionOnRail];
         }
 
 
-        // Override SetParameters to set PositionOnRail-specific properties
         public override void SetParameters(Dictionary<string, object> parameters)
         {
             // Call base implementation first
             base.SetParameters(parameters);
-
         }
     }
 }
@@ -8,11 +8,12 @@ namespace ModelLoader.ParameterTypes
         public string Type { get; set; }
         public double Speed { get; set; }
 
+        public override int TypeId => ParameterTypeIds.Robot;
+
         // Empty constructor - required by Entity
-        public Robot() : base()
+        public Robot() : base(ParameterTypeIds.Names[ParameterTypeIds.Robot])
         {
-            BaseType = new FastName("Agent");
-            // TypeName is automatically set in base constructor
+            BaseType = ParameterTypeIds.BaseTypes[ParameterTypeIds.Robot];
         }
 
         // Constructor with parameters
@@ -23,32 +24,81 @@ namespace ModelLoader.ParameterTypes
         }
 
         // Constructor with name and parameters
-        public Robot(string name, string type, double speed) : base(name)
+        public Robot(string name, string type, double speed) : base(name, ParameterTypeIds.Names[ParameterTypeIds.Robot])
         {
             this.Type = type;
             this.Speed = speed;
-            BaseType = new FastName("Agent");
-            // TypeName is automatically set in base constructor
+            BaseType = ParameterTypeIds.BaseTypes[ParameterTypeIds.Robot];
         }
 
-        // Override SetParameters to set Robot-specific properties
-        public override void SetParameters(Dictionary<string, object> parameters)
+        // Property ordinals for the typed setters
+        public const int TypeOrdinal = 0;
+        public const int SpeedOrdinal = 1;
+        public static readonly string[] PropertyKeys = { "type", "speed" };
+
+        public override int GetPropertyOrdinal(string key)
         {
-            // Call base implementation first
-            base.SetParameters(parameters);
+            switch (key)
+            {
+                case "type": return TypeOrdinal;
+                case "speed": return SpeedOrdinal;
+                default: return -1;
+            }
+        }
+
+        public override bool SetDouble(int ordinal, double value)
+        {
+            switch (ordinal)
+            {
+                case SpeedOrdinal:
+                    Speed = value;
+                    return true;
+                default:
+                    return false;
+            }
+        }
 
-            // Set Type property
-            if (parameters.ContainsKey("type"))
+        public override bool SetString(int ordinal, string value)
+        {
+            switch (ordinal)
             {
-                Type = parameters["type"].ToString();
+                case TypeOrdinal:
+                    Type = value;
+                    return true;
+                default:
+                    return false;
             }
+        }
 
-            // Set Speed property
-            if (parameters.ContainsKey("speed"))
+        public override bool SetValue(int ordinal, object value)
+        {
+            switch (ordinal)
             {
-                Speed = Convert.ToDouble(parameters["speed"]);
+                case TypeOrdinal:
+                    Type = value.ToString();
+                    return true;
+                case SpeedOrdinal:
+                    Speed = Convert.ToDouble(value);
+                    return true;
+                default:
+                    return false;
             }
+        }
+
+        // Compatibility shim for dictionary callers, binds each entry through its property ordinal
+        public override void SetParameters(Dictionary<string, object> parameters)
+        {
+            // Call base implementation first
+            base.SetParameters(parameters);
 
+            foreach (var parameter in parameters)
+            {
+                int ordinal = GetPropertyOrdinal(parameter.Key);
+                if (ordinal >= 0)
+                {
+                    SetValue(ordinal, parameter.Value);
+                }
+            }
         }
     }
 }
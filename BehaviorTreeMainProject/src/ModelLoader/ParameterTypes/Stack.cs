@@ -8,11 +8,12 @@ namespace ModelLoader.ParameterTypes
         public int Level { get; set; }
         public Module BelongsToModule { get; set; }
 
+        public override int TypeId => ParameterTypeIds.Stack;
+
         // Empty constructor - required by Entity
-        public Stack() : base()
+        public Stack() : base(ParameterTypeIds.Names[ParameterTypeIds.Stack])
         {
-            BaseType = new FastName("Layer");
-            // TypeName is automatically set in base constructor
+            BaseType = ParameterTypeIds.BaseTypes[ParameterTypeIds.Stack];
         }
 
         // Constructor with parameters
@@ -23,35 +24,84 @@ namespace ModelLoader.ParameterTypes
         }
 
         // Constructor with name and parameters
-        public Stack(string name, int level, Module belongsToModule) : base(name)
+        public Stack(string name, int level, Module belongsToModule) : base(name, ParameterTypeIds.Names[ParameterTypeIds.Stack])
         {
             this.Level = level;
             this.BelongsToModule = belongsToModule;
-            BaseType = new FastName("Layer");
-            // TypeName is automatically set in base constructor
+            BaseType = ParameterTypeIds.BaseTypes[ParameterTypeIds.Stack];
         }
 
-        // Override SetParameters to set Stack-specific properties
-        public override void SetParameters(Dictionary<string, object> parameters)
+        // Property ordinals for the typed setters
+        public const int LevelOrdinal = 0;
+        public const int BelongsToModuleOrdinal = 1;
+        public static readonly string[] PropertyKeys = { "level", "belongsToModule" };
+
+        public override int GetPropertyOrdinal(string key)
         {
-            // Call base implementation first
-            base.SetParameters(parameters);
+            switch (key)
+            {
+                case "level": return LevelOrdinal;
+                case "belongsToModule": return BelongsToModuleOrdinal;
+                default: return -1;
+            }
+        }
+
+        public override bool SetInt(int ordinal, int value)
+        {
+            switch (ordinal)
+            {
+                case LevelOrdinal:
+                    Level = value;
+                    return true;
+                default:
+                    return false;
+            }
+        }
 
-            // Set Level property
-            if (parameters.ContainsKey("level"))
+        public override bool SetEntity(int ordinal, Entity value)
+        {
+            switch (ordinal)
             {
-                Level = Convert.ToInt32(parameters["level"]);
+                case BelongsToModuleOrdinal:
+                    if (value is Module belongsToModuleValue)
+                    {
+                        BelongsToModule = belongsToModuleValue;
+                        return true;
+                    }
+                    return false;
+                default:
+                    return false;
             }
+        }
 
-            // Set BelongsToModule property
-            if (parameters.ContainsKey("belongsToModule"))
+        public override bool SetValue(int ordinal, object value)
+        {
+            switch (ordinal)
             {
-                if (parameters["belongsToModule"] is Module belongsToModuleValue)
+                case LevelOrdinal:
+                    Level = Convert.ToInt32(value);
+                    return true;
+                case BelongsToModuleOrdinal:
+                    return value is Entity belongsToModuleEntity && SetEntity(ordinal, belongsToModuleEntity);
+                default:
+                    return false;
+            }
+        }
+
+        // Compatibility shim for dictionary callers, binds each entry through its property ordinal
+        public override void SetParameters(Dictionary<string, object> parameters)
+        {
+            // Call base implementation first
+            base.SetParameters(parameters);
+
+            foreach (var parameter in parameters)
+            {
+                int ordinal = GetPropertyOrdinal(parameter.Key);
+                if (ordinal >= 0)
                 {
-                    BelongsToModule = belongsToModuleValue;
+                    SetValue(ordinal, parameter.Value);
                 }
             }
-
         }
     }
 }
@@ -6,20 +6,19 @@ namespace ModelLoader.ParameterTypes
     public class Stackposition : Location
     {
 
+        public override int TypeId => ParameterTypeIds.Stackposition;
+
         // Empty constructor - required by Entity
-        public Stackposition() : base()
+        public Stackposition() : base(ParameterTypeIds.Names[ParameterTypeIds.Stackposition])
         {
-            BaseType = new FastName("Location");
-            // TypeName is automatically set in base constructor
+            BaseType = ParameterTypeIds.BaseTypes[ParameterTypeIds.Stackposition];
         }
 
 
-        // Override SetParameters to set Stackposition-specific properties
         public override void SetParameters(Dictionary<string, object> parameters)
         {
             // Call base implementation first
             base.SetParameters(parameters);
-
         }
     }
 }
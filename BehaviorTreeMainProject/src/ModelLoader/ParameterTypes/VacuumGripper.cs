@@ -5,41 +5,80 @@ namespace ModelLoader.ParameterTypes
 {
     public class VacuumGripper : Tool
     {
-        public string IsOn { get; set; }
+        public bool IsOn { get; set; }
+
+        public override int TypeId => ParameterTypeIds.VacuumGripper;
 
         // Empty constructor - required by Entity
-        public VacuumGripper() : base()
+        public VacuumGripper() : base(ParameterTypeIds.Names[ParameterTypeIds.VacuumGripper])
         {
-            BaseType = new FastName("Tool");
-            // TypeName is automatically set in base constructor
+            BaseType = ParameterTypeIds.BaseTypes[ParameterTypeIds.VacuumGripper];
         }
 
         // Constructor with parameters
-        public VacuumGripper(string isOn) : this()
+        public VacuumGripper(bool isOn) : this()
         {
             this.IsOn = isOn;
         }
 
         // Constructor with name and parameters
-        public VacuumGripper(string name, string isOn) : base(name)
+        public VacuumGripper(string name, bool isOn) : base(name, ParameterTypeIds.Names[ParameterTypeIds.VacuumGripper])
         {
             this.IsOn = isOn;
-            BaseType = new FastName("Tool");
-            // TypeName is automatically set in base constructor
+            BaseType = ParameterTypeIds.BaseTypes[ParameterTypeIds.VacuumGripper];
+        }
+
+        // Property ordinals for the typed setters
+        public const int IsOnOrdinal = 0;
+        public static readonly string[] PropertyKeys = { "isOn" };
+
+        public override int GetPropertyOrdinal(string key)
+        {
+            switch (key)
+            {
+                case "isOn": return IsOnOrdinal;
+                default: return -1;
+            }
+        }
+
+        public override bool SetBool(int ordinal, bool value)
+        {
+            switch (ordinal)
+            {
+                case IsOnOrdinal:
+                    IsOn = value;
+                    return true;
+                default:
+                    return false;
+            }
         }
 
-        // Override SetParameters to set VacuumGripper-specific properties
+        public override bool SetValue(int ordinal, object value)
+        {
+            switch (ordinal)
+            {
+                case IsOnOrdinal:
+                    IsOn = Convert.ToBoolean(value);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        // Compatibility shim for dictionary callers, binds each entry through its property ordinal
         public override void SetParameters(Dictionary<string, object> parameters)
         {
             // Call base implementation first
             base.SetParameters(parameters);
 
-            // Set IsOn property
-            if (parameters.ContainsKey("isOn"))
+            foreach (var parameter in parameters)
             {
-                IsOn = parameters["isOn"].ToString();
+                int ordinal = GetPropertyOrdinal(parameter.Key);
+                if (ordinal >= 0)
+                {
+                    SetValue(ordinal, parameter.Value);
+                }
             }
-
         }
     }
 }
@@ -9,6 +9,11 @@ public abstract class Predicate
 {
     public bool isNegated { get; set; }
     public FastName PredicateName { get; protected set; }
+
+    /// <summary>
+    /// Dense ID of the generated predicate type (see PredicateTypeIds), or -1 for predicates without one
+    /// </summary>
+    public int PredicateTypeId { get; }
     
     // The type of the predicate (e.g., "IsAtLocation", "IsHolding", etc.)
     public virtual FastName PredicateType => PredicateName;
@@ -34,6 +39,25 @@ public abstract class Predicate
     public Predicate(bool isNegated)
     {
         this.isNegated = isNegated;
+        PredicateTypeId = -1;
+    }
+
+    // Used by the generated predicate types; the name comes from the interned ID table
+    protected Predicate(int predicateTypeId, FastName predicateName, bool isNegated)
+    {
+        this.isNegated = isNegated;
+        PredicateTypeId = predicateTypeId;
+        PredicateName = predicateName;
+    }
+
+    /// <summary>
+    /// Check if both predicates are of the same type, by ID when both have one
+    /// </summary>
+    public bool IsSameType(Predicate other)
+    {
+        if (PredicateTypeId >= 0 && other.PredicateTypeId >= 0)
+            return PredicateTypeId == other.PredicateTypeId;
+        return PredicateName == other.PredicateName;
     }
 
     public Dictionary<string, object> GetAllProperties()
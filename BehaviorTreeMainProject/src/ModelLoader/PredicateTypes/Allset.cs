@@ -7,9 +7,8 @@ namespace ModelLoader.PredicateTypes
         public Layer lay { get; set; }
         public Module mod { get; set; }
 
-        public Allset(Layer lay, Module mod, bool isNegated) : base(isNegated)
+        public Allset(Layer lay, Module mod, bool isNegated) : base(PredicateTypeIds.Allset, PredicateTypeIds.Names[PredicateTypeIds.Allset], isNegated)
         {
-            PredicateName = new FastName("allset");
             this.lay = lay;
             this.mod = mod;
         }
@@ -7,9 +7,8 @@ namespace ModelLoader.PredicateTypes
         public Agent agent { get; set; }
         public Location location { get; set; }
 
-        public AtAgent(Agent agent, Location location, bool isNegated) : base(isNegated)
+        public AtAgent(Agent agent, Location location, bool isNegated) : base(PredicateTypeIds.AtAgent, PredicateTypeIds.Names[PredicateTypeIds.AtAgent], isNegated)
         {
-            PredicateName = new FastName("atAgent");
             this.agent = agent;
             this.location = location;
         }
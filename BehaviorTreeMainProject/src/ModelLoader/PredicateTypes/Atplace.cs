@@ -7,9 +7,8 @@ namespace ModelLoader.PredicateTypes
         public Element myObject { get; set; }
         public Location place { get; set; }
 
-        public Atplace(Element myObject, Location place, bool isNegated) : base(isNegated)
+        public Atplace(Element myObject, Location place, bool isNegated) : base(PredicateTypeIds.Atplace, PredicateTypeIds.Names[PredicateTypeIds.Atplace], isNegated)
         {
-            PredicateName = new FastName("atplace");
             this.myObject = myObject;
             this.place = place;
         }
@@ -7,9 +7,8 @@ namespace ModelLoader.PredicateTypes
         public Element myObject { get; set; }
         public Layer lay { get; set; }
 
-        public Belongstolayer(Element myObject, Layer lay, bool isNegated) : base(isNegated)
+        public Belongstolayer(Element myObject, Layer lay, bool isNegated) : base(PredicateTypeIds.Belongstolayer, PredicateTypeIds.Names[PredicateTypeIds.Belongstolayer], isNegated)
         {
-            PredicateName = new FastName("belongstolayer");
             this.myObject = myObject;
             this.lay = lay;
         }
@@ -7,9 +7,8 @@ namespace ModelLoader.PredicateTypes
         public Element myObject { get; set; }
         public Module mod { get; set; }
 
-        public Belongstomodule(Element myObject, Module mod, bool isNegated) : base(isNegated)
+        public Belongstomodule(Element myObject, Module mod, bool isNegated) : base(PredicateTypeIds.Belongstomodule, PredicateTypeIds.Names[PredicateTypeIds.Belongstomodule], isNegated)
         {
-            PredicateName = new FastName("belongstomodule");
             this.myObject = myObject;
             this.mod = mod;
         }
@@ -6,9 +6,8 @@ namespace ModelLoader.PredicateTypes
     {
         public Element myObject { get; set; }
 
-        public Clear(Element myObject, bool isNegated) : base(isNegated)
+        public Clear(Element myObject, bool isNegated) : base(PredicateTypeIds.Clear, PredicateTypeIds.Names[PredicateTypeIds.Clear], isNegated)
         {
-            PredicateName = new FastName("clear");
             this.myObject = myObject;
         }
     }
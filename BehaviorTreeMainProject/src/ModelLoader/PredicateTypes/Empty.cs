@@ -6,9 +6,8 @@ namespace ModelLoader.PredicateTypes
     {
         public Agent client { get; set; }
 
-        public Empty(Agent client, bool isNegated) : base(isNegated)
+        public Empty(Agent client, bool isNegated) : base(PredicateTypeIds.Empty, PredicateTypeIds.Names[PredicateTypeIds.Empty], isNegated)
         {
-            PredicateName = new FastName("empty");
             this.client = client;
         }
     }
@@ -6,9 +6,8 @@ namespace ModelLoader.PredicateTypes
     {
         public Element myObject { get; set; }
 
-        public Glued(Element myObject, bool isNegated) : base(isNegated)
+        public Glued(Element myObject, bool isNegated) : base(PredicateTypeIds.Glued, PredicateTypeIds.Names[PredicateTypeIds.Glued], isNegated)
         {
-            PredicateName = new FastName("glued");
             this.myObject = myObject;
         }
     }
@@ -7,9 +7,8 @@ namespace ModelLoader.PredicateTypes
         public Agent agent { get; set; }
         public Tool tool { get; set; }
 
-        public HasTool(Agent agent, Tool tool, bool isNegated) : base(isNegated)
+        public HasTool(Agent agent, Tool tool, bool isNegated) : base(PredicateTypeIds.HasTool, PredicateTypeIds.Names[PredicateTypeIds.HasTool], isNegated)
         {
-            PredicateName = new FastName("hasTool");
             this.agent = agent;
             this.tool = tool;
         }
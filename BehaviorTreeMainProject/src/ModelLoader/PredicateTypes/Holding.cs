@@ -7,9 +7,8 @@ namespace ModelLoader.PredicateTypes
         public Agent agent { get; set; }
         public Element myObject { get; set; }
 
-        public Holding(Agent agent, Element myObject, bool isNegated) : base(isNegated)
+        public Holding(Agent agent, Element myObject, bool isNegated) : base(PredicateTypeIds.Holding, PredicateTypeIds.Names[PredicateTypeIds.Holding], isNegated)
         {
-            PredicateName = new FastName("holding");
             this.agent = agent;
             this.myObject = myObject;
         }
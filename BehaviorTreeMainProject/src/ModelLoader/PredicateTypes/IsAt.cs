@@ -7,9 +7,8 @@ namespace ModelLoader.PredicateTypes
         public Element myObject { get; set; }
         public Location location { get; set; }
 
-        public IsAt(Element myObject, Location location, bool isNegated) : base(isNegated)
+        public IsAt(Element myObject, Location location, bool isNegated) : base(PredicateTypeIds.IsAt, PredicateTypeIds.Names[PredicateTypeIds.IsAt], isNegated)
         {
-            PredicateName = new FastName("isAt");
             this.myObject = myObject;
             this.location = location;
         }
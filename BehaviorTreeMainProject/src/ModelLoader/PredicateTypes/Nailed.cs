@@ -6,9 +6,8 @@ namespace ModelLoader.PredicateTypes
     {
         public Element myObject { get; set; }
 
-        public Nailed(Element myObject, bool isNegated) : base(isNegated)
+        public Nailed(Element myObject, bool isNegated) : base(PredicateTypeIds.Nailed, PredicateTypeIds.Names[PredicateTypeIds.Nailed], isNegated)
         {
-            PredicateName = new FastName("nailed");
             this.myObject = myObject;
         }
     }
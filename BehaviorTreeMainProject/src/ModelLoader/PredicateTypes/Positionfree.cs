@@ -6,9 +6,8 @@ namespace ModelLoader.PredicateTypes
     {
         public Location pos { get; set; }
 
-        public Positionfree(Location pos, bool isNegated) : base(isNegated)
+        public Positionfree(Location pos, bool isNegated) : base(PredicateTypeIds.Positionfree, PredicateTypeIds.Names[PredicateTypeIds.Positionfree], isNegated)
         {
-            PredicateName = new FastName("positionfree");
             this.pos = pos;
         }
     }
@@ -0,0 +1,43 @@
+namespace ModelLoader.PredicateTypes
+{
+    /// <summary>
+    /// Dense IDs of the predicate types in model declaration order, and their interned names
+    /// </summary>
+    public static class PredicateTypeIds
+    {
+        public const int IsAt = 0;
+        public const int AtAgent = 1;
+        public const int HasTool = 2;
+        public const int Holding = 3;
+        public const int Atplace = 4;
+        public const int Empty = 5;
+        public const int Clear = 6;
+        public const int Ontop = 7;
+        public const int Allset = 8;
+        public const int Belongstolayer = 9;
+        public const int Belongstomodule = 10;
+        public const int Positionfree = 11;
+        public const int Stacked = 12;
+        public const int Glued = 13;
+        public const int Nailed = 14;
+
+        public static readonly FastName[] Names =
+        {
+            new FastName("isAt"),
+            new FastName("atAgent"),
+            new FastName("hasTool"),
+            new FastName("holding"),
+            new FastName("atplace"),
+            new FastName("empty"),
+            new FastName("clear"),
+            new FastName("ontop"),
+            new FastName("allset"),
+            new FastName("belongstolayer"),
+            new FastName("belongstomodule"),
+            new FastName("positionfree"),
+            new FastName("stacked"),
+            new FastName("glued"),
+            new FastName("nailed"),
+        };
+    }
+}
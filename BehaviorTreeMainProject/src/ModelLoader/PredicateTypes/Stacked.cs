@@ -6,9 +6,8 @@ namespace ModelLoader.PredicateTypes
     {
         public Element myObject { get; set; }
 
-        public Stacked(Element myObject, bool isNegated) : base(isNegated)
+        public Stacked(Element myObject, bool isNegated) : base(PredicateTypeIds.Stacked, PredicateTypeIds.Names[PredicateTypeIds.Stacked], isNegated)
         {
-            PredicateName = new FastName("stacked");
             this.myObject = myObject;
         }
     }
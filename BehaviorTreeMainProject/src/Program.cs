@@ -77,7 +77,8 @@ public class Program
         var flowNode = new BTFlowNode_Dynamic(
             behaviorTree, 
             SuccessCriteria.ANY,  // At least one child must succeed
-            0.0f
+            0.0f,
+            "assembleWall"        // Runs on the compiled relations of the sample flow node model
         );
         Console.WriteLine($"✅ Created flow node: {flowNode.DebugDisplayName}");
         Console.WriteLine($"   Success Criteria: {flowNode.successCriteria}");
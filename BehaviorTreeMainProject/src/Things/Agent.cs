@@ -7,21 +7,35 @@ public class Agent : Entity
     public string ID { get; set; }
     public FastName TypeName { get; set; }
     public override FastName BaseType { get; set; }
+    private static readonly FastName AgentTypeName = new FastName("Agent");
 
     // Tool attribute for the agent
     public Tool Tool { get; set; }
 
     // Empty constructor - required by Entity
-    public Agent() : base()
+    public Agent() : base(AgentTypeName)
     {
-        BaseType = new FastName("Agent");
-        TypeName = new FastName("Agent");
+        BaseType = AgentTypeName;
+        TypeName = AgentTypeName;
     }
 
-    public Agent(string InName) : base(InName)
+    // For subclasses that know their own type name
+    protected Agent(FastName typeName) : base(typeName)
     {
-        BaseType = new FastName("Agent");
-        TypeName = new FastName("Agent");
+        BaseType = AgentTypeName;
+        TypeName = AgentTypeName;
+    }
+
+    public Agent(string InName) : base(InName, AgentTypeName)
+    {
+        BaseType = AgentTypeName;
+        TypeName = AgentTypeName;
+    }
+
+    protected Agent(string InName, FastName typeName) : base(InName, typeName)
+    {
+        BaseType = AgentTypeName;
+        TypeName = AgentTypeName;
     }
 
     // Constructor with tool
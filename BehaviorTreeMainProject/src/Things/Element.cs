@@ -8,19 +8,33 @@ public abstract class Element : Entity
     public string ID { get; set; }
     public FastName TypeName { get; set; }
     public override FastName BaseType { get; set; }
+    private static readonly FastName ElementTypeName = new FastName("Element");
 
     // Empty constructor - required by Entity
-    protected Element() : base()
+    protected Element() : base(ElementTypeName)
     {
-        BaseType = new FastName("Element");
-        TypeName = new FastName("Element");
+        BaseType = ElementTypeName;
+        TypeName = ElementTypeName;
+    }
+
+    // For subclasses that know their own type name
+    protected Element(FastName typeName) : base(typeName)
+    {
+        BaseType = ElementTypeName;
+        TypeName = ElementTypeName;
     }
 
     // Named constructor - existing functionality
-    public Element(string InName) : base(InName)
+    public Element(string InName) : base(InName, ElementTypeName)
+    {
+        BaseType = ElementTypeName;
+        TypeName = ElementTypeName;
+    }
+
+    protected Element(string InName, FastName typeName) : base(InName, typeName)
     {
-        BaseType = new FastName("Element");
-        TypeName = new FastName("Element");
+        BaseType = ElementTypeName;
+        TypeName = ElementTypeName;
     }
     
      public override void SetParameters(Dictionary<string, object> parameters)
@@ -1,4 +1,5 @@
 using System;
+using System.Collections.Concurrent;
 using System.Collections.Generic;
 
 public abstract class Entity 
@@ -9,12 +10,20 @@ public abstract class Entity
    public FastName TypeName { get; set; }
    public abstract FastName BaseType { get; set; }
 
+   /// <summary>
+   /// Dense ID of the generated parameter type (see ParameterTypeIds), or -1 for types without one
+   /// </summary>
+   public virtual int TypeId => -1;
+
+   // One name per entity class, so constructing an entity does not hash its class name
+   private static readonly ConcurrentDictionary<Type, FastName> typeNames = new();
+
        // Protected empty constructor - forces all derived classes to have one
     protected Entity() 
     {
         LastModified = DateTime.Now;
         // Automatically set TypeName to the actual class name
-        TypeName = new FastName(GetType().Name);
+        TypeName = typeNames.GetOrAdd(GetType(), type => new FastName(type.Name));
     }
 
    // Optional: Constructor that takes a name
@@ -24,9 +33,45 @@ public abstract class Entity
        ID = name;
    }
 
+   // Constructors for classes that pass their interned type name instead of having it looked up by class
+   protected Entity(FastName typeName)
+   {
+       LastModified = DateTime.Now;
+       TypeName = typeName;
+   }
+
+   protected Entity(string name, FastName typeName) : this(typeName)
+   {
+       NameKey = new FastName(name);
+       ID = name;
+   }
+
    /// <summary>
    /// Abstract method to set parameter values from a dictionary
    /// </summary>
    /// <param name="parameters">Dictionary of parameter names and their values</param>
    public abstract void SetParameters(Dictionary<string, object> parameters);
+
+   /// <summary>
+   /// Ordinal of the property with this key, or -1. Generated parameter types number their properties
+   /// in declaration order and list the keys in PropertyKeys.
+   /// </summary>
+   public virtual int GetPropertyOrdinal(string key) => -1;
+
+   /// <summary>
+   /// Typed setters by property ordinal, they return false if the ordinal is not a property of that type.
+   /// Unlike SetParameters these do not box the value.
+   /// </summary>
+   public virtual bool SetInt(int ordinal, int value) => false;
+   public virtual bool SetDouble(int ordinal, double value) => false;
+   public virtual bool SetBool(int ordinal, bool value) => false;
+   public virtual bool SetString(int ordinal, string value) => false;
+   public virtual bool SetEntity(int ordinal, Entity value) => false;
+   // Collections must already have the property type, e.g. List<Layer>; SetValue converts other ones
+   public virtual bool SetCollection<T>(int ordinal, T value) where T : class => false;
+
+   /// <summary>
+   /// Sets a property of any type, converting the value like SetParameters does
+   /// </summary>
+   public virtual bool SetValue(int ordinal, object value) => false;
 }
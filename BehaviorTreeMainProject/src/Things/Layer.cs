@@ -7,6 +7,7 @@ public class Layer : Entity
 	public string ID { get; set; }
 	public FastName TypeName { get; set; }
 	public override FastName BaseType { get; set; }
+	private static readonly FastName LayerTypeName = new FastName("Layer");
 
 	/// <summary>
 	/// Each element should have a nameid. the name id should comply with PDDL naming conventions
@@ -15,16 +16,29 @@ public class Layer : Entity
 	private Module module;
 
 	// Empty constructor - required by Entity
-	public Layer() : base()
+	public Layer() : base(LayerTypeName)
 	{
-		BaseType = new FastName("Layer");
-		TypeName = new FastName("Layer");
+		BaseType = LayerTypeName;
+		TypeName = LayerTypeName;
 	}
 
-	public Layer(string InName) : base(InName)
+	// For subclasses that know their own type name
+	protected Layer(FastName typeName) : base(typeName)
 	{
-		BaseType = new FastName("Layer");
-		TypeName = new FastName("Layer");
+		BaseType = LayerTypeName;
+		TypeName = LayerTypeName;
+	}
+
+	public Layer(string InName) : base(InName, LayerTypeName)
+	{
+		BaseType = LayerTypeName;
+		TypeName = LayerTypeName;
+	}
+
+	protected Layer(string InName, FastName typeName) : base(InName, typeName)
+	{
+		BaseType = LayerTypeName;
+		TypeName = LayerTypeName;
 	}
 	 public override void SetParameters(Dictionary<string, object> parameters)
     {
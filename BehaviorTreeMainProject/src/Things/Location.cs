@@ -7,20 +7,34 @@ public abstract class Location : Entity  {
     public string ID { get; set; }
     public FastName TypeName { get; set; }
     public override FastName BaseType { get; set; }
+    private static readonly FastName LocationTypeName = new FastName("Location");
     public Coordinate coordinate { get; set; }
     public BoundingBox bbox { get; set; }
 
     // Empty constructor - required by Entity
-    protected Location() : base()
+    protected Location() : base(LocationTypeName)
     {
-        BaseType = new FastName("Location");
-        TypeName = new FastName("Location");
+        BaseType = LocationTypeName;
+        TypeName = LocationTypeName;
     }
 
-    public Location(string InName) : base(InName)
+    // For subclasses that know their own type name
+    protected Location(FastName typeName) : base(typeName)
     {
-        BaseType = new FastName("Location");
-        TypeName = new FastName("Location");
+        BaseType = LocationTypeName;
+        TypeName = LocationTypeName;
+    }
+
+    public Location(string InName) : base(InName, LocationTypeName)
+    {
+        BaseType = LocationTypeName;
+        TypeName = LocationTypeName;
+    }
+
+    protected Location(string InName, FastName typeName) : base(InName, typeName)
+    {
+        BaseType = LocationTypeName;
+        TypeName = LocationTypeName;
     }
 
     // Implement the abstract SetParameters method
@@ -7,6 +7,7 @@ public class Module : Entity
 	public string ID { get; set; }
 	public FastName TypeName { get; set; }
 	public override FastName BaseType { get; set; }
+	private static readonly FastName ModuleTypeName = new FastName("Module");
 	/// <summary>
 	/// Each element should have a nameid. the name id should comply with PDDL naming conventions
 	/// </summary>
@@ -15,16 +16,29 @@ public class Module : Entity
 	private Layer layer;
 
 	// Empty constructor - required by Entity
-	public Module() : base()
+	public Module() : base(ModuleTypeName)
 	{
-		BaseType = new FastName("Module");
-		TypeName = new FastName("Module");
+		BaseType = ModuleTypeName;
+		TypeName = ModuleTypeName;
 	}
 
-	public Module(string InName) : base(InName)
+	// For subclasses that know their own type name
+	protected Module(FastName typeName) : base(typeName)
 	{
-		BaseType = new FastName("Module");
-		TypeName = new FastName("Module");
+		BaseType = ModuleTypeName;
+		TypeName = ModuleTypeName;
+	}
+
+	public Module(string InName) : base(InName, ModuleTypeName)
+	{
+		BaseType = ModuleTypeName;
+		TypeName = ModuleTypeName;
+	}
+
+	protected Module(string InName, FastName typeName) : base(InName, typeName)
+	{
+		BaseType = ModuleTypeName;
+		TypeName = ModuleTypeName;
 	}
 	 public override void SetParameters(Dictionary<string, object> parameters)
     {
@@ -8,18 +8,32 @@ public abstract class Tool : Entity
     public string ID { get; set; }
     public FastName TypeName { get; set; }
     public override FastName BaseType { get; set; }
+    private static readonly FastName ToolTypeName = new FastName("Tool");
 
     // Empty constructor - required by Entity
-    protected Tool() : base()
+    protected Tool() : base(ToolTypeName)
     {
-        BaseType = new FastName("Tool");
-        TypeName = new FastName("Tool");
+        BaseType = ToolTypeName;
+        TypeName = ToolTypeName;
     }
 
-    public Tool(string InName) : base(InName)
+    // For subclasses that know their own type name
+    protected Tool(FastName typeName) : base(typeName)
     {
-        BaseType = new FastName("Tool");
-        TypeName = new FastName("Tool");
+        BaseType = ToolTypeName;
+        TypeName = ToolTypeName;
+    }
+
+    public Tool(string InName) : base(InName, ToolTypeName)
+    {
+        BaseType = ToolTypeName;
+        TypeName = ToolTypeName;
+    }
+
+    protected Tool(string InName, FastName typeName) : base(InName, typeName)
+    {
+        BaseType = ToolTypeName;
+        TypeName = ToolTypeName;
     }
 
     // Implement the abstract SetParameters method
@@ -0,0 +1,206 @@
+using System.Collections.Generic;
+using System.Text;
+
+public enum FlatNodeKind : byte
+{
+    Flow,
+    Action
+}
+
+/// <summary>
+/// A behavior tree flattened by the BehaviorTreeFlattener of the MontiCore tool. Nodes are numbered depth-first,
+/// the subtree of node i is [i, SubtreeEnd(i)), so the tree is ticked by one scan over parallel arrays
+/// instead of walking BTNodeBase objects. The statuses of a run live in an array per agent, which lets all
+/// agents share one tree.
+/// </summary>
+public sealed class FlatBehaviorTree
+{
+    public const int FormatVersion = 1;
+
+    private static readonly byte[] Magic = { (byte)'B', (byte)'T', (byte)'F', (byte)'T' };
+
+    private readonly string[] strings;
+    private readonly FlatNodeKind[] kinds;
+    private readonly int[] names;
+    private readonly int[] parents;
+    private readonly int[] subtreeEnds;
+    private readonly int[] childCounts;
+    private readonly int[] depths;
+    private readonly int[] decoratorIndices;
+    private readonly int[] parameterOffsets;
+    private readonly int[] parameterNames;
+    private readonly int[] parameterVariables;
+    private readonly int[] decorators;
+    private readonly int[] variables;
+
+    private FlatBehaviorTree(BinaryReader reader)
+    {
+        if (!reader.ReadBytes(Magic.Length).SequenceEqual(Magic) || reader.ReadInt32() != FormatVersion)
+            throw new InvalidDataException($"Not a flat behavior tree of format version {FormatVersion}");
+
+        int nodeCount = reader.ReadInt32();
+        int slotCount = reader.ReadInt32();
+        int decoratorCount = reader.ReadInt32();
+        int variableCount = reader.ReadInt32();
+        strings = new string[reader.ReadInt32()];
+        for (int i = 0; i < strings.Length; i++)
+        {
+            strings[i] = Encoding.UTF8.GetString(reader.ReadBytes(reader.ReadInt32()));
+        }
+        kinds = new FlatNodeKind[nodeCount];
+        byte[] kindBytes = reader.ReadBytes(nodeCount);
+        for (int i = 0; i < nodeCount; i++)
+        {
+            kinds[i] = (FlatNodeKind)kindBytes[i];
+        }
+        names = ReadInts(reader, nodeCount);
+        parents = ReadInts(reader, nodeCount);
+        subtreeEnds = ReadInts(reader, nodeCount);
+        childCounts = ReadInts(reader, nodeCount);
+        depths = ReadInts(reader, nodeCount);
+        decoratorIndices = ReadInts(reader, nodeCount);
+        parameterOffsets = ReadInts(reader, nodeCount + 1);
+        parameterNames = ReadInts(reader, slotCount);
+        parameterVariables = ReadInts(reader, slotCount);
+        decorators = ReadInts(reader, decoratorCount);
+        variables = ReadInts(reader, variableCount);
+    }
+
+    public static FlatBehaviorTree Load(string path)
+    {
+        using var stream = File.OpenRead(path);
+        return Read(stream);
+    }
+
+    public static FlatBehaviorTree Read(Stream stream)
+    {
+        using var reader = new BinaryReader(stream, Encoding.UTF8, leaveOpen: true);
+        try
+        {
+            return new FlatBehaviorTree(reader);
+        }
+        catch (EndOfStreamException e)
+        {
+            throw new InvalidDataException("Truncated flat behavior tree", e);
+        }
+    }
+
+    private static int[] ReadInts(BinaryReader reader, int count)
+    {
+        var values = new int[count];
+        for (int i = 0; i < count; i++)
+        {
+            values[i] = reader.ReadInt32();
+        }
+        return values;
+    }
+
+    public int NodeCount => kinds.Length;
+
+    public FlatNodeKind GetKind(int node) => kinds[node];
+
+    public string GetNodeName(int node) => strings[names[node]];
+
+    /// <summary>
+    /// Parent of the node, -1 for the root node
+    /// </summary>
+    public int GetParent(int node) => parents[node];
+
+    /// <summary>
+    /// First node after the subtree of this node; its first child is node + 1
+    /// </summary>
+    public int GetSubtreeEnd(int node) => subtreeEnds[node];
+
+    public int GetChildCount(int node) => childCounts[node];
+
+    public int GetDepth(int node) => depths[node];
+
+    /// <summary>
+    /// Index of the node's decorator in the decorator table, or -1
+    /// </summary>
+    public int GetDecoratorIndex(int node) => decoratorIndices[node];
+
+    public int DecoratorCount => decorators.Length;
+
+    public string GetDecoratorName(int decorator) => strings[decorators[decorator]];
+
+    /// <summary>
+    /// Parameter slots of an action node are [GetParameterStart(node), GetParameterEnd(node))
+    /// </summary>
+    public int GetParameterStart(int node) => parameterOffsets[node];
+
+    public int GetParameterEnd(int node) => parameterOffsets[node + 1];
+
+    public string GetParameterName(int slot) => strings[parameterNames[slot]];
+
+    /// <summary>
+    /// Blackboard variable the slot is bound to, or -1
+    /// </summary>
+    public int GetParameterVariable(int slot) => parameterVariables[slot];
+
+    public IReadOnlyList<string> Variables => variables.Select(index => strings[index]).ToList();
+
+    /// <summary>
+    /// Statuses for one run of the tree, all nodes ready to tick
+    /// </summary>
+    public EBTNodeResult[] CreateStatuses()
+    {
+        var statuses = new EBTNodeResult[kinds.Length];
+        Reset(statuses);
+        return statuses;
+    }
+
+    public void Reset(EBTNodeResult[] statuses) => Array.Fill(statuses, EBTNodeResult.readyToTick);
+
+    /// <summary>
+    /// Ticks the tree once and returns the status of the root node. Finished subtrees and subtrees whose
+    /// decorator does not permit running are skipped, every other unfinished action node is ticked with
+    /// tickAction. Flow nodes are then evaluated from the last node backwards, so their children are done
+    /// first: a flow node fails if a child failed and succeeds when all children succeeded
+    /// (SuccessCriteria.ALL).
+    /// </summary>
+    /// <param name="statuses">Statuses of this run, see CreateStatuses</param>
+    /// <param name="decoratorPermits">Whether the decorator with this index permits running</param>
+    /// <param name="tickAction">Ticks the action node with this index</param>
+    public EBTNodeResult Tick(EBTNodeResult[] statuses, Func<int, bool> decoratorPermits, Func<int, EBTNodeResult> tickAction)
+    {
+        int node = 0;
+        while (node < kinds.Length)
+        {
+            if (IsFinished(statuses[node]))
+            {
+                node = subtreeEnds[node];
+                continue;
+            }
+            int decorator = decoratorIndices[node];
+            if (decorator >= 0 && !decoratorPermits(decorator))
+            {
+                statuses[node] = EBTNodeResult.failed;
+                node = subtreeEnds[node];
+                continue;
+            }
+            if (kinds[node] == FlatNodeKind.Action)
+                statuses[node] = tickAction(node);
+            node++;
+        }
+
+        for (int flow = kinds.Length - 1; flow >= 0; flow--)
+        {
+            if (kinds[flow] != FlatNodeKind.Flow || IsFinished(statuses[flow]))
+                continue;
+            bool allSucceeded = true;
+            bool anyFailed = false;
+            for (int child = flow + 1; child < subtreeEnds[flow]; child = subtreeEnds[child])
+            {
+                allSucceeded &= statuses[child] == EBTNodeResult.Succeeded;
+                anyFailed |= statuses[child] == EBTNodeResult.failed;
+            }
+            statuses[flow] = anyFailed ? EBTNodeResult.failed
+                : allSucceeded ? EBTNodeResult.Succeeded : EBTNodeResult.InProgress;
+        }
+        return statuses[0];
+    }
+
+    private static bool IsFinished(EBTNodeResult status) =>
+        status == EBTNodeResult.Succeeded || status == EBTNodeResult.failed;
+}
@@ -0,0 +1,37 @@
+// Generated by BehaviorTreeFlattener - do not edit
+// 3 nodes (1 actions), depth 2, 2 parameter slots, 1 decorators
+using System.Security.Cryptography;
+
+public static class MyTreeFlatTree
+{
+    public const string BlobFile = "MyTree.bt";
+    public const int NodeCount = 3;
+    public const string ContentHash = "4dd9c2313f8f31c75299d6b25ea3429f5f11054c7d41601d96bd85dd7039c3e6";
+
+    public static class Nodes
+    {
+        public const int RootNode = 0;
+        public const int Sequence = 1;
+        public const int MoveTo = 2;
+    }
+
+    public static class Decorators
+    {
+        public const int Repeat = 0;
+    }
+
+    /// <summary>
+    /// Loads the tree from MyTree.bt in the given directory, by default the one of the executable
+    /// </summary>
+    public static FlatBehaviorTree Load(string? directory = null)
+    {
+        // The project copies the blobs next to the executable, without their source directory
+        string path = Path.Combine(directory ?? AppContext.BaseDirectory, BlobFile);
+        if (!File.Exists(path))
+            throw new FileNotFoundException($"Flat behavior tree {BlobFile} not found, is it copied to the output directory?", path);
+        byte[] blob = File.ReadAllBytes(path);
+        if (!string.Equals(Convert.ToHexString(SHA256.HashData(blob)), ContentHash, StringComparison.OrdinalIgnoreCase))
+            throw new InvalidDataException($"{BlobFile} does not match {nameof(MyTreeFlatTree)}, flatten the tree again");
+        return FlatBehaviorTree.Read(new MemoryStream(blob));
+    }
+}